@@ -32,6 +32,16 @@ public interface IFeatureCollection<Feat extends IFeature> extends
    */
   public abstract void addFeatureCollectionListener(FeatureCollectionListener l);
 
+  /**
+   * Retire un {@link FeatureCollectionListener}.
+   * <p>
+   * Removes a {@link FeatureCollectionListener}.
+   * @param l le {@link FeatureCollectionListener} à retirer. the
+   *          {@link FeatureCollectionListener} to be removed.
+   */
+  public abstract void removeFeatureCollectionListener(
+      FeatureCollectionListener l);
+
   /**
    * Prévient tous les {@link FeatureCollectionListener} enregistrés qu'un
    * évènement a eu lieu.
@@ -523,11 +523,9 @@ public class BinaryGradientImage{
           modifiedPixels = getModifiedPixelsButInfiniteDistancePixels(
                   gradientImage, pixelRenderer.getModifiedPixels());
 
-          while (!modifiedPixels.isEmpty()) {
-            modifiedPixels = fillTextureCoordinates4(gradientImage,
-                modifiedPixels, params.getImageToPolygonFactorX(),
-                params.getImageToPolygonFactorY());
-          }
+          computeDistanceTransform(gradientImage, modifiedPixels,
+              params.getImageToPolygonFactorX(),
+              params.getImageToPolygonFactorY());
           
           fillVWithDistance(gradientImage);
           // vGradient is used to align the textures along the coast line directions
@@ -636,62 +634,107 @@ public class BinaryGradientImage{
     }
 
     /**
-     * Modify the neighbors pixel distance according to the current pixel
-     * distance
+     * Set the distance of all inner pixels to the length of the shortest
+     * 4-connected path through inner pixels from a frontier pixel (pixel width
+     * for an horizontal step, pixel height for a vertical one), and copy the u
+     * texture coordinate of this frontier pixel. This is the distance field
+     * the former wavefront propagation gave.
+     * 
+     * As there are only two step lengths, Dijkstra's algorithm needs no
+     * priority queue: pixels reached by an horizontal step, and pixels
+     * reached by a vertical step, are pushed in two FIFO queues in which
+     * distances never decrease, so the closest pixel is always at the head of
+     * one of the queues. Each pixel is settled once, in linear time.
      * 
-     * @param set
+     * @param image
+     * @param frontierPixels
+     *            pixels with a null distance
+     * @param pixelWidth
+     *            pixel width in polygon units
+     * @param pixelHeight
+     *            pixel height in polygon units
      */
-    private static Set<Point> fillTextureCoordinates4(
-            BinaryGradientImage image, Set<Point> set, final double pixelWidth,
+    static void computeDistanceTransform(BinaryGradientImage image,
+            Set<Point> frontierPixels, final double pixelWidth,
             final double pixelHeight) {
-        // System.err.println(modifiedPixels.size() + " modified pixels");
-        HashSet<Point> newlyModifiedPixels = new HashSet<Point>();
-        for (Point p : set) {
-            GradientPixel pixel = image.getPixel(p.x, p.y);
-            if (pixel == null) {
-                throw new IllegalStateException(
-                        "modified pixels cannot be outside image ... " + p.x
-                                + "x" + p.y);
+        GradientPixel[] pixels = image.getPixels();
+        if (frontierPixels.isEmpty() || pixels == null) {
+            return;
+        }
+        int w = image.getWidth();
+        int n = pixels.length;
+        int[] seeds = new int[frontierPixels.size()];
+        int seedCount = 0;
+        for (Point p : frontierPixels) {
+            seeds[seedCount++] = p.x + p.y * w;
+        }
+        // a settled pixel pushes at most two pixels in each queue. A pixel may
+        // be pushed again with a smaller distance : the head distance is read
+        // on the pixel, and the entries of settled pixels are skipped
+        int[] horizontal = new int[2 * n];
+        int[] vertical = new int[2 * n];
+        boolean[] settled = new boolean[n];
+        int seedFirst = 0;
+        int hFirst = 0;
+        int hLast = 0;
+        int vFirst = 0;
+        int vLast = 0;
+        while (true) {
+            while (seedFirst < seedCount && settled[seeds[seedFirst]]) {
+                seedFirst++;
+            }
+            while (hFirst < hLast && settled[horizontal[hFirst]]) {
+                hFirst++;
+            }
+            while (vFirst < vLast && settled[vertical[vFirst]]) {
+                vFirst++;
+            }
+            int node = -1;
+            if (seedFirst < seedCount) {
+                node = seeds[seedFirst];
+            }
+            if (hFirst < hLast
+                    && (node < 0 || pixels[horizontal[hFirst]].distance < pixels[node].distance)) {
+                node = horizontal[hFirst];
+            }
+            if (vFirst < vLast
+                    && (node < 0 || pixels[vertical[vFirst]].distance < pixels[node].distance)) {
+                node = vertical[vFirst];
+            }
+            if (node < 0) {
+                return;
+            }
+            settled[node] = true;
+            GradientPixel pixel = pixels[node];
+            int x = node % w;
+            double dx = pixel.distance + pixelWidth;
+            double dy = pixel.distance + pixelHeight;
+            if (x > 0 && relax(pixel, pixels[node - 1], dx)) {
+                horizontal[hLast++] = node - 1;
+            }
+            if (x < w - 1 && relax(pixel, pixels[node + 1], dx)) {
+                horizontal[hLast++] = node + 1;
+            }
+            if (node >= w && relax(pixel, pixels[node - w], dy)) {
+                vertical[vLast++] = node - w;
+            }
+            if (node + w < n && relax(pixel, pixels[node + w], dy)) {
+                vertical[vLast++] = node + w;
             }
-            double distance = pixel.distance;
-            fillTextureCoordinates(image, distance + pixelWidth,
-                    pixel.uTexture, new Point(p.x - 1, p.y),
-                    newlyModifiedPixels);
-            fillTextureCoordinates(image, distance + pixelWidth,
-                    pixel.uTexture, new Point(p.x + 1, p.y),
-                    newlyModifiedPixels);
-            fillTextureCoordinates(image, distance + pixelHeight,
-                    pixel.uTexture, new Point(p.x, p.y - 1),
-                    newlyModifiedPixels);
-            fillTextureCoordinates(image, distance + pixelHeight,
-                    pixel.uTexture, new Point(p.x, p.y + 1),
-                    newlyModifiedPixels);
         }
-        return newlyModifiedPixels;
     }
 
     /**
-     * Modify the specified pixel with the given distance if it is smaller than
-     * the current stored
+     * Give the distance d and the u texture coordinate of a pixel to its inner
+     * neighbor if d is smaller than the neighbor distance
      * 
-     * @param d
-     *            distance to try to set to current pixel
-     * @param point
-     *            current point to try to set distance
-     * @param newlyModifiedPixels
-     *            pixel position is added to this list if this pixel distance
-     *            value has been modified
+     * @return true if the neighbor has been modified
      */
-    private static boolean fillTextureCoordinates(BinaryGradientImage texImage,
-            double d, double uTexture, Point p, Set<Point> newlyModifiedPixels) {
-        GradientPixel pixel = texImage.getPixel(p.x, p.y);
-        if (pixel == null) {
-            return false;
-        }
-        if (pixel.in && pixel.distance > d) {
-            pixel.distance = d;
-            pixel.uTexture = uTexture;
-            newlyModifiedPixels.add(p);
+    private static boolean relax(GradientPixel pixel, GradientPixel neighbor,
+            double d) {
+        if (neighbor.in && neighbor.distance > d) {
+            neighbor.distance = d;
+            neighbor.uTexture = pixel.uTexture;
             return true;
         }
         return false;
@@ -360,7 +360,14 @@ public class AttributeTable extends JDialog {
             }
           }
         }
-        if (!valOk) {
+        if (valOk) {
+          // les index d'attributs utilisés par les filtres ne sont plus à jour
+          Layer layer = AttributeTable.this.getProjectFrame()
+              .getLayerFromFeature(ft);
+          if (layer != null) {
+            layer.clearAttributeIndexes();
+          }
+        } else {
           JOptionPane.showMessageDialog(null, I18N.getString("AttributeTable." + //$NON-NLS-1$
               "ValueNotOfType") //$NON-NLS-1$
               + type.getSimpleName() + ".", //$NON-NLS-1$
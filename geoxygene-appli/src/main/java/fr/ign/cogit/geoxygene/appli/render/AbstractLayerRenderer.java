@@ -35,6 +35,8 @@ import javax.swing.event.EventListenerList;
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
 import fr.ign.cogit.geoxygene.appli.layer.LayerViewPanel;
+import fr.ign.cogit.geoxygene.filter.AttributeIndex;
+import fr.ign.cogit.geoxygene.filter.CompiledFilter;
 import fr.ign.cogit.geoxygene.style.FeatureTypeStyle;
 import fr.ign.cogit.geoxygene.style.Layer;
 import fr.ign.cogit.geoxygene.style.Rule;
@@ -179,6 +181,48 @@ public abstract class AbstractLayerRenderer implements LayerRenderer {
     // nothing special to initialize
   }
 
+  /**
+   * Tells if a feature is accepted by a rule.
+   * 
+   * @param rule the rule
+   * @param selection the features selected by the rule from the attribute
+   *          index of the layer, or null if the filter has to be evaluated
+   * @param feature the feature
+   * @return true if the rule has no filter or if the feature verifies it
+   * @see #selectFromIndex(Rule, int)
+   */
+  protected static boolean accepts(Rule rule, Set<Object> selection,
+      IFeature feature) {
+    if (selection != null) {
+      return selection.contains(feature);
+    }
+    CompiledFilter filter = rule.getCompiledFilter();
+    return filter == null || filter.evaluate(feature);
+  }
+
+  /**
+   * Selects the features verifying the filter of a rule using the attribute
+   * index of the layer. The index is only used when the filter bears on the
+   * equality or range of a single attribute and when a large part of the
+   * layer has to be filtered; otherwise the compiled filter is evaluated on
+   * each feature.
+   * 
+   * @param rule the rule
+   * @param nbFeatures the number of features to filter
+   * @return the features verifying the filter, or null if the filter has to be
+   *         evaluated on each feature
+   */
+  protected Set<Object> selectFromIndex(Rule rule, int nbFeatures) {
+    CompiledFilter filter = rule.getCompiledFilter();
+    String propertyName = AttributeIndex.indexedProperty(filter);
+    if (propertyName == null || this.getLayer().getFeatureCollection() == null
+        || 2 * nbFeatures < this.getLayer().getFeatureCollection().size()) {
+      return null;
+    }
+    AttributeIndex index = this.getLayer().getAttributeIndex(propertyName);
+    return (index == null) ? null : index.select(filter);
+  }
+
   /**
    * generate the list of features to render depending on the SLD and the
    * viewing are (envelope)
@@ -231,10 +275,15 @@ public abstract class AbstractLayerRenderer implements LayerRenderer {
             synchronized (collection) {
               list = collection.toArray(list);
             }
+            List<Set<Object>> selections = new ArrayList<Set<Object>>();
+            for (Rule rule : featureTypeStyle.getRules()) {
+              selections.add(this.selectFromIndex(rule, list.length));
+            }
             for (IFeature feature : list) {
-              for (Rule rule : featureTypeStyle.getRules()) {
-                if (rule.getFilter() == null
-                    || rule.getFilter().evaluate(feature)) {
+              for (int i = 0; i < featureTypeStyle.getRules().size(); i++) {
+                Rule rule = featureTypeStyle.getRules().get(i);
+                if (AbstractLayerRenderer.accepts(rule, selections.get(i),
+                    feature)) {
                   filteredFeatures.get(rule).add(feature);
                   break;
                 }
@@ -288,12 +288,13 @@ public class AwtLayerRenderer extends AbstractLayerRenderer {
       if (this.isCancelled()) {
         return;
       }
+      Set<Object> selection = this.selectFromIndex(rule, collection.size());
       filteredCollection = new ArrayList<IFeature>();
       for (IFeature feature : collection) {
         if (this.isCancelled()) {
           return;
         }
-        if (rule.getFilter().evaluate(feature)) {
+        if (AbstractLayerRenderer.accepts(rule, selection, feature)) {
           filteredCollection.add(feature);
         }
       }
@@ -411,8 +412,7 @@ public class AwtLayerRenderer extends AbstractLayerRenderer {
             }
             Rule rule = featureTypeStyle.getRules().get(indexRule);
             for (Symbolizer symbolizer : rule.getSymbolizers()) {
-              if (rule.getFilter() == null
-                  || rule.getFilter().evaluate(feature)) {
+              if (AbstractLayerRenderer.accepts(rule, null, feature)) {
                 this.render(symbolizer, feature, theImage);
               }
             }
@@ -469,8 +469,7 @@ public class AwtLayerRenderer extends AbstractLayerRenderer {
           }
           for (IFeature feature : visibleFeatures) {
             for (Rule rule : featureTypeStyle.getRules()) {
-              if (rule.getFilter() == null
-                  || rule.getFilter().evaluate(feature)) {
+              if (AbstractLayerRenderer.accepts(rule, null, feature)) {
                 filteredFeatures.get(rule).add(feature);
                 break;
               }
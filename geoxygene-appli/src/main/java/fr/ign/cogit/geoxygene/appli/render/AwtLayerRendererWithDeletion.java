@@ -2,9 +2,11 @@ package fr.ign.cogit.geoxygene.appli.render;
 
 import java.awt.event.ActionEvent;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -143,12 +145,17 @@ public class AwtLayerRendererWithDeletion extends AwtLayerRenderer {
             synchronized (collection) {
               list = collection.toArray(list);
             }
+            List<Set<Object>> selections = new ArrayList<Set<Object>>();
+            for (Rule rule : featureTypeStyle.getRules()) {
+              selections.add(this.selectFromIndex(rule, list.length));
+            }
             for (IFeature feature : list) {
               if (feature.isDeleted() && !this.renderDeleted)
                 continue;
-              for (Rule rule : featureTypeStyle.getRules()) {
-                if (rule.getFilter() == null
-                    || rule.getFilter().evaluate(feature)) {
+              for (int i = 0; i < featureTypeStyle.getRules().size(); i++) {
+                Rule rule = featureTypeStyle.getRules().get(i);
+                if (AbstractLayerRenderer.accepts(rule, selections.get(i),
+                    feature)) {
                   filteredFeatures.get(rule).add(feature);
                   break;
                 }
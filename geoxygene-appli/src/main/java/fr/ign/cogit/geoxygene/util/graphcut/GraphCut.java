@@ -35,16 +35,14 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.DataBufferByte;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
+import java.util.HashSet;
 import java.util.Set;
 
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-
 import fr.ign.cogit.geoxygene.util.ColorUtil;
 import fr.ign.cogit.geoxygene.util.gl.Tile;
 
@@ -63,7 +61,13 @@ public class GraphCut {
     private BufferedImage mask = null; // Grayscale Mask (used as binary).
     private byte[] maskPixels = null;
     private byte[] imagePixels = null;
-    private MinSourceSinkCut<PixelVertex, PixelEdge> algoMinCut = null;
+    private final GridMaxFlow maxFlow = new GridMaxFlow(); // reused between tiles
+    // per tile pixel buffers, reused between tiles
+    private boolean[] inGraph = new boolean[0];
+    private double[] labDistances = new double[0];
+    private int[] imageColors = new int[0]; // packed ARGB of the image under each tile pixel
+    private byte[] lastTilePixels = null;
+    private final double[] transformBuffer = new double[2];
     private Shape clippingShape;
     private int pasteCount = 0;
 
@@ -136,26 +140,28 @@ public class GraphCut {
     }
 
     /**
-     * Paste a tile in the final image using graph given affine transformation
+     * Paste a tile in the final image using graph given affine transformation.
+     * Tile pixels over the existing image are the nodes of a grid graph whose
+     * edges are weighted by the color difference between the tile and the
+     * image. The tile border is linked to the source (keep the image) and
+     * pixels next to the image mask border to the sink (copy the tile).
      * 
      * @param tile
      *            tile to paste
      * @param tileOrientation
      *            tile orientation and position in the final image
-     * @return
      */
-    public MinSourceSinkCut<PixelVertex, PixelEdge> pasteTile(Tile tile, AffineTransform tileTransform) {
-        DefaultDirectedWeightedGraph<PixelVertex, PixelEdge> graph = new DefaultDirectedWeightedGraph<PixelVertex, PixelEdge>(new PixelEdge.PixelEdgeFactory());
-        PixelEdge edge = null;
-        double weight = 0;
+    public void pasteTile(Tile tile, AffineTransform tileTransform) {
         int w = tile.getImage().getWidth();
         int h = tile.getImage().getHeight();
-        PixelVertex[][] tileVertices = new PixelVertex[h][w];
-        PixelVertex vertex = null;
-        PixelVertex A = new PixelVertex(-3, h / 2);
-        PixelVertex B = new PixelVertex(w + 3, h / 2);
-        graph.addVertex(A);
-        graph.addVertex(B);
+        int imageWidth = this.getImage().getWidth();
+        int imageHeight = this.getImage().getHeight();
+        this.maxFlow.init(w, h);
+        if (this.inGraph.length < w * h) {
+            this.inGraph = new boolean[w * h];
+            this.labDistances = new double[w * h];
+            this.imageColors = new int[w * h];
+        }
 
         // graphCutTile is the final image to draw in image
         BufferedImage graphCutTile = new BufferedImage(w, h, BufferedImage.TYPE_4BYTE_ABGR);
@@ -168,70 +174,46 @@ public class GraphCut {
         byte[] tileMaskPixels = ((DataBufferByte) tile.getMask().getRaster().getDataBuffer()).getData();
         byte[] tileBorderPixels = ((DataBufferByte) tile.getBorder().getRaster().getDataBuffer()).getData();
 
-        // Add pixels as graph vertices
+        // Add pixels as graph nodes
+        double[] pixel = new double[2];
         for (int yTile = 0; yTile < h; yTile++) {
             for (int xTile = 0; xTile < w; xTile++) {
-                Point2D pixel = new Point2D.Double(xTile, yTile);
-                Point2D transformedPixel = new Point2D.Double();
-                tileTransform.transform(pixel, transformedPixel);
-                int xImage = (int) transformedPixel.getX();
-                int yImage = (int) transformedPixel.getY();
-                if (xImage < 0 || xImage >= this.getImage().getWidth() || yImage < 0 || yImage >= this.getImage().getHeight()) {
-                    tileVertices[yTile][xTile] = null;
+                int lTileMask = (xTile + yTile * w);
+                this.inGraph[lTileMask] = false;
+                pixel[0] = xTile;
+                pixel[1] = yTile;
+                tileTransform.transform(pixel, 0, pixel, 0, 1);
+                int xImage = (int) pixel[0];
+                int yImage = (int) pixel[1];
+                if (xImage < 0 || xImage >= imageWidth || yImage < 0 || yImage >= imageHeight) {
                     continue;
                 }
-                int lTile = (xTile + yTile * w) * 4;
-                int lTileMask = (xTile + yTile * w);
-                int lImage = (xImage + yImage * this.getImage().getWidth()) * 4;
-                int lImageMask = (xImage + yImage * this.getImage().getWidth());
-                byte pixelImageMask = this.maskPixels[lImageMask];
-                int tileA = tilePixels[lTile] & 0xFF;
-                int tileB = tilePixels[lTile + 1] & 0xFF;
-                int tileG = tilePixels[lTile + 2] & 0xFF;
-                int tileR = tilePixels[lTile + 3] & 0xFF;
-
                 // out of tile
                 if (tileMaskPixels[lTileMask] == Tile.MASK_OUT) {
-                    tileVertices[yTile][xTile] = null;
                     continue;
                 }
-
-                if (pixelImageMask == Tile.MASK_OUT) { // out of image mask
+                int lTile = lTileMask * 4;
+                int lImage = (xImage + yImage * imageWidth) * 4;
+                int lImageMask = (xImage + yImage * imageWidth);
+                if (this.maskPixels[lImageMask] == Tile.MASK_OUT) { // out of image mask
                     // copy Tile
-                    graphCutTilePixels[lTile + 0] = (byte) tileA;
-                    graphCutTilePixels[lTile + 1] = (byte) tileB;
-                    graphCutTilePixels[lTile + 2] = (byte) tileG;
-                    graphCutTilePixels[lTile + 3] = (byte) tileR;
-                } else {
-                    int imageA = this.imagePixels[lImage] & 0xFF;
-                    int imageB = this.imagePixels[lImage + 1] & 0xFF;
-                    int imageG = this.imagePixels[lImage + 2] & 0xFF;
-                    int imageR = this.imagePixels[lImage + 3] & 0xFF;
-                    tileVertices[yTile][xTile] = new PixelVertex(xTile, yTile, tileR / 255f, tileG / 255f, tileB / 255f, tileA / 255f, imageR / 255f,
-                            imageG / 255f, imageB / 255f, imageA / 255f);
-                    graph.addVertex(tileVertices[yTile][xTile]);
-                    if (tileBorderPixels[lTileMask] == Tile.MASK_IN) {
-                        graph.addVertex(tileVertices[yTile][xTile]);
-                        edge = graph.addEdge(A, tileVertices[yTile][xTile]);
-                        graph.setEdgeWeight(edge, Double.POSITIVE_INFINITY);
-                        //
-                        //                        graphCutTilePixels[lTile + 0] = (byte) 255;
-                        //                        graphCutTilePixels[lTile + 1] = (byte) 0;
-                        //                        graphCutTilePixels[lTile + 2] = (byte) 0;
-                        //                        graphCutTilePixels[lTile + 3] = (byte) 255;
-
-                    } else if (this.isOnImageMaskBorder(xTile, yTile, tileTransform)) {
-                        graph.addVertex(tileVertices[yTile][xTile]);
-                        edge = graph.addEdge(tileVertices[yTile][xTile], B);
-                        graph.setEdgeWeight(edge, Double.POSITIVE_INFINITY);
-
-                        //                        graphCutTilePixels[lTile + 0] = (byte) 255;
-                        //                        graphCutTilePixels[lTile + 1] = (byte) 255;
-                        //                        graphCutTilePixels[lTile + 2] = (byte) 0;
-                        //                        graphCutTilePixels[lTile + 3] = (byte) 0;
-
-                    }
-
+                    System.arraycopy(tilePixels, lTile, graphCutTilePixels, lTile, 4);
+                    continue;
+                }
+                int tileB = tilePixels[lTile + 1] & 0xFF;
+                int tileG = tilePixels[lTile + 2] & 0xFF;
+                int tileR = tilePixels[lTile + 3] & 0xFF;
+                int imageA = this.imagePixels[lImage] & 0xFF;
+                int imageB = this.imagePixels[lImage + 1] & 0xFF;
+                int imageG = this.imagePixels[lImage + 2] & 0xFF;
+                int imageR = this.imagePixels[lImage + 3] & 0xFF;
+                this.inGraph[lTileMask] = true;
+                this.imageColors[lTileMask] = (imageA << 24) | (imageR << 16) | (imageG << 8) | imageB;
+                this.labDistances[lTileMask] = distanceLab(tileR / 255f, tileG / 255f, tileB / 255f, imageR / 255f, imageG / 255f, imageB / 255f);
+                if (tileBorderPixels[lTileMask] == Tile.MASK_IN) {
+                    this.maxFlow.setTerminalCapacities(xTile, yTile, Double.POSITIVE_INFINITY, 0);
+                } else if (this.isOnImageMaskBorder(xTile, yTile, tileTransform)) {
+                    this.maxFlow.setTerminalCapacities(xTile, yTile, 0, Double.POSITIVE_INFINITY);
                 }
             }
         }
@@ -239,59 +221,31 @@ public class GraphCut {
         // add all edges between pixels (forward and reverse edges)
         for (int yTile = 0; yTile < h; yTile++) {
             for (int xTile = 0; xTile < w; xTile++) {
-                vertex = tileVertices[yTile][xTile];
-                if (vertex == null) {
-                    continue;
-                }
-                // check if we are in the tile
-                int lTileMask = xTile + yTile * w;
-                if (tileMaskPixels[lTileMask] == Tile.MASK_OUT) {
+                int l = xTile + yTile * w;
+                if (!this.inGraph[l]) {
                     continue;
                 }
-                if (xTile != w - 1) {
-                    PixelVertex vertexNeighbor = tileVertices[yTile][xTile + 1];
-                    if (vertexNeighbor != null) {
-                        edge = graph.addEdge(vertex, vertexNeighbor);
-                        weight = distanceColor(vertex, vertexNeighbor);
-                        //                System.err.println("weight to x+1 = " + weight);
-                        graph.setEdgeWeight(edge, weight);
-                        edge = graph.addEdge(vertexNeighbor, vertex);
-                        graph.setEdgeWeight(edge, weight);
-                    }
+                if (xTile != w - 1 && this.inGraph[l + 1]) {
+                    this.maxFlow.setHorizontalCapacity(xTile, yTile, this.labDistances[l + 1] + this.labDistances[l] + 1);
                 }
-                if (yTile != h - 1) {
-                    PixelVertex vertexNeighbor = tileVertices[yTile + 1][xTile];
-                    if (vertexNeighbor != null) {
-                        edge = graph.addEdge(vertex, vertexNeighbor);
-                        weight = distanceColor(vertex, vertexNeighbor);
-                        //                System.err.println("weight to y+1 = " + weight);
-                        graph.setEdgeWeight(edge, weight);
-                        edge = graph.addEdge(vertexNeighbor, vertex);
-                        graph.setEdgeWeight(edge, weight);
-                    }
+                if (yTile != h - 1 && this.inGraph[l + w]) {
+                    this.maxFlow.setVerticalCapacity(xTile, yTile, this.labDistances[l + w] + this.labDistances[l] + 1);
                 }
             }
         }
 
-        this.algoMinCut = new MinSourceSinkCut<PixelVertex, PixelEdge>(graph);
-        this.algoMinCut.computeMinCut(A, B);
-
-        for (PixelVertex v : this.algoMinCut.getSinkPartition()) {
-
-            int l = (v.getX() + v.getY() * w) * 4;
-            if (l >= 0 && l < w * h * 4) {
-                graphCutTilePixels[l + 3] = (byte) (v.getTileR() * 255);
-                graphCutTilePixels[l + 2] = (byte) (v.getTileG() * 255);
-                graphCutTilePixels[l + 1] = (byte) (v.getTileB() * 255);
-                graphCutTilePixels[l + 0] = (byte) (v.getTileA() * 255);
-                // System.err.println("resulting pixel value (byte) = " +
-                //                graphCutTilePixels[l + 3] + " " + graphCutTilePixels[l + 2] + " "
-                // + graphCutTilePixels[l + 1] + " " + graphCutTilePixels[l]);
-                // System.err.println("            =>       (float) = " +
-                //                v.getTileR() + " " + v.getTileG() + " " + v.getTileB() + " " +
-                //                v.getTileA());
+        this.maxFlow.computeMaxFlow();
+
+        // pixels on the sink side are taken from the tile
+        for (int yTile = 0; yTile < h; yTile++) {
+            for (int xTile = 0; xTile < w; xTile++) {
+                int l = xTile + yTile * w;
+                if (this.inGraph[l] && !this.maxFlow.isSourceSide(xTile, yTile)) {
+                    System.arraycopy(tilePixels, l * 4, graphCutTilePixels, l * 4, 4);
+                }
             }
         }
+        this.lastTilePixels = tilePixels;
 
         // finally draw the graphcut tile to the resulting image and update mask
         Graphics2D g2 = this.getImage().createGraphics();
@@ -303,37 +257,21 @@ public class GraphCut {
         g2.setComposite(AlphaComposite.SrcOver);
         g2.drawImage(graphCutTile, null, 0, 0);
 
-        //        // draw the the graph cut edges (Debug)
-        //        g2.setClip(null);
-        //        g2.setColor(Color.red);
-        //        g2.setStroke(new BasicStroke(1.f));
-        //        for (PixelEdge e : this.algoMinCut.getCutEdges()) {
-        //            g2.drawLine(e.getSource().getX(), e.getSource().getY(), e.getTarget().getX(), e.getTarget().getY());
-        //
-        //        }
         // draw tile in mask
         g2 = this.getMask().createGraphics();
         g2.setTransform(tileTransform);
         g2.setComposite(new MaskComposite());
         g2.drawImage(tile.getMask(), null, 0, 0);
 
-        //        try {
-        //            ImageIO.write(this.getImage(), "PNG", new File("graphcut" + this.pasteCount + ".png"));
-        //            ImageIO.write(this.getMask(), "PNG", new File("graphcut" + this.pasteCount + "-mask.png"));
-        //        } catch (IOException e1) {
-        //            // TODO Auto-generated catch block
-        //            e1.printStackTrace();
-        //        }
         this.pasteCount++;
-        return this.algoMinCut;
     }
 
     private Byte getImageMaskPixel(int xTile, int yTile, AffineTransform tileTransform) {
-        Point2D pixel = new Point2D.Double(xTile, yTile);
-        Point2D transformedPixel = new Point2D.Double();
-        tileTransform.transform(pixel, transformedPixel);
-        int xImage = (int) transformedPixel.getX();
-        int yImage = (int) transformedPixel.getY();
+        this.transformBuffer[0] = xTile;
+        this.transformBuffer[1] = yTile;
+        tileTransform.transform(this.transformBuffer, 0, this.transformBuffer, 0, 1);
+        int xImage = (int) this.transformBuffer[0];
+        int yImage = (int) this.transformBuffer[1];
         if (xImage < 0 || xImage >= this.getMask().getWidth() || yImage < 0 || yImage >= this.getMask().getHeight()) {
             return null;
         }
@@ -361,21 +299,78 @@ public class GraphCut {
         return false;
     }
 
-    private static double distanceColor(PixelVertex p1, PixelVertex p2) {
-        return distanceLab(p1, p2);
+    /**
+     * @return the graph vertex of a pixel of the last pasted tile, null if it
+     *         was not in the graph
+     */
+    private PixelVertex getLastVertex(int xTile, int yTile) {
+        int l = xTile + yTile * this.maxFlow.getWidth();
+        if (!this.inGraph[l]) {
+            return null;
+        }
+        int lTile = l * 4;
+        int imageColor = this.imageColors[l];
+        return new PixelVertex(xTile, yTile, (this.lastTilePixels[lTile + 3] & 0xFF) / 255f, (this.lastTilePixels[lTile + 2] & 0xFF) / 255f,
+                (this.lastTilePixels[lTile + 1] & 0xFF) / 255f, (this.lastTilePixels[lTile] & 0xFF) / 255f, ((imageColor >> 16) & 0xFF) / 255f,
+                ((imageColor >> 8) & 0xFF) / 255f, (imageColor & 0xFF) / 255f, ((imageColor >> 24) & 0xFF) / 255f);
     }
 
     /**
-     * get all cut edges from last pasted tile
+     * get all cut edges between pixels from last pasted tile
      * (it is recomputed at each call)
      * 
-     * @return the graph cut edges
+     * @return the graph cut edges, from the image side to the tile side
      */
     public Set<PixelEdge> getLastCutEdges() {
-        if (this.algoMinCut == null) {
+        if (this.lastTilePixels == null) {
+            return null;
+        }
+        int w = this.maxFlow.getWidth();
+        int h = this.maxFlow.getHeight();
+        Set<PixelEdge> cutEdges = new HashSet<PixelEdge>();
+        for (int yTile = 0; yTile < h; yTile++) {
+            for (int xTile = 0; xTile < w; xTile++) {
+                PixelVertex vertex = this.getLastVertex(xTile, yTile);
+                if (vertex == null) {
+                    continue;
+                }
+                boolean source = this.maxFlow.isSourceSide(xTile, yTile);
+                if (xTile != w - 1 && source != this.maxFlow.isSourceSide(xTile + 1, yTile)) {
+                    PixelVertex vertexNeighbor = this.getLastVertex(xTile + 1, yTile);
+                    if (vertexNeighbor != null) {
+                        cutEdges.add(source ? new PixelEdge(vertex, vertexNeighbor) : new PixelEdge(vertexNeighbor, vertex));
+                    }
+                }
+                if (yTile != h - 1 && source != this.maxFlow.isSourceSide(xTile, yTile + 1)) {
+                    PixelVertex vertexNeighbor = this.getLastVertex(xTile, yTile + 1);
+                    if (vertexNeighbor != null) {
+                        cutEdges.add(source ? new PixelEdge(vertex, vertexNeighbor) : new PixelEdge(vertexNeighbor, vertex));
+                    }
+                }
+            }
+        }
+        return cutEdges;
+    }
+
+    /**
+     * @return the pixel vertices of the last pasted tile on one side of the cut
+     */
+    private Set<PixelVertex> getLastPartition(boolean sourceSide) {
+        if (this.lastTilePixels == null) {
             return null;
         }
-        return this.algoMinCut.getCutEdges();
+        Set<PixelVertex> partition = new HashSet<PixelVertex>();
+        for (int yTile = 0; yTile < this.maxFlow.getHeight(); yTile++) {
+            for (int xTile = 0; xTile < this.maxFlow.getWidth(); xTile++) {
+                if (this.maxFlow.isSourceSide(xTile, yTile) == sourceSide) {
+                    PixelVertex vertex = this.getLastVertex(xTile, yTile);
+                    if (vertex != null) {
+                        partition.add(vertex);
+                    }
+                }
+            }
+        }
+        return partition;
     }
 
     /**
@@ -385,10 +380,7 @@ public class GraphCut {
      * @return the source cut partition
      */
     public Set<PixelVertex> getLastSourcePartition() {
-        if (this.algoMinCut == null) {
-            return null;
-        }
-        return this.algoMinCut.getSourcePartition();
+        return this.getLastPartition(true);
     }
 
     /**
@@ -398,28 +390,28 @@ public class GraphCut {
      * @return the tile cut partition
      */
     public Set<PixelVertex> getLastTilePartition() {
-        if (this.algoMinCut == null) {
-            return null;
-        }
-        return this.algoMinCut.getSinkPartition();
+        return this.getLastPartition(false);
     }
 
     /**
      * Distance function in LAB color model
      */
     public static double distanceLab(PixelVertex p1, PixelVertex p2) {
-        float[] labVertex1Tile = ColorUtil.rgbToLab(p1.getTileR(), p1.getTileG(), p1.getTileB());
-        float[] labVertex2Tile = ColorUtil.rgbToLab(p2.getTileR(), p2.getTileG(), p2.getTileB());
-        float[] labVertex1Image = ColorUtil.rgbToLab(p1.getImageR(), p1.getImageG(), p1.getImageB());
-        float[] labVertex2Image = ColorUtil.rgbToLab(p2.getImageR(), p2.getImageG(), p2.getImageB());
-        float dlp = labVertex2Tile[0] - labVertex2Image[0];
-        float dap = labVertex2Tile[1] - labVertex2Image[1];
-        float dbp = labVertex2Tile[2] - labVertex2Image[2];
-        float dln = labVertex1Tile[0] - labVertex1Image[0];
-        float dan = labVertex1Tile[1] - labVertex1Image[1];
-        float dbn = labVertex1Tile[2] - labVertex1Image[2];
-
-        return Math.sqrt(dlp * dlp + dap * dap + dbp * dbp) + Math.sqrt(dln * dln + dan * dan + dbn * dbn) + 1;
+        return distanceLab(p2.getTileR(), p2.getTileG(), p2.getTileB(), p2.getImageR(), p2.getImageG(), p2.getImageB())
+                + distanceLab(p1.getTileR(), p1.getTileG(), p1.getTileB(), p1.getImageR(), p1.getImageG(), p1.getImageB()) + 1;
+    }
+
+    /**
+     * Distance in LAB color model between the tile and the image colors of a
+     * pixel
+     */
+    private static double distanceLab(float tileR, float tileG, float tileB, float imageR, float imageG, float imageB) {
+        float[] labTile = ColorUtil.rgbToLab(tileR, tileG, tileB);
+        float[] labImage = ColorUtil.rgbToLab(imageR, imageG, imageB);
+        float dl = labTile[0] - labImage[0];
+        float da = labTile[1] - labImage[1];
+        float db = labTile[2] - labImage[2];
+        return Math.sqrt(dl * dl + da * da + db * db);
     }
 
     /**
@@ -0,0 +1,523 @@
+/*******************************************************************************
+ * This file is part of the GeOxygene project source files.
+ *
+ * GeOxygene aims at providing an open framework which implements OGC/ISO
+ * specifications for the development and deployment of geographic (GIS)
+ * applications. It is a open source contribution of the COGIT laboratory at the
+ * Institut Géographique National (the French National Mapping Agency).
+ *
+ * See: http://oxygene-project.sourceforge.net
+ *
+ * Copyright (C) 2005 Institut Géographique National
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library (see file LICENSE if present); if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ *******************************************************************************/
+
+package fr.ign.cogit.geoxygene.util.graphcut;
+
+import java.util.Arrays;
+
+/**
+ * Max-flow / min-cut solver on a 4-connected pixel grid, using the
+ * Boykov-Kolmogorov algorithm ("An Experimental Comparison of Min-Cut/Max-Flow
+ * Algorithms for Energy Minimization in Vision", PAMI 2004).
+ *
+ * Nodes are pixels indexed by x + y * width. Each node may be linked to the
+ * source and/or to the sink, and to its four neighbors. All residual
+ * capacities, search trees and queues are stored in primitive arrays which are
+ * kept between calls to {@link #init(int, int)}, so that the same solver can
+ * cut many tiles without allocating.
+ *
+ * After {@link #computeMaxFlow()}, the source side of the cut is the set of
+ * nodes reachable from the source in the residual graph.
+ */
+public class GridMaxFlow {
+
+    // arc directions. The reverse arc of direction d is d ^ 1
+    private static final int RIGHT = 0;
+    private static final int LEFT = 1;
+    private static final int DOWN = 2;
+    private static final int UP = 3;
+
+    // parent values which are not directions
+    private static final byte TERMINAL = 4;
+    private static final byte ORPHAN = 5;
+    private static final byte NONE = 6;
+
+    private static final byte FREE = 0;
+    private static final byte SOURCE = 1;
+    private static final byte SINK = 2;
+
+    private static final int INFINITE_DISTANCE = Integer.MAX_VALUE;
+
+    private int width = 0;
+    private int height = 0;
+    private int nodeCount = 0;
+    private double flow = 0;
+
+    private double[] terminalCapacities = new double[0]; // > 0 : to source, < 0 : to sink
+    private double[] capacities = new double[0]; // 4 arcs per node
+    private byte[] tree = new byte[0];
+    private byte[] parent = new byte[0];
+    private int[] timestamps = new int[0];
+    private int[] distances = new int[0];
+    private boolean[] active = new boolean[0];
+    private int[] activeQueue = new int[0];
+    private int activeFirst = 0;
+    private int activeCount = 0;
+    private int[] orphans = new int[0];
+    private int orphanCount = 0;
+    private int orphanFirst = 0;
+    private int time = 0;
+
+    /**
+     * Constructor. Call {@link #init(int, int)} before use
+     */
+    public GridMaxFlow() {
+        super();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param width
+     *            grid width
+     * @param height
+     *            grid height
+     */
+    public GridMaxFlow(int width, int height) {
+        super();
+        this.init(width, height);
+    }
+
+    /**
+     * Reset the grid: all capacities are set to zero. Buffers are reallocated
+     * only if the grid is larger than all previous ones.
+     *
+     * @param width
+     *            grid width
+     * @param height
+     *            grid height
+     */
+    public void init(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.nodeCount = width * height;
+        int n = this.nodeCount;
+        if (this.tree.length < n) {
+            this.terminalCapacities = new double[n];
+            this.capacities = new double[4 * n];
+            this.tree = new byte[n];
+            this.parent = new byte[n];
+            this.timestamps = new int[n];
+            this.distances = new int[n];
+            this.active = new boolean[n];
+            this.activeQueue = new int[n];
+            this.orphans = new int[n];
+        } else {
+            Arrays.fill(this.terminalCapacities, 0, n, 0);
+            Arrays.fill(this.capacities, 0, 4 * n, 0);
+        }
+        this.flow = 0;
+    }
+
+    /**
+     * @return the grid width
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return the grid height
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Set the capacities of the links between a node and the terminals. They
+     * must not be both infinite.
+     *
+     * @param x
+     * @param y
+     * @param sourceCapacity
+     *            capacity from the source to the node
+     * @param sinkCapacity
+     *            capacity from the node to the sink
+     */
+    public void setTerminalCapacities(int x, int y, double sourceCapacity, double sinkCapacity) {
+        // flow through both terminal links can be pushed right away
+        this.flow += Math.min(sourceCapacity, sinkCapacity);
+        this.terminalCapacities[x + y * this.width] = sourceCapacity - sinkCapacity;
+    }
+
+    /**
+     * Set the capacity of the edge between (x, y) and (x + 1, y), in both
+     * directions
+     */
+    public void setHorizontalCapacity(int x, int y, double capacity) {
+        int node = x + y * this.width;
+        this.capacities[4 * node + RIGHT] = capacity;
+        this.capacities[4 * (node + 1) + LEFT] = capacity;
+    }
+
+    /**
+     * Set the capacity of the edge between (x, y) and (x, y + 1), in both
+     * directions
+     */
+    public void setVerticalCapacity(int x, int y, double capacity) {
+        int node = x + y * this.width;
+        this.capacities[4 * node + DOWN] = capacity;
+        this.capacities[4 * (node + this.width) + UP] = capacity;
+    }
+
+    /**
+     * @return the value of the last computed flow
+     */
+    public double getFlow() {
+        return this.flow;
+    }
+
+    /**
+     * @return true if the node is on the source side of the last computed cut
+     */
+    public boolean isSourceSide(int x, int y) {
+        return this.tree[x + y * this.width] == SOURCE;
+    }
+
+    /**
+     * @return the neighbor of a node in the given direction, -1 if it is out
+     *         of the grid
+     */
+    private int neighbor(int node, int direction) {
+        switch (direction) {
+        case RIGHT:
+            return (node % this.width == this.width - 1) ? -1 : node + 1;
+        case LEFT:
+            return (node % this.width == 0) ? -1 : node - 1;
+        case DOWN:
+            return (node + this.width >= this.nodeCount) ? -1 : node + this.width;
+        default:
+            return (node < this.width) ? -1 : node - this.width;
+        }
+    }
+
+    private void setActive(int node) {
+        if (!this.active[node]) {
+            this.active[node] = true;
+            int last = this.activeFirst + this.activeCount;
+            if (last >= this.nodeCount) {
+                last -= this.nodeCount;
+            }
+            this.activeQueue[last] = node;
+            this.activeCount++;
+        }
+    }
+
+    /**
+     * @return the next active node still in a tree, -1 if none
+     */
+    private int nextActive() {
+        while (this.activeCount > 0) {
+            int node = this.activeQueue[this.activeFirst];
+            this.activeFirst++;
+            if (this.activeFirst == this.nodeCount) {
+                this.activeFirst = 0;
+            }
+            this.activeCount--;
+            this.active[node] = false;
+            if (this.parent[node] != NONE) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Orphans cut by an augmentation are processed first, orphans freed by
+     * the adoption step last
+     */
+    private void setOrphan(int node) {
+        this.parent[node] = ORPHAN;
+        this.orphanFirst--;
+        if (this.orphanFirst < 0) {
+            this.orphanFirst += this.nodeCount;
+        }
+        this.orphans[this.orphanFirst] = node;
+        this.orphanCount++;
+    }
+
+    private void setOrphanRear(int node) {
+        this.parent[node] = ORPHAN;
+        int last = this.orphanFirst + this.orphanCount;
+        if (last >= this.nodeCount) {
+            last -= this.nodeCount;
+        }
+        this.orphans[last] = node;
+        this.orphanCount++;
+    }
+
+    /**
+     * Compute the maximum flow from the source to the sink
+     *
+     * @return the flow value
+     */
+    public double computeMaxFlow() {
+        int n = this.nodeCount;
+        this.activeFirst = 0;
+        this.activeCount = 0;
+        this.orphanCount = 0;
+        this.orphanFirst = 0;
+        this.time = 0;
+        Arrays.fill(this.active, 0, n, false);
+        for (int node = 0; node < n; node++) {
+            double tr = this.terminalCapacities[node];
+            this.timestamps[node] = 0;
+            if (tr == 0) {
+                this.tree[node] = FREE;
+                this.parent[node] = NONE;
+            } else {
+                this.tree[node] = (tr > 0) ? SOURCE : SINK;
+                this.parent[node] = TERMINAL;
+                this.distances[node] = 1;
+                this.setActive(node);
+            }
+        }
+
+        int current = -1;
+        while (true) {
+            if (current < 0 || this.parent[current] == NONE) {
+                current = this.nextActive();
+                if (current < 0) {
+                    break;
+                }
+            }
+            // grow the tree of the current node until it meets the other tree
+            int from = -1;
+            int direction = -1;
+            if (this.tree[current] == SOURCE) {
+                for (int d = 0; d < 4 && from < 0; d++) {
+                    int q = this.neighbor(current, d);
+                    if (q < 0 || this.capacities[4 * current + d] <= 0) {
+                        continue;
+                    }
+                    if (this.tree[q] == FREE) {
+                        this.grow(q, current, d ^ 1, SOURCE);
+                    } else if (this.tree[q] == SINK) {
+                        from = current;
+                        direction = d;
+                    } else {
+                        this.shorten(q, current, d ^ 1);
+                    }
+                }
+            } else {
+                for (int d = 0; d < 4 && from < 0; d++) {
+                    int q = this.neighbor(current, d);
+                    if (q < 0 || this.capacities[4 * q + (d ^ 1)] <= 0) {
+                        continue;
+                    }
+                    if (this.tree[q] == FREE) {
+                        this.grow(q, current, d ^ 1, SINK);
+                    } else if (this.tree[q] == SOURCE) {
+                        from = q;
+                        direction = d ^ 1;
+                    } else {
+                        this.shorten(q, current, d ^ 1);
+                    }
+                }
+            }
+            this.time++;
+            if (from < 0) {
+                // no path found : the current node is done
+                current = -1;
+                continue;
+            }
+            // the current node stays current while it is in a tree
+            this.augment(from, direction);
+            this.adoptOrphans();
+        }
+        return this.flow;
+    }
+
+    /**
+     * Add a free node to a tree as child of a node
+     *
+     * @param direction
+     *            direction from the free node to its parent
+     */
+    private void grow(int node, int parentNode, int direction, byte nodeTree) {
+        this.tree[node] = nodeTree;
+        this.parent[node] = (byte) direction;
+        this.timestamps[node] = this.timestamps[parentNode];
+        this.distances[node] = this.distances[parentNode] + 1;
+        this.setActive(node);
+    }
+
+    /**
+     * Make a node of the tree child of a node if it is closer to the terminal
+     * through it
+     */
+    private void shorten(int node, int parentNode, int direction) {
+        if (this.timestamps[node] <= this.timestamps[parentNode] && this.distances[node] > this.distances[parentNode]) {
+            this.parent[node] = (byte) direction;
+            this.timestamps[node] = this.timestamps[parentNode];
+            this.distances[node] = this.distances[parentNode] + 1;
+        }
+    }
+
+    /**
+     * Push flow along the path going through the arc from a node of the source
+     * tree to a node of the sink tree
+     */
+    private void augment(int from, int direction) {
+        int to = this.neighbor(from, direction);
+        // bottleneck
+        double bottleneck = this.capacities[4 * from + direction];
+        int node = from;
+        while (this.parent[node] != TERMINAL) {
+            int d = this.parent[node];
+            int p = this.neighbor(node, d);
+            bottleneck = Math.min(bottleneck, this.capacities[4 * p + (d ^ 1)]);
+            node = p;
+        }
+        bottleneck = Math.min(bottleneck, this.terminalCapacities[node]);
+        node = to;
+        while (this.parent[node] != TERMINAL) {
+            int d = this.parent[node];
+            bottleneck = Math.min(bottleneck, this.capacities[4 * node + d]);
+            node = this.neighbor(node, d);
+        }
+        bottleneck = Math.min(bottleneck, -this.terminalCapacities[node]);
+
+        // push
+        this.capacities[4 * from + direction] -= bottleneck;
+        this.capacities[4 * to + (direction ^ 1)] += bottleneck;
+        node = from;
+        while (this.parent[node] != TERMINAL) {
+            int d = this.parent[node];
+            int p = this.neighbor(node, d);
+            this.capacities[4 * node + d] += bottleneck;
+            this.capacities[4 * p + (d ^ 1)] -= bottleneck;
+            if (this.capacities[4 * p + (d ^ 1)] <= 0) {
+                this.setOrphan(node);
+            }
+            node = p;
+        }
+        this.terminalCapacities[node] -= bottleneck;
+        if (this.terminalCapacities[node] <= 0) {
+            this.setOrphan(node);
+        }
+        node = to;
+        while (this.parent[node] != TERMINAL) {
+            int d = this.parent[node];
+            int p = this.neighbor(node, d);
+            this.capacities[4 * p + (d ^ 1)] += bottleneck;
+            this.capacities[4 * node + d] -= bottleneck;
+            if (this.capacities[4 * node + d] <= 0) {
+                this.setOrphan(node);
+            }
+            node = p;
+        }
+        this.terminalCapacities[node] += bottleneck;
+        if (this.terminalCapacities[node] >= 0) {
+            this.setOrphan(node);
+        }
+        this.flow += bottleneck;
+    }
+
+    /**
+     * Find a new parent for each orphan, or free it
+     */
+    private void adoptOrphans() {
+        while (this.orphanCount > 0) {
+            int node = this.orphans[this.orphanFirst];
+            this.orphanFirst++;
+            if (this.orphanFirst == this.nodeCount) {
+                this.orphanFirst = 0;
+            }
+            this.orphanCount--;
+            byte nodeTree = this.tree[node];
+            int bestDirection = -1;
+            int bestDistance = INFINITE_DISTANCE;
+            for (int d = 0; d < 4; d++) {
+                int q = this.neighbor(node, d);
+                if (q < 0 || this.tree[q] != nodeTree) {
+                    continue;
+                }
+                double residual = (nodeTree == SOURCE) ? this.capacities[4 * q + (d ^ 1)] : this.capacities[4 * node + d];
+                if (residual <= 0) {
+                    continue;
+                }
+                // is q linked to the terminal ?
+                int distance = 0;
+                int j = q;
+                while (true) {
+                    if (this.timestamps[j] == this.time) {
+                        distance += this.distances[j];
+                        break;
+                    }
+                    distance++;
+                    byte pj = this.parent[j];
+                    if (pj == TERMINAL) {
+                        this.timestamps[j] = this.time;
+                        this.distances[j] = 1;
+                        break;
+                    }
+                    if (pj == ORPHAN) {
+                        distance = INFINITE_DISTANCE;
+                        break;
+                    }
+                    j = this.neighbor(j, pj);
+                }
+                if (distance == INFINITE_DISTANCE) {
+                    continue;
+                }
+                if (distance < bestDistance) {
+                    bestDirection = d;
+                    bestDistance = distance;
+                }
+                // mark the path so that it is not walked again
+                for (j = q; this.timestamps[j] != this.time; j = this.neighbor(j, this.parent[j])) {
+                    this.timestamps[j] = this.time;
+                    this.distances[j] = distance--;
+                }
+            }
+            if (bestDirection >= 0) {
+                this.parent[node] = (byte) bestDirection;
+                this.timestamps[node] = this.time;
+                this.distances[node] = bestDistance + 1;
+                continue;
+            }
+            // no parent found : the node becomes free
+            for (int d = 0; d < 4; d++) {
+                int q = this.neighbor(node, d);
+                if (q < 0 || this.tree[q] != nodeTree) {
+                    continue;
+                }
+                double residual = (nodeTree == SOURCE) ? this.capacities[4 * q + (d ^ 1)] : this.capacities[4 * node + d];
+                if (residual > 0) {
+                    this.setActive(q);
+                }
+                byte pq = this.parent[q];
+                if (pq != TERMINAL && pq != ORPHAN && pq != NONE && this.neighbor(q, pq) == node) {
+                    this.setOrphanRear(q);
+                }
+            }
+            this.tree[node] = FREE;
+            this.parent[node] = NONE;
+        }
+    }
+}
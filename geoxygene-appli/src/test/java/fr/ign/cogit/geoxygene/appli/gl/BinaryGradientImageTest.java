@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * This file is part of the GeOxygene project source files.
+ *
+ * GeOxygene aims at providing an open framework which implements OGC/ISO
+ * specifications for the development and deployment of geographic (GIS)
+ * applications. It is a open source contribution of the COGIT laboratory at the
+ * Institut Géographique National (the French National Mapping Agency).
+ *
+ * See: http://oxygene-project.sourceforge.net
+ *
+ * Copyright (C) 2005 Institut Géographique National
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library (see file LICENSE if present); if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ *******************************************************************************/
+
+package fr.ign.cogit.geoxygene.appli.gl;
+
+import java.awt.Point;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.appli.gl.BinaryGradientImage.GradientPixel;
+
+/**
+ * Compares the distance field of {@link BinaryGradientImage} with a
+ * brute-force relaxation on small seeded images.
+ */
+public class BinaryGradientImageTest {
+
+    /**
+     * Random image: most pixels are inner pixels, some of them frontier pixels
+     * with a null distance and a random u texture coordinate, some others
+     * frontier pixels with an infinite distance (long frontier edges).
+     */
+    private static BinaryGradientImage randomImage(Random random, Set<Point> frontierPixels) {
+        int w = 2 + random.nextInt(14);
+        int h = 2 + random.nextInt(14);
+        BinaryGradientImage image = new BinaryGradientImage(w, h);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                GradientPixel pixel = image.getPixel(x, y);
+                double r = random.nextDouble();
+                pixel.in = r < 0.85;
+                if (r < 0.08) {
+                    pixel.distance = 0;
+                    pixel.uTexture = random.nextDouble();
+                    frontierPixels.add(new Point(x, y));
+                } else if (r < 0.12) {
+                    pixel.distance = Double.POSITIVE_INFINITY;
+                } else if (pixel.in) {
+                    pixel.distance = Double.MAX_VALUE;
+                }
+            }
+        }
+        return image;
+    }
+
+    private static BinaryGradientImage copy(BinaryGradientImage image) {
+        BinaryGradientImage copy = new BinaryGradientImage(image.getWidth(), image.getHeight());
+        for (int l = 0; l < image.getPixels().length; l++) {
+            copy.getPixels()[l] = new GradientPixel(image.getPixels()[l]);
+        }
+        return copy;
+    }
+
+    /**
+     * Brute force: relax every inner pixel from its four neighbors until no
+     * distance changes.
+     */
+    private static void relaxAll(BinaryGradientImage image, Set<Point> frontierPixels, double pixelWidth,
+            double pixelHeight) {
+        Set<Point> reached = new HashSet<Point>(frontierPixels);
+        boolean modified = true;
+        while (modified) {
+            modified = false;
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    GradientPixel pixel = image.getPixel(x, y);
+                    if (!pixel.in) {
+                        continue;
+                    }
+                    int[][] neighbors = { { x - 1, y }, { x + 1, y }, { x, y - 1 }, { x, y + 1 } };
+                    for (int k = 0; k < 4; k++) {
+                        Point p = new Point(neighbors[k][0], neighbors[k][1]);
+                        GradientPixel neighbor = image.getPixel(p.x, p.y);
+                        if (neighbor == null || !reached.contains(p)) {
+                            continue;
+                        }
+                        double d = neighbor.distance + (k < 2 ? pixelWidth : pixelHeight);
+                        if (pixel.distance > d) {
+                            pixel.distance = d;
+                            reached.add(new Point(x, y));
+                            modified = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void check(long seed, double pixelWidth, double pixelHeight) {
+        Random random = new Random(seed);
+        Set<Point> frontierPixels = new HashSet<Point>();
+        BinaryGradientImage image = BinaryGradientImageTest.randomImage(random, frontierPixels);
+        BinaryGradientImage expected = BinaryGradientImageTest.copy(image);
+        BinaryGradientImage.computeDistanceTransform(image, frontierPixels, pixelWidth, pixelHeight);
+        BinaryGradientImageTest.relaxAll(expected, frontierPixels, pixelWidth, pixelHeight);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                GradientPixel pixel = image.getPixel(x, y);
+                String message = "seed " + seed + ", pixel " + x + "x" + y;
+                Assert.assertEquals(message, expected.getPixel(x, y).distance, pixel.distance, 0);
+                if (!pixel.in || frontierPixels.contains(new Point(x, y)) || pixel.distance >= Double.MAX_VALUE) {
+                    continue;
+                }
+                // the u texture coordinate comes from a neighbor on a shortest
+                // path
+                boolean found = false;
+                int[][] neighbors = { { x - 1, y }, { x + 1, y }, { x, y - 1 }, { x, y + 1 } };
+                for (int k = 0; k < 4; k++) {
+                    GradientPixel neighbor = image.getPixel(neighbors[k][0], neighbors[k][1]);
+                    if (neighbor != null && neighbor.distance + (k < 2 ? pixelWidth : pixelHeight) == pixel.distance
+                            && neighbor.uTexture == pixel.uTexture) {
+                        found = true;
+                    }
+                }
+                Assert.assertTrue(message, found);
+            }
+        }
+    }
+
+    @Test
+    public void testSquarePixels() {
+        for (long seed = 0; seed < 200; seed++) {
+            BinaryGradientImageTest.check(seed, 1, 1);
+        }
+    }
+
+    @Test
+    public void testRectangularPixels() {
+        for (long seed = 0; seed < 200; seed++) {
+            BinaryGradientImageTest.check(seed, 0.7, 1.9);
+            BinaryGradientImageTest.check(seed, 2.3, 0.4);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * This file is part of the GeOxygene project source files.
+ *
+ * GeOxygene aims at providing an open framework which implements OGC/ISO
+ * specifications for the development and deployment of geographic (GIS)
+ * applications. It is a open source contribution of the COGIT laboratory at the
+ * Institut Géographique National (the French National Mapping Agency).
+ *
+ * See: http://oxygene-project.sourceforge.net
+ *
+ * Copyright (C) 2005 Institut Géographique National
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library (see file LICENSE if present); if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ *******************************************************************************/
+
+package fr.ign.cogit.geoxygene.util.graphcut;
+
+import java.util.Random;
+import java.util.Set;
+
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleDirectedWeightedGraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares {@link GridMaxFlow} with the Edmonds-Karp based
+ * {@link MinSourceSinkCut} on seeded random grids.
+ */
+public class GridMaxFlowTest {
+
+    private static final double INFINITE = Double.POSITIVE_INFINITY;
+
+    /**
+     * Random grid, with integer capacities so that both solvers compute the
+     * flow exactly. As in {@link GraphCut}, some nodes are linked to a
+     * terminal with an infinite capacity
+     */
+    private static void checkRandomGrid(Random random, GridMaxFlow maxFlow) {
+        int w = 1 + random.nextInt(9);
+        int h = 1 + random.nextInt(9);
+        int n = w * h;
+        int source = n;
+        int sink = n + 1;
+        SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = new SimpleDirectedWeightedGraph<Integer, DefaultWeightedEdge>(
+                DefaultWeightedEdge.class);
+        for (int node = 0; node < n + 2; node++) {
+            graph.addVertex(node);
+        }
+        maxFlow.init(w, h);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int node = x + y * w;
+                double sourceCapacity = 0;
+                double sinkCapacity = 0;
+                switch (random.nextInt(6)) {
+                case 0:
+                    sourceCapacity = INFINITE;
+                    break;
+                case 1:
+                    sinkCapacity = INFINITE;
+                    break;
+                case 2:
+                    sourceCapacity = 1 + random.nextInt(9);
+                    break;
+                case 3:
+                    sinkCapacity = 1 + random.nextInt(9);
+                    break;
+                case 4:
+                    sourceCapacity = 1 + random.nextInt(9);
+                    sinkCapacity = 1 + random.nextInt(9);
+                    break;
+                default:
+                    break;
+                }
+                maxFlow.setTerminalCapacities(x, y, sourceCapacity, sinkCapacity);
+                if (sourceCapacity > 0) {
+                    graph.setEdgeWeight(graph.addEdge(source, node), sourceCapacity);
+                }
+                if (sinkCapacity > 0) {
+                    graph.setEdgeWeight(graph.addEdge(node, sink), sinkCapacity);
+                }
+                if (x < w - 1) {
+                    double capacity = random.nextInt(10);
+                    maxFlow.setHorizontalCapacity(x, y, capacity);
+                    graph.setEdgeWeight(graph.addEdge(node, node + 1), capacity);
+                    graph.setEdgeWeight(graph.addEdge(node + 1, node), capacity);
+                }
+                if (y < h - 1) {
+                    double capacity = random.nextInt(10);
+                    maxFlow.setVerticalCapacity(x, y, capacity);
+                    graph.setEdgeWeight(graph.addEdge(node, node + w), capacity);
+                    graph.setEdgeWeight(graph.addEdge(node + w, node), capacity);
+                }
+            }
+        }
+        MinSourceSinkCut<Integer, DefaultWeightedEdge> minCut = new MinSourceSinkCut<Integer, DefaultWeightedEdge>(graph);
+        minCut.computeMinCut(source, sink);
+
+        double flow = maxFlow.computeMaxFlow();
+        Assert.assertEquals(minCut.getCutWeight(), flow, 0);
+        Assert.assertEquals(flow, maxFlow.getFlow(), 0);
+        // both source sides are the nodes reachable from the source in the
+        // residual graph
+        Set<Integer> sourcePartition = minCut.getSourcePartition();
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                Assert.assertEquals("node " + x + ", " + y + " of a " + w + " x " + h + " grid",
+                        sourcePartition.contains(x + y * w), maxFlow.isSourceSide(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsEdmondsKarp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            GridMaxFlowTest.checkRandomGrid(random, new GridMaxFlow());
+        }
+    }
+
+    /**
+     * The solver is reused between grids of different sizes, as in
+     * {@link GraphCut}
+     */
+    @Test
+    public void testReusedSolver() {
+        Random random = new Random(7);
+        GridMaxFlow maxFlow = new GridMaxFlow();
+        for (int i = 0; i < 500; i++) {
+            GridMaxFlowTest.checkRandomGrid(random, maxFlow);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ ******************************************************************************/
+package fr.ign.cogit.geoxygene.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Point d'entrée du jar de benchmarks. Accepte les options habituelles de JMH
+ * (par exemple {@code -p size=1000} ou une expression régulière de sélection
+ * des benchmarks) et écrit par défaut les résultats au format JSON dans
+ * {@value #DEFAULT_RESULT_FILE}, pour pouvoir suivre les régressions d'une
+ * version à l'autre.
+ * <p>
+ * Utilisation : {@code java -jar target/benchmarks.jar [options JMH]}
+ *
+ * @author GeOxygene
+ */
+public final class BenchmarkRunner {
+
+  /** Fichier de résultats utilisé si aucun n'est donné par {@code -rff}. */
+  public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws RunnerException,
+      CommandLineOptionException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine);
+    if (!commandLine.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLine.getResult().hasValue()) {
+      builder.result(DEFAULT_RESULT_FILE);
+    }
+    if (commandLine.getIncludes().isEmpty()) {
+      builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+    }
+    new Runner(builder.build()).run();
+  }
+
+}
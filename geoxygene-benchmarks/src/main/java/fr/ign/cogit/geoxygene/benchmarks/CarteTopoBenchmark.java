@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ ******************************************************************************/
+package fr.ign.cogit.geoxygene.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.CarteTopo;
+
+/**
+ * Construction de la topologie d'une {@link CarteTopo} : topologie arcs /
+ * noeuds sur un réseau en grille de {@code gridSize} x {@code gridSize}
+ * noeuds, et planarisation de {@code nbLines} lignes aléatoires qui se
+ * croisent, séquentielle ou par dalles en parallèle. Chaque benchmark a son
+ * propre état, dont la carte est reconstruite avant chaque appel, hors
+ * mesure.
+ *
+ * @author GeOxygene
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CarteTopoBenchmark {
+
+  private static final double TOLERANCE = 0.1;
+
+  /** Réseau en grille, pour la topologie arcs / noeuds. */
+  @State(Scope.Thread)
+  public static class GridState {
+
+    @Param({ "50", "200" })
+    public int gridSize;
+
+    private List<ILineString> grid;
+    private CarteTopo map;
+
+    @Setup(Level.Trial)
+    public void setUpData() {
+      this.grid = SyntheticData.gridNetwork(new Random(SyntheticData.SEED),
+          this.gridSize, 100);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpMap() {
+      this.map = SyntheticData.carteTopo(this.grid);
+    }
+  }
+
+  /** Lignes aléatoires qui se croisent, pour la planarisation. */
+  @State(Scope.Thread)
+  public static class CrossingState {
+
+    @Param({ "100", "1000" })
+    public int nbLines;
+
+    private List<ILineString> lines;
+    private CarteTopo map;
+
+    @Setup(Level.Trial)
+    public void setUpData() {
+      Random random = new Random(SyntheticData.SEED);
+      this.lines = new ArrayList<ILineString>(this.nbLines);
+      for (IFeature feature : SyntheticData.randomLines(random, this.nbLines,
+          10000, 20)) {
+        this.lines.add((ILineString) feature.getGeom());
+      }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpMap() {
+      this.map = SyntheticData.carteTopo(this.lines);
+    }
+  }
+
+  @Benchmark
+  public CarteTopo creeTopologieArcsNoeuds(GridState state) {
+    state.map.creeNoeudsManquants(TOLERANCE);
+    state.map.creeTopologieArcsNoeuds(TOLERANCE);
+    return state.map;
+  }
+
+  @Benchmark
+  public CarteTopo rendPlanaire(CrossingState state) {
+    state.map.creeNoeudsManquants(TOLERANCE);
+    state.map.rendPlanaire(TOLERANCE);
+    return state.map;
+  }
+
+  @Benchmark
+  public CarteTopo rendPlanaireParDalles(CrossingState state) {
+    state.map.creeNoeudsManquants(TOLERANCE);
+    state.map.rendPlanaire(TOLERANCE, Runtime.getRuntime()
+        .availableProcessors());
+    return state.map;
+  }
+
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ ******************************************************************************/
+package fr.ign.cogit.geoxygene.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
+import fr.ign.cogit.geoxygene.contrib.geometrie.Distances;
+import fr.ign.cogit.geoxygene.distance.Frechet;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+
+/**
+ * Distances entre lignes ({@link Frechet}, {@link Distances#hausdorff}) entre
+ * une ligne aléatoire de {@code nbVertices} sommets et une copie bruitée de
+ * celle-ci, comme entre deux saisies d'un même tronçon.
+ *
+ * @author GeOxygene
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss64m")
+public class DistanceBenchmark {
+
+  @Param({ "100", "1000" })
+  public int nbVertices;
+
+  private ILineString line;
+  private ILineString noisyLine;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(SyntheticData.SEED);
+    this.line = SyntheticData.randomWalk(random, this.nbVertices,
+        new DirectPosition(0, 0), 10);
+    this.noisyLine = SyntheticData.noisyCopy(random, this.line, 2);
+  }
+
+  @Benchmark
+  public double discreteFrechet() {
+    return Frechet.discreteFrechet(this.line, this.noisyLine);
+  }
+
+  @Benchmark
+  public double hausdorff() {
+    return Distances.hausdorff(this.line, this.noisyLine);
+  }
+
+}
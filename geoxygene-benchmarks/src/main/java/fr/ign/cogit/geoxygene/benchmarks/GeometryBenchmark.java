@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ ******************************************************************************/
+package fr.ign.cogit.geoxygene.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.util.algo.JtsAlgorithms;
+
+/**
+ * Prédicats et opérations de superposition de {@link JtsAlgorithms} sur deux
+ * polygones aléatoires qui se chevauchent. Le paramètre {@code nbVertices} fixe
+ * la taille des polygones.
+ *
+ * @author GeOxygene
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+  @Param({ "100", "1000", "10000" })
+  public int nbVertices;
+
+  private JtsAlgorithms algorithms;
+  private IGeometry g1;
+  private IGeometry g2;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(SyntheticData.SEED);
+    this.algorithms = new JtsAlgorithms();
+    this.g1 = SyntheticData.randomPolygon(random, new DirectPosition(0, 0),
+        100, this.nbVertices);
+    this.g2 = SyntheticData.randomPolygon(random, new DirectPosition(30, 20),
+        100, this.nbVertices);
+  }
+
+  @Benchmark
+  public boolean intersects() {
+    return this.algorithms.intersects(this.g1, this.g2);
+  }
+
+  @Benchmark
+  public boolean contains() {
+    return this.algorithms.contains(this.g1, this.g2);
+  }
+
+  @Benchmark
+  public boolean touches() {
+    return this.algorithms.touches(this.g1, this.g2);
+  }
+
+  @Benchmark
+  public double distance() {
+    return this.algorithms.distance(this.g1, this.g2);
+  }
+
+  @Benchmark
+  public IGeometry union() {
+    return this.algorithms.union(this.g1, this.g2);
+  }
+
+  @Benchmark
+  public IGeometry intersection() {
+    return this.algorithms.intersection(this.g1, this.g2);
+  }
+
+  @Benchmark
+  public IGeometry difference() {
+    return this.algorithms.difference(this.g1, this.g2);
+  }
+
+  @Benchmark
+  public IGeometry buffer() {
+    return this.algorithms.buffer(this.g1, 5);
+  }
+
+}
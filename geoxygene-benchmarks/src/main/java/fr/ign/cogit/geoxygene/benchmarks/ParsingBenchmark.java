@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ ******************************************************************************/
+package fr.ign.cogit.geoxygene.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IPopulation;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.util.conversion.ParseException;
+import fr.ign.cogit.geoxygene.util.conversion.ShapefileReader;
+import fr.ign.cogit.geoxygene.util.conversion.ShapefileWriter;
+import fr.ign.cogit.geoxygene.util.conversion.WktGeOxygene;
+
+/**
+ * Lecture de géométries : analyse de chaînes WKT par {@link WktGeOxygene} et
+ * chargement d'un shapefile par {@link ShapefileReader}. Le shapefile est
+ * généré dans un répertoire temporaire au démarrage du benchmark.
+ *
+ * @author GeOxygene
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+
+  private static final double SIDE = 10000;
+
+  @Param({ "1000", "10000" })
+  public int size;
+
+  private String[] wkts;
+  private File directory;
+  private String shapefileName;
+
+  @Setup
+  public void setUp() throws IOException {
+    Random random = new Random(SyntheticData.SEED);
+    IPopulation<IFeature> polygons = SyntheticData.randomPolygons(random,
+        this.size, SIDE);
+    this.wkts = new String[polygons.size()];
+    for (int i = 0; i < polygons.size(); i++) {
+      this.wkts[i] = WktGeOxygene.makeWkt(polygons.get(i).getGeom());
+    }
+    this.directory = File.createTempFile("geoxygene-benchmark", "");
+    this.directory.delete();
+    this.directory.mkdir();
+    this.shapefileName = new File(this.directory, "polygons.shp")
+        .getAbsolutePath();
+    ShapefileWriter.write(polygons, this.shapefileName);
+  }
+
+  @TearDown
+  public void tearDown() {
+    for (File file : this.directory.listFiles()) {
+      file.delete();
+    }
+    this.directory.delete();
+  }
+
+  @Benchmark
+  public int wktParsing() throws ParseException {
+    int count = 0;
+    for (String wkt : this.wkts) {
+      IGeometry geometry = WktGeOxygene.makeGeOxygene(wkt);
+      count += geometry.coord().size();
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int shapefileReading() {
+    IPopulation<IFeature> population = ShapefileReader
+        .read(this.shapefileName);
+    return population.size();
+  }
+
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ ******************************************************************************/
+package fr.ign.cogit.geoxygene.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.ign.cogit.geoxygene.contrib.cartetopo.CarteTopo;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.Groupe;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.Noeud;
+
+/**
+ * Plus courts chemins ({@link Noeud#plusCourtChemin(Noeud, double)}) entre des
+ * paires de noeuds tirées au hasard dans un réseau en grille de
+ * {@code gridSize} x {@code gridSize} noeuds. Chaque appel de benchmark
+ * calcule {@link #NB_PATHS} chemins, avec et sans longueur maximale.
+ *
+ * @author GeOxygene
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+  private static final int NB_PATHS = 20;
+  private static final double SPACING = 100;
+
+  @Param({ "30", "100" })
+  public int gridSize;
+
+  private Noeud[] departures;
+  private Noeud[] arrivals;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(SyntheticData.SEED);
+    CarteTopo carteTopo = SyntheticData.carteTopo(SyntheticData.gridNetwork(
+        random, this.gridSize, SPACING));
+    carteTopo.creeNoeudsManquants(0.1);
+    carteTopo.creeTopologieArcsNoeuds(0.1);
+    carteTopo.initialisePoids();
+    List<Noeud> noeuds = carteTopo.getListeNoeuds();
+    this.departures = new Noeud[NB_PATHS];
+    this.arrivals = new Noeud[NB_PATHS];
+    for (int i = 0; i < NB_PATHS; i++) {
+      this.departures[i] = noeuds.get(random.nextInt(noeuds.size()));
+      this.arrivals[i] = noeuds.get(random.nextInt(noeuds.size()));
+    }
+  }
+
+  @Benchmark
+  public int plusCourtChemin() {
+    int count = 0;
+    for (int i = 0; i < NB_PATHS; i++) {
+      Groupe path = this.departures[i].plusCourtChemin(this.arrivals[i], 0);
+      if (path != null) {
+        count += path.getListeArcs().size();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Même requêtes que {@link #plusCourtChemin()} mais avec une longueur
+   * maximale de dix mailles, comme lors de l'appariement de réseaux.
+   */
+  @Benchmark
+  public int plusCourtCheminBorne() {
+    int count = 0;
+    for (int i = 0; i < NB_PATHS; i++) {
+      Groupe path = this.departures[i].plusCourtChemin(this.arrivals[i],
+          10 * SPACING);
+      if (path != null) {
+        count += path.getListeArcs().size();
+      }
+    }
+    return count;
+  }
+
+}
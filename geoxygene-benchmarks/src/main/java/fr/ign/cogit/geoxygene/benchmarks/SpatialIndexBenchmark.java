@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ ******************************************************************************/
+package fr.ign.cogit.geoxygene.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IPopulation;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
+import fr.ign.cogit.geoxygene.util.index.QuadTreeJts;
+import fr.ign.cogit.geoxygene.util.index.STRtreeJts;
+import fr.ign.cogit.geoxygene.util.index.Tiling;
+
+/**
+ * Sélections par fenêtre dans les trois index spatiaux de GeOxygene
+ * ({@link Tiling}, {@link QuadTreeJts}, {@link STRtreeJts}) construits sur la
+ * même population de polygones. Chaque appel de benchmark exécute
+ * {@link #NB_QUERIES} requêtes.
+ *
+ * @author GeOxygene
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialIndexBenchmark {
+
+  private static final int NB_QUERIES = 1000;
+  private static final double SIDE = 10000;
+
+  @Param({ "10000", "100000" })
+  public int size;
+
+  private List<IEnvelope> windows;
+  private Tiling<IFeature> tiling;
+  private QuadTreeJts<IFeature> quadTree;
+  private STRtreeJts<IFeature> strTree;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(SyntheticData.SEED);
+    IPopulation<IFeature> population = SyntheticData.randomPolygons(random,
+        this.size, SIDE);
+    this.windows = SyntheticData.randomWindows(random, NB_QUERIES, SIDE,
+        SIDE / 50);
+    this.tiling = new Tiling<IFeature>(population, false);
+    this.quadTree = new QuadTreeJts<IFeature>(population);
+    this.strTree = new STRtreeJts<IFeature>(population);
+  }
+
+  @Benchmark
+  public int tilingSelect() {
+    int count = 0;
+    for (IEnvelope window : this.windows) {
+      count += this.tiling.select(window).size();
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int quadTreeSelect() {
+    int count = 0;
+    for (IEnvelope window : this.windows) {
+      count += this.quadTree.select(window).size();
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int strTreeSelect() {
+    int count = 0;
+    for (IEnvelope window : this.windows) {
+      count += this.strTree.select(window).size();
+    }
+    return count;
+  }
+
+}
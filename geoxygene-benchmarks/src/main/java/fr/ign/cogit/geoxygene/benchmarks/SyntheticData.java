@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ ******************************************************************************/
+package fr.ign.cogit.geoxygene.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IPopulation;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.Arc;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.CarteTopo;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.feature.Population;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Envelope;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+
+/**
+ * Générateur de jeux de données synthétiques pour les benchmarks. Toutes les
+ * méthodes sont déterministes pour une graine donnée, de sorte que deux
+ * exécutions successives mesurent exactement les mêmes données.
+ *
+ * @author GeOxygene
+ */
+public final class SyntheticData {
+
+  /** Graine utilisée par défaut par les benchmarks. */
+  public static final long SEED = 42L;
+
+  private SyntheticData() {
+  }
+
+  /**
+   * Enveloppe carrée de côté {@code side} dont le coin inférieur gauche est à
+   * l'origine.
+   */
+  public static IEnvelope extent(double side) {
+    return new GM_Envelope(0, side, 0, side);
+  }
+
+  /**
+   * Ligne brisée aléatoire (marche aléatoire) de {@code nbVertices} sommets.
+   * @param random générateur aléatoire
+   * @param nbVertices nombre de sommets
+   * @param start position du premier sommet
+   * @param step longueur maximale d'un segment
+   */
+  public static ILineString randomWalk(Random random, int nbVertices,
+      IDirectPosition start, double step) {
+    IDirectPositionList points = new DirectPositionList();
+    double x = start.getX();
+    double y = start.getY();
+    double angle = random.nextDouble() * 2 * Math.PI;
+    for (int i = 0; i < nbVertices; i++) {
+      points.add(new DirectPosition(x, y));
+      // la direction varie peu d'un segment à l'autre, comme sur une route
+      angle += (random.nextDouble() - 0.5) * Math.PI / 4;
+      double length = step * (0.5 + random.nextDouble() / 2);
+      x += length * Math.cos(angle);
+      y += length * Math.sin(angle);
+    }
+    return new GM_LineString(points);
+  }
+
+  /**
+   * Copie bruitée d'une ligne : chaque sommet est déplacé aléatoirement d'au
+   * plus {@code noise} en x et en y. Sert à simuler une seconde saisie de la
+   * même ligne pour les mesures de distance.
+   */
+  public static ILineString noisyCopy(Random random, ILineString line,
+      double noise) {
+    IDirectPositionList points = new DirectPositionList();
+    for (IDirectPosition p : line.coord()) {
+      points.add(new DirectPosition(
+          p.getX() + (random.nextDouble() - 0.5) * 2 * noise,
+          p.getY() + (random.nextDouble() - 0.5) * 2 * noise));
+    }
+    return new GM_LineString(points);
+  }
+
+  /**
+   * Polygone étoilé aléatoire (donc simple) de {@code nbVertices} sommets
+   * centré sur {@code center}.
+   */
+  public static IPolygon randomPolygon(Random random, IDirectPosition center,
+      double radius, int nbVertices) {
+    IDirectPositionList points = new DirectPositionList();
+    for (int i = 0; i < nbVertices; i++) {
+      double angle = 2 * Math.PI * i / nbVertices;
+      double r = radius * (0.5 + random.nextDouble() / 2);
+      points.add(new DirectPosition(center.getX() + r * Math.cos(angle),
+          center.getY() + r * Math.sin(angle)));
+    }
+    points.add(points.get(0));
+    return new GM_Polygon(new GM_LineString(points));
+  }
+
+  /**
+   * Population de {@code size} petits polygones répartis aléatoirement dans
+   * l'emprise {@code side} x {@code side}.
+   */
+  public static IPopulation<IFeature> randomPolygons(Random random, int size,
+      double side) {
+    IPopulation<IFeature> population = new Population<IFeature>("polygons");
+    double radius = side / Math.sqrt(size) / 2;
+    for (int i = 0; i < size; i++) {
+      IDirectPosition center = new DirectPosition(random.nextDouble() * side,
+          random.nextDouble() * side);
+      population.add(new DefaultFeature(SyntheticData.randomPolygon(random,
+          center, radius, 8 + random.nextInt(16))));
+    }
+    return population;
+  }
+
+  /**
+   * Population de {@code size} lignes aléatoires (qui se croisent) réparties
+   * dans l'emprise {@code side} x {@code side}.
+   */
+  public static IPopulation<IFeature> randomLines(Random random, int size,
+      double side, int nbVertices) {
+    IPopulation<IFeature> population = new Population<IFeature>("lines");
+    double step = side / Math.sqrt(size) / nbVertices * 4;
+    for (int i = 0; i < size; i++) {
+      IDirectPosition start = new DirectPosition(random.nextDouble() * side,
+          random.nextDouble() * side);
+      population.add(new DefaultFeature(SyntheticData.randomWalk(random,
+          nbVertices, start, step)));
+    }
+    return population;
+  }
+
+  /**
+   * Fenêtres de requête aléatoires de côté {@code windowSide} dans l'emprise
+   * {@code side} x {@code side}.
+   */
+  public static List<IEnvelope> randomWindows(Random random, int size,
+      double side, double windowSide) {
+    List<IEnvelope> windows = new ArrayList<IEnvelope>(size);
+    for (int i = 0; i < size; i++) {
+      double x = random.nextDouble() * (side - windowSide);
+      double y = random.nextDouble() * (side - windowSide);
+      windows.add(new GM_Envelope(x, x + windowSide, y, y + windowSide));
+    }
+    return windows;
+  }
+
+  /**
+   * Lignes d'un réseau en grille de {@code n} x {@code n} noeuds, chaque arc
+   * entre deux noeuds voisins étant légèrement perturbé par un sommet
+   * intermédiaire. Les lignes ne se croisent qu'aux noeuds de la grille.
+   */
+  public static List<ILineString> gridNetwork(Random random, int n,
+      double spacing) {
+    List<ILineString> lines = new ArrayList<ILineString>();
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        double x = i * spacing;
+        double y = j * spacing;
+        if (i + 1 < n) {
+          lines.add(SyntheticData.perturbedSegment(random, x, y, x + spacing,
+              y, spacing / 10));
+        }
+        if (j + 1 < n) {
+          lines.add(SyntheticData.perturbedSegment(random, x, y, x, y
+              + spacing, spacing / 10));
+        }
+      }
+    }
+    return lines;
+  }
+
+  private static ILineString perturbedSegment(Random random, double x1,
+      double y1, double x2, double y2, double noise) {
+    return new GM_LineString(new DirectPosition(x1, y1), new DirectPosition(
+        (x1 + x2) / 2 + (random.nextDouble() - 0.5) * noise, (y1 + y2) / 2
+            + (random.nextDouble() - 0.5) * noise), new DirectPosition(x2, y2));
+  }
+
+  /**
+   * Carte topologique dont les arcs sont les lignes données. Les noeuds et la
+   * topologie ne sont pas calculés.
+   */
+  public static CarteTopo carteTopo(List<ILineString> lines) {
+    CarteTopo carteTopo = new CarteTopo("benchmark");
+    for (ILineString line : lines) {
+      Arc arc = carteTopo.getPopArcs().nouvelElement();
+      arc.setGeometrie(new GM_LineString(line.coord()));
+    }
+    return carteTopo;
+  }
+
+}
@@ -9,15 +9,51 @@
  ******************************************************************************/
 package fr.ign.cogit.geoxygene.contrib.agents;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.index.quadtree.Quadtree;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.contrib.agents.agent.GeographicObjectAgent;
 import fr.ign.cogit.geoxygene.contrib.agents.agent.IAgent;
+import fr.ign.cogit.geoxygene.contrib.agents.agent.MesoAgent;
+import fr.ign.cogit.geoxygene.contrib.agents.constraint.Constraint;
+import fr.ign.cogit.geoxygene.contrib.agents.relation.Relation;
+import fr.ign.cogit.geoxygene.contrib.agents.relation.RelationalConstraint;
 
 /**
- * Object composed of an agent's list and able to manage their activations
+ * Object composed of an agent's list and able to manage their activations.
+ * <p>
+ * By default, agents are activated one at a time. With more than one thread
+ * (see {@link #setNbThreads(int)}), the pending agents are split into batches
+ * of agents that do not interact, and the agents of a batch are activated in
+ * parallel. Two agents interact if they are linked by a relation or by a
+ * meso/component link, or if the envelopes of their symbolised geometries,
+ * expanded by the interaction distance (see
+ * {@link #setInteractionDistance(double)}), intersect. An agent that
+ * interacts with an agent left for a later batch is left too, so that
+ * interacting agents are activated in the order of the list, as one at a
+ * time. Agents that are not geographic objects are activated alone. The
+ * agents' activations must then be thread safe as long as they only modify
+ * their own features and those of their neighbours within the interaction
+ * distance.
  * @author JGaffuri 28 janv. 2009
  */
 public class Scheduler implements Runnable {
@@ -26,14 +62,14 @@ public class Scheduler implements Runnable {
   /**
    * The agent's list of the scheduler
    */
-  private ArrayList<IAgent> list;
+  private Deque<IAgent> list;
 
   /**
    * @return
    */
-  public ArrayList<IAgent> getList() {
+  public Deque<IAgent> getList() {
     if (this.list == null) {
-      this.list = new ArrayList<IAgent>();
+      this.list = new ArrayDeque<IAgent>();
     }
     return this.list;
   }
@@ -53,7 +89,7 @@ public class Scheduler implements Runnable {
    * @author amaudet
    */
   public void addToTheTop(IAgent agent) {
-    this.getList().add(0, agent);
+    this.getList().addFirst(agent);
   }
 
   /**
@@ -100,7 +136,7 @@ public class Scheduler implements Runnable {
   /**
    * Wirth {@code true} if the scheduler has to be stopped
    */
-  protected boolean stop = false;
+  protected volatile boolean stop = false;
 
   /**
    * Deactivate the scheduler
@@ -129,6 +165,47 @@ public class Scheduler implements Runnable {
     this.random = random;
   }
 
+  /**
+   * The random generator used to choose the next agent in random mode
+   */
+  private Random rand = new Random();
+
+  /**
+   * Set the seed of the random choice of the agents, for reproducible runs
+   * @param seed
+   */
+  public void setRandomSeed(long seed) {
+    this.rand = new Random(seed);
+  }
+
+  /**
+   * The number of threads activating the agents (1 by default: the agents are
+   * activated one by one)
+   */
+  private int nbThreads = 1;
+
+  public int getNbThreads() {
+    return this.nbThreads;
+  }
+
+  public void setNbThreads(int nbThreads) {
+    this.nbThreads = Math.max(1, nbThreads);
+  }
+
+  /**
+   * The distance under which two geographic agents interact and can not be
+   * activated in the same batch
+   */
+  private double interactionDistance = 0;
+
+  public double getInteractionDistance() {
+    return this.interactionDistance;
+  }
+
+  public void setInteractionDistance(double interactionDistance) {
+    this.interactionDistance = interactionDistance;
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -141,19 +218,21 @@ public class Scheduler implements Runnable {
     Scheduler.logger
         .info("- Scheduler lanching (" + nb + " agents to activate)");
 
+    if (this.nbThreads > 1) {
+      this.runBatches(nb);
+      return;
+    }
+
     int i = 1;
     try {
       // while the list is not empty, activate its elements
       while (!this.getList().isEmpty()) {
 
-        int element = 0;
-        if (random) {
-          Random rand = new Random();
-          element = rand.nextInt(this.getList().size());
-        }
-
         // retrieve the first element
-        IAgent agent = this.getList().get(element);
+        if (this.random) {
+          this.moveRandomToTheTop();
+        }
+        IAgent agent = this.getList().peekFirst();
 
         if (Scheduler.logger.isInfoEnabled()) {
           Scheduler.logger
@@ -184,4 +263,217 @@ public class Scheduler implements Runnable {
     }
   }
 
+  /**
+   * Move a random agent to the beginning of the list, keeping the order of the
+   * others
+   */
+  private void moveRandomToTheTop() {
+    int element = this.rand.nextInt(this.getList().size());
+    if (element == 0) {
+      return;
+    }
+    Iterator<IAgent> it = this.getList().iterator();
+    IAgent agent = it.next();
+    for (int k = 0; k < element; k++) {
+      agent = it.next();
+    }
+    it.remove();
+    this.getList().addFirst(agent);
+  }
+
+  /**
+   * Activate the agents of the list by batches of non interacting agents, each
+   * batch in parallel
+   * @param nb the number of agents to activate
+   */
+  private void runBatches(int nb) {
+    ExecutorService executor = Executors.newFixedThreadPool(this.nbThreads);
+    int i = 0;
+    try {
+      while (!this.getList().isEmpty()) {
+        if (this.random) {
+          List<IAgent> agents = new ArrayList<IAgent>(this.getList());
+          Collections.shuffle(agents, this.rand);
+          this.getList().clear();
+          this.getList().addAll(agents);
+        }
+        List<IAgent> batch = this.nextBatch();
+        i += batch.size();
+        if (Scheduler.logger.isInfoEnabled()) {
+          Scheduler.logger.info("activation of a batch of " + batch.size()
+              + " agents (" + i + "/" + nb + ")");
+        }
+
+        List<Future<Object>> results = new ArrayList<Future<Object>>();
+        for (final IAgent agent : batch) {
+          results.add(executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+              return agent.activate();
+            }
+          }));
+        }
+        boolean interrupted = false;
+        for (Future<Object> result : results) {
+          try {
+            result.get();
+          } catch (ExecutionException e) {
+            if (e.getCause() instanceof InterruptedException) {
+              interrupted = true;
+            } else if (e.getCause() instanceof RuntimeException) {
+              throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+              throw (Error) e.getCause();
+            } else {
+              throw new RuntimeException(e.getCause());
+            }
+          }
+        }
+        if (interrupted) {
+          throw new InterruptedException();
+        }
+
+        // test if an interruption is required
+        this.testStop();
+
+        // pause, if required
+        if (Scheduler.WAIT_TIME > 0) {
+          try {
+            Thread.sleep(this.getWaitTime());
+          } catch (InterruptedException e) {
+            e.printStackTrace();
+          }
+        }
+        this.testStop();
+      }
+      this.thread = null;
+      Scheduler.logger.info("- End (the scheduler is empty)");
+    } catch (InterruptedException e) {
+      // an interuption has been required: stop the scheduler
+      this.stop = false;
+      this.thread = null;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Remove from the list a batch of agents that do not interact with each
+   * other, nor with an agent before them in the list that is left for a later
+   * batch. The list is scanned in order, so that the first agent is always in
+   * the batch and the agents left keep their order.
+   * @return
+   */
+  private List<IAgent> nextBatch() {
+    List<IAgent> batch = new ArrayList<IAgent>();
+    // the agents scanned so far, in the batch or left, and their links
+    Set<IAgent> members = Collections
+        .newSetFromMap(new IdentityHashMap<IAgent, Boolean>());
+    Set<IAgent> locked = Collections
+        .newSetFromMap(new IdentityHashMap<IAgent, Boolean>());
+    Quadtree extents = new Quadtree();
+
+    Iterator<IAgent> it = this.getList().iterator();
+    while (it.hasNext()) {
+      IAgent agent = it.next();
+      Envelope extent = this.getExtent(agent);
+      if (extent == null) {
+        // an agent without extent is activated alone
+        if (batch.isEmpty()) {
+          it.remove();
+          batch.add(agent);
+        }
+        break;
+      }
+      List<IAgent> linked = Scheduler.getLinkedAgents(agent);
+      boolean conflict = locked.contains(agent);
+      for (IAgent other : linked) {
+        if (members.contains(other)) {
+          conflict = true;
+          break;
+        }
+      }
+      if (!conflict) {
+        for (Object o : extents.query(extent)) {
+          Object[] item = (Object[]) o;
+          if (((Envelope) item[0]).intersects(extent)) {
+            conflict = true;
+            break;
+          }
+        }
+      }
+      if (!conflict) {
+        it.remove();
+        batch.add(agent);
+      }
+      members.add(agent);
+      locked.addAll(linked);
+      extents.insert(extent, new Object[] { extent, agent });
+    }
+    return batch;
+  }
+
+  /**
+   * The envelope of the agent's symbolised geometry, expanded by the
+   * interaction distance
+   * @param agent
+   * @return {@code null} if the agent is not a geographic object or if it has
+   *         no geometry
+   */
+  private Envelope getExtent(IAgent agent) {
+    if (!(agent instanceof GeographicObjectAgent)) {
+      return null;
+    }
+    IGeometry geom = ((GeographicObjectAgent) agent).getSymbolGeom();
+    if (geom == null) {
+      return null;
+    }
+    IEnvelope env = geom.envelope();
+    if (env == null || env.isEmpty()) {
+      return null;
+    }
+    Envelope extent = new Envelope(env.minX(), env.maxX(), env.minY(),
+        env.maxY());
+    extent.expandBy(this.interactionDistance);
+    return extent;
+  }
+
+  /**
+   * The agents linked to an agent by a relation, or by a meso/component link
+   * @param agent
+   * @return
+   */
+  private static List<IAgent> getLinkedAgents(IAgent agent) {
+    List<IAgent> linked = new ArrayList<IAgent>();
+    if (agent.getConstraints() != null) {
+      for (Constraint c : agent.getConstraints()) {
+        if (!(c instanceof RelationalConstraint)) {
+          continue;
+        }
+        Relation relation = ((RelationalConstraint) c).getRelation();
+        if (relation == null) {
+          continue;
+        }
+        if (relation.getAgentGeo1() != null) {
+          linked.add(relation.getAgentGeo1());
+        }
+        if (relation.getAgentGeo2() != null) {
+          linked.add(relation.getAgentGeo2());
+        }
+      }
+    }
+    if (agent instanceof GeographicObjectAgent) {
+      GeographicObjectAgent geoAgent = (GeographicObjectAgent) agent;
+      if (geoAgent.getMesoAgent() != null) {
+        linked.add(geoAgent.getMesoAgent());
+      }
+      if (agent instanceof MesoAgent<?>
+          && ((MesoAgent<?>) agent).getComponents() != null) {
+        linked.addAll(((MesoAgent<?>) agent).getComponents());
+      }
+    }
+    linked.remove(agent);
+    return linked;
+  }
+
 }
@@ -31,22 +31,23 @@ public class Agent implements IAgent {
   }
 
   /**
-   * the agent beeing activated
+   * the agent beeing activated, per thread as the scheduler can activate
+   * several agents at the same time
    */
-  private static IAgent activatedAgent = null;
+  private static final ThreadLocal<IAgent> activatedAgent = new ThreadLocal<IAgent>();
 
   /**
-   * @return
+   * @return the agent beeing activated by the current thread
    */
   public static IAgent getActivatedAgent() {
-    return Agent.activatedAgent;
+    return Agent.activatedAgent.get();
   }
 
   /**
-   * @param agent
+   * @param agent the agent beeing activated by the current thread
    */
   public static void setActivatedAgent(IAgent agent) {
-    Agent.activatedAgent = agent;
+    Agent.activatedAgent.set(agent);
   }
 
   /**
@@ -83,8 +84,12 @@ public class Agent implements IAgent {
     // activation of the agent
     logger
         .debug("Agent " + this + " activate LifeCycle " + this.getLifeCycle());
-    AgentSatisfactionState out = this.getLifeCycle().compute(this);
-    Agent.setActivatedAgent(a);
+    AgentSatisfactionState out;
+    try {
+      out = this.getLifeCycle().compute(this);
+    } finally {
+      Agent.setActivatedAgent(a);
+    }
     // for (LayerViewPanel lvp : CartAGenPlugin.getInstance().getApplication()
     // .getMainFrame().getSelectedProjectFrame().getLayerViewPanel()
     // .getViewport().getLayerViewPanels()) {
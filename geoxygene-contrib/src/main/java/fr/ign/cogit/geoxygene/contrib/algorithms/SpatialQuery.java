@@ -12,13 +12,34 @@
  */
 package fr.ign.cogit.geoxygene.contrib.algorithms;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.index.strtree.AbstractNode;
+import com.vividsolutions.jts.index.strtree.Boundable;
+import com.vividsolutions.jts.index.strtree.ItemBoundable;
+import com.vividsolutions.jts.index.strtree.STRtree;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
 import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
 import fr.ign.cogit.geoxygene.util.algo.geometricAlgorithms.measure.proximity.GeometryProximity;
+import fr.ign.cogit.geoxygene.util.conversion.AdapterFactory;
 
 /**
  * Spatial queries that a more complex than the standard select methods.
@@ -27,6 +48,13 @@ import fr.ign.cogit.geoxygene.util.algo.geometricAlgorithms.measure.proximity.Ge
  */
 public class SpatialQuery {
 
+  private static final Logger LOGGER = Logger.getLogger(SpatialQuery.class);
+
+  /** Number of geometries handled by each task of the batch queries. */
+  private static final int GEOMETRIES_PER_TASK = 1024;
+
+  private static final GeometryFactory FACTORY = new GeometryFactory();
+
   /**
    * Get the nearest features of the geometry from the parameter collection. If
    * no feature is close enough (distance under distanceMax), null is returned.
@@ -107,4 +135,323 @@ public class SpatialQuery {
     return nearest;
   }
 
+  /**
+   * Batch version of
+   * {@link #selectNearestWithDistance(IGeometry, IFeatureCollection, double)}
+   * : the features are indexed once, and each geometry gets its nearest
+   * feature by a best-first traversal of the index, that stops as soon as the
+   * nearest feature is found and never looks further than distanceMax. The
+   * geometries are processed in parallel, with one thread per available
+   * processor. If several features are at the same smallest distance of a
+   * geometry, the first one in the collection is returned.
+   * @param geoms the query geometries
+   * @param features
+   * @param distanceMax
+   * @param distances filled with the distance between each geometry and its
+   *          nearest feature, NaN if no feature is close enough
+   * @return for each geometry, the position in features of its nearest
+   *         feature, -1 if no feature is close enough
+   */
+  public static int[] selectNearestWithDistance(
+      List<? extends IGeometry> geoms, IFeatureCollection<IFeature> features,
+      double distanceMax, double[] distances) {
+    return SpatialQuery.selectNearestWithDistance(geoms, features,
+        distanceMax, distances, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * See
+   * {@link #selectNearestWithDistance(List, IFeatureCollection, double, double[])}
+   * .
+   * @param geoms the query geometries
+   * @param features
+   * @param distanceMax
+   * @param distances filled with the distance between each geometry and its
+   *          nearest feature, NaN if no feature is close enough
+   * @param nbThreads the number of threads used (at least 1)
+   * @return for each geometry, the position in features of its nearest
+   *         feature, -1 if no feature is close enough
+   */
+  public static int[] selectNearestWithDistance(
+      final List<? extends IGeometry> geoms,
+      IFeatureCollection<IFeature> features, final double distanceMax,
+      final double[] distances, int nbThreads) {
+    if (distances.length < geoms.size()) {
+      throw new IllegalArgumentException("distances has " + distances.length
+          + " elements for " + geoms.size() + " geometries");
+    }
+    final FeatureIndex index = new FeatureIndex(features, false, nbThreads);
+    final int[] nearest = new int[geoms.size()];
+    SpatialQuery.runBatch(geoms.size(), nbThreads, new BatchTask() {
+      @Override
+      void run(int first, int last) {
+        double[] distance = new double[1];
+        for (int i = first; i < last; i++) {
+          Geometry geom = SpatialQuery.toJts(geoms.get(i));
+          nearest[i] = (geom == null) ? -1 : index.nearest(geom, distanceMax,
+              distance);
+          distances[i] = (nearest[i] < 0) ? Double.NaN : distance[0];
+        }
+      }
+    });
+    return nearest;
+  }
+
+  /**
+   * Batch version of
+   * {@link #selectNearestFeature(IGeometry, IFeatureCollection, double)}, see
+   * {@link #selectNearestWithDistance(List, IFeatureCollection, double, double[])}
+   * .
+   * @param geoms the query geometries
+   * @param features
+   * @param distanceMax
+   * @return for each geometry, the position in features of its nearest
+   *         feature, -1 if no feature is close enough
+   */
+  public static int[] selectNearestFeature(List<? extends IGeometry> geoms,
+      IFeatureCollection<IFeature> features, double distanceMax) {
+    return SpatialQuery.selectNearestWithDistance(geoms, features,
+        distanceMax, new double[geoms.size()]);
+  }
+
+  /**
+   * See {@link #selectNearestFeature(List, IFeatureCollection, double)}.
+   * @param geoms the query geometries
+   * @param features
+   * @param distanceMax
+   * @param nbThreads the number of threads used (at least 1)
+   * @return for each geometry, the position in features of its nearest
+   *         feature, -1 if no feature is close enough
+   */
+  public static int[] selectNearestFeature(List<? extends IGeometry> geoms,
+      IFeatureCollection<IFeature> features, double distanceMax,
+      int nbThreads) {
+    return SpatialQuery.selectNearestWithDistance(geoms, features,
+        distanceMax, new double[geoms.size()], nbThreads);
+  }
+
+  /**
+   * Batch version of {@link #selectContains(IGeometry, IFeatureCollection)}:
+   * the features are indexed and prepared once, then the geometries are
+   * processed in parallel, with one thread per available processor. If several
+   * features contain a geometry, the first one in the collection is returned.
+   * @param geoms the query geometries
+   * @param features
+   * @return for each geometry, the position in features of a feature that
+   *         contains it, -1 if there is none
+   */
+  public static int[] selectContains(List<? extends IGeometry> geoms,
+      IFeatureCollection<IFeature> features) {
+    return SpatialQuery.selectContains(geoms, features, Runtime.getRuntime()
+        .availableProcessors());
+  }
+
+  /**
+   * See {@link #selectContains(List, IFeatureCollection)}.
+   * @param geoms the query geometries
+   * @param features
+   * @param nbThreads the number of threads used (at least 1)
+   * @return for each geometry, the position in features of a feature that
+   *         contains it, -1 if there is none
+   */
+  public static int[] selectContains(final List<? extends IGeometry> geoms,
+      IFeatureCollection<IFeature> features, int nbThreads) {
+    final FeatureIndex index = new FeatureIndex(features, true, nbThreads);
+    final int[] containing = new int[geoms.size()];
+    SpatialQuery.runBatch(geoms.size(), nbThreads, new BatchTask() {
+      @Override
+      void run(int first, int last) {
+        for (int i = first; i < last; i++) {
+          Geometry geom = SpatialQuery.toJts(geoms.get(i));
+          containing[i] = (geom == null) ? -1 : index.contains(geom);
+        }
+      }
+    });
+    return containing;
+  }
+
+  private static Geometry toJts(IGeometry geom) {
+    if (geom == null) {
+      return null;
+    }
+    try {
+      return AdapterFactory.toGeometry(FACTORY, geom);
+    } catch (Exception e) {
+      LOGGER.error("Unable to convert geometry " + geom);
+      return null;
+    }
+  }
+
+  /**
+   * Part of a batch query, processing the geometries from first (included) to
+   * last (excluded).
+   */
+  private static abstract class BatchTask {
+    abstract void run(int first, int last);
+  }
+
+  private static void runBatch(int size, int nbThreads, final BatchTask task) {
+    if (nbThreads <= 1 || size <= GEOMETRIES_PER_TASK) {
+      task.run(0, size);
+      return;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    List<Future<?>> results = new ArrayList<Future<?>>();
+    try {
+      for (int start = 0; start < size; start += GEOMETRIES_PER_TASK) {
+        final int first = start;
+        final int last = Math.min(start + GEOMETRIES_PER_TASK, size);
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            task.run(first, last);
+            return null;
+          }
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * STRtree of the JTS geometries of a feature collection, whose items are the
+   * positions of the features in the collection.
+   */
+  private static class FeatureIndex {
+    private Geometry[] geoms;
+    private PreparedGeometry[] prepared;
+    private STRtree tree = new STRtree();
+
+    FeatureIndex(final IFeatureCollection<IFeature> features,
+        final boolean prepare, int nbThreads) {
+      this.geoms = new Geometry[features.size()];
+      this.prepared = prepare ? new PreparedGeometry[features.size()] : null;
+      SpatialQuery.runBatch(features.size(), nbThreads, new BatchTask() {
+        @Override
+        void run(int first, int last) {
+          for (int i = first; i < last; i++) {
+            Geometry geom = SpatialQuery.toJts(features.get(i).getGeom());
+            FeatureIndex.this.geoms[i] = geom;
+            if (prepare && geom != null) {
+              FeatureIndex.this.prepared[i] = PreparedGeometryFactory
+                  .prepare(geom);
+            }
+          }
+        }
+      });
+      for (int i = 0; i < this.geoms.length; i++) {
+        if (this.geoms[i] != null && !this.geoms[i].isEmpty()) {
+          this.tree.insert(this.geoms[i].getEnvelopeInternal(),
+              Integer.valueOf(i));
+        }
+      }
+      this.tree.build();
+    }
+
+    /**
+     * Best-first search of the nearest feature: nodes and features are
+     * explored by increasing distance, the distance to a node (or to a feature
+     * not yet examined) being the distance to its envelope, which is a lower
+     * bound of the distance to its features. At equal distance, nodes are
+     * explored before features, so that among the features at the smallest
+     * distance the one with the smallest position is returned.
+     * @param geom
+     * @param distanceMax
+     * @param distance receives the distance to the nearest feature
+     * @return the position of the nearest feature, -1 if no feature is within
+     *         distanceMax
+     */
+    int nearest(Geometry geom, double distanceMax, double[] distance) {
+      if (this.tree.isEmpty()) {
+        return -1;
+      }
+      Envelope env = geom.getEnvelopeInternal();
+      PriorityQueue<Candidate> queue = new PriorityQueue<Candidate>();
+      AbstractNode root = this.tree.getRoot();
+      queue.add(new Candidate(env.distance((Envelope) root.getBounds()), root,
+          -1));
+      while (!queue.isEmpty()) {
+        Candidate candidate = queue.poll();
+        if (candidate.distance > distanceMax) {
+          return -1;
+        }
+        if (candidate.boundable == null) {
+          distance[0] = candidate.distance;
+          return candidate.feature;
+        }
+        if (candidate.boundable instanceof AbstractNode) {
+          for (Object child : ((AbstractNode) candidate.boundable)
+              .getChildBoundables()) {
+            Boundable b = (Boundable) child;
+            double d = env.distance((Envelope) b.getBounds());
+            if (d <= distanceMax) {
+              queue.add(new Candidate(d, b, -1));
+            }
+          }
+        } else {
+          int i = ((Integer) ((ItemBoundable) candidate.boundable).getItem())
+              .intValue();
+          double d = geom.distance(this.geoms[i]);
+          if (d <= distanceMax) {
+            queue.add(new Candidate(d, null, i));
+          }
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * @param geom
+     * @return the smallest position of a feature containing geom, -1 if there
+     *         is none
+     */
+    int contains(Geometry geom) {
+      int found = -1;
+      for (Object o : this.tree.query(geom.getEnvelopeInternal())) {
+        int i = ((Integer) o).intValue();
+        if ((found < 0 || i < found) && this.prepared[i].contains(geom)) {
+          found = i;
+        }
+      }
+      return found;
+    }
+  }
+
+  /**
+   * Element of the best-first search: a node or feature of the index with the
+   * distance to its envelope, or a feature with its exact distance (null
+   * boundable). At equal distance, nodes and envelope distances come first,
+   * then exact distances by increasing feature position.
+   */
+  private static class Candidate implements Comparable<Candidate> {
+    final double distance;
+    final Boundable boundable;
+    final int feature;
+
+    Candidate(double distance, Boundable boundable, int feature) {
+      this.distance = distance;
+      this.boundable = boundable;
+      this.feature = feature;
+    }
+
+    @Override
+    public int compareTo(Candidate c) {
+      if (this.distance != c.distance) {
+        return this.distance < c.distance ? -1 : 1;
+      }
+      if ((this.boundable == null) != (c.boundable == null)) {
+        return this.boundable == null ? 1 : -1;
+      }
+      return this.feature - c.feature;
+    }
+  }
 }
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 
@@ -467,7 +468,8 @@ public abstract class Appariement {
       Iterator<Arc> itArcsProches = arcsProches.iterator();
       ArcApp arcRef = (ArcApp) itArcsProches.next();
       ILineString resampled = Resampler.resample(arcComp.getGeometrie(), param.distanceArcsMax);
-      double dmin = Distances.premiereComposanteHausdorff(resampled, arcRef.getGeometrie());
+      double dmin = Distances.premiereComposanteHausdorff(resampled, arcRef.getGeometrie(),
+          param.distanceArcsMax);
       if (dmin > param.distanceArcsMax) {
         dmin = Double.MAX_VALUE;
       }
@@ -476,7 +478,8 @@ public abstract class Appariement {
       while (itArcsProches.hasNext()) {
         arcRef = (ArcApp) itArcsProches.next();
 //        double d = arcComp.premiereComposanteHausdorff(arcRef, param.distanceArcsMax);
-        double d = Distances.premiereComposanteHausdorff(resampled, arcRef.getGeometrie());
+        double d = Distances.premiereComposanteHausdorff(resampled, arcRef.getGeometrie(),
+            param.distanceArcsMax);
         if (d > param.distanceArcsMax) {
           d = Double.MAX_VALUE;
         }
@@ -553,6 +556,12 @@ public abstract class Appariement {
       NoeudApp noeudComp = (NoeudApp) itNoeuds.next();
       noeudComp.setResultatAppariement(I18N.getString("Appariement.Unmatched")); //$NON-NLS-1$
     }
+    // Qualification des candidats calculée à l'avance, en parallèle
+    Map<Noeud, int[]> correspondances = null;
+    if (param.nbThreads > 1) {
+      correspondances = AppariementParallele.correspondancesNoeuds(reseau1,
+          liensPreAppNN, liensPreAppAA, param.nbThreads);
+    }
     // On traite chaque noeud ref, un par un
     itNoeuds = reseau1.getPopNoeuds().getElements().iterator();
     while (itNoeuds.hasNext()) {
@@ -590,10 +599,12 @@ public abstract class Appariement {
       List<Noeud> noeudsCompCandidats = (liensDuNoeudRef.get(0)).getNoeuds2();
       List<ElementCarteTopo> complets = new ArrayList<ElementCarteTopo>();
       List<ElementCarteTopo> incomplets = new ArrayList<ElementCarteTopo>();
-      Iterator<Noeud> itNoeudsComp = noeudsCompCandidats.iterator();
-      while (itNoeudsComp.hasNext()) {
-        NoeudApp noeudComp = (NoeudApp) itNoeudsComp.next();
-        int correspondance = noeudRef.correspCommunicants(noeudComp, liensPreAppAA);
+      int[] correspondancesRef = (correspondances == null) ? null
+          : correspondances.get(noeudRef);
+      for (int k = 0; k < noeudsCompCandidats.size(); k++) {
+        NoeudApp noeudComp = (NoeudApp) noeudsCompCandidats.get(k);
+        int correspondance = (correspondancesRef != null) ? correspondancesRef[k]
+            : noeudRef.correspCommunicants(noeudComp, liensPreAppAA);
         if (correspondance == 1) {
           complets.add(noeudComp);
         }
@@ -1358,6 +1369,12 @@ public abstract class Appariement {
     EnsembleDeLiens liensArcsArcs = new EnsembleDeLiens(LienReseaux.class);
     liensArcsArcs.setNom(I18N.getString("Appariement.EdgeMatching")); //$NON-NLS-1$
     
+    // Plus courts chemins calculés à l'avance, en parallèle
+    Map<Arc, AppariementParallele.CheminsArc> chemins = null;
+    if (param.nbThreads > 1) {
+      chemins = AppariementParallele.cheminsArcs(reseau1, liensPreAppAA,
+          liensAppNoeuds, param);
+    }
     // on étudie tous les arc ref, un par un, indépendamment les uns des autres
     for (Arc edge : reseau1.getPopArcs()) {
       LOGGER.debug("appariementArcs : Edge " + edge);
@@ -1386,8 +1403,11 @@ public abstract class Appariement {
       // Recherche des noeuds en correspondance avec les extrémités de
       // l'arc, que ce soit en entree ou en sortie pour l'arc
       // (au sens de la circulation)
-      List<List<Noeud>> noeudsInOut = arcRef
-          .noeudsEnCorrespondanceAuxExtremites(liensAppNoeuds, liensPreAppAA);
+      AppariementParallele.CheminsArc cheminsArc = (chemins == null) ? null
+          : chemins.get(arcRef);
+      List<List<Noeud>> noeudsInOut = (cheminsArc != null) ? cheminsArc.noeudsInOut
+          : arcRef.noeudsEnCorrespondanceAuxExtremites(liensAppNoeuds,
+              liensPreAppAA);
       List<Noeud> noeudsDebutIn = noeudsInOut.get(0);
       List<Noeud> noeudsDebutOut = noeudsInOut.get(1);
       List<Noeud> noeudsFinIn = noeudsInOut.get(2);
@@ -1402,32 +1422,43 @@ public abstract class Appariement {
         continue;
       }
       // /////// CALCUL DES PLUS COURTS CHEMINS /////////
-      // creation d'un groupe "tousCandidats" avec tous les arcs candidats issus du pré-appariement
-      tousArcs = arcRef.arcsCompEnCorrespondance(liensPreAppAA);
-      GroupeApp tousCandidats = (GroupeApp) reseau2.getPopGroupes().nouvelElement();
-      tousCandidats.setListeArcs(new ArrayList<Arc>(tousArcs));
-      for (Arc arcComp : tousCandidats.getListeArcs()) {
-        arcComp.addGroupe(tousCandidats);
-      }
-      tousCandidats.ajouteNoeuds();
-      // Pour éviter les débordements, on ne cherche que les pcc pas trop grands.
-      // longMaxRecherche = arcRef.getGeometrie().length()*5* param.coefficentPoidsLongueurDistance;
-      double longMaxRecherche = arcRef.getGeometrie().length() * param.distanceArcsMax;
-      // calcul du poids des arcs
-      Appariement.calculePoids(arcRef, tousCandidats, param);
-      LOGGER.debug("Shortest Path between ");
-      for (Noeud n : noeudsDebutOut) {
-        LOGGER.debug("\tStart : " + n.getGeometrie());
-      }
-      for (Noeud n : noeudsFinIn) {
-        LOGGER.debug("\tEnd : " + n.getGeometrie());
-      }
-      // Recherche du PCC dans un sens, et dans l'autre si l'arc est en double sens.
-      GroupeApp pccMin1 = tousCandidats.plusCourtChemin(noeudsDebutOut, noeudsFinIn,
-          longMaxRecherche);
-      GroupeApp pccMin2 = tousCandidats.plusCourtChemin(noeudsFinOut, noeudsDebutIn,
-          longMaxRecherche);
-      tousCandidats.videEtDetache();
+      GroupeApp pccMin1;
+      GroupeApp pccMin2;
+      if (cheminsArc != null) {
+        // déjà calculés : il ne reste qu'à créer les groupes
+        cheminsArc.appliquePoids();
+        pccMin1 = (cheminsArc.chemin1 == null) ? null
+            : AppariementParallele.CheminsArc.groupe(cheminsArc.chemin1, reseau2);
+        pccMin2 = (cheminsArc.chemin2 == null) ? null
+            : AppariementParallele.CheminsArc.groupe(cheminsArc.chemin2, reseau2);
+      } else {
+        // creation d'un groupe "tousCandidats" avec tous les arcs candidats issus du pré-appariement
+        tousArcs = arcRef.arcsCompEnCorrespondance(liensPreAppAA);
+        GroupeApp tousCandidats = (GroupeApp) reseau2.getPopGroupes().nouvelElement();
+        tousCandidats.setListeArcs(new ArrayList<Arc>(tousArcs));
+        for (Arc arcComp : tousCandidats.getListeArcs()) {
+          arcComp.addGroupe(tousCandidats);
+        }
+        tousCandidats.ajouteNoeuds();
+        // Pour éviter les débordements, on ne cherche que les pcc pas trop grands.
+        // longMaxRecherche = arcRef.getGeometrie().length()*5* param.coefficentPoidsLongueurDistance;
+        double longMaxRecherche = arcRef.getGeometrie().length() * param.distanceArcsMax;
+        // calcul du poids des arcs
+        Appariement.calculePoids(arcRef, tousCandidats, param);
+        LOGGER.debug("Shortest Path between ");
+        for (Noeud n : noeudsDebutOut) {
+          LOGGER.debug("\tStart : " + n.getGeometrie());
+        }
+        for (Noeud n : noeudsFinIn) {
+          LOGGER.debug("\tEnd : " + n.getGeometrie());
+        }
+        // Recherche du PCC dans un sens, et dans l'autre si l'arc est en double sens.
+        pccMin1 = tousCandidats.plusCourtChemin(noeudsDebutOut, noeudsFinIn,
+            longMaxRecherche);
+        pccMin2 = tousCandidats.plusCourtChemin(noeudsFinOut, noeudsDebutIn,
+            longMaxRecherche);
+        tousCandidats.videEtDetache();
+      }
       // /////// ANALYSE DES PLUS COURTS CHEMINS /////////
       // cas 3 : on n'a trouvé aucun plus court chemin, dans aucun sens
       if ((pccMin1 == null) && (pccMin2 == null)) {
@@ -1706,17 +1737,20 @@ public abstract class Appariement {
   private static void calculePoids(final ArcApp arcRef, final GroupeApp tousCandidats,
       final ParametresApp param) {
     for (Arc arcComp : tousCandidats.getListeArcs()) {
-      // poids = arcComp.longueur() + param.coefficentPoidsLongueurDistance*
-      // Operateurs.premiere_composante_hausdorff(arcComp.getGeometrie(),arcRef.getGeometrie());
-      // ancienne version
-      double poids = Distances.ecartSurface(arcComp.getGeometrie(), arcRef.getGeometrie());
-      arcComp.setPoids(poids);
-      // LOGGER.debug("ecartSurface");
-      // LOGGER.debug(arcComp.getGeometrie());
-      // LOGGER.debug(arcRef.getGeometrie());
-      // LOGGER.debug("Poids = " + poids);
+      arcComp.setPoids(Appariement.poids(arcRef, arcComp));
     }
   }
+
+  /**
+   * Poids d'un arc comp candidat pour la recherche des plus courts chemins
+   * appariés à un arc ref : écart de surface entre les deux arcs.
+   * <p>
+   * Ancienne version : arcComp.longueur() + param.coefficentPoidsLongueurDistance *
+   * Operateurs.premiere_composante_hausdorff(arcComp.getGeometrie(), arcRef.getGeometrie()).
+   */
+  static double poids(final Arc arcRef, final Arc arcComp) {
+    return Distances.ecartSurface(arcComp.getGeometrie(), arcRef.getGeometrie());
+  }
   
   /**
    * Controle de l'enemble des appariements (et non plus un à un) : recherche
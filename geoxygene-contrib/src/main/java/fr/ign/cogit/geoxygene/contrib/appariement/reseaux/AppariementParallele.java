@@ -0,0 +1,277 @@
+/*
+ * This file is part of the GeOxygene project source files.
+ *
+ * GeOxygene aims at providing an open framework which implements OGC/ISO
+ * specifications for the development and deployment of geographic (GIS)
+ * applications. It is a open source contribution of the COGIT laboratory at the
+ * Institut Géographique National (the French National Mapping Agency).
+ *
+ * See: http://oxygene-project.sourceforge.net
+ *
+ * Copyright (C) 2005 Institut Géographique National
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library (see file LICENSE if present); if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+
+package fr.ign.cogit.geoxygene.contrib.appariement.reseaux;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import fr.ign.cogit.geoxygene.contrib.appariement.EnsembleDeLiens;
+import fr.ign.cogit.geoxygene.contrib.appariement.reseaux.topologie.ArcApp;
+import fr.ign.cogit.geoxygene.contrib.appariement.reseaux.topologie.GroupeApp;
+import fr.ign.cogit.geoxygene.contrib.appariement.reseaux.topologie.NoeudApp;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.Arc;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.CarteTopo;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.Noeud;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.PlusCourtChemin;
+
+/**
+ * Calculs de l'appariement de réseaux exécutés en parallèle (voir
+ * {@link ParametresApp#nbThreads}).
+ * <p>
+ * Seuls les calculs qui ne font que lire les réseaux et les liens sont
+ * parallélisés : qualification des noeuds comp candidats pour chaque noeud
+ * ref, et recherche des plus courts chemins candidats pour chaque arc ref. Les
+ * plus courts chemins sont calculés par {@link PlusCourtChemin}, comme en mode
+ * séquentiel, mais avec les poids passés en paramètre plutôt que stockés sur
+ * les arcs. Les résultats sont rangés par élément ref puis exploités
+ * séquentiellement, dans l'ordre des populations, par {@link Appariement} :
+ * les liens créés sont les mêmes qu'en mode séquentiel.
+ * <p>
+ * English: parallel, read-only steps of the network matching. Results are
+ * merged sequentially in the order of the reference network.
+ *
+ * @author GeOxygene
+ */
+final class AppariementParallele {
+
+  /** Nombre d'éléments ref en dessous duquel une tâche n'est plus divisée. */
+  private static final int GRAIN = 32;
+
+  private AppariementParallele() {
+  }
+
+  // ///////////////////////////////////////////////////////////////////////////
+  // NOEUDS
+  // ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Qualification, pour chaque noeud ref, de ses noeuds comp candidats (voir
+   * {@link NoeudApp#correspCommunicants(NoeudApp, EnsembleDeLiens)}).
+   * @return pour chaque noeud ref ayant des candidats, la correspondance de
+   *         chacun de ses candidats, dans l'ordre des candidats du lien de
+   *         pré-appariement
+   */
+  static Map<Noeud, int[]> correspondancesNoeuds(CarteTopo reseau1,
+      final EnsembleDeLiens liensPreAppNN, final EnsembleDeLiens liensPreAppAA,
+      int nbThreads) {
+    final List<Noeud> noeudsRef = new ArrayList<Noeud>(reseau1.getPopNoeuds()
+        .getElements());
+    final int[][] resultats = new int[noeudsRef.size()][];
+    AppariementParallele.pourTout(noeudsRef.size(), nbThreads, new Tache() {
+      @Override
+      void calcule(int i) {
+        NoeudApp noeudRef = (NoeudApp) noeudsRef.get(i);
+        if (noeudRef.arcs().size() == 0) {
+          return;
+        }
+        List<LienReseaux> liensDuNoeudRef = noeudRef.getLiens(liensPreAppNN
+            .getElements());
+        if (liensDuNoeudRef.size() == 0) {
+          return;
+        }
+        List<Noeud> candidats = liensDuNoeudRef.get(0).getNoeuds2();
+        int[] correspondances = new int[candidats.size()];
+        for (int k = 0; k < candidats.size(); k++) {
+          correspondances[k] = noeudRef.correspCommunicants(
+              (NoeudApp) candidats.get(k), liensPreAppAA);
+        }
+        resultats[i] = correspondances;
+      }
+    });
+    Map<Noeud, int[]> correspondances = new IdentityHashMap<Noeud, int[]>();
+    for (int i = 0; i < resultats.length; i++) {
+      if (resultats[i] != null) {
+        correspondances.put(noeudsRef.get(i), resultats[i]);
+      }
+    }
+    return correspondances;
+  }
+
+  // ///////////////////////////////////////////////////////////////////////////
+  // ARCS
+  // ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Noeuds en correspondance aux extrémités d'un arc ref et plus courts
+   * chemins candidats dans les deux sens.
+   */
+  static final class CheminsArc {
+    /** Voir {@link ArcApp#noeudsEnCorrespondanceAuxExtremites}. */
+    final List<List<Noeud>> noeudsInOut;
+    /** Arcs comp candidats, null si les extrémités ne sont pas appariées. */
+    List<Arc> candidats = null;
+    /** Poids des arcs candidats pour le calcul des plus courts chemins. */
+    double[] poids = null;
+    /** Plus court chemin dans le sens direct, null s'il n'y en a pas. */
+    PlusCourtChemin chemin1 = null;
+    /** Plus court chemin dans le sens indirect, null s'il n'y en a pas. */
+    PlusCourtChemin chemin2 = null;
+
+    CheminsArc(List<List<Noeud>> noeudsInOut) {
+      this.noeudsInOut = noeudsInOut;
+    }
+
+    /**
+     * Affecte aux arcs candidats le poids utilisé pour ce calcul, comme le
+     * fait le calcul séquentiel.
+     */
+    void appliquePoids() {
+      for (int i = 0; i < this.candidats.size(); i++) {
+        this.candidats.get(i).setPoids(this.poids[i]);
+      }
+    }
+
+    /**
+     * Crée dans le réseau comp le groupe correspondant à un des chemins, comme
+     * le fait {@link GroupeApp#plusCourtChemin(List, List, double)}.
+     */
+    static GroupeApp groupe(PlusCourtChemin chemin, CarteTopo reseau) {
+      GroupeApp groupe = (GroupeApp) reseau.getPopGroupes().nouvelElement();
+      chemin.remplit(groupe);
+      return groupe;
+    }
+  }
+
+  /**
+   * Pour chaque arc ref, noeuds en correspondance aux extrémités et plus courts
+   * chemins candidats. Même déroulement que la boucle de
+   * {@link Appariement#appariementArcs}.
+   * @return les résultats des arcs ref qui ont des noeuds aux deux extrémités
+   *         et ne forment pas une boucle
+   */
+  static Map<Arc, CheminsArc> cheminsArcs(CarteTopo reseau1,
+      final EnsembleDeLiens liensPreAppAA,
+      final EnsembleDeLiens liensAppNoeuds, final ParametresApp param) {
+    final List<Arc> arcsRef = new ArrayList<Arc>(reseau1.getPopArcs()
+        .getElements());
+    final CheminsArc[] resultats = new CheminsArc[arcsRef.size()];
+    AppariementParallele.pourTout(arcsRef.size(), param.nbThreads,
+        new Tache() {
+          @Override
+          void calcule(int i) {
+            resultats[i] = AppariementParallele.cheminsArc(
+                (ArcApp) arcsRef.get(i), liensPreAppAA, liensAppNoeuds, param);
+          }
+        });
+    Map<Arc, CheminsArc> chemins = new IdentityHashMap<Arc, CheminsArc>();
+    for (int i = 0; i < resultats.length; i++) {
+      if (resultats[i] != null) {
+        chemins.put(arcsRef.get(i), resultats[i]);
+      }
+    }
+    return chemins;
+  }
+
+  static CheminsArc cheminsArc(ArcApp arcRef, EnsembleDeLiens liensPreAppAA,
+      EnsembleDeLiens liensAppNoeuds, ParametresApp param) {
+    if ((arcRef.getNoeudIni() == null) || (arcRef.getNoeudFin() == null)
+        || (arcRef.getNoeudIni() == arcRef.getNoeudFin())) {
+      return null;
+    }
+    CheminsArc resultat = new CheminsArc(
+        arcRef.noeudsEnCorrespondanceAuxExtremites(liensAppNoeuds,
+            liensPreAppAA));
+    List<Noeud> noeudsDebutIn = resultat.noeudsInOut.get(0);
+    List<Noeud> noeudsDebutOut = resultat.noeudsInOut.get(1);
+    List<Noeud> noeudsFinIn = resultat.noeudsInOut.get(2);
+    List<Noeud> noeudsFinOut = resultat.noeudsInOut.get(3);
+    if (((noeudsFinIn.isEmpty()) && (noeudsFinOut.isEmpty()))
+        || ((noeudsDebutIn.isEmpty()) && (noeudsDebutOut.isEmpty()))) {
+      return resultat;
+    }
+    resultat.candidats = arcRef.arcsCompEnCorrespondance(liensPreAppAA);
+    resultat.poids = new double[resultat.candidats.size()];
+    Map<Arc, Double> poids = new HashMap<Arc, Double>();
+    for (int i = 0; i < resultat.candidats.size(); i++) {
+      Arc arcComp = resultat.candidats.get(i);
+      resultat.poids[i] = Appariement.poids(arcRef, arcComp);
+      poids.put(arcComp, Double.valueOf(resultat.poids[i]));
+    }
+    double longMaxRecherche = arcRef.getGeometrie().length()
+        * param.distanceArcsMax;
+    resultat.chemin1 = PlusCourtChemin.calcule(noeudsDebutOut, noeudsFinIn,
+        poids, longMaxRecherche);
+    resultat.chemin2 = PlusCourtChemin.calcule(noeudsFinOut, noeudsDebutIn,
+        poids, longMaxRecherche);
+    return resultat;
+  }
+
+  // ///////////////////////////////////////////////////////////////////////////
+  // EXECUTION
+  // ///////////////////////////////////////////////////////////////////////////
+
+  /** Calcul indépendant sur le i-ème élément ref. */
+  abstract static class Tache {
+    abstract void calcule(int i);
+  }
+
+  /**
+   * Exécute la tâche pour tous les indices de 0 à n - 1 sur un pool fork-join
+   * de nbThreads threads.
+   */
+  static void pourTout(int n, int nbThreads, Tache tache) {
+    ForkJoinPool pool = new ForkJoinPool(Math.max(1, nbThreads));
+    try {
+      pool.invoke(new Intervalle(tache, 0, n));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** Découpage récursif d'un intervalle d'indices. */
+  private static final class Intervalle extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final Tache tache;
+    private final int debut;
+    private final int fin;
+
+    Intervalle(Tache tache, int debut, int fin) {
+      this.tache = tache;
+      this.debut = debut;
+      this.fin = fin;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.fin - this.debut <= AppariementParallele.GRAIN) {
+        for (int i = this.debut; i < this.fin; i++) {
+          this.tache.calcule(i);
+        }
+        return;
+      }
+      int milieu = (this.debut + this.fin) >>> 1;
+      RecursiveAction.invokeAll(new Intervalle(this.tache, this.debut, milieu),
+          new Intervalle(this.tache, milieu, this.fin));
+    }
+  }
+}
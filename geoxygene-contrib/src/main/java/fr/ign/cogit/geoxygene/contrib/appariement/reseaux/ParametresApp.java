@@ -350,6 +350,16 @@ public class ParametresApp implements Cloneable {
    */
   public boolean varianteChercheRondsPoints = false;
 
+  // ///////////////////////////////////////////////////////////////////////////////
+  // /////////// OPTIONS DE CALCUL ////////////
+  // ///////////////////////////////////////////////////////////////////////////////
+  /**
+   * Nombre de threads utilisés pour qualifier les noeuds candidats et chercher
+   * les plus courts chemins candidats des arcs. Les liens obtenus ne dépendent
+   * pas de ce nombre. Si 1 (défaut), tout le calcul est séquentiel.
+   */
+  public int nbThreads = 1;
+
   // ///////////////////////////////////////////////////////////////////////////////
   // /////////// OPTIONS D'EXPORT ////////////
   // ///////////////////////////////////////////////////////////////////////////////
@@ -445,6 +455,8 @@ public class ParametresApp implements Cloneable {
     p.set("varianteRedecoupageNoeudsNonApparies_DistanceProjectionNoeud", this.varianteRedecoupageNoeudsNonApparies_DistanceProjectionNoeud);
     p.set("varianteFiltrageImpassesParasites", this.varianteFiltrageImpassesParasites);
     p.set("varianteChercheRondsPoints", this.varianteChercheRondsPoints);
+
+    p.set("nbThreads", this.nbThreads);
     
     // 
     Parameters direction1 = new Parameters();
@@ -575,6 +587,10 @@ public class ParametresApp implements Cloneable {
     param.varianteRedecoupageNoeudsNonApparies_DistanceProjectionNoeud = p.getDouble("varianteRedecoupageNoeudsNonApparies_DistanceProjectionNoeud");
     param.varianteFiltrageImpassesParasites = p.getBoolean("varianteFiltrageImpassesParasites");
     param.varianteChercheRondsPoints = p.getBoolean("varianteChercheRondsPoints");
+
+    if (p.get("nbThreads") != null) {
+      param.nbThreads = p.getInteger("nbThreads");
+    }
     
     return param;
   }
@@ -34,7 +34,6 @@ import java.util.Iterator;
 import java.util.List;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
-import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
 import fr.ign.cogit.geoxygene.contrib.appariement.EnsembleDeLiens;
 import fr.ign.cogit.geoxygene.contrib.appariement.Lien;
 import fr.ign.cogit.geoxygene.contrib.appariement.reseaux.LienReseaux;
@@ -347,15 +346,10 @@ public class ArcApp extends Arc {
    * alors renvoie Double.MAX_VALUE, sans plus de précision.
    */
   public double premiereComposanteHausdorff(Arc arc, double dmax) {
-    double result = 0;
-    for (IDirectPosition pt : this.getGeometrie().coord()) {
-      double dist = Distances.distance(pt, arc.getGeometrie());
-      if (dist > dmax) {
-        return Double.MAX_VALUE;
-      }
-      if (dist > result) {
-        result = dist;
-      }
+    double result = Distances.premiereComposanteHausdorff(this.getGeometrie(),
+        arc.getGeometrie(), dmax);
+    if (result > dmax) {
+      return Double.MAX_VALUE;
     }
     return result;
   }
@@ -31,6 +31,7 @@ import fr.ign.cogit.geoxygene.contrib.appariement.reseaux.LienReseaux;
 import fr.ign.cogit.geoxygene.contrib.cartetopo.Arc;
 import fr.ign.cogit.geoxygene.contrib.cartetopo.Groupe;
 import fr.ign.cogit.geoxygene.contrib.cartetopo.Noeud;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.PlusCourtChemin;
 import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
 
 /**
@@ -188,30 +189,15 @@ public class GroupeApp extends Groupe {
    */
   public GroupeApp plusCourtChemin(List<Noeud> noeudsDepart, List<Noeud> noeudsArrivee,
       double longMax) {
-    GroupeApp pccMin = null, pcc;
-    double longueur, longMin = longMax + 1;
-    Noeud iniComp, finComp;
-    for (int j = 0; j < noeudsDepart.size(); j++) {
-      for (int k = 0; k < noeudsArrivee.size(); k++) {
-        iniComp = noeudsDepart.get(j);
-        finComp = noeudsArrivee.get(k);
-        pcc = (GroupeApp) iniComp.plusCourtChemin(finComp, this, longMax);
-        if (pcc == null) {
-          continue;
-        }
-        longueur = pcc.longueur();
-        if (longueur < longMin) {
-          longMin = longueur;
-          if (pccMin != null) {
-            pccMin.vide();
-          }
-          pccMin = pcc;
-          continue;
-        }
-        pcc.vide();
-      }
-    }
-    return pccMin;
+    PlusCourtChemin chemin = PlusCourtChemin.calcule(noeudsDepart, noeudsArrivee,
+        PlusCourtChemin.poids(this.getListeArcs()), longMax);
+    if (chemin == null) {
+      return null;
+    }
+    GroupeApp pcc = (GroupeApp) chemin.getNoeuds().get(0).getCarteTopo()
+        .getPopGroupes().nouvelElement();
+    chemin.remplit(pcc);
+    return pcc;
   }
 
   // /////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -23,8 +23,11 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Set;
@@ -84,6 +87,14 @@ public class CarteTopo extends DataSet {
 
   protected EventListenerList listenerList = new EventListenerList();
 
+  /** Ordre de création des éléments, i.e. des identifiants croissants. */
+  private static final Comparator<IFeature> ORDRE_CREATION = new Comparator<IFeature>() {
+    @Override
+    public int compare(IFeature f1, IFeature f2) {
+      return f1.getId() < f2.getId() ? -1 : (f1.getId() == f2.getId() ? 0 : 1);
+    }
+  };
+
   /**
    * Adds an <code>ActionListener</code> to the carteTopo.
    * @param l the <code>ActionListener</code> to be added
@@ -625,7 +636,8 @@ public class CarteTopo extends DataSet {
         noeud = this.getPopNoeuds()
             .nouvelElement(new GM_Point(arc.getGeometrie().startPoint()));
       } else {
-        noeud = selection.iterator().next();
+        // le plus ancien des noeuds proches, pour un résultat reproductible
+        noeud = Collections.min(selection, CarteTopo.ORDRE_CREATION);
         arc.getGeometrie().coord().set(0, noeud.getGeometrie().getPosition());
       }
       arc.setNoeudIni(noeud);
@@ -636,7 +648,7 @@ public class CarteTopo extends DataSet {
         noeud = this.getPopNoeuds()
             .nouvelElement(new GM_Point(arc.getGeometrie().endPoint()));
       } else {
-        noeud = selection.iterator().next();
+        noeud = Collections.min(selection, CarteTopo.ORDRE_CREATION);
         arc.getGeometrie().coord().set(
             arc.getGeometrie().sizeControlPoint() - 1,
             noeud.getGeometrie().getPosition());
@@ -1144,16 +1156,44 @@ public class CarteTopo extends DataSet {
    *          superposées (utilisé lors de la construction de la topologie
    *          arcs/noeuds). Ce paramètre peut être nul.
    */
-  @SuppressWarnings("unchecked")
   public void rendPlanaire(double tolerance) {
 
     // si pas d'arc, c'est planaire
     if (this.getPopArcs().isEmpty()) {
       return;
     }
+    this.decoupeAuxIntersections();
+    this.creeNoeudsPlanaires(tolerance);
+  }
+
+  /**
+   * Variante parallèle de {@link #rendPlanaire(double)} : la carte est
+   * découpée en dalles traitées simultanément, puis les morceaux d'arcs sont
+   * recollés dans un ordre qui ne dépend pas de l'ordre de fin des calculs.
+   * Tous les arcs de la carte sont recréés.
+   * <p>
+   * English: parallel, tile-partitioned version of
+   * {@link #rendPlanaire(double)}.
+   * @param tolerance tolérance sur la localisation des noeuds
+   * @param nbThreads nombre de threads de calcul
+   * @see PlanarisationParDalles
+   */
+  public void rendPlanaire(double tolerance, int nbThreads) {
+    new PlanarisationParDalles(nbThreads).rendPlanaire(this, tolerance);
+  }
 
-    List<IFeature> dejaTraites = new ArrayList<IFeature>();
-    List<Arc> arcsEnleves = new ArrayList<Arc>(0);
+  /**
+   * Première étape de {@link #rendPlanaire(double)} : découpe les arcs à
+   * chacune de leurs intersections, sans créer de noeud. Les arcs découpés
+   * sont remplacés par leurs morceaux, qui héritent des correspondants et de
+   * l'orientation.
+   */
+  @SuppressWarnings("unchecked")
+  void decoupeAuxIntersections() {
+    // ensembles : les tests d'appartenance sur des listes rendaient la
+    // méthode quadratique en nombre d'arcs découpés
+    Set<IFeature> dejaTraites = new HashSet<IFeature>();
+    Set<Arc> arcsEnleves = new LinkedHashSet<Arc>();
 
     // initialisation de l'index des arcs au besoin
     if (!this.getPopArcs().hasSpatialIndex()) {
@@ -1186,11 +1226,15 @@ public class CarteTopo extends DataSet {
 
       // les arcs qui croisent l'arc courant
       // Optimisation et blindage pour tous les cas non garanti (Seb)
-      Collection<Arc> selection = this.getPopArcs()
-          .select(currentEdge.getGeometrie());
+      // la sélection est triée par ordre de création des arcs : l'ordre des
+      // unions, et donc les arrondis des points d'intersection, ne dépendent
+      // plus de l'ordre d'itération de l'index
+      List<Arc> selection = new ArrayList<Arc>(this.getPopArcs()
+          .select(currentEdge.getGeometrie()));
       // on enlève l'arc courant et les arcs déjà enlevés
       selection.remove(currentEdge);
       selection.removeAll(arcsEnleves);
+      Collections.sort(selection, CarteTopo.ORDRE_CREATION);
       // selection.removeAll(dejaTraites); // ADDED
       CarteTopo.logger.debug(selection.size() + " Edges intersected");
       List<Arc> listeInter = new ArrayList<Arc>(0);
@@ -1381,6 +1425,15 @@ public class CarteTopo extends DataSet {
       CarteTopo.logger.debug("Removing " + arcsEnleves.size() + " edges");
     }
     this.enleveArcs(arcsEnleves);
+  }
+
+  /**
+   * Seconde étape de {@link #rendPlanaire(double)} : recrée les noeuds aux
+   * extrémités des arcs découpés et la topologie arcs/noeuds, puis découpe les
+   * arcs passant à moins de tolerance d'un noeud pendant.
+   * @param tolerance tolérance sur la localisation des noeuds
+   */
+  void creeNoeudsPlanaires(double tolerance) {
     // On construit les nouveaux noeuds éventuels et la topologie
     // arcs/noeuds
     this.getPopNoeuds().setElements(new ArrayList<Noeud>());
@@ -1417,7 +1470,7 @@ public class CarteTopo extends DataSet {
                 .debug(I18N.getString("CarteTopo.NumberOfNeighborEdges") //$NON-NLS-1$
                     + arcs.size());
           }
-          Arc arc = arcs.iterator().next();
+          Arc arc = Collections.min(arcs, CarteTopo.ORDRE_CREATION);
           if (CarteTopo.logger.isDebugEnabled()) {
             CarteTopo.logger
                 .debug(I18N.getString("CarteTopo.EdgeSplitting") + arc); //$NON-NLS-1$
@@ -1439,7 +1492,7 @@ public class CarteTopo extends DataSet {
    * @param tolerance tolérance en dessous de laquelle les noeuds sont fusionés
    */
   public void fusionNoeuds(double tolerance) {
-    List<Noeud> aEnlever = new ArrayList<Noeud>(0);
+    Set<Noeud> aEnlever = new LinkedHashSet<Noeud>();
     // initialisation de l'index spatial sur les arcs avec mise à jour
     // automatique
     if (!this.getPopArcs().hasSpatialIndex()) {
@@ -1475,9 +1528,7 @@ public class CarteTopo extends DataSet {
         nouveauNoeud.addAllCorrespondants(noeudProche.getCorrespondants());
         noeudProche.setCorrespondants(new ArrayList<IFeature>(0));
         // on ajoute le noeud à la liste des noeuds à enlever
-        if (!aEnlever.contains(noeudProche)) {
-          aEnlever.add(noeudProche);
-        }
+        aEnlever.add(noeudProche);
         // modification de chaque arc du noeud proche à bouger
         for (Arc arc : noeudProche.arcs()) {
           if (arc.getNoeudIni().equals(noeudProche)) {
@@ -715,20 +715,9 @@ public class Noeud extends ElementCarteTopo {
    * 
    *         NB : l'attribut orientation DOIT etre renseigné. NB : ce groupe
    *         contient le noeud de départ et le noeud d'arrivée.
+   * @see PlusCourtChemin
    */
   public Groupe plusCourtChemin(Noeud arrivee, Groupe groupe, double maxLongueur) {
-    List<Noeud> noeudsFinaux = new ArrayList<Noeud>(0);
-    List<Arc> arcsFinaux = new ArrayList<Arc>(0);
-    List<Noeud> noeudsVoisins = new ArrayList<Noeud>(0);
-    List<Arc> arcsVoisins = new ArrayList<Arc>(0);
-    List<Double> distancesVoisins = new ArrayList<Double>(0);
-    List<Noeud> traites = new ArrayList<Noeud>(0);
-    List<Noeud> aTraiter = new ArrayList<Noeud>(0);
-    int i;
-    Arc arcVoisin;
-    Noeud noeudVoisin, plusProche, suivant;
-    double dist;
-
     try {
       if (this.getCarteTopo() == null) {
         System.out.println("ATTENTION : le noeud " + this
@@ -752,91 +741,12 @@ public class Noeud extends ElementCarteTopo {
         this.addGroupe(plusCourtChemin);
         return plusCourtChemin;
       }
-      this.distance = 0;
-      this.chercheArcsNoeudsVoisins(groupe, noeudsVoisins, distancesVoisins,
-          arcsVoisins);
-      for (i = 0; i < noeudsVoisins.size(); i++) {
-        noeudVoisin = noeudsVoisins.get(i);
-        arcVoisin = arcsVoisins.get(i);
-        dist = distancesVoisins.get(i).doubleValue();
-        noeudVoisin.distance = dist;
-        noeudVoisin.arcPrecedent = arcVoisin;
-        noeudVoisin.noeudPrecedent = this;
-      }
-      aTraiter.addAll(noeudsVoisins);
-
-      // Phase "avant"
-      while (aTraiter.size() != 0) {
-
-        // choisi le noeud à marquer comme traité parmi les voisins
-        plusProche = aTraiter.get(0);
-        for (i = 1; i < aTraiter.size(); i++) {
-          if (aTraiter.get(i).distance < plusProche.distance) {
-            plusProche = aTraiter.get(i);
-          }
-        }
-
-        traites.add(plusProche);
-        aTraiter.remove(plusProche);
-        if (plusProche == arrivee) {
-          break; // il s'agit du noeud d'arrivée
-        }
-        if (maxLongueur != 0) {
-          if (plusProche.distance > maxLongueur) {
-            return null; // heuristique pour stopper la recherche
-          }
-        }
-
-        plusProche.chercheArcsNoeudsVoisins(groupe, noeudsVoisins,
-            distancesVoisins, arcsVoisins);
-        for (i = 0; i < noeudsVoisins.size(); i++) {
-          noeudVoisin = noeudsVoisins.get(i);
-          arcVoisin = arcsVoisins.get(i);
-          dist = distancesVoisins.get(i).doubleValue();
-          if (traites.contains(noeudVoisin)) {
-            continue; // Noeud déjà traité
-          }
-          if (aTraiter.contains(noeudVoisin)) {
-            // Noeud déjà atteint, on voit si on a trouvé un chemin
-            // plus court pour y accèder
-            if (noeudVoisin.distance > plusProche.distance + dist) {
-              noeudVoisin.distance = plusProche.distance + dist;
-              noeudVoisin.arcPrecedent = arcVoisin;
-              noeudVoisin.noeudPrecedent = plusProche;
-            }
-            continue;
-          }
-          // Nouveau noeud atteint, on l'initialise
-          noeudVoisin.distance = plusProche.distance + dist;
-          noeudVoisin.arcPrecedent = arcVoisin;
-          noeudVoisin.noeudPrecedent = plusProche;
-          aTraiter.add(noeudVoisin);
-        }
-      }
-
-      // Phase "arriere"
-      if (!traites.contains(arrivee)) {
+      PlusCourtChemin chemin = PlusCourtChemin.calcule(this, arrivee,
+          PlusCourtChemin.poids(groupe.getListeArcs()), maxLongueur);
+      if (chemin == null) {
         return null;
       }
-      suivant = arrivee;
-      while (true) {
-        arcsFinaux.add(0, suivant.arcPrecedent);
-        suivant.arcPrecedent.addGroupe(plusCourtChemin);
-        suivant = suivant.noeudPrecedent;
-        if (suivant == this) {
-          break;
-        }
-        noeudsFinaux.add(0, suivant);
-        suivant.addGroupe(plusCourtChemin);
-      }
-
-      noeudsFinaux.add(0, this);
-      this.addGroupe(plusCourtChemin);
-      noeudsFinaux.add(arrivee);
-      arrivee.addGroupe(plusCourtChemin);
-
-      plusCourtChemin.setListeArcs(arcsFinaux);
-      plusCourtChemin.setListeNoeuds(noeudsFinaux);
+      chemin.remplit(plusCourtChemin);
       return plusCourtChemin;
     } catch (Exception e) {
       System.out.println("----- ERREUR dans calcul de plus court chemin.");
@@ -845,88 +755,6 @@ public class Noeud extends ElementCarteTopo {
     }
   }
 
-  /**
-   * Méthode utile au plus court chemin.
-   * @param groupe
-   * @param noeudsVoisins
-   * @param distancesVoisins
-   * @param arcsVoisins
-   */
-  private void chercheArcsNoeudsVoisins(Groupe groupe,
-      List<Noeud> noeudsVoisins, List<Double> distancesVoisins,
-      List<Arc> arcsVoisins) {
-    // au sens de la geometrie
-    List<Arc> arcsEntrants = new ArrayList<Arc>(0);
-    // au sens de la geometrie
-    List<Arc> arcsSortants = new ArrayList<Arc>(0);
-    // au sens de la circulation
-    List<Arc> arcsSortants2 = new ArrayList<Arc>(0);
-    // au sens de la circulation
-    List<Noeud> noeudsSortants2 = new ArrayList<Noeud>(0);
-    // au sens de la circulation
-    List<Double> distancesSortants2 = new ArrayList<Double>(0);
-    Noeud noeud;
-    Arc arc;
-    Double distance;
-    int i, j;
-
-    noeudsVoisins.clear();
-    distancesVoisins.clear();
-    arcsVoisins.clear();
-
-    arcsEntrants = this.getEntrants();
-    arcsSortants = this.getSortants();
-
-    // transformation du sens géométrique au sens de circulation
-    for (i = 0; i < arcsEntrants.size(); i++) {
-      arc = arcsEntrants.get(i);
-      if (groupe.getListeArcs().contains(arc)) {
-        if ((arc.getOrientation() == -1) || (arc.getOrientation() == 2)) {
-          if (arc.getNoeudIni() != null) {
-            arcsSortants2.add(arc);
-            noeudsSortants2.add(arc.getNoeudIni());
-            distancesSortants2.add(arc.getPoids());
-          }
-        }
-      }
-    }
-    for (i = 0; i < arcsSortants.size(); i++) {
-      arc = arcsSortants.get(i);
-      if (groupe.getListeArcs().contains(arc)) {
-        if ((arc.getOrientation() == 1) || (arc.getOrientation() == 2)) {
-          if (arc.getNoeudFin() != null) {
-            arcsSortants2.add(arc);
-            noeudsSortants2.add(arc.getNoeudFin());
-            distancesSortants2.add(arc.getPoids());
-          }
-        }
-      }
-    }
-
-    // en choisissant l'arc le plus court, si il existe des arcs parallèles
-    // (mêmes noeuds ini et fin)
-    for (i = 0; i < noeudsSortants2.size(); i++) {
-      // choix du plus court arc menant au noeud sortant
-      noeud = noeudsSortants2.get(i);
-      if (noeudsVoisins.contains(noeud)) {
-        continue;
-      }
-      arc = arcsSortants2.get(i);
-      distance = distancesSortants2.get(i);
-      for (j = i + 1; j < noeudsSortants2.size(); j++) {
-        if (noeud == noeudsSortants2.get(j)) {
-          if (distancesSortants2.get(j).doubleValue() < distance.doubleValue()) {
-            distance = distancesSortants2.get(j);
-            arc = arcsSortants2.get(j);
-          }
-        }
-      }
-      arcsVoisins.add(arc);
-      noeudsVoisins.add(noeud);
-      distancesVoisins.add(distance);
-    }
-  }
-
   // /////////////////////////////////////////////////////
   // DIVERS
   // /////////////////////////////////////////////////////
@@ -0,0 +1,333 @@
+/*
+ * This file is part of the GeOxygene project source files. GeOxygene aims at
+ * providing an open framework which implements OGC/ISO specifications for the
+ * development and deployment of geographic (GIS) applications. It is a open
+ * source contribution of the COGIT laboratory at the Institut Géographique
+ * National (the French National Mapping Agency). See:
+ * http://oxygene-project.sourceforge.net Copyright (C) 2005 Institut
+ * Géographique National This library is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of the License,
+ * or any later version. This library is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser
+ * General Public License for more details. You should have received a copy of
+ * the GNU Lesser General Public License along with this library (see file
+ * LICENSE if present); if not, write to the Free Software Foundation, Inc., 59
+ * Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package fr.ign.cogit.geoxygene.contrib.cartetopo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
+import fr.ign.cogit.geoxygene.feature.FT_Feature;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.util.index.Tiling;
+
+/**
+ * Planarisation parallèle d'une carte topologique par dallage.
+ * <p>
+ * Chaque arc est attribué à la dalle contenant le centre de son rectangle
+ * englobant. Une dalle découpe, dans une carte topo qui lui est propre, les
+ * arcs qui lui sont attribués ainsi que tous les arcs qui les intersectent
+ * (zone de recouvrement) : les dalles sont donc indépendantes et traitées
+ * simultanément. Un morceau d'arc n'est conservé que par la dalle propriétaire
+ * de son arc d'origine de plus petit rang, ce qui évite les doublons le long
+ * des bords de dalles. Les morceaux sont enfin recollés dans un ordre total
+ * (rang d'origine puis coordonnées des extrémités) : pour un dallage donné, le
+ * résultat ne dépend ni du nombre de threads ni de l'ordre de fin des calculs.
+ * Il est identique à celui de la planarisation séquentielle aux arrondis des
+ * points d'intersection près, et au choix près du noeud retenu quand plusieurs
+ * extrémités sont à moins de la tolérance. Dans les cas dégénérés (arc qui se
+ * recoupe lui-même presque à plat, grappes d'intersections à moins de la
+ * tolérance les unes des autres), le découpage en petits arcs peut aussi
+ * différer, selon les arcs présents dans chaque dalle.
+ * <p>
+ * La création des noeuds, la topologie arcs/noeuds et la découpe des arcs
+ * proches des noeuds pendants sont ensuite faites sur la carte recollée,
+ * comme dans {@link CarteTopo#rendPlanaire(double)}.
+ * <p>
+ * English: parallel, tile-partitioned planarisation of a topological map with
+ * a deterministic stitching of the split edges.
+ * @author GeOxygene
+ */
+public class PlanarisationParDalles {
+
+  /** Logger. */
+  private static final Logger LOGGER = Logger
+      .getLogger(PlanarisationParDalles.class.getName());
+
+  /** Nombre moyen d'arcs par dalle quand le dallage est calculé. */
+  public static final int ARCS_PAR_DALLE = 500;
+
+  /** Nombre de threads de calcul. */
+  private final int nbThreads;
+
+  /** Nombre de dalles par côté, calculé si négatif ou nul. */
+  private int nbDallesParCote = 0;
+
+  /**
+   * @param nbThreads nombre de threads de calcul (au moins 1)
+   */
+  public PlanarisationParDalles(int nbThreads) {
+    this.nbThreads = Math.max(1, nbThreads);
+  }
+
+  /** @return le nombre de dalles par côté, 0 s'il est calculé */
+  public int getNbDallesParCote() {
+    return this.nbDallesParCote;
+  }
+
+  /**
+   * Fixe le nombre de dalles par côté. Par défaut (0), il est calculé pour
+   * avoir environ {@link #ARCS_PAR_DALLE} arcs par dalle.
+   * @param nbDallesParCote nombre de dalles par côté
+   */
+  public void setNbDallesParCote(int nbDallesParCote) {
+    this.nbDallesParCote = nbDallesParCote;
+  }
+
+  /**
+   * Rend la carte topo planaire. Même contrat que
+   * {@link CarteTopo#rendPlanaire(double)}.
+   * @param carteTopo carte topo à rendre planaire
+   * @param tolerance tolérance sur la localisation des noeuds
+   */
+  public void rendPlanaire(CarteTopo carteTopo, double tolerance) {
+    final List<Arc> arcs = new ArrayList<Arc>(carteTopo.getListeArcs());
+    int n = arcs.size();
+    if (n == 0) {
+      return;
+    }
+    int nbCote = this.nbDallesParCote > 0 ? this.nbDallesParCote : (int) Math
+        .ceil(Math.sqrt((double) n / PlanarisationParDalles.ARCS_PAR_DALLE));
+    if (nbCote <= 1) {
+      carteTopo.rendPlanaire(tolerance);
+      return;
+    }
+
+    // index des rectangles englobants des arcs
+    final Envelope[] enveloppes = new Envelope[n];
+    final STRtree index = new STRtree();
+    double xmin = Double.POSITIVE_INFINITY, xmax = Double.NEGATIVE_INFINITY;
+    double ymin = Double.POSITIVE_INFINITY, ymax = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      Arc arc = arcs.get(i);
+      IEnvelope e = arc.getGeometrie().envelope();
+      enveloppes[i] = new Envelope(e.minX(), e.maxX(), e.minY(), e.maxY());
+      index.insert(enveloppes[i], Integer.valueOf(i));
+      xmin = Math.min(xmin, e.minX());
+      xmax = Math.max(xmax, e.maxX());
+      ymin = Math.min(ymin, e.minY());
+      ymax = Math.max(ymax, e.maxY());
+    }
+    // construction explicite : l'arbre est ensuite lu simultanément
+    index.build();
+
+    // attribution de chaque arc à une dalle
+    final int[] proprietaires = new int[n];
+    List<List<Integer>> dalles = new ArrayList<List<Integer>>();
+    for (int d = 0; d < nbCote * nbCote; d++) {
+      dalles.add(new ArrayList<Integer>());
+    }
+    double largeur = Math.max(xmax - xmin, Double.MIN_VALUE) / nbCote;
+    double hauteur = Math.max(ymax - ymin, Double.MIN_VALUE) / nbCote;
+    for (int i = 0; i < n; i++) {
+      int col = Math.min(nbCote - 1,
+          (int) ((enveloppes[i].centre().x - xmin) / largeur));
+      int lig = Math.min(nbCote - 1,
+          (int) ((enveloppes[i].centre().y - ymin) / hauteur));
+      proprietaires[i] = lig * nbCote + col;
+      dalles.get(proprietaires[i]).add(Integer.valueOf(i));
+    }
+
+    // découpe des dalles en parallèle
+    ExecutorService executor = Executors.newFixedThreadPool(this.nbThreads);
+    List<Future<List<Morceau>>> resultats = new ArrayList<Future<List<Morceau>>>();
+    try {
+      for (int d = 0; d < dalles.size(); d++) {
+        if (dalles.get(d).isEmpty()) {
+          continue;
+        }
+        final int dalle = d;
+        final List<Integer> arcsDalle = dalles.get(d);
+        resultats.add(executor.submit(new Callable<List<Morceau>>() {
+          @Override
+          public List<Morceau> call() {
+            return PlanarisationParDalles.decoupeDalle(dalle, arcsDalle, arcs,
+                enveloppes, index, proprietaires);
+          }
+        }));
+      }
+      List<Morceau> morceaux = new ArrayList<Morceau>();
+      for (Future<List<Morceau>> resultat : resultats) {
+        morceaux.addAll(resultat.get());
+      }
+      Collections.sort(morceaux, new ComparateurMorceaux());
+      PlanarisationParDalles.recolle(carteTopo, arcs, morceaux);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    carteTopo.creeNoeudsPlanaires(tolerance);
+  }
+
+  /**
+   * Découpe les arcs d'une dalle et de sa zone de recouvrement, et renvoie les
+   * morceaux dont la dalle est propriétaire.
+   */
+  static List<Morceau> decoupeDalle(int dalle, List<Integer> arcsDalle,
+      List<Arc> arcs, Envelope[] enveloppes, STRtree index,
+      int[] proprietaires) {
+    // arcs de la dalle et arcs qui les intersectent, dans l'ordre des rangs
+    TreeSet<Integer> travail = new TreeSet<Integer>();
+    for (Integer i : arcsDalle) {
+      for (Object voisin : index.query(enveloppes[i.intValue()])) {
+        travail.add((Integer) voisin);
+      }
+    }
+    // les correspondants étant bidirectionnels, les copies pointent vers des
+    // marqueurs propres à la dalle et non vers les arcs d'origine, partagés
+    // entre les threads
+    CarteTopo carteDalle = new CarteTopo("Dalle " + dalle); //$NON-NLS-1$
+    for (Integer i : travail) {
+      Arc origine = arcs.get(i.intValue());
+      Arc copie = carteDalle.getPopArcs().nouvelElement(
+          new GM_LineString(origine.getGeometrie().coord()));
+      copie.setOrientation(origine.getOrientation());
+      copie.addCorrespondant(new Origine(i.intValue()));
+    }
+    carteDalle.decoupeAuxIntersections();
+
+    List<Morceau> morceaux = new ArrayList<Morceau>();
+    for (Arc arc : carteDalle.getListeArcs()) {
+      TreeSet<Integer> rangsOrigines = new TreeSet<Integer>();
+      for (IFeature correspondant : arc.getCorrespondants()) {
+        if (correspondant instanceof Origine) {
+          rangsOrigines.add(Integer.valueOf(((Origine) correspondant).rang));
+        }
+      }
+      if (rangsOrigines.isEmpty()) {
+        PlanarisationParDalles.LOGGER.warn("Edge without origin in tile " //$NON-NLS-1$
+            + dalle + " : " + arc); //$NON-NLS-1$
+        continue;
+      }
+      int rangMin = rangsOrigines.first().intValue();
+      if (proprietaires[rangMin] != dalle) {
+        continue; // morceau conservé par une autre dalle
+      }
+      List<Arc> origines = new ArrayList<Arc>(rangsOrigines.size());
+      for (Integer rang : rangsOrigines) {
+        origines.add(arcs.get(rang.intValue()));
+      }
+      morceaux.add(new Morceau(arc.getGeometrie(), arc.getOrientation(),
+          origines, rangMin));
+    }
+    return morceaux;
+  }
+
+  /**
+   * Remplace les arcs de la carte par les morceaux, triés, en reportant les
+   * correspondants des arcs d'origine.
+   */
+  static void recolle(CarteTopo carteTopo, List<Arc> arcs,
+      List<Morceau> morceaux) {
+    for (Arc arc : arcs) {
+      arc.setNoeudIni(null);
+      arc.setNoeudFin(null);
+      arc.setFaceDroite(null);
+      arc.setFaceGauche(null);
+    }
+    carteTopo.getPopArcs().setElements(new ArrayList<Arc>(0));
+    for (Morceau morceau : morceaux) {
+      Arc arc = carteTopo.getPopArcs().nouvelElement(morceau.geometrie);
+      arc.setOrientation(morceau.orientation);
+      for (Arc origine : morceau.origines) {
+        arc.addAllCorrespondants(origine.getCorrespondants());
+      }
+    }
+    for (Arc arc : arcs) {
+      arc.setCorrespondants(new ArrayList<IFeature>(0));
+    }
+    carteTopo.getPopArcs().initSpatialIndex(Tiling.class, true);
+  }
+
+  /** Marqueur du rang de l'arc d'origine d'une copie dans une dalle. */
+  static class Origine extends FT_Feature {
+    final int rang;
+
+    Origine(int rang) {
+      this.rang = rang;
+    }
+  }
+
+  /** Morceau d'arc produit par la découpe d'une dalle. */
+  static class Morceau {
+    final ILineString geometrie;
+    final int orientation;
+    final List<Arc> origines;
+    final int rangMin;
+
+    Morceau(ILineString geometrie, int orientation, List<Arc> origines,
+        int rangMin) {
+      this.geometrie = geometrie;
+      this.orientation = orientation;
+      this.origines = origines;
+      this.rangMin = rangMin;
+    }
+  }
+
+  /**
+   * Ordre total sur les morceaux : rang de l'arc d'origine, puis coordonnées
+   * des extrémités, puis nombre de points.
+   */
+  static class ComparateurMorceaux implements Comparator<Morceau> {
+    @Override
+    public int compare(Morceau m1, Morceau m2) {
+      if (m1.rangMin != m2.rangMin) {
+        return m1.rangMin < m2.rangMin ? -1 : 1;
+      }
+      int c = ComparateurMorceaux.compare(m1.geometrie.startPoint(),
+          m2.geometrie.startPoint());
+      if (c != 0) {
+        return c;
+      }
+      c = ComparateurMorceaux.compare(m1.geometrie.endPoint(),
+          m2.geometrie.endPoint());
+      if (c != 0) {
+        return c;
+      }
+      int s1 = m1.geometrie.sizeControlPoint();
+      int s2 = m2.geometrie.sizeControlPoint();
+      return s1 < s2 ? -1 : (s1 == s2 ? 0 : 1);
+    }
+
+    private static int compare(IDirectPosition p1, IDirectPosition p2) {
+      int c = Double.compare(p1.getX(), p2.getX());
+      return c != 0 ? c : Double.compare(p1.getY(), p2.getY());
+    }
+  }
+}
@@ -0,0 +1,336 @@
+/*
+ * This file is part of the GeOxygene project source files. GeOxygene aims at
+ * providing an open framework which implements OGC/ISO specifications for the
+ * development and deployment of geographic (GIS) applications. It is a open
+ * source contribution of the COGIT laboratory at the Institut Géographique
+ * National (the French National Mapping Agency). See:
+ * http://oxygene-project.sourceforge.net Copyright (C) 2005 Institut
+ * Géographique National This library is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of the License,
+ * or any later version. This library is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser
+ * General Public License for more details. You should have received a copy of
+ * the GNU Lesser General Public License along with this library (see file
+ * LICENSE if present); if not, write to the Free Software Foundation, Inc., 59
+ * Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package fr.ign.cogit.geoxygene.contrib.cartetopo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Plus court chemin entre deux noeuds, en tenant compte du sens de
+ * circulation, restreint à un ensemble d'arcs pondérés.
+ * <p>
+ * Le calcul ne lit que la topologie et l'orientation des arcs : distances et
+ * prédécesseurs sont stockés dans des structures propres au calcul, et le
+ * poids des arcs est passé en paramètre. Plusieurs calculs peuvent donc être
+ * menés en même temps sur la même carte topo, tant qu'elle n'est pas modifiée.
+ * C'est le calcul utilisé par
+ * {@link Noeud#plusCourtChemin(Noeud, Groupe, double)}.
+ * <p>
+ * English: thread-confined Dijkstra shortest path over a weighted subset of the
+ * edges of a topological map.
+ *
+ * @author GeOxygene
+ */
+public final class PlusCourtChemin {
+
+  /** Logger. */
+  private static final Logger LOGGER = Logger.getLogger(PlusCourtChemin.class
+      .getName());
+
+  /** Arcs du chemin, dans l'ordre de parcours. */
+  private final List<Arc> arcs;
+  /** Noeuds du chemin, départ et arrivée compris. */
+  private final List<Noeud> noeuds;
+
+  private PlusCourtChemin(List<Arc> arcs, List<Noeud> noeuds) {
+    this.arcs = arcs;
+    this.noeuds = noeuds;
+  }
+
+  /** @return les arcs du chemin, dans l'ordre de parcours */
+  public List<Arc> getArcs() {
+    return this.arcs;
+  }
+
+  /** @return les noeuds du chemin, départ et arrivée compris */
+  public List<Noeud> getNoeuds() {
+    return this.noeuds;
+  }
+
+  /** @return somme des longueurs des arcs du chemin */
+  public double longueur() {
+    double longueur = 0;
+    for (int i = 0; i < this.arcs.size(); i++) {
+      longueur += this.arcs.get(i).longueur();
+    }
+    return longueur;
+  }
+
+  /**
+   * Remplit un groupe vide avec les arcs et les noeuds du chemin, et ajoute le
+   * groupe aux groupes de chacun d'eux.
+   */
+  public void remplit(Groupe groupe) {
+    if (this.arcs.isEmpty()) {
+      Noeud noeud = this.noeuds.get(0);
+      groupe.addNoeud(noeud);
+      noeud.addGroupe(groupe);
+      return;
+    }
+    for (Arc arc : this.arcs) {
+      arc.addGroupe(groupe);
+    }
+    for (Noeud noeud : this.noeuds) {
+      noeud.addGroupe(groupe);
+    }
+    groupe.setListeArcs(new ArrayList<Arc>(this.arcs));
+    groupe.setListeNoeuds(new ArrayList<Noeud>(this.noeuds));
+  }
+
+  /**
+   * @return le poids courant (attribut 'poids') de chacun des arcs
+   */
+  public static Map<Arc, Double> poids(List<Arc> arcs) {
+    Map<Arc, Double> poids = new HashMap<Arc, Double>(arcs.size() * 2);
+    for (Arc arc : arcs) {
+      poids.put(arc, Double.valueOf(arc.getPoids()));
+    }
+    return poids;
+  }
+
+  /**
+   * Le plus court (en longueur) des plus courts chemins (en poids) entre un
+   * noeud de départ et un noeud d'arrivée, voir
+   * {@link #calcule(Noeud, Noeud, Map, double)}.
+   * @return le chemin, ou null s'il n'y en a aucun de longueur inférieure à
+   *         longMax + 1
+   */
+  public static PlusCourtChemin calcule(List<Noeud> noeudsDepart,
+      List<Noeud> noeudsArrivee, Map<Arc, Double> poids, double longMax) {
+    PlusCourtChemin cheminMin = null;
+    double longMin = longMax + 1;
+    for (int j = 0; j < noeudsDepart.size(); j++) {
+      for (int k = 0; k < noeudsArrivee.size(); k++) {
+        PlusCourtChemin chemin = PlusCourtChemin.calcule(noeudsDepart.get(j),
+            noeudsArrivee.get(k), poids, longMax);
+        if (chemin == null) {
+          continue;
+        }
+        double longueur = chemin.longueur();
+        if (longueur < longMin) {
+          longMin = longueur;
+          cheminMin = chemin;
+        }
+      }
+    }
+    return cheminMin;
+  }
+
+  /** Noeud en attente de traitement. */
+  private static final class Candidat {
+    final Noeud noeud;
+    final double distance;
+    /** Rang d'arrivée du noeud dans la liste des noeuds à traiter. */
+    final int rang;
+
+    Candidat(Noeud noeud, double distance, int rang) {
+      this.noeud = noeud;
+      this.distance = distance;
+      this.rang = rang;
+    }
+  }
+
+  /**
+   * Ordre de traitement : distance minimale, et à distance égale le premier
+   * noeud atteint.
+   */
+  private static final Comparator<Candidat> ORDRE = new Comparator<Candidat>() {
+    @Override
+    public int compare(Candidat c1, Candidat c2) {
+      int c = Double.compare(c1.distance, c2.distance);
+      if (c != 0) {
+        return c;
+      }
+      return c1.rang < c2.rang ? -1 : (c1.rang == c2.rang ? 0 : 1);
+    }
+  };
+
+  /**
+   * Plus court chemin de depart vers arrivee par les arcs de {@code poids}.
+   *
+   * @param poids poids des arcs utilisables
+   * @param maxLongueur on arrête de chercher et on renvoie null s'il n'y a pas
+   *          de pcc de poids inférieur à maxLongueur (inactif si maxLongueur =
+   *          0)
+   * @return le chemin, réduit au noeud de départ si depart = arrivee, ou null
+   *         s'il n'y a pas de chemin. NB : l'attribut orientation des arcs DOIT
+   *         être renseigné.
+   */
+  public static PlusCourtChemin calcule(Noeud depart, Noeud arrivee,
+      Map<Arc, Double> poids, double maxLongueur) {
+    if (depart == arrivee) {
+      List<Noeud> noeuds = new ArrayList<Noeud>(1);
+      noeuds.add(depart);
+      return new PlusCourtChemin(new ArrayList<Arc>(0), noeuds);
+    }
+    try {
+      Map<Noeud, Double> distances = new HashMap<Noeud, Double>();
+      Map<Noeud, Arc> arcsPrecedents = new HashMap<Noeud, Arc>();
+      Map<Noeud, Noeud> noeudsPrecedents = new HashMap<Noeud, Noeud>();
+      Map<Noeud, Integer> rangs = new HashMap<Noeud, Integer>();
+      Set<Noeud> traites = new HashSet<Noeud>();
+      PriorityQueue<Candidat> aTraiter = new PriorityQueue<Candidat>(11,
+          PlusCourtChemin.ORDRE);
+      List<Noeud> noeudsVoisins = new ArrayList<Noeud>();
+      List<Arc> arcsVoisins = new ArrayList<Arc>();
+      List<Double> distancesVoisins = new ArrayList<Double>();
+
+      distances.put(depart, Double.valueOf(0));
+      PlusCourtChemin.voisins(depart, poids, noeudsVoisins, distancesVoisins,
+          arcsVoisins);
+      for (int i = 0; i < noeudsVoisins.size(); i++) {
+        Noeud voisin = noeudsVoisins.get(i);
+        distances.put(voisin, distancesVoisins.get(i));
+        arcsPrecedents.put(voisin, arcsVoisins.get(i));
+        noeudsPrecedents.put(voisin, depart);
+      }
+      for (Noeud voisin : noeudsVoisins) {
+        rangs.put(voisin, Integer.valueOf(rangs.size()));
+        aTraiter.add(new Candidat(voisin, distances.get(voisin).doubleValue(),
+            rangs.get(voisin).intValue()));
+      }
+
+      // Phase "avant"
+      while (!aTraiter.isEmpty()) {
+        Candidat candidat = aTraiter.poll();
+        Noeud plusProche = candidat.noeud;
+        double distance = distances.get(plusProche).doubleValue();
+        if (traites.contains(plusProche) || candidat.distance != distance) {
+          continue; // entrée périmée du tas
+        }
+        traites.add(plusProche);
+        if (plusProche == arrivee) {
+          break;
+        }
+        if (maxLongueur != 0 && distance > maxLongueur) {
+          return null; // heuristique pour stopper la recherche
+        }
+        PlusCourtChemin.voisins(plusProche, poids, noeudsVoisins,
+            distancesVoisins, arcsVoisins);
+        for (int i = 0; i < noeudsVoisins.size(); i++) {
+          Noeud voisin = noeudsVoisins.get(i);
+          double dist = distancesVoisins.get(i).doubleValue();
+          if (traites.contains(voisin)) {
+            continue;
+          }
+          boolean atteint = rangs.containsKey(voisin);
+          if (atteint
+              && distances.get(voisin).doubleValue() <= distance + dist) {
+            continue;
+          }
+          distances.put(voisin, Double.valueOf(distance + dist));
+          arcsPrecedents.put(voisin, arcsVoisins.get(i));
+          noeudsPrecedents.put(voisin, plusProche);
+          if (!atteint) {
+            rangs.put(voisin, Integer.valueOf(rangs.size()));
+          }
+          aTraiter.add(new Candidat(voisin, distance + dist, rangs.get(voisin)
+              .intValue()));
+        }
+      }
+
+      // Phase "arriere"
+      if (!traites.contains(arrivee)) {
+        return null;
+      }
+      List<Arc> arcs = new ArrayList<Arc>();
+      List<Noeud> noeuds = new ArrayList<Noeud>();
+      Noeud suivant = arrivee;
+      while (true) {
+        arcs.add(0, arcsPrecedents.get(suivant));
+        suivant = noeudsPrecedents.get(suivant);
+        if (suivant == depart) {
+          break;
+        }
+        noeuds.add(0, suivant);
+      }
+      noeuds.add(0, depart);
+      noeuds.add(arrivee);
+      return new PlusCourtChemin(arcs, noeuds);
+    } catch (RuntimeException e) {
+      PlusCourtChemin.LOGGER.error(
+          "Error in shortest path computation from " + depart + " to " //$NON-NLS-1$ //$NON-NLS-2$
+              + arrivee, e);
+      return null;
+    }
+  }
+
+  /**
+   * Voisins d'un noeud au sens de la circulation, par les arcs de
+   * {@code poids}, en ne gardant que l'arc le plus léger entre deux noeuds.
+   */
+  private static void voisins(Noeud noeud, Map<Arc, Double> poids,
+      List<Noeud> noeudsVoisins, List<Double> distancesVoisins,
+      List<Arc> arcsVoisins) {
+    List<Arc> arcsSortants2 = new ArrayList<Arc>();
+    List<Noeud> noeudsSortants2 = new ArrayList<Noeud>();
+    List<Double> distancesSortants2 = new ArrayList<Double>();
+    noeudsVoisins.clear();
+    distancesVoisins.clear();
+    arcsVoisins.clear();
+    // transformation du sens géométrique au sens de circulation
+    for (Arc arc : noeud.getEntrants()) {
+      Double p = poids.get(arc);
+      if (p != null && (arc.getOrientation() == -1 || arc.getOrientation() == 2)
+          && arc.getNoeudIni() != null) {
+        arcsSortants2.add(arc);
+        noeudsSortants2.add(arc.getNoeudIni());
+        distancesSortants2.add(p);
+      }
+    }
+    for (Arc arc : noeud.getSortants()) {
+      Double p = poids.get(arc);
+      if (p != null && (arc.getOrientation() == 1 || arc.getOrientation() == 2)
+          && arc.getNoeudFin() != null) {
+        arcsSortants2.add(arc);
+        noeudsSortants2.add(arc.getNoeudFin());
+        distancesSortants2.add(p);
+      }
+    }
+    // en choisissant l'arc le plus court, s'il existe des arcs parallèles
+    for (int i = 0; i < noeudsSortants2.size(); i++) {
+      Noeud voisin = noeudsSortants2.get(i);
+      if (noeudsVoisins.contains(voisin)) {
+        continue;
+      }
+      Arc arc = arcsSortants2.get(i);
+      Double distance = distancesSortants2.get(i);
+      for (int j = i + 1; j < noeudsSortants2.size(); j++) {
+        if (voisin == noeudsSortants2.get(j)
+            && distancesSortants2.get(j).doubleValue() < distance
+                .doubleValue()) {
+          distance = distancesSortants2.get(j);
+          arc = arcsSortants2.get(j);
+        }
+      }
+      arcsVoisins.add(arc);
+      noeudsVoisins.add(voisin);
+      distancesVoisins.add(distance);
+    }
+  }
+}
@@ -1,8 +1,19 @@
 package fr.ign.cogit.geoxygene.contrib.conflation;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.index.strtree.STRtree;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
@@ -20,12 +31,67 @@ import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Point;
 import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Ring;
 import fr.ign.cogit.geoxygene.util.algo.geomstructure.Vector2D;
 
+/**
+ * Rubber sheeting conflation of features according to a set of conflation
+ * vectors. A vector is taken into account at a point when its norm divided by
+ * the squared distance to the point is above the distance threshold, so each
+ * vector has an influence radius of sqrt(norm / threshold): the vectors are
+ * indexed by their influence envelope in an STRtree, built once per
+ * conflation, and the features are conflated in parallel.
+ */
 public class RubberSheetingConflation {
 
+  /** Number of features conflated by each task. */
+  private static final int FEATURES_PER_TASK = 256;
+
   private IFeatureCollection<? extends IFeature> featsToConflate;
   private Set<ConflationVector> conflationVectors;
   private Map<IFeature, IGeometry> conflatedGeoms;
   private double distanceThreshold = 0.0005;
+  private int nbThreads = Runtime.getRuntime().availableProcessors();
+
+  // index of the vectors, built on first use and shared by the threads
+  private volatile VectorIndex index;
+
+  /**
+   * Immutable index of the influence envelopes of the conflation vectors, for
+   * a given set of vectors and a given distance threshold.
+   */
+  private static final class VectorIndex {
+    private final List<ConflationVector> vectors;
+    // ranks in vectors, by influence envelope
+    private final STRtree tree;
+    // ranks of the vectors with an unbounded influence radius
+    private final List<Integer> unboundedVectors;
+    private final double distanceThreshold;
+
+    private VectorIndex(Set<ConflationVector> conflationVectors,
+        double distanceThreshold) {
+      this.vectors = new ArrayList<ConflationVector>(conflationVectors);
+      this.distanceThreshold = distanceThreshold;
+      List<Integer> unbounded = new ArrayList<Integer>();
+      this.tree = new STRtree();
+      for (int i = 0; i < this.vectors.size(); i++) {
+        ConflationVector vect = this.vectors.get(i);
+        double radius = Math
+            .sqrt(vect.getVector().norme() / distanceThreshold);
+        if (distanceThreshold <= 0 || Double.isNaN(radius)
+            || Double.isInfinite(radius)) {
+          unbounded.add(Integer.valueOf(i));
+          continue;
+        }
+        // slightly enlarged: the exact test is done in computeAggregatedVector
+        radius = radius * (1 + 1e-9) + 1e-9;
+        IDirectPosition pos = vect.getIniPos();
+        this.tree.insert(new Envelope(pos.getX() - radius, pos.getX()
+            + radius, pos.getY() - radius, pos.getY() + radius), Integer
+            .valueOf(i));
+      }
+      // explicit build: the tree is then queried concurrently
+      this.tree.build();
+      this.unboundedVectors = Collections.unmodifiableList(unbounded);
+    }
+  }
 
   public RubberSheetingConflation(
       IFeatureCollection<? extends IFeature> featsToConflate,
@@ -51,6 +117,7 @@ public class RubberSheetingConflation {
 
   public void setConflationVectors(Set<ConflationVector> conflationVectors) {
     this.conflationVectors = conflationVectors;
+    this.clearIndex();
   }
 
   public Map<IFeature, IGeometry> getConflatedGeoms() {
@@ -67,6 +134,43 @@ public class RubberSheetingConflation {
 
   public void setDistanceThreshold(double distanceThreshold) {
     this.distanceThreshold = distanceThreshold;
+    this.clearIndex();
+  }
+
+  public int getNbThreads() {
+    return nbThreads;
+  }
+
+  /**
+   * @param nbThreads the number of threads used by {@link #conflation()} (at
+   *          least 1)
+   */
+  public void setNbThreads(int nbThreads) {
+    this.nbThreads = Math.max(1, nbThreads);
+  }
+
+  /**
+   * Forget the index of the conflation vectors, for instance after a change in
+   * the set returned by {@link #getConflationVectors()}. It is rebuilt on next
+   * use.
+   */
+  public void clearIndex() {
+    this.index = null;
+  }
+
+  private VectorIndex getIndex() {
+    VectorIndex vectorIndex = this.index;
+    if (vectorIndex == null) {
+      synchronized (this) {
+        vectorIndex = this.index;
+        if (vectorIndex == null) {
+          vectorIndex = new VectorIndex(this.conflationVectors,
+              this.distanceThreshold);
+          this.index = vectorIndex;
+        }
+      }
+    }
+    return vectorIndex;
   }
 
   /**
@@ -74,41 +178,88 @@ public class RubberSheetingConflation {
    * to the conflation vectors.
    */
   public void conflation() {
-    for (IFeature feat : this.featsToConflate) {
-      IGeometry newGeom = null;
-      if (feat.getGeom() instanceof IPoint)
-        newGeom = conflatePoint((IPoint) feat.getGeom());
-      else if (feat.getGeom() instanceof ILineString)
-        newGeom = conflateLineString((ILineString) feat.getGeom());
-      else if (feat.getGeom() instanceof IPolygon)
-        newGeom = conflatePolygon((IPolygon) feat.getGeom());
-      // fill the output map
-      if (newGeom == null)
+    final List<IFeature> feats = new ArrayList<IFeature>(this.featsToConflate);
+    final IGeometry[] newGeoms = new IGeometry[feats.size()];
+    final VectorIndex vectorIndex = this.getIndex();
+    if (this.nbThreads == 1 || feats.size() <= FEATURES_PER_TASK) {
+      for (int i = 0; i < feats.size(); i++) {
+        newGeoms[i] = conflateGeometry(feats.get(i).getGeom(), vectorIndex);
+      }
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(this.nbThreads);
+      List<Future<?>> results = new ArrayList<Future<?>>();
+      try {
+        for (int start = 0; start < feats.size(); start += FEATURES_PER_TASK) {
+          final int first = start;
+          final int last = Math.min(start + FEATURES_PER_TASK, feats.size());
+          results.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+              for (int i = first; i < last; i++) {
+                newGeoms[i] = conflateGeometry(feats.get(i).getGeom(),
+                    vectorIndex);
+              }
+              return null;
+            }
+          }));
+        }
+        for (Future<?> result : results) {
+          result.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException(e.getCause());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    // fill the output map
+    for (int i = 0; i < feats.size(); i++) {
+      IFeature feat = feats.get(i);
+      if (newGeoms[i] == null)
         this.conflatedGeoms.put(feat, feat.getGeom());
       else
-        this.conflatedGeoms.put(feat, newGeom);
+        this.conflatedGeoms.put(feat, newGeoms[i]);
     }
   }
 
-  private ILineString conflateLineString(ILineString geom) {
-    IDirectPositionList newPtList = conflatePosList(geom.coord());
+  private static IGeometry conflateGeometry(IGeometry geom,
+      VectorIndex vectorIndex) {
+    if (geom instanceof IPoint)
+      return conflatePoint((IPoint) geom, vectorIndex);
+    if (geom instanceof ILineString)
+      return conflateLineString((ILineString) geom, vectorIndex);
+    if (geom instanceof IPolygon)
+      return conflatePolygon((IPolygon) geom, vectorIndex);
+    return null;
+  }
+
+  private static ILineString conflateLineString(ILineString geom,
+      VectorIndex vectorIndex) {
+    IDirectPositionList newPtList = conflatePosList(geom.coord(), vectorIndex);
     return new GM_LineString(newPtList);
   }
 
-  private IPoint conflatePoint(IPoint geom) {
-    return new GM_Point(computeAggregatedVector(geom.getPosition()).translate(
-        geom.getPosition()));
+  private static IPoint conflatePoint(IPoint geom, VectorIndex vectorIndex) {
+    Vector2D vect = computeAggregatedVector(geom.getPosition(), vectorIndex);
+    if (vect == null)
+      return null;
+    return new GM_Point(vect.translate(geom.getPosition()));
   }
 
-  private IPolygon conflatePolygon(IPolygon geom) {
+  private static IPolygon conflatePolygon(IPolygon geom,
+      VectorIndex vectorIndex) {
     // conflate the outer ring
     IDirectPositionList newOuterList = conflatePosList(geom.getExterior()
-        .coord());
+        .coord(), vectorIndex);
     IPolygon newPol = new GM_Polygon(new GM_LineString(newOuterList));
 
     // conflate inner rings
     for (IRing inner : geom.getInterior()) {
-      IDirectPositionList newInnerList = conflatePosList(inner.coord());
+      IDirectPositionList newInnerList = conflatePosList(inner.coord(),
+          vectorIndex);
       newPol.addInterior(new GM_Ring(new GM_LineString(newInnerList)));
     }
     return newPol;
@@ -120,10 +271,11 @@ public class RubberSheetingConflation {
    * @param ptList
    * @return
    */
-  private IDirectPositionList conflatePosList(IDirectPositionList ptList) {
+  private static IDirectPositionList conflatePosList(
+      IDirectPositionList ptList, VectorIndex vectorIndex) {
     IDirectPositionList newPtList = new DirectPositionList();
     for (IDirectPosition vertex : ptList) {
-      Vector2D vect = computeAggregatedVector(vertex);
+      Vector2D vect = computeAggregatedVector(vertex, vectorIndex);
       if (vect == null)
         newPtList.add(vertex);
       else
@@ -134,22 +286,39 @@ public class RubberSheetingConflation {
 
   /**
    * Compute the value of the rubber sheeting vector field at a given point.
+   * Only the vectors whose influence radius contains the point are visited.
    * @param point
    * @return
    */
   public Vector2D computeAggregatedVector(IDirectPosition point) {
+    return computeAggregatedVector(point, this.getIndex());
+  }
+
+  private static Vector2D computeAggregatedVector(IDirectPosition point,
+      VectorIndex vectorIndex) {
     Vector2D vectFinal = null;
     double numerateurX = 0.0;
     double denominateur = 0.0;
     double numerateurY = 0.0;
-    for (ConflationVector vect : conflationVectors) {
+    // vectors whose influence envelope contains the point, in the order of the
+    // set so that the sums do not depend on the index
+    List<Integer> candidates = new ArrayList<Integer>(
+        vectorIndex.unboundedVectors);
+    for (Object rank : vectorIndex.tree.query(new Envelope(point.getX(),
+        point.getX(), point.getY(), point.getY()))) {
+      candidates.add((Integer) rank);
+    }
+    Collections.sort(candidates);
+    for (Integer rank : candidates) {
+      ConflationVector vect = vectorIndex.vectors.get(rank.intValue());
 
       // on calcule la distance entre le point et le vecteur de conflation
       // (ancré à un point).
       double dist = vect.getIniPos().distance2D(point);
 
       // on teste si le vecteur est assez près pour être pris en compte
-      if (vect.getVector().norme() / (dist * dist) < distanceThreshold)
+      if (vect.getVector().norme() / (dist * dist) < vectorIndex
+          .distanceThreshold)
         continue;
       if (dist < 1.0)
         dist = 1.0;
@@ -28,14 +28,25 @@
 package fr.ign.cogit.geoxygene.contrib.graphe;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.triangulate.DelaunayTriangulationBuilder;
+
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
 import fr.ign.cogit.geoxygene.contrib.cartetopo.Arc;
 import fr.ign.cogit.geoxygene.contrib.cartetopo.CarteTopo;
 import fr.ign.cogit.geoxygene.contrib.cartetopo.Groupe;
@@ -60,148 +71,256 @@ public class ARM {
   /**
    * Création d'un ARM à partir d'un ensemble de points
    * 
-   * Cette méthode est très brutale: adaptée pour quelques points seulement. On
-   * fait des calculs de distance beaucoup trop souvent. L'ARM étant un
-   * sous-graphe de Delaunay, cela peut être grandement optimisé en effectuant
-   * un Delaunay d'abord.
+   * L'ARM euclidien étant un sous-graphe de la triangulation de Delaunay, on
+   * calcule d'abord celle-ci (JTS), puis on applique l'algorithme de Kruskal
+   * sur ses arêtes, par longueur croissante, avec une structure union-find
+   * pour détecter les cycles. Le calcul est en O(n log n). Les points
+   * confondus sont reliés par un arc de longueur nulle.
    * 
    * @param points Liste d'objets en entrée: ils doivent avoir une géométrie de
    *          type point
    * 
    * @return Une carte topo contenant un noeud pour chaque point, et un arc pour
    *         chaque tronçon du ARM ("correspondant" est instancié pour relier
-   *         les noeuds et les points).
+   *         les noeuds et les points). Les arcs sont orientés depuis le noeud
+   *         du premier point.
    */
   public static CarteTopo creeARM(Collection<IFeature> points) {
-    
-    // CarteTopo to return 
+
+    // CarteTopo to return
     CarteTopo arm = new CarteTopo("Minimum Spanning Tree");
-    
-    Noeud noeud, nouveauNoeud;
-    Arc arc;
-    IFeature point;
-    double dist, distMin;
-    int i, j, imin = 0, jmin = 0;
-    GM_LineString trait;
+
     List<IFeature> pointsCopie = new ArrayList<IFeature>(points);
-    
+
     // If no point, return null
     if (pointsCopie.isEmpty()) {
       return null;
     }
-    
-    // Amorce, on prend un point au hasard: le premier
-    point = pointsCopie.get(0);
-    if (!(point.getGeom() instanceof GM_Point)) {
-      LOGGER.debug("An object is not a point, returning Null");
-      return null;
+
+    int n = pointsCopie.size();
+    Coordinate[] coordonnees = new Coordinate[n];
+    for (int i = 0; i < n; i++) {
+      IFeature point = pointsCopie.get(i);
+      if (!(point.getGeom() instanceof GM_Point)) {
+        LOGGER.debug("An object is not a point, returning Null");
+        return null;
+      }
+      IDirectPosition position = ((GM_Point) point.getGeom()).getPosition();
+      coordonnees[i] = new Coordinate(position.getX(), position.getY());
     }
-    pointsCopie.remove(point);
-    nouveauNoeud = arm.getPopNoeuds().nouvelElement();
-    nouveauNoeud.setGeom(point.getGeom());
-    nouveauNoeud.addCorrespondant(point);
-    // Ajout des points un à un
-    while (true) {
-      if (pointsCopie.isEmpty()) {
-        break; // ça y est, on a relié tous les points
+
+    // Kruskal sur les arêtes de Delaunay, par longueur croissante
+    final List<int[]> aretes = ARM.aretesDelaunay(coordonnees);
+    final double[] longueurs = new double[aretes.size()];
+    List<Integer> ordre = new ArrayList<Integer>(aretes.size());
+    for (int k = 0; k < aretes.size(); k++) {
+      int[] arete = aretes.get(k);
+      longueurs[k] = coordonnees[arete[0]].distance(coordonnees[arete[1]]);
+      ordre.add(k);
+    }
+    Collections.sort(ordre, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer k1, Integer k2) {
+        return Double.compare(longueurs[k1.intValue()], longueurs[k2.intValue()]);
       }
-      // on cherche le couple noeud-point le plus proche (TRES bourrin)
-      distMin = Double.MAX_VALUE;
-      for (i = 0; i < pointsCopie.size(); i++) {
-        point = pointsCopie.get(i);
-        System.out.print("Point initial = " + point.getId() + " ("+arm.getPopNoeuds().size()+") ");
-        if (!(point.getGeom() instanceof GM_Point)) {
-          LOGGER.debug("An object is not a point, returning Null");
-          return null;
-        }
-        for (j = 0; j < arm.getPopNoeuds().size(); j++) {
-          noeud = arm.getPopNoeuds().get(j);
-          dist = noeud.getGeom().distance(point.getGeom());
-          // System.out.println("Distance entre " + noeud.getId() + " et " + point.getId() + " = " + dist);
-          if (dist < distMin) {
-            distMin = dist;
-            imin = i;
-            jmin = j;
-          }
+    });
+    int[] parents = new int[n];
+    int[] rangs = new int[n];
+    for (int i = 0; i < n; i++) {
+      parents[i] = i;
+    }
+    // voisins de chaque point dans l'ARM
+    List<List<Integer>> voisins = new ArrayList<List<Integer>>(n);
+    for (int i = 0; i < n; i++) {
+      voisins.add(new ArrayList<Integer>(3));
+    }
+    int nbAretes = 0;
+    for (Integer k : ordre) {
+      if (nbAretes == n - 1) {
+        break;
+      }
+      int[] arete = aretes.get(k.intValue());
+      int racine1 = ARM.racine(parents, arete[0]);
+      int racine2 = ARM.racine(parents, arete[1]);
+      if (racine1 == racine2) {
+        continue;
+      }
+      if (rangs[racine1] < rangs[racine2]) {
+        parents[racine1] = racine2;
+      } else if (rangs[racine1] > rangs[racine2]) {
+        parents[racine2] = racine1;
+      } else {
+        parents[racine2] = racine1;
+        rangs[racine1]++;
+      }
+      voisins.get(arete[0]).add(arete[1]);
+      voisins.get(arete[1]).add(arete[0]);
+      nbAretes++;
+    }
+    if (nbAretes < n - 1) {
+      LOGGER.warn("The triangulation is not connected, the tree is incomplete");
+    }
+
+    // on remplit l'ARM : un noeud par point, puis les arcs en partant du
+    // premier point
+    Noeud[] noeuds = new Noeud[n];
+    for (int i = 0; i < n; i++) {
+      IFeature point = pointsCopie.get(i);
+      noeuds[i] = arm.getPopNoeuds().nouvelElement();
+      noeuds[i].setGeom(point.getGeom());
+      noeuds[i].addCorrespondant(point);
+    }
+    boolean[] atteints = new boolean[n];
+    int[] pile = new int[n];
+    int taillePile = 0;
+    atteints[0] = true;
+    pile[taillePile++] = 0;
+    while (taillePile > 0) {
+      int i = pile[--taillePile];
+      for (Integer voisin : voisins.get(i)) {
+        int j = voisin.intValue();
+        if (atteints[j]) {
+          continue;
         }
+        atteints[j] = true;
+        pile[taillePile++] = j;
+        Arc arc = arm.getPopArcs().nouvelElement();
+        arc.setNoeudIni(noeuds[i]);
+        arc.setNoeudFin(noeuds[j]);
+        arc.setGeometrie(new GM_LineString(noeuds[i].getGeometrie().getPosition(),
+            noeuds[j].getGeometrie().getPosition()));
       }
-      point = pointsCopie.get(imin);
-      noeud = arm.getPopNoeuds().get(jmin);
-      // on remplit l'ARM
-      pointsCopie.remove(point);
-      nouveauNoeud = arm.getPopNoeuds().nouvelElement();
-      nouveauNoeud.setGeom(point.getGeom());
-      nouveauNoeud.addCorrespondant(point);
-      arc = arm.getPopArcs().nouvelElement();
-      arc.setNoeudIni(noeud);
-      arc.setNoeudFin(nouveauNoeud);
-      trait = new GM_LineString(arc.getNoeudIni().getGeometrie().getPosition(), arc.getNoeudFin().getGeometrie()
-          .getPosition());
-      arc.setGeometrie(trait);
     }
     return arm;
 
   }
 
+  /**
+   * Arêtes de la triangulation de Delaunay d'un ensemble de points, plus une
+   * arête entre chaque point et le premier point de même position.
+   * 
+   * @param coordonnees les points
+   * @return les arêtes, données par les rangs de leurs extrémités
+   */
+  private static List<int[]> aretesDelaunay(Coordinate[] coordonnees) {
+    List<int[]> aretes = new ArrayList<int[]>();
+    Map<Coordinate, Integer> rangs = new HashMap<Coordinate, Integer>();
+    List<Coordinate> sites = new ArrayList<Coordinate>();
+    for (int i = 0; i < coordonnees.length; i++) {
+      Integer premier = rangs.get(coordonnees[i]);
+      if (premier == null) {
+        rangs.put(coordonnees[i], i);
+        sites.add(coordonnees[i]);
+      } else {
+        aretes.add(new int[] { premier.intValue(), i });
+      }
+    }
+    if (sites.size() < 2) {
+      return aretes;
+    }
+    if (sites.size() == 2) {
+      aretes.add(new int[] { rangs.get(sites.get(0)).intValue(), rangs.get(sites.get(1)).intValue() });
+      return aretes;
+    }
+    DelaunayTriangulationBuilder triangulation = new DelaunayTriangulationBuilder();
+    triangulation.setSites(sites);
+    Geometry segments = triangulation.getEdges(new GeometryFactory());
+    for (int k = 0; k < segments.getNumGeometries(); k++) {
+      Coordinate[] extremites = segments.getGeometryN(k).getCoordinates();
+      Integer rang1 = rangs.get(extremites[0]);
+      Integer rang2 = rangs.get(extremites[extremites.length - 1]);
+      if (rang1 != null && rang2 != null) {
+        aretes.add(new int[] { rang1.intValue(), rang2.intValue() });
+      }
+    }
+    return aretes;
+  }
+
+  /**
+   * Racine de l'ensemble d'un élément dans une structure union-find, avec
+   * compression de chemin.
+   */
+  private static int racine(int[] parents, int i) {
+    while (parents[i] != i) {
+      parents[i] = parents[parents[i]];
+      i = parents[i];
+    }
+    return i;
+  }
+
+  /**
+   * Création d'un ARM à partir d'un ensemble de points, la distance entre deux
+   * points étant la longueur du plus court chemin dans un réseau.
+   * 
+   * Cette distance n'étant pas euclidienne, l'ARM n'est pas un sous-graphe de
+   * Delaunay : on applique l'algorithme de Prim en gardant pour chaque point
+   * restant sa distance au noeud le plus proche de l'arbre, mise à jour à
+   * chaque ajout. Chaque distance réseau n'est calculée qu'une fois.
+   * 
+   * @param points Liste d'objets en entrée: ils doivent avoir une géométrie de
+   *          type point
+   * @param reseau le réseau
+   * @return Une carte topo contenant un noeud pour chaque point, et un arc pour
+   *         chaque tronçon du ARM
+   */
   public static CarteTopo creeARMPondere(Collection<IFeature> points, CarteTopo reseau) {
-    Noeud noeud, nouveauNoeud;
-    Arc arc;
-    IFeature point;
-    double dist, distMin;
     CarteTopo arm = new CarteTopo("Minimum Spanning Tree");
-    int i, j, imin = 0, jmin = 0;
-    GM_LineString trait;
     List<IFeature> pointsCopie = new ArrayList<IFeature>(points);
     if (pointsCopie.isEmpty()) {
       return null;
     }
-    // Amorce, on prend un point au hasard: le premier
-    point = pointsCopie.get(0);
-    if (!(point.getGeom() instanceof GM_Point)) {
-      LOGGER.debug("An object is not a point, returning Null");
-      return null;
+    for (IFeature point : pointsCopie) {
+      if (!(point.getGeom() instanceof GM_Point)) {
+        LOGGER.debug("An object is not a point, returning Null");
+        return null;
+      }
     }
-    pointsCopie.remove(point);
-    nouveauNoeud = arm.getPopNoeuds().nouvelElement();
-    nouveauNoeud.setGeom(point.getGeom());
-    nouveauNoeud.addCorrespondant(point);
+    int n = pointsCopie.size();
+    // pour chaque point restant : distance au plus proche noeud de l'arbre
+    double[] distMin = new double[n];
+    Noeud[] noeudMin = new Noeud[n];
+    boolean[] ajoutes = new boolean[n];
+    Arrays.fill(distMin, Double.MAX_VALUE);
+    // Amorce, on prend un point au hasard: le premier
+    int imin = 0;
+    Noeud noeud = null;
     // Ajout des points un à un
-    while (true) {
-      if (pointsCopie.isEmpty()) {
-        break; // ça y est, on a relié tous les points
+    for (int nbAjoutes = 0; nbAjoutes < n; nbAjoutes++) {
+      IFeature point = pointsCopie.get(imin);
+      ajoutes[imin] = true;
+      Noeud nouveauNoeud = arm.getPopNoeuds().nouvelElement();
+      nouveauNoeud.setGeom(point.getGeom());
+      nouveauNoeud.addCorrespondant(point);
+      if (noeud != null) {
+        Arc arc = arm.getPopArcs().nouvelElement();
+        arc.setNoeudIni(noeud);
+        arc.setNoeudFin(nouveauNoeud);
+        arc.setGeometrie(new GM_LineString(arc.getNoeudIni().getGeometrie().getPosition(), arc.getNoeudFin()
+            .getGeometrie().getPosition()));
       }
-      // on cherche le couple noeud-point le pus proche (TRES bourrin)
-      distMin = Double.MAX_VALUE;
-      for (i = 0; i < pointsCopie.size(); i++) {
-        point = pointsCopie.get(i);
-        if (!(point.getGeom() instanceof GM_Point)) {
-          LOGGER.debug("An object is not a point, returning Null");
-          return null;
+      // mise à jour des distances avec le nouveau noeud, et recherche du
+      // prochain point à relier
+      int suivant = -1;
+      for (int i = 0; i < n; i++) {
+        if (ajoutes[i]) {
+          continue;
         }
-        for (j = 0; j < arm.getPopNoeuds().size(); j++) {
-          noeud = arm.getPopNoeuds().get(j);
-          // dist = noeud.getGeom().distance(point.getGeom());
-          dist = ARM.distanceReseau((GM_Point) noeud.getGeom(), (GM_Point) point.getGeom(), reseau);
-          if (dist < distMin) {
-            distMin = dist;
-            imin = i;
-            jmin = j;
-          }
+        double dist = ARM.distanceReseau((GM_Point) nouveauNoeud.getGeom(), (GM_Point) pointsCopie.get(i).getGeom(),
+            reseau);
+        if (dist < distMin[i]) {
+          distMin[i] = dist;
+          noeudMin[i] = nouveauNoeud;
+        }
+        if (suivant == -1 || distMin[i] < distMin[suivant]) {
+          suivant = i;
         }
       }
-      point = pointsCopie.get(imin);
-      noeud = arm.getPopNoeuds().get(jmin);
-      // on remplit l'ARM
-      pointsCopie.remove(point);
-      nouveauNoeud = arm.getPopNoeuds().nouvelElement();
-      nouveauNoeud.setGeom(point.getGeom());
-      nouveauNoeud.addCorrespondant(point);
-      arc = arm.getPopArcs().nouvelElement();
-      arc.setNoeudIni(noeud);
-      arc.setNoeudFin(nouveauNoeud);
-      trait = new GM_LineString(arc.getNoeudIni().getGeometrie().getPosition(), arc.getNoeudFin().getGeometrie()
-          .getPosition());
-      arc.setGeometrie(trait);
+      if (suivant == -1) {
+        break; // ça y est, on a relié tous les points
+      }
+      imin = suivant;
+      // point inaccessible par le réseau : on le relie au premier noeud
+      noeud = (noeudMin[imin] != null) ? noeudMin[imin] : arm.getPopNoeuds().get(0);
     }
     return arm;
   }
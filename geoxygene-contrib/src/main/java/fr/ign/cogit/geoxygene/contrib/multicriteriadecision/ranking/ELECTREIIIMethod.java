@@ -10,11 +10,18 @@
 package fr.ign.cogit.geoxygene.contrib.multicriteriadecision.ranking;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 
@@ -29,6 +36,8 @@ public class ELECTREIIIMethod {
   // //////////////////////////////////////////
 
   // All static fields //
+  /** Number of rows of the outranking matrix computed by each task. */
+  private static final int ROWS_PER_TASK = 64;
 
   // Public fields //
 
@@ -40,6 +49,14 @@ public class ELECTREIIIMethod {
   private Set<ELECTREIIICriterion> criteria = new HashSet<ELECTREIIICriterion>();
   private List<ELECTREIIIAction> actions = new ArrayList<ELECTREIIIAction>();
   private double credibilityThreshold = 0.5;
+  private int nbThreads = Runtime.getRuntime().availableProcessors();
+
+  // outranking relation of the distinct actions, computed once per decision:
+  // bit j of outranks[i] is set when action i is preferred to action j (the
+  // diagonal is left empty), outrankedBy is the transposed matrix
+  private List<ELECTREIIIAction> indexedActions;
+  private BitSet[] outranks;
+  private BitSet[] outrankedBy;
 
   // //////////////////////////////////////////
   // Static methods //
@@ -62,6 +79,18 @@ public class ELECTREIIIMethod {
     return this.criteria;
   }
 
+  public int getNbThreads() {
+    return this.nbThreads;
+  }
+
+  /**
+   * @param nbThreads the number of threads used to compute the credibility
+   *          indices (at least 1)
+   */
+  public void setNbThreads(int nbThreads) {
+    this.nbThreads = Math.max(1, nbThreads);
+  }
+
   // Other public methods //
   /**
    * The ELECTREIII decision in the decreasing order of the outranking relation
@@ -69,10 +98,21 @@ public class ELECTREIIIMethod {
    */
   public List<ELECTREIIIAction> decision() {
     // (see Figueira et al, 2005, p.146)
-    // first compute pre-order Z1
-    ELECTREIIIPreOrder preOrderZ1 = this.computeZ1_bis();
-    // then compute pre-order Z2
-    ELECTREIIIPreOrder preOrderZ2 = this.computeZ2_bis();
+    // the credibility indices are computed once for all pairs of actions
+    this.computeOutrankingMatrix();
+    ELECTREIIIPreOrder preOrderZ1;
+    ELECTREIIIPreOrder preOrderZ2;
+    try {
+      // first compute pre-order Z1
+      preOrderZ1 = this.computeZ1_bis();
+      // then compute pre-order Z2
+      preOrderZ2 = this.computeZ2_bis();
+    } finally {
+      // the matrix is quadratic in the number of actions: do not keep it
+      this.indexedActions = null;
+      this.outranks = null;
+      this.outrankedBy = null;
+    }
     // build the comparator
     ELECTREIIIComparator c = new ELECTREIIIComparator(preOrderZ1, preOrderZ2);
     // then sort the actions according to the comparator
@@ -92,12 +132,19 @@ public class ELECTREIIIMethod {
   // ////////////////////////////////////////
   // Private methods //
   // ////////////////////////////////////////
-  private double getConcordanceIndex(ELECTREIIIAction a, ELECTREIIIAction b) {
+  /**
+   * @param criteriaArray the criteria, in the iteration order of the set
+   * @param valuesA the values of the criteria for action a
+   * @param valuesB the values of the criteria for action b
+   */
+  private static double getConcordanceIndex(
+      ELECTREIIICriterion[] criteriaArray, double[] valuesA, double[] valuesB) {
     double weightSum = 0.0;
     double sum = 0.0;
-    for (ELECTREIIICriterion criterion : this.criteria) {
-      double valueA = criterion.value(a.getParameters());
-      double valueB = criterion.value(b.getParameters());
+    for (int i = 0; i < criteriaArray.length; i++) {
+      ELECTREIIICriterion criterion = criteriaArray[i];
+      double valueA = valuesA[i];
+      double valueB = valuesB[i];
       if (criterion.isInScoalition(valueA, valueB)) {
         sum += criterion.getWeight();
         weightSum += criterion.getWeight();
@@ -123,21 +170,24 @@ public class ELECTREIIIMethod {
    * comprehensive concordance index, because of the opposition effect on this
    * criterion.
    * 
-   * @param a
-   * @param b
+   * @param criteriaArray the criteria, in the iteration order of the set
+   * @param valuesA the values of the criteria for action a
+   * @param valuesB the values of the criteria for action b
    * @return
    * @author GTouya
    */
-  private double getCredibilityIndex(ELECTREIIIAction a, ELECTREIIIAction b) {
-    double concord = this.getConcordanceIndex(a, b);
+  private static double getCredibilityIndex(
+      ELECTREIIICriterion[] criteriaArray, double[] valuesA, double[] valuesB) {
+    double concord = ELECTREIIIMethod.getConcordanceIndex(criteriaArray,
+        valuesA, valuesB);
 
     // logger.debug("Action " + a + " outranks " + b + " (concordance = "
     // + concord);
     double credibility = concord;
     boolean isDiscordanceLesser = true;
-    for (ELECTREIIICriterion c : this.criteria) {
-      double discord = c.getDiscordanceIndex(c.value(a.getParameters()),
-          c.value(b.getParameters()));
+    for (int i = 0; i < criteriaArray.length; i++) {
+      ELECTREIIICriterion c = criteriaArray[i];
+      double discord = c.getDiscordanceIndex(valuesA[i], valuesB[i]);
       // logger.debug("Action " + a + " outranks " + b
       // + " (discordance for criterion " + c + " = " + discord);
       if (discord > concord) {
@@ -152,13 +202,114 @@ public class ELECTREIIIMethod {
     return credibility;
   }
 
+  private double[] getValues(ELECTREIIICriterion[] criteriaArray,
+      ELECTREIIIAction action) {
+    double[] values = new double[criteriaArray.length];
+    for (int i = 0; i < criteriaArray.length; i++) {
+      values[i] = criteriaArray[i].value(action.getParameters());
+    }
+    return values;
+  }
+
   public boolean isPreferredTo(ELECTREIIIAction a, ELECTREIIIAction b) {
-    if (this.getCredibilityIndex(a, b) > this.credibilityThreshold) {
+    ELECTREIIICriterion[] criteriaArray = this.criteria
+        .toArray(new ELECTREIIICriterion[this.criteria.size()]);
+    double credibility = ELECTREIIIMethod.getCredibilityIndex(criteriaArray,
+        this.getValues(criteriaArray, a), this.getValues(criteriaArray, b));
+    if (credibility > this.credibilityThreshold) {
       return true;
     }
     return false;
   }
 
+  /**
+   * Compute the outranking relation between all the distinct actions: the
+   * criteria are evaluated once per action, then the credibility indices of
+   * all the ordered pairs are computed in parallel, by blocks of rows, and
+   * compared to the credibility threshold.
+   */
+  private void computeOutrankingMatrix() {
+    this.indexedActions = new ArrayList<ELECTREIIIAction>(
+        new LinkedHashSet<ELECTREIIIAction>(this.actions));
+    final int n = this.indexedActions.size();
+    final ELECTREIIICriterion[] criteriaArray = this.criteria
+        .toArray(new ELECTREIIICriterion[this.criteria.size()]);
+    final double[][] values = new double[n][];
+    for (int i = 0; i < n; i++) {
+      values[i] = this.getValues(criteriaArray, this.indexedActions.get(i));
+    }
+    this.outranks = new BitSet[n];
+    this.outrankedBy = new BitSet[n];
+    for (int i = 0; i < n; i++) {
+      this.outranks[i] = new BitSet(n);
+      this.outrankedBy[i] = new BitSet(n);
+    }
+    if (this.nbThreads == 1 || n <= ROWS_PER_TASK) {
+      this.computeOutrankingRows(criteriaArray, values, 0, n);
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(this.nbThreads);
+      List<Future<?>> results = new ArrayList<Future<?>>();
+      try {
+        for (int start = 0; start < n; start += ROWS_PER_TASK) {
+          final int first = start;
+          final int last = Math.min(start + ROWS_PER_TASK, n);
+          results.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+              ELECTREIIIMethod.this.computeOutrankingRows(criteriaArray,
+                  values, first, last);
+              return null;
+            }
+          }));
+        }
+        for (Future<?> result : results) {
+          result.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException(e.getCause());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    // the transposed matrix, once all the rows are known
+    for (int i = 0; i < n; i++) {
+      for (int j = this.outranks[i].nextSetBit(0); j >= 0; j = this.outranks[i]
+          .nextSetBit(j + 1)) {
+        this.outrankedBy[j].set(i);
+      }
+    }
+  }
+
+  private void computeOutrankingRows(ELECTREIIICriterion[] criteriaArray,
+      double[][] values, int first, int last) {
+    for (int i = first; i < last; i++) {
+      for (int j = 0; j < values.length; j++) {
+        if (i != j
+            && ELECTREIIIMethod.getCredibilityIndex(criteriaArray, values[i],
+                values[j]) > this.credibilityThreshold) {
+          this.outranks[i].set(j);
+        }
+      }
+    }
+  }
+
+  private HashSet<ELECTREIIIAction> toActionSet(BitSet set) {
+    HashSet<ELECTREIIIAction> actionSet = new HashSet<ELECTREIIIAction>();
+    for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+      actionSet.add(this.indexedActions.get(i));
+    }
+    return actionSet;
+  }
+
+  private BitSet allActions() {
+    BitSet set = new BitSet(this.indexedActions.size());
+    set.set(0, this.indexedActions.size());
+    return set;
+  }
+
   /**
    * Compute a pre-order of the actions according to the credibility index. A
    * pre-order is an order where ex-aequo are possible (all ex-aequo actions are
@@ -171,34 +322,28 @@ public class ELECTREIIIMethod {
    */
   @SuppressWarnings("unused")
   private ELECTREIIIPreOrder computeZ1() {
+    this.computeOutrankingMatrix();
     ArrayList<HashSet<ELECTREIIIAction>> preOrder = new ArrayList<HashSet<ELECTREIIIAction>>();
-    HashSet<ELECTREIIIAction> actionsLeft = new HashSet<ELECTREIIIAction>();
-    actionsLeft.addAll(this.actions);
+    BitSet actionsLeft = this.allActions();
     while (!actionsLeft.isEmpty()) {
-      HashSet<ELECTREIIIAction> bSetH = new HashSet<ELECTREIIIAction>();
-      HashSet<ELECTREIIIAction> loopSet = new HashSet<ELECTREIIIAction>();
-      loopSet.addAll(actionsLeft);
-      for (ELECTREIIIAction action : loopSet) {
+      BitSet bSetH = new BitSet();
+      for (int action = actionsLeft.nextSetBit(0); action >= 0; action = actionsLeft
+          .nextSetBit(action + 1)) {
         // check if no other action is preferred to action
-        HashSet<ELECTREIIIAction> loopSet2 = new HashSet<ELECTREIIIAction>();
-        loopSet2.addAll(actionsLeft);
-        loopSet2.remove(action);
-        boolean add = true;
-        for (ELECTREIIIAction otherAction : loopSet2) {
-          if (this.isPreferredTo(otherAction, action)) {
-            add = false;
-            break;
-          }
-        }
-        if (add) {
-          bSetH.add(action);
+        if (!this.outrankedBy[action].intersects(actionsLeft)) {
+          bSetH.set(action);
         }
       }
+      if (bSetH.isEmpty()) {
+        // circuit in the outranking relation: the remaining actions are
+        // ex-aequo
+        bSetH = (BitSet) actionsLeft.clone();
+      }
 
       // update the actionsLeft
-      actionsLeft.removeAll(bSetH);
+      actionsLeft.andNot(bSetH);
       // add a pre-order set
-      preOrder.add(bSetH);
+      preOrder.add(this.toActionSet(bSetH));
     }
     return new ELECTREIIIPreOrder(preOrder);
   }
@@ -215,74 +360,71 @@ public class ELECTREIIIMethod {
    */
   @SuppressWarnings("unused")
   private ELECTREIIIPreOrder computeZ2() {
+    this.computeOutrankingMatrix();
     ArrayList<HashSet<ELECTREIIIAction>> preOrder = new ArrayList<HashSet<ELECTREIIIAction>>();
-    HashSet<ELECTREIIIAction> actionsLeft = new HashSet<ELECTREIIIAction>();
-    actionsLeft.addAll(this.actions);
+    BitSet actionsLeft = this.allActions();
     while (!actionsLeft.isEmpty()) {
-      HashSet<ELECTREIIIAction> bSetH = new HashSet<ELECTREIIIAction>();
-      HashSet<ELECTREIIIAction> loopSet = new HashSet<ELECTREIIIAction>();
-      loopSet.addAll(actionsLeft);
-      for (ELECTREIIIAction action : loopSet) {
-        // check if no other action is preferred to action
-        HashSet<ELECTREIIIAction> loopSet2 = new HashSet<ELECTREIIIAction>();
-        loopSet2.addAll(actionsLeft);
-        loopSet2.remove(action);
-        boolean add = true;
-        for (ELECTREIIIAction otherAction : loopSet2) {
-          if (this.isPreferredTo(action, otherAction)) {
-            add = false;
-            break;
-          }
-        }
-        if (add) {
-          bSetH.add(action);
+      BitSet bSetH = new BitSet();
+      for (int action = actionsLeft.nextSetBit(0); action >= 0; action = actionsLeft
+          .nextSetBit(action + 1)) {
+        // check if action is not preferred to any other action
+        if (!this.outranks[action].intersects(actionsLeft)) {
+          bSetH.set(action);
         }
       }
+      if (bSetH.isEmpty()) {
+        // circuit in the outranking relation: the remaining actions are
+        // ex-aequo
+        bSetH = (BitSet) actionsLeft.clone();
+      }
 
       // update the actionsLeft
-      actionsLeft.removeAll(bSetH);
+      actionsLeft.andNot(bSetH);
       // add a pre-order set
-      preOrder.add(bSetH);
+      preOrder.add(this.toActionSet(bSetH));
     }
     return new ELECTREIIIPreOrder(preOrder);
   }
 
   private ELECTREIIIPreOrder computeZ1_bis() {
     ArrayList<HashSet<ELECTREIIIAction>> preOrder = new ArrayList<HashSet<ELECTREIIIAction>>();
-    HashSet<ELECTREIIIAction> a = new HashSet<ELECTREIIIAction>();
-    a.addAll(this.actions);
 
-    this.classified(a, preOrder, true);
+    this.classified(this.allActions(), preOrder, true);
 
     return new ELECTREIIIPreOrder(preOrder);
   }
 
   private ELECTREIIIPreOrder computeZ2_bis() {
     ArrayList<HashSet<ELECTREIIIAction>> preOrder = new ArrayList<HashSet<ELECTREIIIAction>>();
-    HashSet<ELECTREIIIAction> a = new HashSet<ELECTREIIIAction>();
-    a.addAll(this.actions);
 
-    this.classified(a, preOrder, false);
+    this.classified(this.allActions(), preOrder, false);
 
     Collections.reverse(preOrder);
 
     return new ELECTREIIIPreOrder(preOrder);
   }
 
-  private void classified(HashSet<ELECTREIIIAction> d,
+  /**
+   * Distillation of a set of actions, given as a set of ranks in the outranking
+   * matrix.
+   */
+  private void classified(BitSet d,
       ArrayList<HashSet<ELECTREIIIAction>> preOrder, boolean descending) {
 
     int qMax = Integer.MIN_VALUE;
     int qMin = Integer.MAX_VALUE;
-    HashSet<ELECTREIIIAction> dN = new HashSet<ELECTREIIIAction>();
-
-    for (ELECTREIIIAction actionA : d) {
-      int q = 0;
-      for (ELECTREIIIAction actionB : d) {
-        if (actionB != actionA) {
-          q += this.isPreferredTo(actionA, actionB) ? 1 : -1;
-        }
-      }
+    BitSet dN = new BitSet();
+    int size = d.cardinality();
+    BitSet preferred = new BitSet();
+
+    for (int actionA = d.nextSetBit(0); actionA >= 0; actionA = d
+        .nextSetBit(actionA + 1)) {
+      // +1 for each other action of d that actionA is preferred to, -1 for the
+      // others
+      preferred.clear();
+      preferred.or(this.outranks[actionA]);
+      preferred.and(d);
+      int q = 2 * preferred.cardinality() - (size - 1);
       // logger.debug("Action " + actionA + " coefficient : " + q + " qOpt "
       // + qMin);
       if (descending) {
@@ -291,7 +433,7 @@ public class ELECTREIIIMethod {
           dN.clear();
         }
         if (q >= qMax) {
-          dN.add(actionA);
+          dN.set(actionA);
         }
       } else {
         if (q < qMin) {
@@ -299,21 +441,21 @@ public class ELECTREIIIMethod {
           dN.clear();
         }
         if (q <= qMin) {
-          dN.add(actionA);
+          dN.set(actionA);
         }
       }
     }
 
-    if (dN.size() == 1 || dN.size() == d.size()) {
-      preOrder.add(0, dN);
+    int sizeN = dN.cardinality();
+    if (sizeN == 1 || sizeN == size) {
+      preOrder.add(0, this.toActionSet(dN));
     } else {
       this.classified(dN, preOrder, descending);
     }
 
-    if (dN.size() != d.size()) {
-      HashSet<ELECTREIIIAction> dRemain = new HashSet<ELECTREIIIAction>();
-      dRemain.addAll(d);
-      dRemain.removeAll(dN);
+    if (sizeN != size) {
+      BitSet dRemain = (BitSet) d.clone();
+      dRemain.andNot(dN);
       ArrayList<HashSet<ELECTREIIIAction>> preOrderBis = new ArrayList<HashSet<ELECTREIIIAction>>();
       this.classified(dRemain, preOrderBis, descending);
       preOrder.addAll(preOrderBis);
@@ -1,7 +1,12 @@
 package fr.ign.cogit.geoxygene.contrib.quality.estim.digitizing;
 
+import java.awt.geom.Point2D;
+import java.util.HashMap;
+import java.util.Map;
+
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
 import fr.ign.cogit.geoxygene.contrib.cartetopo.CarteTopo;
 import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
 import fr.ign.cogit.geoxygene.spatial.geomroot.GM_Object;
@@ -81,4 +86,33 @@ public abstract class AbstractErrorSimulation<Geom extends GM_Object> {
      */
     public abstract void executeSimulation();
 
+    /**
+     * Index the nodes by their initial position. When several nodes share a
+     * position, the last one is kept.
+     * @param noeudInitialX the initial abscissas of the nodes
+     * @param noeudInitialY the initial ordinates of the nodes
+     * @return the rank of the nodes by initial position
+     */
+    protected static Map<Point2D, Integer> indexNodes(double[] noeudInitialX, double[] noeudInitialY) {
+        Map<Point2D, Integer> index = new HashMap<Point2D, Integer>(2 * noeudInitialX.length);
+        for (int i = 0; i < noeudInitialX.length; i++) {
+            index.put(key(noeudInitialX[i], noeudInitialY[i]), i);
+        }
+        return index;
+    }
+
+    /**
+     * @param index the nodes indexed by {@link #indexNodes(double[], double[])}
+     * @param dp a position
+     * @return the rank of the node initially at this position, or null
+     */
+    protected static Integer findNode(Map<Point2D, Integer> index, IDirectPosition dp) {
+        return index.get(key(dp.getX(), dp.getY()));
+    }
+
+    private static Point2D key(double x, double y) {
+        // 0.0 and -0.0 are the same coordinate
+        return new Point2D.Double(x + 0.0, y + 0.0);
+    }
+
 }
@@ -1,7 +1,9 @@
 package fr.ign.cogit.geoxygene.contrib.quality.estim.digitizing;
 
+import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
@@ -103,6 +105,9 @@ public class LsCoordErrorSimulationAngles extends AbstractErrorSimulation<GM_Lin
             i = i + 1;
         }
 
+        // index des noeuds par position initiale
+        Map<Point2D, Integer> indexNoeuds = AbstractErrorSimulation.indexNodes(noeudInitialX, noeudInitialY);
+
         // pour les arcs
         for (IFeature featureArc : jddArcSimule) {
             IDirectPositionList dpl = featureArc.getGeom().coord();
@@ -131,15 +136,13 @@ public class LsCoordErrorSimulationAngles extends AbstractErrorSimulation<GM_Lin
             if (dpl.size() == 2)
                 continue;
 
-            for (i = 0; i < jddNoeudSimule.size(); i++) {
-                if ((dpEntrant.getX() == noeudInitialX[i]) && (dpEntrant.getY() == noeudInitialY[i])) {
-                    dpEntrant.setCoordinate(noeudSimuleX[i], noeudSimuleY[i]);
-                }
+            Integer noeudEntrant = AbstractErrorSimulation.findNode(indexNoeuds, dpEntrant);
+            if (noeudEntrant != null) {
+                dpEntrant.setCoordinate(noeudSimuleX[noeudEntrant], noeudSimuleY[noeudEntrant]);
             }
-            for (i = 0; i < jddNoeudSimule.size(); i++) {
-                if ((dpSortant.getX() == noeudInitialX[i]) && (dpSortant.getY() == noeudInitialY[i])) {
-                    dpSortant.setCoordinate(noeudSimuleX[i], noeudSimuleY[i]);
-                }
+            Integer noeudSortant = AbstractErrorSimulation.findNode(indexNoeuds, dpSortant);
+            if (noeudSortant != null) {
+                dpSortant.setCoordinate(noeudSimuleX[noeudSortant], noeudSimuleY[noeudSortant]);
             }
             if (dpl.size() > 2) {
                 for (int j = 1; j < dpl.size() - 1; j++) {
@@ -1,7 +1,9 @@
 package fr.ign.cogit.geoxygene.contrib.quality.estim.digitizing;
 
+import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
@@ -125,6 +127,10 @@ public class LsDistanceErrorSimulationCorrelationAngles extends
       i = i + 1;
     }
 
+    // index des noeuds par position initiale
+    Map<Point2D, Integer> indexNoeuds = AbstractErrorSimulation.indexNodes(
+        noeudInitialX, noeudInitialY);
+
     // affectation des deux noeuds simulés en extremité de chaque arc
 
     // pour les arcs
@@ -140,21 +146,17 @@ public class LsDistanceErrorSimulationCorrelationAngles extends
       double offsetYEnd = 0;
 
       // affectation des noeuds simulés aux extremités de l'arc à simuler
-      for (i = 0; i < jddNoeudSimule.size(); i++) {
-        if ((dpStart.getX() == noeudInitialX[i])
-            && (dpStart.getY() == noeudInitialY[i])) {
-          dpStart.setCoordinate(noeudSimuleX[i], noeudSimuleY[i]);
-          offsetXStart = noeudSimuleX[i] - noeudInitialX[i];
-          offsetYStart = noeudSimuleY[i] - noeudInitialY[i];
-        }
+      Integer noeudStart = AbstractErrorSimulation.findNode(indexNoeuds, dpStart);
+      if (noeudStart != null) {
+        dpStart.setCoordinate(noeudSimuleX[noeudStart], noeudSimuleY[noeudStart]);
+        offsetXStart = noeudSimuleX[noeudStart] - noeudInitialX[noeudStart];
+        offsetYStart = noeudSimuleY[noeudStart] - noeudInitialY[noeudStart];
       }
-      for (i = 0; i < jddNoeudSimule.size(); i++) {
-        if ((dpEnd.getX() == noeudInitialX[i])
-            && (dpEnd.getY() == noeudInitialY[i])) {
-          dpEnd.setCoordinate(noeudSimuleX[i], noeudSimuleY[i]);
-          offsetXEnd = noeudSimuleX[i] - noeudInitialX[i];
-          offsetYEnd = noeudSimuleY[i] - noeudInitialY[i];
-        }
+      Integer noeudEnd = AbstractErrorSimulation.findNode(indexNoeuds, dpEnd);
+      if (noeudEnd != null) {
+        dpEnd.setCoordinate(noeudSimuleX[noeudEnd], noeudSimuleY[noeudEnd]);
+        offsetXEnd = noeudSimuleX[noeudEnd] - noeudInitialX[noeudEnd];
+        offsetYEnd = noeudSimuleY[noeudEnd] - noeudInitialY[noeudEnd];
       }
 
       ILineString ls = new GM_LineString(featureArc.getGeom().coord());
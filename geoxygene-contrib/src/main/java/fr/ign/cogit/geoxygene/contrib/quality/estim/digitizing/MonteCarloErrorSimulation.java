@@ -0,0 +1,131 @@
+package fr.ign.cogit.geoxygene.contrib.quality.estim.digitizing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
+import fr.ign.cogit.geoxygene.contrib.quality.util.RandomGenerator;
+import fr.ign.cogit.geoxygene.util.math.SeedUtil;
+
+/**
+ *
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ *
+ * @copyright IGN
+ *
+ *            A Monte Carlo driver running many realisations of a digitizing
+ *            error simulation in parallel. Each realisation gets its own
+ *            simulation object and a generator seeded from the global seed and
+ *            the rank of the realisation, so that results do not depend on the
+ *            number of threads nor on their scheduling. The simulations must
+ *            not modify their input data.
+ *
+ */
+public class MonteCarloErrorSimulation {
+
+    private static Logger logger = Logger.getLogger(MonteCarloErrorSimulation.class.getName());
+
+    /**
+     * Creates a simulation, with its input data and parameters, for each
+     * realisation
+     */
+    public interface SimulationFactory {
+        AbstractErrorSimulation<?> createSimulation();
+    }
+
+    /**
+     * Receives the simulated data of each realisation. It is called from the
+     * worker threads, so it must be thread safe.
+     */
+    public interface RealisationHandler {
+        void handle(int rank, IFeatureCollection<IFeature> jddOut);
+    }
+
+    private SimulationFactory factory;
+    private long seed;
+    private int nbThreads;
+
+    /**
+     * @param factory creates the simulation of each realisation
+     * @param seed the seed of the whole run
+     * @param nbThreads the number of worker threads
+     */
+    public MonteCarloErrorSimulation(SimulationFactory factory, long seed, int nbThreads) {
+        this.factory = factory;
+        this.seed = seed;
+        this.nbThreads = Math.max(1, nbThreads);
+    }
+
+    /**
+     * Run the realisations and keep their results
+     * @param nbRealisations
+     * @return the simulated data of each realisation, by rank
+     * @throws InterruptedException
+     */
+    public List<IFeatureCollection<IFeature>> run(int nbRealisations) throws InterruptedException {
+        @SuppressWarnings("unchecked")
+        final IFeatureCollection<IFeature>[] results = new IFeatureCollection[nbRealisations];
+        this.run(nbRealisations, new RealisationHandler() {
+            @Override
+            public void handle(int rank, IFeatureCollection<IFeature> jddOut) {
+                results[rank] = jddOut;
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Run the realisations, giving their results to a handler as soon as they
+     * are computed
+     * @param nbRealisations
+     * @param handler
+     * @throws InterruptedException
+     */
+    public void run(int nbRealisations, final RealisationHandler handler) throws InterruptedException {
+        if (nbRealisations <= 0) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.nbThreads, nbRealisations));
+        try {
+            List<Future<Object>> futures = new ArrayList<Future<Object>>(nbRealisations);
+            for (int i = 0; i < nbRealisations; i++) {
+                final int rank = i;
+                futures.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        RandomGenerator.setSeed(SeedUtil.derive(MonteCarloErrorSimulation.this.seed, rank));
+                        AbstractErrorSimulation<?> simulation = MonteCarloErrorSimulation.this.factory
+                                .createSimulation();
+                        simulation.executeSimulation();
+                        handler.handle(rank, simulation.getJddOut());
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Object> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    logger.error("Simulation failed : " + e.getCause());
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
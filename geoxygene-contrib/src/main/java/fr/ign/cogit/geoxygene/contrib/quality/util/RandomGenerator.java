@@ -15,37 +15,55 @@ import java.util.Random;
  * @copyright IGN
  * 
  * A class to generate random numbers.
+ * <p>
+ * Each thread draws from its own generator, which can be seeded with
+ * {@link #setSeed(long)} to reproduce a simulation.
  * @author JFGirres
  * 
  */
 public class RandomGenerator {
 
+  /** le générateur du thread courant */
+  private static final ThreadLocal<Random> GENERATOR = new ThreadLocal<Random>() {
+    @Override
+    protected Random initialValue() {
+      return new Random();
+    }
+  };
+
+  /**
+   * Réinitialise le générateur du thread courant avec une graine, pour
+   * reproduire une simulation
+   * @param seed
+   */
+  public static void setSeed(long seed) {
+    GENERATOR.set(new Random(seed));
+  }
+
   /**
    * retourne un nombre aléatoire selon une loi gaussienne
    * @return
    */
   public static double genereNumLoiNormale() {
-    Random generator;
-    generator = new Random();
-    double num = generator.nextGaussian();
+    double num = GENERATOR.get().nextGaussian();
     return num;
   }
 
   /** retourne aléatoirement un numéro */
   public static double genereNum() {
-    double num = Math.random();
+    double num = GENERATOR.get().nextDouble();
     return num;
   }
 
   /** retourne aléatoirement un angle de 0 à 90° */
   public static double genereAngle() {
-    double angle = Math.random() * 90;
+    double angle = GENERATOR.get().nextDouble() * 90;
     return angle;
   }
 
   /** retourne aléatoirement +1 ou -1 */
   public static double genereSigne() {
-    if (Math.random() <= 0.5)
+    if (GENERATOR.get().nextDouble() <= 0.5)
       return -1;
     return 1;
   }
@@ -0,0 +1,155 @@
+package fr.ign.cogit.geoxygene.contrib.agents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
+import fr.ign.cogit.geoxygene.contrib.agents.agent.Agent;
+import fr.ign.cogit.geoxygene.contrib.agents.agent.AgentSatisfactionState;
+import fr.ign.cogit.geoxygene.contrib.agents.agent.GeographicObjectAgentImpl;
+import fr.ign.cogit.geoxygene.contrib.agents.agent.IAgent;
+import fr.ign.cogit.geoxygene.contrib.agents.lifecycle.AgentLifeCycle;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Envelope;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+
+public class SchedulerTest {
+
+  /** Distance sous laquelle deux agents interagissent. */
+  private static final double DISTANCE = 1;
+
+  /**
+   * Agent dont l'état est une valeur, mise à jour à partir de celles des
+   * agents avec lesquels il interagit.
+   */
+  private static class AgentTest extends GeographicObjectAgentImpl {
+    final int rang;
+    long valeur;
+    final List<AgentTest> voisins = new ArrayList<AgentTest>();
+
+    AgentTest(int rang, double x, double y) {
+      this.rang = rang;
+      this.valeur = rang;
+      this.setFeature(new DefaultFeature(new GM_Polygon(new GM_Envelope(x,
+          x + 1, y, y + 1))));
+    }
+  }
+
+  /** Agent non géographique, qui lit l'état de tous les autres. */
+  private static class AgentGlobal extends Agent {
+    long valeur;
+    final List<AgentTest> agents;
+
+    AgentGlobal(List<AgentTest> agents) {
+      this.agents = agents;
+    }
+  }
+
+  /** Cycle de vie qui vérifie l'agent activé et met à jour sa valeur. */
+  private static class CycleTest implements AgentLifeCycle {
+    volatile boolean erreur = false;
+
+    @Override
+    public AgentSatisfactionState compute(IAgent agent)
+        throws InterruptedException {
+      if (Agent.getActivatedAgent() != agent) {
+        this.erreur = true;
+      }
+      if (agent instanceof AgentTest) {
+        AgentTest a = (AgentTest) agent;
+        long somme = 0;
+        for (AgentTest voisin : a.voisins) {
+          somme = somme + voisin.valeur;
+        }
+        // laisse aux autres threads le temps de s'activer en même temps
+        Thread.sleep(1);
+        a.valeur = 31 * a.valeur + somme;
+      } else {
+        AgentGlobal g = (AgentGlobal) agent;
+        for (AgentTest a : g.agents) {
+          g.valeur = 31 * g.valeur + a.valeur;
+          a.valeur = a.valeur + 1;
+        }
+      }
+      if (Agent.getActivatedAgent() != agent) {
+        this.erreur = true;
+      }
+      return AgentSatisfactionState.PERFECTLY_SATISFIED_AFTER_TRANSFORMATION;
+    }
+
+    @Override
+    public boolean isStoreStates() {
+      return false;
+    }
+
+    @Override
+    public void setStoreStates(boolean storeStates) {
+    }
+  }
+
+  /**
+   * Valeurs finales des agents, activés deux fois chacun dans le même ordre.
+   * Les carrés sont tirés dans une petite zone, de sorte que certains
+   * interagissent et d'autres non.
+   */
+  private static List<Long> etatFinal(long graine, int nbThreads) {
+    Random random = new Random(graine);
+    List<AgentTest> agents = new ArrayList<AgentTest>();
+    for (int i = 0; i < 40; i++) {
+      agents.add(new AgentTest(i, random.nextDouble() * 12,
+          random.nextDouble() * 12));
+    }
+    for (AgentTest a : agents) {
+      IEnvelope env = a.getGeom().envelope();
+      env.expandBy(DISTANCE);
+      for (AgentTest b : agents) {
+        if (a != b && env.intersects(b.getGeom().envelope())) {
+          a.voisins.add(b);
+        }
+      }
+    }
+    AgentGlobal global = new AgentGlobal(agents);
+
+    CycleTest cycle = new CycleTest();
+    Scheduler scheduler = new Scheduler();
+    scheduler.setNbThreads(nbThreads);
+    scheduler.setInteractionDistance(DISTANCE);
+    for (int tour = 0; tour < 2; tour++) {
+      for (AgentTest a : agents) {
+        a.setLifeCycle(cycle);
+        scheduler.add(a);
+        if (a.rang == 20) {
+          global.setLifeCycle(cycle);
+          scheduler.add(global);
+        }
+      }
+    }
+    scheduler.run();
+    Assert.assertTrue(scheduler.getList().isEmpty());
+    Assert.assertFalse(cycle.erreur);
+    Assert.assertNull(Agent.getActivatedAgent());
+
+    List<Long> resultat = new ArrayList<Long>();
+    for (AgentTest a : agents) {
+      resultat.add(a.valeur);
+    }
+    resultat.add(global.valeur);
+    return resultat;
+  }
+
+  /**
+   * L'activation par lots en parallèle donne le même état final que
+   * l'activation un par un.
+   */
+  @Test
+  public void testCommeSequentiel() {
+    for (long graine = 1; graine <= 3; graine++) {
+      List<Long> sequentiel = SchedulerTest.etatFinal(graine, 1);
+      Assert.assertEquals(sequentiel, SchedulerTest.etatFinal(graine, 4));
+    }
+  }
+}
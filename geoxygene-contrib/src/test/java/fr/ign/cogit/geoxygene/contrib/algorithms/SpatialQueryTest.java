@@ -0,0 +1,179 @@
+package fr.ign.cogit.geoxygene.contrib.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IPoint;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Envelope;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Point;
+
+/**
+ * Compares the batch queries of {@link SpatialQuery} with the single-geometry
+ * ones.
+ */
+public class SpatialQueryTest {
+
+  /** Nombre de carrés par côté de la grille. */
+  private static final int COTE = 6;
+  /** Pas de la grille, les carrés ont un côté de 8. */
+  private static final double PAS = 10;
+
+  private static FT_FeatureCollection<IFeature> grille() {
+    FT_FeatureCollection<IFeature> carres = new FT_FeatureCollection<IFeature>();
+    for (int i = 0; i < COTE; i++) {
+      for (int j = 0; j < COTE; j++) {
+        carres.add(new DefaultFeature(new GM_Polygon(new GM_Envelope(PAS * i,
+            PAS * i + 8, PAS * j, PAS * j + 8))));
+      }
+    }
+    return carres;
+  }
+
+  /**
+   * Points tirés au hasard autour de la grille, et points sur le bord des
+   * carrés.
+   */
+  private static List<IPoint> points(Random random, int nb) {
+    List<IPoint> points = new ArrayList<IPoint>();
+    for (int k = 0; k < nb; k++) {
+      points.add(new GM_Point(new DirectPosition(-5 + (COTE * PAS + 5)
+          * random.nextDouble(), -5 + (COTE * PAS + 5) * random.nextDouble())));
+    }
+    points.add(new GM_Point(new DirectPosition(0, 0)));
+    points.add(new GM_Point(new DirectPosition(8, 4)));
+    points.add(new GM_Point(new DirectPosition(14, 10)));
+    return points;
+  }
+
+  private static void compareContains(List<IPoint> points, int nbThreads) {
+    FT_FeatureCollection<IFeature> carres = SpatialQueryTest.grille();
+    int[] resultat = SpatialQuery.selectContains(points, carres, nbThreads);
+    Assert.assertEquals(points.size(), resultat.length);
+    for (int k = 0; k < points.size(); k++) {
+      IFeature attendu = SpatialQuery.selectContains(points.get(k), carres);
+      Assert.assertEquals(attendu, resultat[k] < 0 ? null : carres
+          .get(resultat[k]));
+    }
+  }
+
+  private static void compareNearest(List<IPoint> points,
+      double distanceMax, int nbThreads) {
+    FT_FeatureCollection<IFeature> carres = SpatialQueryTest.grille();
+    double[] distances = new double[points.size()];
+    int[] resultat = SpatialQuery.selectNearestWithDistance(points, carres,
+        distanceMax, distances, nbThreads);
+    Assert.assertArrayEquals(resultat, SpatialQuery.selectNearestFeature(
+        points, carres, distanceMax, nbThreads));
+    for (int k = 0; k < points.size(); k++) {
+      Vector<Object> attendu = SpatialQuery.selectNearestWithDistance(points
+          .get(k), carres, distanceMax);
+      if (attendu.get(0) == null) {
+        Assert.assertEquals(-1, resultat[k]);
+        Assert.assertTrue(Double.isNaN(distances[k]));
+      } else {
+        Assert.assertEquals(attendu.get(0), carres.get(resultat[k]));
+        Assert.assertEquals(((Double) attendu.get(1)).doubleValue(),
+            distances[k], 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testContainsCommeUnitaire() {
+    SpatialQueryTest.compareContains(
+        SpatialQueryTest.points(new Random(1), 300), 1);
+    // plus de points que par tâche : calcul en parallèle
+    SpatialQueryTest.compareContains(
+        SpatialQueryTest.points(new Random(2), 2500), 3);
+  }
+
+  @Test
+  public void testNearestCommeUnitaire() {
+    SpatialQueryTest.compareNearest(
+        SpatialQueryTest.points(new Random(1), 300), 1.5, 1);
+    SpatialQueryTest.compareNearest(
+        SpatialQueryTest.points(new Random(2), 2500), 1.5, 3);
+  }
+
+  /**
+   * Un carré exactement à distanceMax est trouvé, avec sa distance ; un peu en
+   * deçà, il ne l'est plus.
+   */
+  @Test
+  public void testDistanceMax() {
+    List<IPoint> points = new ArrayList<IPoint>();
+    points.add(new GM_Point(new DirectPosition(-1.5, 4)));
+    points.add(new GM_Point(new DirectPosition(4, COTE * PAS - 2 + 1.5)));
+    points.add(new GM_Point(new DirectPosition(-1.5, -1.5)));
+    FT_FeatureCollection<IFeature> carres = SpatialQueryTest.grille();
+    double[] distances = new double[points.size()];
+    int[] resultat = SpatialQuery.selectNearestWithDistance(points, carres,
+        1.5, distances);
+    Assert.assertEquals(0, resultat[0]);
+    Assert.assertEquals(1.5, distances[0], 0);
+    Assert.assertEquals(COTE - 1, resultat[1]);
+    Assert.assertEquals(1.5, distances[1], 0);
+    Assert.assertEquals(-1, resultat[2]);
+    SpatialQueryTest.compareNearest(points, 1.5, 1);
+    resultat = SpatialQuery.selectNearestFeature(points, carres, 1.4999);
+    Assert.assertArrayEquals(new int[] { -1, -1, -1 }, resultat);
+    SpatialQueryTest.compareNearest(points, 1.4999, 1);
+  }
+
+  /**
+   * Points à égale distance de deux carrés voisins, dont (9, 4) : le premier
+   * de la collection est renvoyé.
+   */
+  @Test
+  public void testEgaliteDeDistance() {
+    List<IPoint> points = new ArrayList<IPoint>();
+    List<Integer> attendus = new ArrayList<Integer>();
+    for (int i = 0; i < COTE; i++) {
+      for (int j = 0; j < COTE; j++) {
+        if (i + 1 < COTE) {
+          points.add(new GM_Point(new DirectPosition(PAS * i + 9,
+              PAS * j + 4)));
+          attendus.add(i * COTE + j);
+        }
+        if (j + 1 < COTE) {
+          points.add(new GM_Point(new DirectPosition(PAS * i + 4,
+              PAS * j + 9)));
+          attendus.add(i * COTE + j);
+        }
+      }
+    }
+    FT_FeatureCollection<IFeature> carres = SpatialQueryTest.grille();
+    for (int nbThreads = 1; nbThreads <= 2; nbThreads++) {
+      double[] distances = new double[points.size()];
+      int[] resultat = SpatialQuery.selectNearestWithDistance(points, carres,
+          1.5, distances, nbThreads);
+      for (int k = 0; k < points.size(); k++) {
+        Assert.assertEquals(attendus.get(k).intValue(), resultat[k]);
+        Assert.assertEquals(1, distances[k], 0);
+      }
+    }
+    // la requête unitaire renvoie l'un des deux carrés, à la même distance
+    Vector<Object> attendu = SpatialQuery.selectNearestWithDistance(points
+        .get(0), carres, 1.5);
+    Assert.assertTrue(attendu.get(0) == carres.get(0)
+        || attendu.get(0) == carres.get(COTE));
+    Assert.assertEquals(1, ((Double) attendu.get(1)).doubleValue(), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTableauDistancesTropCourt() {
+    List<IPoint> points = SpatialQueryTest.points(new Random(1), 10);
+    SpatialQuery.selectNearestWithDistance(points, SpatialQueryTest.grille(),
+        1.5, new double[points.size() - 1]);
+  }
+}
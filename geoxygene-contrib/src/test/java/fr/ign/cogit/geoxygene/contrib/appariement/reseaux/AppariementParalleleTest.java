@@ -0,0 +1,154 @@
+package fr.ign.cogit.geoxygene.contrib.appariement.reseaux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.contrib.appariement.EnsembleDeLiens;
+import fr.ign.cogit.geoxygene.contrib.appariement.Lien;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.Arc;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.Groupe;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.Noeud;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+
+public class AppariementParalleleTest {
+
+  /** Nombre de noeuds par côté de la grille. */
+  private static final int COTE = 7;
+  /** Pas de la grille. */
+  private static final double PAS = 50;
+
+  /**
+   * Réseau en grille, le même pour une graine donnée. Le réseau comp est
+   * bruité, certains de ses tronçons sont coupés en deux par un sommet décalé,
+   * et d'autres sont absents.
+   */
+  private static FT_FeatureCollection<IFeature> grille(long graine,
+      boolean comp) {
+    Random random = new Random(graine);
+    double[][] x = new double[COTE][COTE];
+    double[][] y = new double[COTE][COTE];
+    for (int i = 0; i < COTE; i++) {
+      for (int j = 0; j < COTE; j++) {
+        double bruit = comp ? 6 : 0;
+        x[i][j] = i * PAS + (random.nextDouble() - 0.5) * bruit;
+        y[i][j] = j * PAS + (random.nextDouble() - 0.5) * bruit;
+      }
+    }
+    FT_FeatureCollection<IFeature> reseau = new FT_FeatureCollection<IFeature>();
+    for (int i = 0; i < COTE; i++) {
+      for (int j = 0; j < COTE; j++) {
+        if (i + 1 < COTE) {
+          AppariementParalleleTest.troncon(reseau, random, comp, x[i][j],
+              y[i][j], x[i + 1][j], y[i + 1][j]);
+        }
+        if (j + 1 < COTE) {
+          AppariementParalleleTest.troncon(reseau, random, comp, x[i][j],
+              y[i][j], x[i][j + 1], y[i][j + 1]);
+        }
+      }
+    }
+    return reseau;
+  }
+
+  private static void troncon(FT_FeatureCollection<IFeature> reseau,
+      Random random, boolean comp, double x1, double y1, double x2, double y2) {
+    double tirage = random.nextDouble();
+    if (comp && tirage < 0.1) {
+      return;
+    }
+    DirectPositionList points = new DirectPositionList();
+    points.add(new DirectPosition(x1, y1));
+    if (comp && tirage < 0.3) {
+      // tronçon coupé en deux
+      double xm = (x1 + x2) / 2 + (random.nextDouble() - 0.5) * 8;
+      double ym = (y1 + y2) / 2 + (random.nextDouble() - 0.5) * 8;
+      points.add(new DirectPosition(xm, ym));
+      reseau.add(new DefaultFeature(new GM_LineString(points)));
+      points = new DirectPositionList();
+      points.add(new DirectPosition(xm, ym));
+    } else if (comp) {
+      points.add(new DirectPosition((x1 + x2) / 2
+          + (random.nextDouble() - 0.5) * 4, (y1 + y2) / 2
+          + (random.nextDouble() - 0.5) * 4));
+    }
+    points.add(new DirectPosition(x2, y2));
+    reseau.add(new DefaultFeature(new GM_LineString(points)));
+  }
+
+  /** Liens calculés, décrits par les géométries des objets appariés. */
+  private static List<String> liens(long graine, int nbThreads) {
+    ParametresApp param = new ParametresApp();
+    param.populationsArcs1.add(AppariementParalleleTest.grille(graine, false));
+    param.populationsArcs2.add(AppariementParalleleTest.grille(graine, true));
+    param.distanceNoeudsMax = 20;
+    param.distanceArcsMax = 20;
+    param.debugBilanSurObjetsGeo = false;
+    param.debugAffichageCommentaires = 0;
+    param.nbThreads = nbThreads;
+    EnsembleDeLiens liens = AppariementIO.appariementDeJeuxGeo(param, null);
+    List<String> resultat = new ArrayList<String>();
+    for (Lien lien : liens) {
+      LienReseaux lienReseaux = (LienReseaux) lien;
+      StringBuilder s = new StringBuilder();
+      s.append(lienReseaux.getEvaluation()).append(" |");
+      for (Arc arc : lienReseaux.getArcs1()) {
+        AppariementParalleleTest.ajoute(s, arc.getGeometrie());
+      }
+      for (Noeud noeud : lienReseaux.getNoeuds1()) {
+        AppariementParalleleTest.ajoute(s, noeud.getGeometrie());
+      }
+      s.append(" ->");
+      for (Arc arc : lienReseaux.getArcs2()) {
+        AppariementParalleleTest.ajoute(s, arc.getGeometrie());
+      }
+      for (Noeud noeud : lienReseaux.getNoeuds2()) {
+        AppariementParalleleTest.ajoute(s, noeud.getGeometrie());
+      }
+      for (Groupe groupe : lienReseaux.getGroupes2()) {
+        s.append(" [");
+        for (Arc arc : groupe.getListeArcs()) {
+          AppariementParalleleTest.ajoute(s, arc.getGeometrie());
+        }
+        for (Noeud noeud : groupe.getListeNoeuds()) {
+          AppariementParalleleTest.ajoute(s, noeud.getGeometrie());
+        }
+        s.append(']');
+      }
+      resultat.add(s.toString());
+    }
+    return resultat;
+  }
+
+  private static void ajoute(StringBuilder s, IGeometry geometrie) {
+    s.append(" (");
+    for (IDirectPosition p : geometrie.coord()) {
+      s.append(p.getX()).append(' ').append(p.getY()).append(';');
+    }
+    s.append(')');
+  }
+
+  /**
+   * Les liens calculés en parallèle sont les mêmes, dans le même ordre, que
+   * ceux du calcul séquentiel.
+   */
+  @Test
+  public void testCommeSequentiel() {
+    for (long graine = 1; graine <= 3; graine++) {
+      List<String> sequentiel = AppariementParalleleTest.liens(graine, 1);
+      Assert.assertFalse(sequentiel.isEmpty());
+      Assert.assertEquals(sequentiel,
+          AppariementParalleleTest.liens(graine, 4));
+    }
+  }
+}
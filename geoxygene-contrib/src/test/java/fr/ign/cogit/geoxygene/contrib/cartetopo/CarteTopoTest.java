@@ -1,5 +1,7 @@
 package fr.ign.cogit.geoxygene.contrib.cartetopo;
 
+import java.util.Arrays;
+
 import org.apache.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Before;
@@ -8,6 +10,7 @@ import org.junit.Test;
 import fr.ign.cogit.geoxygene.api.feature.IPopulation;
 import fr.ign.cogit.geoxygene.contrib.algorithms.SwingingArmNonConvexHull;
 import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
 import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Point;
 
 public class CarteTopoTest {
@@ -209,4 +212,45 @@ public class CarteTopoTest {
     assert (carte.getListeFaces().size() == 4);
   }
 
+  /**
+   * Quand plusieurs noeuds sont à moins de la tolérance d'une extrémité d'arc,
+   * creeNoeudsManquants retient le plus ancien (plus petit identifiant), quel
+   * que soit l'ordre de la sélection.
+   */
+  @Test
+  public void testCreeNoeudsManquantsNoeudLePlusAncien() {
+    CarteTopo carteTopo = new CarteTopo("test"); //$NON-NLS-1$
+    Noeud recent = carteTopo.getPopNoeuds().nouvelElement(
+        new GM_Point(new DirectPosition(0.05, 0)));
+    recent.setId(10);
+    Noeud ancien = carteTopo.getPopNoeuds().nouvelElement(
+        new GM_Point(new DirectPosition(0, 0.05)));
+    ancien.setId(3);
+    Arc arc = carteTopo.getPopArcs().nouvelElement();
+    arc.setGeometrie(new GM_LineString(new DirectPosition(0, 0),
+        new DirectPosition(5, 5)));
+    carteTopo.creeNoeudsManquants(0.1);
+    Assert.assertSame(ancien, arc.getNoeudIni());
+    Assert.assertEquals(0.05, arc.getGeometrie().startPoint().getY(), 0);
+    Assert.assertEquals(3, carteTopo.getPopNoeuds().size());
+  }
+
+  /**
+   * setElements remplace les éléments et met à jour les collections des
+   * anciens et des nouveaux éléments.
+   */
+  @Test
+  public void testSetElements() {
+    Noeud nouveau = new Noeud(new DirectPosition(3, 3));
+    carte.getPopNoeuds().setElements(Arrays.asList(nouveau));
+    Assert.assertEquals(1, carte.getPopNoeuds().size());
+    Assert.assertSame(nouveau, carte.getPopNoeuds().get(0));
+    Assert.assertTrue(nouveau.getFeatureCollections().contains(
+        carte.getPopNoeuds()));
+    for (Noeud ancien : new Noeud[] { n1, n2, n3, n4, n5, n6, n7 }) {
+      Assert.assertFalse(ancien.getFeatureCollections().contains(
+          carte.getPopNoeuds()));
+    }
+  }
+
 }
@@ -0,0 +1,149 @@
+package fr.ign.cogit.geoxygene.contrib.cartetopo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.contrib.geometrie.Distances;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+
+public class PlanarisationParDallesTest {
+
+  private static final double TOLERANCE = 0.001;
+
+  /**
+   * Carte de lignes aléatoires qui se croisent, toujours la même pour une
+   * graine donnée. Les lignes sont monotones en x : un arc qui se recoupe
+   * lui-même, presque à plat, n'est pas découpé de la même façon selon les
+   * arcs présents dans la dalle.
+   */
+  private static CarteTopo carte(long graine) {
+    Random random = new Random(graine);
+    CarteTopo carte = new CarteTopo("test");
+    for (int i = 0; i < 80; i++) {
+      DirectPositionList points = new DirectPositionList();
+      double x = random.nextDouble() * 80;
+      double y = random.nextDouble() * 100;
+      for (int j = 0; j < 6; j++) {
+        points.add(new DirectPosition(x, y));
+        x += 1 + random.nextDouble() * 5;
+        y += (random.nextDouble() - 0.5) * 20;
+      }
+      Arc arc = carte.getPopArcs().nouvelElement();
+      arc.setGeometrie(new GM_LineString(points));
+    }
+    carte.creeNoeudsManquants(TOLERANCE);
+    return carte;
+  }
+
+  private static CarteTopo planaireParDalles(long graine, int nbThreads) {
+    CarteTopo carte = PlanarisationParDallesTest.carte(graine);
+    PlanarisationParDalles planarisation = new PlanarisationParDalles(
+        nbThreads);
+    planarisation.setNbDallesParCote(4);
+    planarisation.rendPlanaire(carte, TOLERANCE);
+    return carte;
+  }
+
+  /** Géométries des arcs, dans l'ordre de la population. */
+  private static List<String> arcs(CarteTopo carte) {
+    List<String> arcs = new ArrayList<String>();
+    for (Arc arc : carte.getPopArcs()) {
+      StringBuilder s = new StringBuilder();
+      for (IDirectPosition p : arc.getGeometrie().coord()) {
+        s.append(p.getX()).append(' ').append(p.getY()).append(';');
+      }
+      arcs.add(s.toString());
+    }
+    return arcs;
+  }
+
+  /** Positions des noeuds, dans l'ordre de la population. */
+  private static List<String> noeuds(CarteTopo carte) {
+    List<String> noeuds = new ArrayList<String>();
+    for (Noeud noeud : carte.getPopNoeuds()) {
+      IDirectPosition p = noeud.getGeometrie().getPosition();
+      noeuds.add(p.getX() + " " + p.getY());
+    }
+    return noeuds;
+  }
+
+  /**
+   * Chaque arc de carte1 a un arc distinct de carte2 à moins de la tolérance
+   * (distance de Hausdorff), et chaque noeud un noeud distinct.
+   */
+  private static void assertMemeCarte(CarteTopo carte1, CarteTopo carte2) {
+    List<Arc> arcs = new ArrayList<Arc>(carte2.getPopArcs().getElements());
+    for (Arc arc : carte1.getPopArcs()) {
+      Arc homologue = null;
+      for (Arc candidat : arcs) {
+        if (Distances.hausdorff(arc.getGeometrie(), candidat.getGeometrie()) <= TOLERANCE) {
+          homologue = candidat;
+          break;
+        }
+      }
+      Assert.assertNotNull("pas d'arc pour " + arc.getGeometrie(), homologue);
+      arcs.remove(homologue);
+    }
+    List<Noeud> noeuds = new ArrayList<Noeud>(carte2.getPopNoeuds().getElements());
+    for (Noeud noeud : carte1.getPopNoeuds()) {
+      Noeud homologue = null;
+      for (Noeud candidat : noeuds) {
+        if (noeud.getGeometrie().getPosition()
+            .distance(candidat.getGeometrie().getPosition()) <= TOLERANCE) {
+          homologue = candidat;
+          break;
+        }
+      }
+      Assert.assertNotNull("pas de noeud pour " + noeud.getGeometrie(), homologue);
+      noeuds.remove(homologue);
+    }
+  }
+
+  /**
+   * Le découpage en 4 x 4 dalles donne la même carte que la planarisation
+   * séquentielle, à la tolérance près : les intersections y sont calculées
+   * sur des morceaux d'arcs différents, et le noeud retenu parmi plusieurs
+   * noeuds proches peut différer.
+   */
+  @Test
+  public void testCommeSequentiel() {
+    for (long graine = 1; graine <= 5; graine++) {
+      CarteTopo sequentielle = PlanarisationParDallesTest.carte(graine);
+      int nbArcs = sequentielle.getPopArcs().size();
+      sequentielle.rendPlanaire(TOLERANCE);
+      CarteTopo parDalles = PlanarisationParDallesTest.planaireParDalles(
+          graine, 2);
+      Assert.assertTrue(sequentielle.getPopArcs().size() > nbArcs);
+      Assert.assertEquals(sequentielle.getPopArcs().size(), parDalles
+          .getPopArcs().size());
+      Assert.assertEquals(sequentielle.getPopNoeuds().size(), parDalles
+          .getPopNoeuds().size());
+      PlanarisationParDallesTest.assertMemeCarte(sequentielle, parDalles);
+      PlanarisationParDallesTest.assertMemeCarte(parDalles, sequentielle);
+    }
+  }
+
+  /**
+   * Le résultat, ordre des arcs et des noeuds compris, ne dépend pas du
+   * nombre de threads.
+   */
+  @Test
+  public void testNombreDeThreads() {
+    CarteTopo reference = PlanarisationParDallesTest.planaireParDalles(42, 1);
+    for (int nbThreads : new int[] { 2, 8 }) {
+      CarteTopo carte = PlanarisationParDallesTest
+          .planaireParDalles(42, nbThreads);
+      Assert.assertEquals(PlanarisationParDallesTest.arcs(reference),
+          PlanarisationParDallesTest.arcs(carte));
+      Assert.assertEquals(PlanarisationParDallesTest.noeuds(reference),
+          PlanarisationParDallesTest.noeuds(carte));
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package fr.ign.cogit.geoxygene.contrib.conflation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Point;
+import fr.ign.cogit.geoxygene.util.algo.geomstructure.Vector2D;
+
+/**
+ * Compares the rubber sheeting computed with the index of the conflation
+ * vectors with a scan of all the vectors.
+ */
+public class RubberSheetingConflationTest {
+
+  /** Côté de la zone. */
+  private static final double COTE = 1000;
+
+  private static Set<ConflationVector> vecteurs(Random random, int nb) {
+    Set<ConflationVector> vecteurs = new HashSet<ConflationVector>();
+    for (int i = 0; i < nb; i++) {
+      double norme = random.nextInt(4) == 0 ? 0 : 20 * random.nextDouble();
+      double angle = 2 * Math.PI * random.nextDouble();
+      vecteurs.add(new ConflationVector(position(random), new Vector2D(norme
+          * Math.cos(angle), norme * Math.sin(angle))));
+    }
+    return vecteurs;
+  }
+
+  private static IDirectPosition position(Random random) {
+    return new DirectPosition(COTE * random.nextDouble(), COTE
+        * random.nextDouble());
+  }
+
+  /**
+   * Vecteur agrégé calculé en parcourant tous les vecteurs, dans l'ordre de
+   * l'ensemble.
+   */
+  private static Vector2D parcoursComplet(Set<ConflationVector> vecteurs,
+      double seuil, IDirectPosition point) {
+    double numerateurX = 0.0;
+    double denominateur = 0.0;
+    double numerateurY = 0.0;
+    for (ConflationVector vect : vecteurs) {
+      double dist = vect.getIniPos().distance2D(point);
+      if (vect.getVector().norme() / (dist * dist) < seuil) {
+        continue;
+      }
+      if (dist < 1.0) {
+        dist = 1.0;
+      }
+      denominateur += 1 / (dist * dist);
+      numerateurX += vect.getVector().getX() / (dist * dist);
+      numerateurY += vect.getVector().getY() / (dist * dist);
+    }
+    if (denominateur == 0.0) {
+      return null;
+    }
+    return new Vector2D(numerateurX / denominateur, numerateurY
+        / denominateur);
+  }
+
+  /** Points tirés au hasard, sur les vecteurs et près de leur rayon. */
+  private static List<IDirectPosition> points(Random random,
+      Set<ConflationVector> vecteurs, double seuil, int nb) {
+    List<IDirectPosition> points = new ArrayList<IDirectPosition>();
+    for (int i = 0; i < nb; i++) {
+      points.add(position(random));
+    }
+    for (ConflationVector vect : vecteurs) {
+      IDirectPosition pos = vect.getIniPos();
+      points.add(new DirectPosition(pos.getX(), pos.getY()));
+      if (seuil > 0) {
+        double rayon = Math.sqrt(vect.getVector().norme() / seuil);
+        points.add(new DirectPosition(pos.getX() + rayon, pos.getY()));
+        points.add(new DirectPosition(pos.getX(), pos.getY() - rayon));
+      }
+    }
+    return points;
+  }
+
+  private static void compare(Vector2D attendu, Vector2D calcule) {
+    if (attendu == null) {
+      Assert.assertNull(calcule);
+      return;
+    }
+    Assert.assertNotNull(calcule);
+    Assert.assertEquals(attendu.getX(), calcule.getX(), 0.0);
+    Assert.assertEquals(attendu.getY(), calcule.getY(), 0.0);
+  }
+
+  @Test
+  public void testCommeParcoursComplet() {
+    double[] seuils = { 0.0005, 0.01, 0.5, 0 };
+    for (long graine = 1; graine <= 5; graine++) {
+      for (double seuil : seuils) {
+        Random random = new Random(graine);
+        Set<ConflationVector> vecteurs = RubberSheetingConflationTest
+            .vecteurs(random, 300);
+        RubberSheetingConflation conflation = new RubberSheetingConflation(
+            new FT_FeatureCollection<IFeature>(), vecteurs);
+        conflation.setDistanceThreshold(seuil);
+        for (IDirectPosition point : RubberSheetingConflationTest.points(
+            random, vecteurs, seuil, 500)) {
+          RubberSheetingConflationTest.compare(RubberSheetingConflationTest
+              .parcoursComplet(vecteurs, seuil, point), conflation
+              .computeAggregatedVector(point));
+        }
+      }
+    }
+  }
+
+  /**
+   * L'index est reconstruit après un changement des vecteurs ou du seuil.
+   */
+  @Test
+  public void testChangementVecteursEtSeuil() {
+    Random random = new Random(42);
+    Set<ConflationVector> vecteurs = RubberSheetingConflationTest.vecteurs(
+        random, 100);
+    RubberSheetingConflation conflation = new RubberSheetingConflation(
+        new FT_FeatureCollection<IFeature>(), vecteurs);
+    IDirectPosition point = position(random);
+    conflation.computeAggregatedVector(point);
+    vecteurs = RubberSheetingConflationTest.vecteurs(random, 100);
+    conflation.setConflationVectors(vecteurs);
+    RubberSheetingConflationTest.compare(RubberSheetingConflationTest
+        .parcoursComplet(vecteurs, 0.0005, point), conflation
+        .computeAggregatedVector(point));
+    conflation.setDistanceThreshold(0.01);
+    RubberSheetingConflationTest.compare(RubberSheetingConflationTest
+        .parcoursComplet(vecteurs, 0.01, point), conflation
+        .computeAggregatedVector(point));
+  }
+
+  /**
+   * Les géométries conflées en parallèle sont celles du parcours complet, et
+   * les mêmes qu'en séquentiel.
+   */
+  @Test
+  public void testConflationCommeParcoursComplet() {
+    Random random = new Random(7);
+    Set<ConflationVector> vecteurs = RubberSheetingConflationTest.vecteurs(
+        random, 200);
+    FT_FeatureCollection<IFeature> objets = new FT_FeatureCollection<IFeature>();
+    for (int i = 0; i < 1000; i++) {
+      if (i % 2 == 0) {
+        objets.add(new DefaultFeature(new GM_Point(position(random))));
+      } else {
+        DirectPositionList points = new DirectPositionList();
+        for (int j = 0; j < 4; j++) {
+          points.add(position(random));
+        }
+        objets.add(new DefaultFeature(new GM_LineString(points)));
+      }
+    }
+    for (int nbThreads : new int[] { 1, 4 }) {
+      RubberSheetingConflation conflation = new RubberSheetingConflation(
+          objets, vecteurs);
+      conflation.setDistanceThreshold(0.01);
+      conflation.setNbThreads(nbThreads);
+      conflation.conflation();
+      for (IFeature objet : objets) {
+        IGeometry conflee = conflation.getConflatedGeoms().get(objet);
+        Assert.assertEquals(objet.getGeom().coord().size(), conflee.coord()
+            .size());
+        for (int k = 0; k < objet.getGeom().coord().size(); k++) {
+          IDirectPosition p = objet.getGeom().coord().get(k);
+          Vector2D attendu = RubberSheetingConflationTest.parcoursComplet(
+              vecteurs, 0.01, p);
+          IDirectPosition q = conflee.coord().get(k);
+          Assert.assertEquals(attendu == null ? p.getX() : attendu
+              .translate(p).getX(), q.getX(), 0.0);
+          Assert.assertEquals(attendu == null ? p.getY() : attendu
+              .translate(p).getY(), q.getY(), 0.0);
+        }
+      }
+    }
+  }
+}
@@ -1,7 +1,11 @@
 package fr.ign.cogit.geoxygene.contrib.graph;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 
 import org.apache.log4j.Logger;
 import org.junit.Assert;
@@ -14,8 +18,10 @@ import fr.ign.cogit.geoxygene.contrib.cartetopo.Arc;
 import fr.ign.cogit.geoxygene.contrib.cartetopo.CarteTopo;
 import fr.ign.cogit.geoxygene.contrib.cartetopo.Noeud;
 import fr.ign.cogit.geoxygene.contrib.graphe.ARM;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
 import fr.ign.cogit.geoxygene.feature.Population;
 import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Point;
 
 /**
  * 
@@ -110,4 +116,99 @@ public class ARMTest {
     Assert.assertTrue(true);
   }
 
+  /**
+   * Longueur de l'ARM par l'algorithme de Prim en O(n²) sur toutes les
+   * distances.
+   */
+  private static double longueurPrim(List<DirectPosition> positions) {
+    int n = positions.size();
+    double[] distances = new double[n];
+    boolean[] dansArbre = new boolean[n];
+    Arrays.fill(distances, Double.POSITIVE_INFINITY);
+    distances[0] = 0;
+    double longueur = 0;
+    for (int k = 0; k < n; k++) {
+      int suivant = -1;
+      for (int i = 0; i < n; i++) {
+        if (!dansArbre[i] && (suivant < 0 || distances[i] < distances[suivant])) {
+          suivant = i;
+        }
+      }
+      dansArbre[suivant] = true;
+      longueur += distances[suivant];
+      for (int i = 0; i < n; i++) {
+        if (!dansArbre[i]) {
+          distances[i] = Math.min(distances[i],
+              positions.get(suivant).distance2D(positions.get(i)));
+        }
+      }
+    }
+    return longueur;
+  }
+
+  /**
+   * Vérifie que l'ARM relie tous les points par n - 1 arcs et que sa longueur
+   * est celle calculée par Prim.
+   */
+  private static void verifieARM(List<DirectPosition> positions) {
+    List<IFeature> points = new ArrayList<IFeature>();
+    for (DirectPosition position : positions) {
+      points.add(new DefaultFeature(new GM_Point(position)));
+    }
+    CarteTopo arm = ARM.creeARM(points);
+    Assert.assertEquals(positions.size(), arm.getPopNoeuds().size());
+    Assert.assertEquals(positions.size() - 1, arm.getPopArcs().size());
+    double longueur = 0;
+    Collection<Noeud> atteints = new HashSet<Noeud>();
+    for (Arc arc : arm.getPopArcs()) {
+      longueur += arc.getGeometrie().length();
+      atteints.add(arc.getNoeudIni());
+      atteints.add(arc.getNoeudFin());
+    }
+    if (positions.size() > 1) {
+      Assert.assertEquals(positions.size(), atteints.size());
+    }
+    Assert.assertEquals(ARMTest.longueurPrim(positions), longueur, 1e-9);
+  }
+
+  /**
+   * Points aléatoires, dont des points confondus et des points alignés, et
+   * cas dégénérés : points tous alignés ou tous confondus.
+   */
+  @Test
+  public void testLongueurCommePrim() {
+    Random random = new Random(3);
+    for (int essai = 0; essai < 40; essai++) {
+      int n = 1 + random.nextInt(60);
+      List<DirectPosition> positions = new ArrayList<DirectPosition>();
+      for (int i = 0; i < n; i++) {
+        double tirage = random.nextDouble();
+        if (tirage < 0.15 && !positions.isEmpty()) {
+          // point confondu avec un point existant
+          DirectPosition p = positions.get(random.nextInt(positions.size()));
+          positions.add(new DirectPosition(p.getX(), p.getY()));
+        } else if (tirage < 0.35) {
+          // point sur la droite y = 2x + 1, à coordonnées entières
+          int x = random.nextInt(50);
+          positions.add(new DirectPosition(x, 2 * x + 1));
+        } else {
+          positions.add(new DirectPosition(100 * random.nextDouble(),
+              100 * random.nextDouble()));
+        }
+      }
+      ARMTest.verifieARM(positions);
+    }
+    for (int n = 2; n <= 20; n++) {
+      List<DirectPosition> alignes = new ArrayList<DirectPosition>();
+      List<DirectPosition> confondus = new ArrayList<DirectPosition>();
+      for (int i = 0; i < n; i++) {
+        int x = random.nextInt(30);
+        alignes.add(new DirectPosition(x, 3 * x));
+        confondus.add(new DirectPosition(5, 7));
+      }
+      ARMTest.verifieARM(alignes);
+      ARMTest.verifieARM(confondus);
+    }
+  }
+
 }
@@ -0,0 +1,178 @@
+package fr.ign.cogit.geoxygene.contrib.multicriteriadecision.ranking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the ELECTRE III decision computed with the outranking matrix with a
+ * distillation that calls {@link ELECTREIIIMethod#isPreferredTo} for each
+ * pair of actions.
+ */
+public class ELECTREIIIMethodTest {
+
+  private static final int NB_CRITERES = 3;
+
+  private static List<ELECTREIIICriterion> criteres() {
+    List<ELECTREIIICriterion> criteres = new ArrayList<ELECTREIIICriterion>();
+    for (int i = 0; i < NB_CRITERES; i++) {
+      final String nom = "critere" + i;
+      ELECTREIIICriterion critere = new ELECTREIIICriterion(nom) {
+        @Override
+        public double value(Map<String, Object> param) {
+          return ((Double) param.get(nom)).doubleValue();
+        }
+      };
+      critere.setWeight(1 + i);
+      critere.setIndifference(1);
+      critere.setPreference(4);
+      critere.setVeto(8);
+      criteres.add(critere);
+    }
+    return criteres;
+  }
+
+  private static ELECTREIIIAction action(int numero, double... valeurs) {
+    HashMap<String, Object> param = new HashMap<String, Object>();
+    for (int i = 0; i < valeurs.length; i++) {
+      param.put("critere" + i, Double.valueOf(valeurs[i]));
+    }
+    return new ELECTREIIIAction("action" + numero, param);
+  }
+
+  private static List<ELECTREIIIAction> actions(Random random, int nb) {
+    List<ELECTREIIIAction> actions = new ArrayList<ELECTREIIIAction>();
+    for (int k = 0; k < nb; k++) {
+      double[] valeurs = new double[NB_CRITERES];
+      for (int i = 0; i < NB_CRITERES; i++) {
+        valeurs[i] = random.nextInt(11);
+      }
+      actions.add(ELECTREIIIMethodTest.action(k, valeurs));
+    }
+    return actions;
+  }
+
+  /**
+   * Distillation de référence, calquée sur la définition : à chaque étape on
+   * garde les actions de qualification extrême.
+   */
+  private static void distillation(ELECTREIIIMethod methode,
+      List<ELECTREIIIAction> d, List<HashSet<ELECTREIIIAction>> preOrdre,
+      boolean descendante) {
+    List<ELECTREIIIAction> dN = new ArrayList<ELECTREIIIAction>();
+    int qOpt = 0;
+    for (ELECTREIIIAction a : d) {
+      int q = 0;
+      for (ELECTREIIIAction b : d) {
+        if (a != b) {
+          q += methode.isPreferredTo(a, b) ? 1 : -1;
+        }
+      }
+      if (dN.isEmpty() || (descendante ? q > qOpt : q < qOpt)) {
+        qOpt = q;
+        dN.clear();
+      }
+      if (q == qOpt) {
+        dN.add(a);
+      }
+    }
+    if (dN.size() == 1 || dN.size() == d.size()) {
+      preOrdre.add(0, new HashSet<ELECTREIIIAction>(dN));
+    } else {
+      ELECTREIIIMethodTest.distillation(methode, dN, preOrdre, descendante);
+    }
+    if (dN.size() != d.size()) {
+      List<ELECTREIIIAction> reste = new ArrayList<ELECTREIIIAction>(d);
+      reste.removeAll(dN);
+      List<HashSet<ELECTREIIIAction>> preOrdreReste = new ArrayList<HashSet<ELECTREIIIAction>>();
+      ELECTREIIIMethodTest.distillation(methode, reste, preOrdreReste,
+          descendante);
+      preOrdre.addAll(preOrdreReste);
+    }
+  }
+
+  private static List<ELECTREIIIAction> decisionDeReference(
+      List<ELECTREIIICriterion> criteres, List<ELECTREIIIAction> actions,
+      double seuil) {
+    ELECTREIIIMethod methode = new ELECTREIIIMethod(criteres, actions, seuil);
+    List<HashSet<ELECTREIIIAction>> z1 = new ArrayList<HashSet<ELECTREIIIAction>>();
+    ELECTREIIIMethodTest.distillation(methode, actions, z1, true);
+    List<HashSet<ELECTREIIIAction>> z2 = new ArrayList<HashSet<ELECTREIIIAction>>();
+    ELECTREIIIMethodTest.distillation(methode, actions, z2, false);
+    Collections.reverse(z2);
+    List<ELECTREIIIAction> decision = new ELECTREIIIComparator(
+        new ELECTREIIIPreOrder(z1), new ELECTREIIIPreOrder(z2)).sort(actions);
+    Collections.reverse(decision);
+    return decision;
+  }
+
+  private static void compare(List<ELECTREIIIAction> actions, double seuil,
+      int nbThreads) {
+    List<ELECTREIIICriterion> criteres = ELECTREIIIMethodTest.criteres();
+    List<ELECTREIIIAction> attendu = ELECTREIIIMethodTest.decisionDeReference(
+        criteres, actions, seuil);
+    ELECTREIIIMethod methode = new ELECTREIIIMethod(criteres, actions, seuil);
+    methode.setNbThreads(nbThreads);
+    Assert.assertEquals(attendu, methode.decision());
+  }
+
+  @Test
+  public void testCommeDistillationDeReference() {
+    double[] seuils = { 0.5, 0.7, 0.9 };
+    for (long graine = 1; graine <= 10; graine++) {
+      for (double seuil : seuils) {
+        Random random = new Random(graine);
+        List<ELECTREIIIAction> actions = ELECTREIIIMethodTest.actions(random,
+            5 + random.nextInt(20));
+        ELECTREIIIMethodTest.compare(actions, seuil, 1);
+      }
+    }
+  }
+
+  /** Plus d'actions que de lignes par tâche : calcul en parallèle. */
+  @Test
+  public void testParallele() {
+    Random random = new Random(3);
+    List<ELECTREIIIAction> actions = ELECTREIIIMethodTest.actions(random, 150);
+    ELECTREIIIMethodTest.compare(actions, 0.7, 4);
+  }
+
+  /**
+   * Circuit a > b > c > a dans la relation de surclassement : les actions sont
+   * ex aequo.
+   */
+  @Test
+  public void testCircuit() {
+    List<ELECTREIIIAction> actions = new ArrayList<ELECTREIIIAction>();
+    actions.add(ELECTREIIIMethodTest.action(0, 5, 6, 4));
+    actions.add(ELECTREIIIMethodTest.action(1, 10, 2, 0));
+    actions.add(ELECTREIIIMethodTest.action(2, 6, 9, 7));
+    List<ELECTREIIICriterion> criteres = new ArrayList<ELECTREIIICriterion>();
+    for (ELECTREIIICriterion critere : ELECTREIIIMethodTest.criteres()) {
+      critere.setWeight(1);
+      criteres.add(critere);
+    }
+    ELECTREIIIMethod methode = new ELECTREIIIMethod(criteres, actions, 0.7);
+    for (int i = 0; i < 3; i++) {
+      ELECTREIIIAction a = actions.get(i);
+      ELECTREIIIAction b = actions.get((i + 1) % 3);
+      Assert.assertTrue(methode.isPreferredTo(a, b));
+      Assert.assertFalse(methode.isPreferredTo(b, a));
+    }
+    List<ELECTREIIIAction> attendu = ELECTREIIIMethodTest.decisionDeReference(
+        criteres, actions, 0.7);
+    Assert.assertEquals(attendu, methode.decision());
+    // with a fourth action out of the circuit
+    actions.add(ELECTREIIIMethodTest.action(3, 10, 10, 10));
+    attendu = ELECTREIIIMethodTest.decisionDeReference(criteres, actions, 0.7);
+    methode = new ELECTREIIIMethod(criteres, actions, 0.7);
+    Assert.assertEquals(attendu, methode.decision());
+  }
+}
@@ -0,0 +1,128 @@
+package fr.ign.cogit.geoxygene.contrib.quality.estim.digitizing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.CarteTopo;
+import fr.ign.cogit.geoxygene.contrib.cartetopo.CarteTopoFactory;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Envelope;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+
+public class MonteCarloErrorSimulationTest {
+
+  private static final long GRAINE = 12;
+  private static final int NB_REALISATIONS = 12;
+
+  /** Petit réseau en grille, avec un sommet intermédiaire par tronçon. */
+  private static CarteTopo reseau() {
+    FT_FeatureCollection<IFeature> lignes = new FT_FeatureCollection<IFeature>();
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        if (i + 1 < 4) {
+          lignes.add(ligne(i * 100, j * 100, i * 100 + 50, j * 100 + 3,
+              (i + 1) * 100, j * 100));
+        }
+        if (j + 1 < 4) {
+          lignes.add(ligne(i * 100, j * 100, i * 100 - 3, j * 100 + 50,
+              i * 100, (j + 1) * 100));
+        }
+      }
+    }
+    return CarteTopoFactory.newCarteTopo("reseau", lignes, 0.1, false);
+  }
+
+  private static IFeature ligne(double x1, double y1, double x2, double y2,
+      double x3, double y3) {
+    DirectPositionList points = new DirectPositionList();
+    points.add(new DirectPosition(x1, y1));
+    points.add(new DirectPosition(x2, y2));
+    points.add(new DirectPosition(x3, y3));
+    return new DefaultFeature(new GM_LineString(points));
+  }
+
+  private static IFeatureCollection<IFeature> parcelles() {
+    IFeatureCollection<IFeature> parcelles = new FT_FeatureCollection<IFeature>();
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 5; j++) {
+        parcelles.add(new DefaultFeature(new GM_Polygon(new GM_Envelope(
+            i * 20, (i + 1) * 20, j * 20, (j + 1) * 20))));
+      }
+    }
+    return parcelles;
+  }
+
+  /** Coordonnées de toutes les réalisations, dans l'ordre des rangs. */
+  private static List<String> realisations(
+      MonteCarloErrorSimulation.SimulationFactory factory, int nbThreads)
+      throws InterruptedException {
+    List<String> resultat = new ArrayList<String>();
+    for (IFeatureCollection<IFeature> jdd : new MonteCarloErrorSimulation(
+        factory, GRAINE, nbThreads).run(NB_REALISATIONS)) {
+      StringBuilder s = new StringBuilder();
+      for (IFeature feature : jdd) {
+        for (IDirectPosition p : feature.getGeom().coord()) {
+          s.append(p.getX()).append(' ').append(p.getY()).append(';');
+        }
+        s.append('|');
+      }
+      resultat.add(s.toString());
+    }
+    return resultat;
+  }
+
+  private static void verifie(
+      MonteCarloErrorSimulation.SimulationFactory factory)
+      throws InterruptedException {
+    List<String> reference = realisations(factory, 1);
+    Assert.assertEquals(NB_REALISATIONS, reference.size());
+    // les réalisations diffèrent entre elles
+    Assert.assertFalse(reference.get(0).equals(reference.get(1)));
+    // le même calcul redonne le même résultat, quel que soit le nombre de
+    // threads
+    Assert.assertEquals(reference, realisations(factory, 1));
+    Assert.assertEquals(reference, realisations(factory, 4));
+  }
+
+  @Test
+  public void testLignesReproductibles() throws InterruptedException {
+    final CarteTopo reseau = reseau();
+    MonteCarloErrorSimulationTest
+        .verifie(new MonteCarloErrorSimulation.SimulationFactory() {
+          @Override
+          public AbstractErrorSimulation<?> createSimulation() {
+            LsDistanceErrorSimulation simulation = new LsDistanceErrorSimulation();
+            simulation.setCarteTopoIn(reseau);
+            simulation.setEcartType(2);
+            simulation.setMoyenne(0);
+            return simulation;
+          }
+        });
+  }
+
+  @Test
+  public void testPolygonesReproductibles() throws InterruptedException {
+    final IFeatureCollection<IFeature> parcelles = parcelles();
+    MonteCarloErrorSimulationTest
+        .verifie(new MonteCarloErrorSimulation.SimulationFactory() {
+          @Override
+          public AbstractErrorSimulation<?> createSimulation() {
+            PgDistanceErrorSimulation simulation = new PgDistanceErrorSimulation();
+            simulation.setJddIn(parcelles);
+            simulation.setEcartType(1);
+            simulation.setMoyenne(0);
+            return simulation;
+          }
+        });
+  }
+}
@@ -11,19 +11,13 @@ import org.apache.log4j.Logger;
 import org.hibernate.HibernateException;
 import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.usertype.UserType;
-import org.postgis.PGgeometry;
 
 import com.vividsolutions.jts.geom.Geometry;
 
-import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiCurve;
-import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiPoint;
-import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiSurface;
-import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableCurve;
-import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableSurface;
 import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.datatools.postgis.GeomGeOxygene2Postgis;
 import fr.ign.cogit.geoxygene.util.conversion.AdapterFactory;
 import fr.ign.cogit.geoxygene.util.conversion.ParseException;
-import fr.ign.cogit.geoxygene.util.conversion.WktGeOxygene;
 
 /**
  * 
@@ -43,106 +37,26 @@ public class GeOxygeneGeometryUserType implements UserType {
 
 	/**
 	 * Converts the native geometry object to a GeOxygene <code>GM_Object</code>
-	 * .
+	 * . The geometry is decoded from its EWKB representation, its SRID (or -1)
+	 * is set as the CRS of the result.
 	 * 
 	 * @param object
 	 *            native database geometry object (depends on the JDBC spatial
 	 *            extension of the database)
 	 * @return GeOxygene geometry corresponding to geomObj.
 	 */
-	@SuppressWarnings("unchecked")
 	public IGeometry convert2GM_Object(Object object) {
-
-		if (object == null) {
+		try {
+			return GeomGeOxygene2Postgis.makeGeOxygene(object);
+		} catch (ParseException e) {
+			GeOxygeneGeometryUserType.logger.error("## WARNING ## Postgis to GeOxygene returns NULL ", e); //$NON-NLS-1$
 			return null;
 		}
-
-		if (object instanceof org.postgresql.util.PGobject) {
-			try {
-				object = new PGgeometry(object.toString());
-			} catch (SQLException e) {
-				e.printStackTrace();
-			}
-		}
-
-		// in some cases, Postgis returns not PGgeometry objects
-		// but org.postgis.Geometry instances.
-		// This has been observed when retrieving GeometryCollections
-		// as the result of an SQL-operation such as Union.
-		if (object instanceof org.postgis.Geometry) {
-			object = new PGgeometry((org.postgis.Geometry) object);
-		}
-
-		if (object instanceof PGgeometry) {
-
-			PGgeometry pgGeom = (PGgeometry) object;
-
-			try {
-
-				String geom = pgGeom.toString();
-
-				/*
-				 * In version 1.0.x of PostGIS, SRID is added to the beginning
-				 * of the pgGeom string
-				 */
-				IGeometry geOxyGeom = null;
-				int srid = -1;
-				if (geom.indexOf("=") > -1) {
-
-					String subString = geom.substring(geom.indexOf("=") + 1, geom.indexOf(";")); //$NON-NLS-1$ //$NON-NLS-2$
-					srid = Integer.parseInt(subString);
-					// logger.info("SRID = " + srid);
-
-					geOxyGeom = WktGeOxygene.makeGeOxygene(pgGeom.toString().substring(geom.indexOf(";") + 1));
-
-				} else {
-					//
-					geOxyGeom = WktGeOxygene.makeGeOxygene(pgGeom.toString());
-					// FIXME : il faut encore trouver le SRID !!!
-					// srid = N;
-				}
-
-				if (geOxyGeom instanceof IMultiPoint) {
-					IMultiPoint aggr = (IMultiPoint) geOxyGeom;
-					if (aggr.size() == 1) {
-						aggr.get(0);
-						aggr.setCRS(srid);
-						return aggr;
-					}
-				}
-
-				if (geOxyGeom instanceof IMultiCurve) {
-					IMultiCurve<IOrientableCurve> aggr = (IMultiCurve<IOrientableCurve>) geOxyGeom;
-					if (aggr.size() == 1) {
-						aggr.get(0);
-						aggr.setCRS(srid);
-						return aggr;
-					}
-				}
-
-				if (geOxyGeom instanceof IMultiSurface) {
-					IMultiSurface<IOrientableSurface> aggr = (IMultiSurface<IOrientableSurface>) geOxyGeom;
-					if (aggr.size() == 1) {
-						aggr.get(0);
-						aggr.setCRS(srid);
-						return aggr;
-					}
-				}
-
-				geOxyGeom.setCRS(srid);
-				return geOxyGeom;
-
-			} catch (ParseException e) {
-				GeOxygeneGeometryUserType.logger.warn("## WARNING ## Postgis to GeOxygene returns NULL ");
-				e.printStackTrace();
-				return null;
-			}
-		}
-		return null;
 	}
 
 	/**
-	 * Converts a GeOxygene <code>GM_Object</code> to a native geometry object.
+	 * Converts a GeOxygene <code>GM_Object</code> to a native geometry object,
+	 * encoded in EWKB with the CRS of the geometry as SRID.
 	 * 
 	 * @param geom
 	 *            GeOxygene GM_Object to convert
@@ -155,16 +69,9 @@ public class GeOxygeneGeometryUserType implements UserType {
 			if (geom == null) {
 				return null;
 			}
-			String srid = "";
-			if (geom.getCRS() != -1) {
-				srid = "SRID=" + geom.getCRS() + ";";
-			}
-			// logger.info("conv2DBGeometry " + srid + geom.toString());
-			PGgeometry pgGeom = new PGgeometry(srid + geom.toString());
-			return pgGeom;
+			return GeomGeOxygene2Postgis.makePostgis(geom, geom.getCRS());
 		} catch (SQLException e) {
-			GeOxygeneGeometryUserType.logger.warn("## WARNING ## GeOxygene to Postgis returns NULL "); //$NON-NLS-1$
-			e.printStackTrace();
+			GeOxygeneGeometryUserType.logger.error("## WARNING ## GeOxygene to Postgis returns NULL ", e); //$NON-NLS-1$
 			return null;
 		}
 	}
@@ -208,7 +115,9 @@ public class GeOxygeneGeometryUserType implements UserType {
 	@Override
 	public Object nullSafeGet(ResultSet rs, String[] names, SessionImplementor arg2, Object arg3)
 			throws HibernateException, SQLException {
-		Object geomObj = rs.getObject(names[0]);
+		// the text value of a geometry column is its hex EWKB, decoded only once
+		// here (getObject would let the driver decode it first)
+		Object geomObj = rs.getString(names[0]);
 		return this.convert2GM_Object(geomObj);
 	}
 
@@ -228,7 +137,7 @@ public class GeOxygeneGeometryUserType implements UserType {
 					Object dbGeom = this.conv2DBGeometry(geom, st.getConnection());
 					st.setObject(index, dbGeom);
 				} catch (Exception e) {
-					e.printStackTrace();
+					GeOxygeneGeometryUserType.logger.error("## WARNING ## JTS to GeOxygene conversion failed ", e); //$NON-NLS-1$
 				}
 			}
 		}
@@ -3,6 +3,8 @@
  */
 package fr.ign.cogit.geoxygene.datatools.postgis;
 
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -11,6 +13,7 @@ import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
 import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
 import fr.ign.cogit.geoxygene.datatools.Geodatabase;
+import fr.ign.cogit.geoxygene.datatools.Metadata;
 import fr.ign.cogit.geoxygene.datatools.hibernate.GeodatabaseHibernate;
 import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
 
@@ -150,6 +153,39 @@ public class GeodatabaseHibernatePostgis extends GeodatabaseHibernate implements
     PostgisSpatialQuery.spatialIndex(this, classe);
   }
 
+  /**
+   * Ecriture en masse des identifiants et des géométries d'objets dans la
+   * table de leur classe, par un COPY binaire (voir {@link PostgisCopyWriter}).
+   * Les autres colonnes de la table prennent leur valeur par défaut. Beaucoup
+   * plus rapide que l'enregistrement objet par objet pour de gros volumes.
+   * 
+   * @param featureClass classe des objets, dont les métadonnées donnent la
+   *          table, la colonne identifiant et la colonne géométrique
+   * @param features objets à écrire
+   * @return le nombre de lignes insérées
+   * @throws SQLException en cas d'erreur d'écriture, la copie est alors
+   *           abandonnée
+   */
+  public long copyFeatures(Class<?> featureClass,
+      Collection<? extends IFeature> features) throws SQLException {
+    Metadata metadata = this.getMetadata(featureClass);
+    PostgisCopyWriter writer = new PostgisCopyWriter(this.getConnection(),
+        metadata.getTableName(), new String[] { metadata.getIdColumnName(),
+            metadata.getGeomColumnName() }, metadata.getSRID());
+    try {
+      for (IFeature feature : features) {
+        writer.writeRow(Integer.valueOf(feature.getId()), feature.getGeom());
+      }
+    } catch (SQLException e) {
+      writer.cancel();
+      throw e;
+    } catch (RuntimeException e) {
+      writer.cancel();
+      throw e;
+    }
+    return writer.close();
+  }
+
   /**
    * corrige une colonne geometrique de table: supprimme la colonne et la recree
    * avec AddGeometryColumn
@@ -31,6 +31,8 @@ import java.sql.SQLException;
 
 import org.apache.log4j.Logger;
 import org.postgis.PGgeometry;
+import org.postgis.binary.BinaryWriter;
+import org.postgresql.util.PGobject;
 
 import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
 import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_MultiCurve;
@@ -39,11 +41,13 @@ import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_MultiSurface;
 import fr.ign.cogit.geoxygene.spatial.geomprim.GM_OrientableCurve;
 import fr.ign.cogit.geoxygene.spatial.geomprim.GM_OrientableSurface;
 import fr.ign.cogit.geoxygene.util.conversion.ParseException;
+import fr.ign.cogit.geoxygene.util.conversion.WkbGeOxygene;
 import fr.ign.cogit.geoxygene.util.conversion.WktGeOxygene;
 
 /**
  * Conversion des geometries PostGIS dans le format GeOxygene, et
- * reciproquement.
+ * reciproquement. Les géométries sont échangées en EWKB (binaire), sans passer
+ * par le WKT.
  * 
  * @author Thierry Badard & Arnaud Braun
  * @version 1.1
@@ -54,19 +58,77 @@ public class GeomGeOxygene2Postgis {
   static Logger logger = Logger
       .getLogger(GeomGeOxygene2Postgis.class.getName());
 
+  /**
+   * Géométrie GeOxygene correspondant à une valeur lue dans une colonne
+   * PostGIS : tableau d'octets WKB ou EWKB (<code>ST_AsEWKB</code>),
+   * {@link PGgeometry}, {@link org.postgis.Geometry}, ou {@link PGobject} et
+   * chaîne contenant de l'EWKB hexadécimal (format de sortie par défaut de
+   * PostGIS) ou du WKT. Le SRID éventuel est affecté à la géométrie.
+   * <p>
+   * Pour ne décoder l'EWKB qu'une fois, lire la colonne avec
+   * <code>ResultSet.getString</code> ou <code>getBytes</code> : un
+   * {@link PGgeometry} a déjà été décodé par le pilote, et doit être recodé en
+   * EWKB pour être converti.
+   * @param object valeur lue dans la base
+   * @return la géométrie GeOxygene, null si object est null
+   * @throws ParseException si la valeur n'est pas une géométrie valide
+   */
+  public static IGeometry makeGeOxygene(Object object) throws ParseException {
+    if (object == null) {
+      return null;
+    }
+    if (object instanceof byte[]) {
+      return WkbGeOxygene.makeGeOxygene((byte[]) object);
+    }
+    if (object instanceof PGgeometry) {
+      object = ((PGgeometry) object).getGeometry();
+    }
+    if (object instanceof org.postgis.Geometry) {
+      // structure déjà décodée par le pilote (voir ci-dessus) : recodage
+      // binaire direct
+      return WkbGeOxygene.makeGeOxygene(new BinaryWriter()
+          .writeBinary((org.postgis.Geometry) object));
+    }
+    String value = (object instanceof PGobject) ? ((PGobject) object)
+        .getValue() : object.toString();
+    if (value == null) {
+      return null;
+    }
+    value = value.trim();
+    if (value.startsWith("00") || value.startsWith("01")) { //$NON-NLS-1$ //$NON-NLS-2$
+      return WkbGeOxygene.makeGeOxygeneFromHex(value);
+    }
+    // WKT ou EWKT
+    int srid = -1;
+    if (value.startsWith("SRID=")) { //$NON-NLS-1$
+      srid = Integer.parseInt(value.substring(5, value.indexOf(';')));
+      value = value.substring(value.indexOf(';') + 1);
+    }
+    IGeometry geom = WktGeOxygene.makeGeOxygene(value);
+    geom.setCRS(srid);
+    return geom;
+  }
+
+  /**
+   * @param geom géométrie GeOxygene
+   * @param srid SRID à écrire, ignoré s'il n'est pas strictement positif
+   * @return la valeur PostGIS de type <code>geometry</code> correspondant à la
+   *         géométrie GeOxygene, codée en EWKB hexadécimal : elle est envoyée
+   *         telle quelle, sans être décodée par le pilote ni passer par l'EWKT
+   * @throws SQLException si la valeur ne peut pas être affectée
+   */
+  public static PGobject makePostgis(IGeometry geom, int srid)
+      throws SQLException {
+    PGobject value = new PGobject();
+    value.setType("geometry"); //$NON-NLS-1$
+    value.setValue(WkbGeOxygene.toHex(WkbGeOxygene.makeEwkb(geom, srid)));
+    return value;
+  }
+
   @SuppressWarnings("unchecked")
   public static Object sqlToJava(Object geom) {
-    PGgeometry pgGeom = (PGgeometry) geom;
-
     try {
-      /*
-       * In version 1.0.x of PostGIS, SRID is added to the beginning of the
-       * pgGeom string
-       */
-
-      IGeometry geOxyGeom = WktGeOxygene.makeGeOxygene(pgGeom.toString()
-          .substring(pgGeom.toString().indexOf(";") + 1));
-      // GM_Object geOxyGeom = WktGeOxygene.makeGeOxygene(pgGeom.toString());
+      IGeometry geOxyGeom = GeomGeOxygene2Postgis.makeGeOxygene(geom);
 
       if (geOxyGeom instanceof GM_MultiPoint) {
         GM_MultiPoint aggr = (GM_MultiPoint) geOxyGeom;
@@ -104,8 +166,7 @@ public class GeomGeOxygene2Postgis {
       if (geom == null) {
         return null;
       }
-      PGgeometry pgGeom = new PGgeometry(((IGeometry) geom).toString());
-      return pgGeom;
+      return GeomGeOxygene2Postgis.makePostgis((IGeometry) geom, -1);
     } catch (SQLException e) {
       GeomGeOxygene2Postgis.logger
           .warn("## WARNING ## GeOxygene to Postgis returns NULL ");
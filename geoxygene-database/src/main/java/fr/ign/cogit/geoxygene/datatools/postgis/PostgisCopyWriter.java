@@ -0,0 +1,228 @@
+/*
+ * This file is part of the GeOxygene project source files.
+ *
+ * GeOxygene aims at providing an open framework which implements OGC/ISO
+ * specifications for the development and deployment of geographic (GIS)
+ * applications. It is a open source contribution of the COGIT laboratory at the
+ * Institut Géographique National (the French National Mapping Agency).
+ *
+ * See: http://oxygene-project.sourceforge.net
+ *
+ * Copyright (C) 2005 Institut Géographique National
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library (see file LICENSE if present); if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+
+package fr.ign.cogit.geoxygene.datatools.postgis;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.apache.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.util.conversion.WkbGeOxygene;
+
+/**
+ * Ecriture en masse dans une table PostGIS par la commande
+ * <code>COPY ... FROM STDIN WITH BINARY</code>. Les lignes sont codées au
+ * format binaire de COPY et les géométries en EWKB, sans aucune conversion
+ * textuelle ni requête par ligne.
+ * <p>
+ * Le format binaire impose que le type Java de chaque valeur corresponde
+ * exactement au type de la colonne : {@link Integer} pour integer,
+ * {@link Long} pour bigint, {@link Short} pour smallint, {@link Double} pour
+ * double precision, {@link Float} pour real, {@link Boolean} pour boolean,
+ * {@link String} pour text ou varchar, <code>byte[]</code> pour bytea et
+ * {@link IGeometry} pour geometry. null donne une valeur NULL.
+ * <p>
+ * English: bulk loader for PostGIS tables using binary COPY.
+ *
+ * @author GeOxygene
+ */
+public class PostgisCopyWriter {
+  static Logger logger = Logger.getLogger(PostgisCopyWriter.class.getName());
+
+  /** Signature de début du format binaire de COPY. */
+  private static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y',
+      '\n', (byte) 0xFF, '\r', '\n', 0 };
+
+  private static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+  /** Taille du tampon envoyé au serveur. */
+  private static final int TAILLE_TAMPON = 1 << 16;
+
+  private final CopyIn copyIn;
+  private final int nbColonnes;
+  private final int srid;
+  private ByteBuffer tampon = ByteBuffer.allocate(
+      PostgisCopyWriter.TAILLE_TAMPON).order(ByteOrder.BIG_ENDIAN);
+  private long nbLignes = 0;
+
+  /**
+   * Démarre la copie dans la table.
+   * @param connection connexion PostgreSQL, éventuellement encapsulée
+   * @param tableName nom de la table
+   * @param columnNames colonnes remplies, dans l'ordre des valeurs de
+   *          {@link #writeRow(Object...)}
+   * @param srid SRID écrit dans les géométries, ignoré s'il n'est pas
+   *          strictement positif
+   * @throws SQLException si la copie ne peut pas démarrer
+   */
+  public PostgisCopyWriter(Connection connection, String tableName,
+      String[] columnNames, int srid) throws SQLException {
+    StringBuffer sql = new StringBuffer("COPY ").append(tableName).append(" ("); //$NON-NLS-1$ //$NON-NLS-2$
+    for (int i = 0; i < columnNames.length; i++) {
+      if (i != 0) {
+        sql.append(", "); //$NON-NLS-1$
+      }
+      sql.append(columnNames[i]);
+    }
+    sql.append(") FROM STDIN WITH BINARY"); //$NON-NLS-1$
+    this.nbColonnes = columnNames.length;
+    this.srid = srid;
+    this.copyIn = PostgisCopyWriter.pgConnection(connection).getCopyAPI()
+        .copyIn(sql.toString());
+    this.tampon.put(PostgisCopyWriter.SIGNATURE);
+    this.tampon.putInt(0); // drapeaux
+    this.tampon.putInt(0); // longueur de l'extension d'en-tête
+  }
+
+  private static PGConnection pgConnection(Connection connection)
+      throws SQLException {
+    if (connection instanceof PGConnection) {
+      return (PGConnection) connection;
+    }
+    return connection.unwrap(PGConnection.class);
+  }
+
+  /**
+   * Ajoute une ligne à la table.
+   * @param values valeurs des colonnes, dans l'ordre donné à la construction
+   * @throws SQLException en cas d'erreur d'envoi, ou si une valeur est d'un
+   *           type non géré
+   */
+  public void writeRow(Object... values) throws SQLException {
+    if (values.length != this.nbColonnes) {
+      throw new SQLException("Expected " + this.nbColonnes + " values, got " //$NON-NLS-1$ //$NON-NLS-2$
+          + values.length);
+    }
+    this.reserve(2);
+    this.tampon.putShort((short) this.nbColonnes);
+    for (Object value : values) {
+      this.writeValue(value);
+    }
+    this.nbLignes++;
+  }
+
+  private void writeValue(Object value) throws SQLException {
+    if (value == null) {
+      this.reserve(4);
+      this.tampon.putInt(-1);
+    } else if (value instanceof IGeometry) {
+      IGeometry geom = (IGeometry) value;
+      int taille = WkbGeOxygene.ewkbSize(geom, this.srid);
+      this.reserve(4 + taille);
+      this.tampon.putInt(taille);
+      WkbGeOxygene.writeEwkb(geom, this.srid, this.tampon);
+      this.tampon.order(ByteOrder.BIG_ENDIAN);
+    } else if (value instanceof Integer) {
+      this.reserve(8);
+      this.tampon.putInt(4).putInt(((Integer) value).intValue());
+    } else if (value instanceof Long) {
+      this.reserve(12);
+      this.tampon.putInt(8).putLong(((Long) value).longValue());
+    } else if (value instanceof Short) {
+      this.reserve(6);
+      this.tampon.putInt(2).putShort(((Short) value).shortValue());
+    } else if (value instanceof Double) {
+      this.reserve(12);
+      this.tampon.putInt(8).putDouble(((Double) value).doubleValue());
+    } else if (value instanceof Float) {
+      this.reserve(8);
+      this.tampon.putInt(4).putFloat(((Float) value).floatValue());
+    } else if (value instanceof Boolean) {
+      this.reserve(5);
+      this.tampon.putInt(1).put(
+          (byte) (((Boolean) value).booleanValue() ? 1 : 0));
+    } else if (value instanceof String) {
+      this.writeBytes(((String) value).getBytes(PostgisCopyWriter.UTF8));
+    } else if (value instanceof byte[]) {
+      this.writeBytes((byte[]) value);
+    } else {
+      throw new SQLException("Unsupported type for binary COPY: " //$NON-NLS-1$
+          + value.getClass().getName());
+    }
+  }
+
+  private void writeBytes(byte[] bytes) throws SQLException {
+    this.reserve(4 + bytes.length);
+    this.tampon.putInt(bytes.length);
+    this.tampon.put(bytes);
+  }
+
+  /**
+   * S'assure qu'il reste la place d'écrire n octets dans le tampon, en
+   * envoyant son contenu au serveur ou en l'agrandissant si besoin.
+   */
+  private void reserve(int n) throws SQLException {
+    if (this.tampon.remaining() >= n) {
+      return;
+    }
+    this.flush();
+    if (this.tampon.capacity() < n) {
+      this.tampon = ByteBuffer.allocate(n).order(ByteOrder.BIG_ENDIAN);
+    }
+  }
+
+  private void flush() throws SQLException {
+    if (this.tampon.position() > 0) {
+      this.copyIn.writeToCopy(this.tampon.array(), 0, this.tampon.position());
+      this.tampon.clear();
+    }
+  }
+
+  /**
+   * Termine la copie.
+   * @return le nombre de lignes insérées selon le serveur
+   * @throws SQLException si le serveur refuse les données
+   */
+  public long close() throws SQLException {
+    this.reserve(2);
+    this.tampon.putShort((short) -1);
+    this.flush();
+    long nb = this.copyIn.endCopy();
+    PostgisCopyWriter.logger.debug(nb + " rows copied, " + this.nbLignes //$NON-NLS-1$
+        + " sent"); //$NON-NLS-1$
+    return nb;
+  }
+
+  /**
+   * Abandonne la copie : aucune ligne n'est insérée.
+   */
+  public void cancel() {
+    try {
+      this.copyIn.cancelCopy();
+    } catch (SQLException e) {
+      PostgisCopyWriter.logger.warn("Unable to cancel COPY: " + e.getMessage()); //$NON-NLS-1$
+    }
+  }
+
+}
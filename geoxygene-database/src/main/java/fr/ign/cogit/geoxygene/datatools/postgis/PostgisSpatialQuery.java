@@ -39,6 +39,7 @@ import java.util.Map;
 import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
 import fr.ign.cogit.geoxygene.datatools.Geodatabase;
 import fr.ign.cogit.geoxygene.datatools.Metadata;
+import fr.ign.cogit.geoxygene.util.conversion.WkbGeOxygene;
 
 /**
  * Encapsulation d'appels a Postgis.
@@ -244,7 +245,9 @@ public class PostgisSpatialQuery {
       Connection conn = data.getConnection();
 
       // definition de la requête
-      String geomString = "SRID=" + geom.getCRS() + ";" + geom.toString();
+      // géométrie en EWKB hexadécimal, lu directement par PostGIS
+      String geomString = WkbGeOxygene.toHex(WkbGeOxygene.makeEwkb(geom,
+          geom.getCRS()));
       String query = "SELECT t." + pkColumn + " FROM " + tableName + " t ";
       query = query + "WHERE t." + geomColumn + " && '" + geomString + "'";
       query = query + " AND " + theQuery + "('" + geomString + "',t."
@@ -72,6 +72,11 @@ public class FT_FeatureCollection<Feat extends IFeature> implements
     this.listenerList.add(l);
   }
 
+  @Override
+  public void removeFeatureCollectionListener(FeatureCollectionListener l) {
+    this.listenerList.remove(l);
+  }
+
   @Override
   public void fireActionPerformed(FeatureCollectionEvent event) {
     // Guaranteed to return a non-null array
@@ -170,11 +175,11 @@ public class FT_FeatureCollection<Feat extends IFeature> implements
   @SuppressWarnings("unchecked")
   public void setElements(Collection<? extends Feat> liste) {
     synchronized (this.elements) {
-      List<Feat> old = new ArrayList<Feat>(this.elements);
-      for (Feat O : old) {
-        this.elements.remove(O);
+      for (Feat O : this.elements) {
         O.getFeatureCollections().remove(this);
       }
+      // vidage en une fois : retirer les éléments un à un est quadratique
+      this.elements.clear();
       for (Feat O : liste) {
         this.elements.add(O);
         if (!O.getFeatureCollections().contains(this)) {
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
@@ -516,14 +517,19 @@ public class Population<Feat extends IFeature> extends
     }
   }
 
-  private static int idNouvelElement = 0;
+  /**
+   * Dernier identifiant attribué par {@link #nouvelElement()}. Le compteur est
+   * partagé par toutes les populations et peut être incrémenté depuis
+   * plusieurs threads (construction parallèle de cartes topologiques).
+   */
+  private static final AtomicInteger idNouvelElement = new AtomicInteger(0);
 
   public static void setIdNouvelElement(int idNouvelElement) {
-    Population.idNouvelElement = idNouvelElement;
+    Population.idNouvelElement.set(idNouvelElement);
   }
 
   public static int getIdNouvelElement() {
-    return Population.idNouvelElement;
+    return Population.idNouvelElement.get();
   }
 
   @Override
@@ -535,7 +541,7 @@ public class Population<Feat extends IFeature> extends
   public Feat nouvelElement(IGeometry geom) {
     try {
       Feat elem = this.getClasse().getConstructor().newInstance();
-      elem.setId(++Population.idNouvelElement);
+      elem.setId(Population.idNouvelElement.incrementAndGet());
       elem.setGeom(geom);
       elem.setPopulation(this);
       super.add(elem);
@@ -563,7 +569,7 @@ public class Population<Feat extends IFeature> extends
   public Feat nouvelElement(Class<?>[] signature, Object[] param) {
     try {
       Feat elem = this.getClasse().getConstructor(signature).newInstance(param);
-      elem.setId(++Population.idNouvelElement);
+      elem.setId(Population.idNouvelElement.incrementAndGet());
       super.add(elem);
       if (this.getPersistant()) {
         DataSet.db.makePersistent(elem);
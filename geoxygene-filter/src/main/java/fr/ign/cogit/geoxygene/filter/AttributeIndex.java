@@ -0,0 +1,288 @@
+/*
+ * This file is part of the GeOxygene project source files. GeOxygene aims at
+ * providing an open framework which implements OGC/ISO specifications for the
+ * development and deployment of geographic (GIS) applications. It is a open
+ * source contribution of the COGIT laboratory at the Institut Géographique
+ * National (the French National Mapping Agency). See:
+ * http://oxygene-project.sourceforge.net Copyright (C) 2005 Institut
+ * Géographique National This library is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of the License,
+ * or any later version. This library is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser
+ * General Public License for more details. You should have received a copy of
+ * the GNU Lesser General Public License along with this library (see file
+ * LICENSE if present); if not, write to the Free Software Foundation, Inc., 59
+ * Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package fr.ign.cogit.geoxygene.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import fr.ign.cogit.geoxygene.filter.CompiledFilter.AndFilter;
+import fr.ign.cogit.geoxygene.filter.CompiledFilter.ComparisonFilter;
+import fr.ign.cogit.geoxygene.filter.CompiledFilter.Operator;
+
+/**
+ * Index des valeurs d'une propriété sur une collection d'objets (les features
+ * d'une couche par exemple). Il répond sans évaluer les objets un par un aux
+ * filtres d'égalité et d'intervalle portant sur cette seule propriété :
+ * {@link PropertyIsEqualTo}, {@link PropertyIsGreaterThan},
+ * {@link PropertyIsGreaterThanOrEqualTo}, {@link PropertyIsLessThan},
+ * {@link PropertyIsLessThanOrEqualTo} et leurs conjonctions par {@link And}.
+ * <p>
+ * Les valeurs numériques sont triées et interrogées par dichotomie, les
+ * chaînes sont rangées dans une table de hachage. L'index ne répond que
+ * lorsque son résultat est exactement celui de l'évaluation du filtre sur
+ * chaque objet ; sinon {@link #select(Filter)} renvoie null et le filtre doit
+ * être évalué normalement. L'index reflète la collection au moment de sa
+ * construction.
+ * <p>
+ * English: per-collection attribute index answering equality and range
+ * filters on a single property.
+ * 
+ * @author GeOxygene
+ */
+public class AttributeIndex {
+  static Logger logger = Logger.getLogger(AttributeIndex.class.getName());
+
+  private final String propertyName;
+  /** Valeurs numériques triées et objets correspondants. */
+  private final double[] numbers;
+  private final Object[] numberObjects;
+  /**
+   * Nombre de valeurs numériques autres que NaN, rangées en tête de numbers.
+   * Comme pour le filtre interprété, NaN ne vérifie aucune comparaison.
+   */
+  private final int comparable;
+  /** Objets par valeur, pour les propriétés de type chaîne. */
+  private final Map<String, List<Object>> strings;
+  /** Vrai si une valeur n'est ni nulle, ni un nombre, ni une chaîne. */
+  private final boolean others;
+  /** Vrai si la propriété n'a pas pu être lue sur un objet. */
+  private final boolean failed;
+
+  /**
+   * Construit l'index en lisant la propriété de chaque objet.
+   * @param objects objets indexés
+   * @param propertyName nom de la propriété indexée
+   */
+  public AttributeIndex(Collection<?> objects, String propertyName) {
+    this.propertyName = propertyName;
+    PropertyAccessor accessor = new PropertyAccessor(propertyName);
+    final double[] values = new double[objects.size()];
+    Object[] numbered = new Object[objects.size()];
+    Map<String, List<Object>> byString = new HashMap<String, List<Object>>();
+    boolean other = false;
+    boolean error = false;
+    int n = 0;
+    for (Object object : objects) {
+      Object value;
+      try {
+        value = accessor.value(object);
+      } catch (RuntimeException e) {
+        AttributeIndex.logger.debug("Attribute " + propertyName //$NON-NLS-1$
+            + " not indexed: " + e.getMessage()); //$NON-NLS-1$
+        error = true;
+        break;
+      }
+      if (value instanceof Number) {
+        values[n] = ((Number) value).doubleValue();
+        numbered[n++] = object;
+      } else if (value instanceof String) {
+        List<Object> list = byString.get(value);
+        if (list == null) {
+          list = new ArrayList<Object>(1);
+          byString.put((String) value, list);
+        }
+        list.add(object);
+      } else if (value != null) {
+        other = true;
+      }
+    }
+    this.failed = error;
+    this.others = other;
+    this.strings = byString;
+    // tri des valeurs en gardant les objets associés
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = Integer.valueOf(i);
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer i, Integer j) {
+        return Double.compare(values[i.intValue()], values[j.intValue()]);
+      }
+    });
+    this.numbers = new double[n];
+    this.numberObjects = new Object[n];
+    int m = 0;
+    for (int i = 0; i < n; i++) {
+      this.numbers[i] = values[order[i].intValue()];
+      this.numberObjects[i] = numbered[order[i].intValue()];
+      if (!Double.isNaN(this.numbers[i])) {
+        m++;
+      }
+    }
+    // Double.compare range les NaN à la fin
+    this.comparable = m;
+  }
+
+  /**
+   * @return le nom de la propriété indexée
+   */
+  public String getPropertyName() {
+    return this.propertyName;
+  }
+
+  /**
+   * Renvoie le nom de l'unique propriété sur laquelle porte un filtre que
+   * l'index peut traiter.
+   * @param filter un filtre, éventuellement compilé
+   * @return le nom de la propriété, ou null si le filtre ne porte pas sur une
+   *         seule propriété par égalité ou intervalle
+   */
+  public static String indexedProperty(Filter filter) {
+    CompiledFilter compiled = CompiledFilter.compile(filter);
+    if (compiled instanceof ComparisonFilter) {
+      ComparisonFilter comparison = (ComparisonFilter) compiled;
+      if (comparison.operator == Operator.NOT_EQUAL) {
+        return null;
+      }
+      return comparison.accessor.getName();
+    }
+    if (compiled instanceof AndFilter) {
+      String name = null;
+      for (CompiledFilter child : ((AndFilter) compiled).children) {
+        String childName = AttributeIndex.indexedProperty(child);
+        if (childName == null || (name != null && !name.equals(childName))) {
+          return null;
+        }
+        name = childName;
+      }
+      return name;
+    }
+    return null;
+  }
+
+  /**
+   * Sélectionne les objets qui vérifient le filtre.
+   * @param filter un filtre, éventuellement compilé
+   * @return les objets qui vérifient le filtre, comparés par identité, ou
+   *         null si l'index ne peut pas répondre à ce filtre
+   */
+  public Set<Object> select(Filter filter) {
+    if (this.failed) {
+      return null;
+    }
+    CompiledFilter compiled = CompiledFilter.compile(filter);
+    if (compiled instanceof ComparisonFilter) {
+      return this.select((ComparisonFilter) compiled);
+    }
+    if (compiled instanceof AndFilter) {
+      Set<Object> result = null;
+      for (CompiledFilter child : ((AndFilter) compiled).children) {
+        Set<Object> selection = this.select(child);
+        if (selection == null) {
+          return null;
+        }
+        if (result == null) {
+          result = selection;
+        } else {
+          result.retainAll(selection);
+        }
+      }
+      return result;
+    }
+    return null;
+  }
+
+  private Set<Object> select(ComparisonFilter filter) {
+    if (!filter.accessor.getName().equals(this.propertyName)
+        || filter.operator == Operator.NOT_EQUAL || this.others) {
+      return null;
+    }
+    Set<Object> result = Collections
+        .newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    if (!this.strings.isEmpty()) {
+      // sans respect de la casse, les chaînes sont comparées au littéral
+      if (!filter.isMatchCase()) {
+        return null;
+      }
+      // avec respect de la casse, seule l'égalité peut retenir une chaîne
+      if (filter.operator == Operator.EQUAL) {
+        List<Object> list = this.strings.get(filter.value);
+        if (list != null) {
+          result.addAll(list);
+        }
+      }
+    }
+    if (this.numbers.length == 0) {
+      return result;
+    }
+    if (!filter.isNumeric()) {
+      return null;
+    }
+    double literal = filter.number();
+    if (Double.isNaN(literal)) {
+      return result;
+    }
+    int from = 0;
+    int to = this.comparable;
+    switch (filter.operator) {
+      case EQUAL:
+        from = this.firstIndex(literal, true);
+        to = this.firstIndex(literal, false);
+        break;
+      case GREATER:
+        from = this.firstIndex(literal, false);
+        break;
+      case GREATER_OR_EQUAL:
+        from = this.firstIndex(literal, true);
+        break;
+      case LESS:
+        to = this.firstIndex(literal, true);
+        break;
+      default:
+        to = this.firstIndex(literal, false);
+        break;
+    }
+    for (int i = from; i < to; i++) {
+      result.add(this.numberObjects[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Premier rang dont la valeur est supérieure ou égale (inclusive) ou
+   * strictement supérieure au littéral.
+   */
+  private int firstIndex(double literal, boolean inclusive) {
+    int low = 0;
+    int high = this.comparable;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      double v = this.numbers[mid];
+      if (inclusive ? v < literal : v <= literal) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,385 @@
+/*
+ * This file is part of the GeOxygene project source files. GeOxygene aims at
+ * providing an open framework which implements OGC/ISO specifications for the
+ * development and deployment of geographic (GIS) applications. It is a open
+ * source contribution of the COGIT laboratory at the Institut Géographique
+ * National (the French National Mapping Agency). See:
+ * http://oxygene-project.sourceforge.net Copyright (C) 2005 Institut
+ * Géographique National This library is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of the License,
+ * or any later version. This library is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser
+ * General Public License for more details. You should have received a copy of
+ * the GNU Lesser General Public License along with this library (see file
+ * LICENSE if present); if not, write to the Free Software Foundation, Inc., 59
+ * Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package fr.ign.cogit.geoxygene.filter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.xml.bind.annotation.XmlTransient;
+
+/**
+ * Filtre compilé : l'arbre d'un {@link Filter} est parcouru une seule fois
+ * pour produire des évaluateurs qui gardent les littéraux numériques déjà
+ * convertis, les expressions régulières de {@link PropertyIsLike} déjà
+ * compilées et un accès aux propriétés résolu une fois par classe d'objets.
+ * <p>
+ * Le résultat de {@link #evaluate(Object)} est celui du filtre d'origine. Les
+ * filtres que le compilateur ne connaît pas (filtres spatiaux notamment) sont
+ * évalués par le filtre d'origine. Un filtre compilé ne suit pas les
+ * modifications ultérieures de l'arbre dont il est issu.
+ * <p>
+ * English: filter tree compiled once into reusable evaluators.
+ * 
+ * @author GeOxygene
+ */
+@XmlTransient
+public abstract class CompiledFilter extends Filter {
+
+  private final Filter source;
+
+  CompiledFilter(Filter source) {
+    this.source = source;
+  }
+
+  /**
+   * @return le filtre compilé
+   */
+  public Filter getSource() {
+    return this.source;
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(this.source);
+  }
+
+  /**
+   * Compile un filtre.
+   * @param filter filtre à compiler
+   * @return le filtre compilé, ou null si le filtre est null
+   */
+  public static CompiledFilter compile(Filter filter) {
+    if (filter == null) {
+      return null;
+    }
+    if (filter instanceof CompiledFilter) {
+      return (CompiledFilter) filter;
+    }
+    return CompiledFilter.compile(filter,
+        new HashMap<String, PropertyAccessor>(0));
+  }
+
+  private static CompiledFilter compile(Filter filter,
+      Map<String, PropertyAccessor> accessors) {
+    if (filter instanceof And || filter instanceof Or) {
+      List<Filter> ops = ((BinaryLogicOpsType) filter).getOps();
+      CompiledFilter[] children = new CompiledFilter[ops.size()];
+      for (int i = 0; i < children.length; i++) {
+        children[i] = CompiledFilter.compile(ops.get(i), accessors);
+      }
+      return (filter instanceof And) ? new AndFilter(filter, children)
+          : new OrFilter(filter, children);
+    }
+    if (filter instanceof Not) {
+      return new NotFilter(filter, CompiledFilter.compile(
+          ((Not) filter).getOp(), accessors));
+    }
+    if (filter instanceof ComparisonOpsType) {
+      ComparisonOpsType comparison = (ComparisonOpsType) filter;
+      if (comparison.getPropertyName() != null
+          && comparison.getPropertyName().getPropertyName() != null) {
+        PropertyAccessor accessor = CompiledFilter.accessor(comparison
+            .getPropertyName().getPropertyName(), accessors);
+        if (filter instanceof PropertyIsNull) {
+          return new NullFilter(filter, accessor);
+        }
+        if (filter instanceof PropertyIsLike) {
+          Pattern pattern = ((PropertyIsLike) filter).getPattern();
+          if (pattern != null) {
+            return new LikeFilter(filter, accessor, pattern);
+          }
+        } else {
+          Operator operator = Operator.of(filter);
+          if (operator != null && comparison.getLiteral() != null) {
+            return new ComparisonFilter((BinaryComparisonOpsType) filter,
+                operator, accessor);
+          }
+        }
+      }
+    }
+    return new SourceFilter(filter);
+  }
+
+  private static PropertyAccessor accessor(String name,
+      Map<String, PropertyAccessor> accessors) {
+    PropertyAccessor accessor = accessors.get(name);
+    if (accessor == null) {
+      accessor = new PropertyAccessor(name);
+      accessors.put(name, accessor);
+    }
+    return accessor;
+  }
+
+  /**
+   * Opérateurs de comparaison binaires.
+   */
+  enum Operator {
+    EQUAL, NOT_EQUAL, GREATER, GREATER_OR_EQUAL, LESS, LESS_OR_EQUAL;
+
+    static Operator of(Filter filter) {
+      if (filter instanceof PropertyIsEqualTo) {
+        return EQUAL;
+      }
+      if (filter instanceof PropertyIsNotEqualTo) {
+        return NOT_EQUAL;
+      }
+      if (filter instanceof PropertyIsGreaterThan) {
+        return GREATER;
+      }
+      if (filter instanceof PropertyIsGreaterThanOrEqualTo) {
+        return GREATER_OR_EQUAL;
+      }
+      if (filter instanceof PropertyIsLessThan) {
+        return LESS;
+      }
+      if (filter instanceof PropertyIsLessThanOrEqualTo) {
+        return LESS_OR_EQUAL;
+      }
+      return null;
+    }
+
+    boolean test(int comparison) {
+      switch (this) {
+        case EQUAL:
+          return comparison == 0;
+        case NOT_EQUAL:
+          return comparison != 0;
+        case GREATER:
+          return comparison > 0;
+        case GREATER_OR_EQUAL:
+          return comparison >= 0;
+        case LESS:
+          return comparison < 0;
+        default:
+          return comparison <= 0;
+      }
+    }
+
+    boolean test(double value, double literal) {
+      switch (this) {
+        case EQUAL:
+          return value == literal;
+        case NOT_EQUAL:
+          return value != literal;
+        case GREATER:
+          return value > literal;
+        case GREATER_OR_EQUAL:
+          return value >= literal;
+        case LESS:
+          return value < literal;
+        default:
+          return value <= literal;
+      }
+    }
+  }
+
+  /**
+   * Comparaison d'une propriété avec un littéral.
+   */
+  static final class ComparisonFilter extends CompiledFilter {
+    final Operator operator;
+    final PropertyAccessor accessor;
+    private final Object literal;
+    final String value;
+    private final boolean matchCase;
+    private final boolean numeric;
+    private final double number;
+
+    ComparisonFilter(BinaryComparisonOpsType filter, Operator operator,
+        PropertyAccessor accessor) {
+      super(filter);
+      this.operator = operator;
+      this.accessor = accessor;
+      this.literal = filter.getLiteral();
+      this.value = filter.getLiteral().getValue();
+      this.matchCase = filter.isMatchCase();
+      double d = Double.NaN;
+      boolean ok = false;
+      try {
+        d = Double.parseDouble(this.value);
+        ok = true;
+      } catch (RuntimeException e) {
+        // l'erreur est levée à l'évaluation, comme pour le filtre d'origine
+      }
+      this.numeric = ok;
+      this.number = d;
+    }
+
+    /**
+     * @return la valeur numérique du littéral
+     * @throws NumberFormatException si le littéral n'est pas un nombre
+     */
+    double number() {
+      return this.numeric ? this.number : Double.parseDouble(this.value);
+    }
+
+    boolean isNumeric() {
+      return this.numeric;
+    }
+
+    boolean isMatchCase() {
+      return this.matchCase;
+    }
+
+    @Override
+    public boolean evaluate(Object object) {
+      Object property = this.accessor.value(object);
+      if (property == null) {
+        return this.operator == Operator.NOT_EQUAL;
+      }
+      if (property instanceof String) {
+        if (!this.matchCase) {
+          return this.operator.test(String.CASE_INSENSITIVE_ORDER.compare(
+              (String) property, this.value));
+        }
+        if (this.operator == Operator.EQUAL) {
+          return ((String) property).compareTo(this.value) == 0;
+        }
+      }
+      if (property instanceof Number) {
+        return this.operator.test(((Number) property).doubleValue(),
+            this.number());
+      }
+      if (property instanceof Boolean && this.operator == Operator.EQUAL) {
+        return property.equals(Boolean.valueOf(this.value));
+      }
+      return property.equals(this.literal);
+    }
+  }
+
+  /**
+   * Filtre {@link PropertyIsLike} dont l'expression régulière est compilée.
+   */
+  static final class LikeFilter extends CompiledFilter {
+    private final PropertyAccessor accessor;
+    private final Pattern pattern;
+
+    LikeFilter(Filter filter, PropertyAccessor accessor, Pattern pattern) {
+      super(filter);
+      this.accessor = accessor;
+      this.pattern = pattern;
+    }
+
+    @Override
+    public boolean evaluate(Object object) {
+      Object property = this.accessor.value(object);
+      if (property instanceof String || property instanceof Number) {
+        return this.pattern.matcher(property.toString()).matches();
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Filtre {@link PropertyIsNull}.
+   */
+  static final class NullFilter extends CompiledFilter {
+    private final PropertyAccessor accessor;
+
+    NullFilter(Filter filter, PropertyAccessor accessor) {
+      super(filter);
+      this.accessor = accessor;
+    }
+
+    @Override
+    public boolean evaluate(Object object) {
+      return this.accessor.value(object) == null;
+    }
+  }
+
+  /**
+   * Conjonction.
+   */
+  static final class AndFilter extends CompiledFilter {
+    final CompiledFilter[] children;
+
+    AndFilter(Filter filter, CompiledFilter[] children) {
+      super(filter);
+      this.children = children;
+    }
+
+    @Override
+    public boolean evaluate(Object object) {
+      for (CompiledFilter child : this.children) {
+        if (!child.evaluate(object)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Disjonction.
+   */
+  static final class OrFilter extends CompiledFilter {
+    private final CompiledFilter[] children;
+
+    OrFilter(Filter filter, CompiledFilter[] children) {
+      super(filter);
+      this.children = children;
+    }
+
+    @Override
+    public boolean evaluate(Object object) {
+      for (CompiledFilter child : this.children) {
+        if (child.evaluate(object)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Négation.
+   */
+  static final class NotFilter extends CompiledFilter {
+    private final CompiledFilter child;
+
+    NotFilter(Filter filter, CompiledFilter child) {
+      super(filter);
+      this.child = child;
+    }
+
+    @Override
+    public boolean evaluate(Object object) {
+      return !this.child.evaluate(object);
+    }
+  }
+
+  /**
+   * Filtre non compilé, évalué par le filtre d'origine.
+   */
+  static final class SourceFilter extends CompiledFilter {
+
+    SourceFilter(Filter filter) {
+      super(filter);
+    }
+
+    @Override
+    public boolean evaluate(Object object) {
+      return this.getSource().evaluate(object);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of the GeOxygene project source files. GeOxygene aims at
+ * providing an open framework which implements OGC/ISO specifications for the
+ * development and deployment of geographic (GIS) applications. It is a open
+ * source contribution of the COGIT laboratory at the Institut Géographique
+ * National (the French National Mapping Agency). See:
+ * http://oxygene-project.sourceforge.net Copyright (C) 2005 Institut
+ * Géographique National This library is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of the License,
+ * or any later version. This library is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser
+ * General Public License for more details. You should have received a copy of
+ * the GNU Lesser General Public License along with this library (see file
+ * LICENSE if present); if not, write to the Free Software Foundation, Inc., 59
+ * Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package fr.ign.cogit.geoxygene.filter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.filter.expression.PropertyName;
+
+/**
+ * Accès à une propriété nommée, résolu une seule fois par classe d'objets.
+ * <p>
+ * Renvoie les mêmes valeurs que {@link PropertyName#evaluate(Object)} : les
+ * features sont interrogés par {@link IFeature#getAttribute(String)}, les
+ * autres objets par leur accesseur <code>getXxx</code>, recherché par
+ * introspection à la première rencontre de leur classe seulement. Les nombres
+ * sont convertis en {@link BigDecimal}.
+ * <p>
+ * English: property accessor caching the getter of each visited class.
+ * 
+ * @author GeOxygene
+ */
+final class PropertyAccessor {
+  static Logger logger = Logger.getLogger(PropertyAccessor.class.getName());
+
+  /** Marque les classes qui n'ont pas d'accesseur utilisable. */
+  private static final Object ABSENT = new Object();
+
+  private final String name;
+  private final String getterName;
+  private final ConcurrentMap<Class<?>, Object> getters = new ConcurrentHashMap<Class<?>, Object>();
+
+  PropertyAccessor(String name) {
+    this.name = name;
+    this.getterName = "get" + name.substring(0, 1).toUpperCase() //$NON-NLS-1$
+        + name.substring(1);
+  }
+
+  String getName() {
+    return this.name;
+  }
+
+  /**
+   * @param object objet interrogé
+   * @return la valeur de la propriété, ou null si elle est absente
+   */
+  Object value(Object object) {
+    Object resultat;
+    if (object instanceof IFeature) {
+      resultat = ((IFeature) object).getAttribute(this.name);
+    } else {
+      Object getter = this.getter(object.getClass());
+      if (getter == PropertyAccessor.ABSENT) {
+        return null;
+      }
+      try {
+        resultat = ((Method) getter).invoke(object, new Object[0]);
+      } catch (IllegalAccessException e) {
+        PropertyAccessor.logger.error("accès illégal à la méthode " //$NON-NLS-1$
+            + this.getterName + " de la classe " + object.getClass()); //$NON-NLS-1$
+        return null;
+      } catch (InvocationTargetException e) {
+        PropertyAccessor.logger.error("problème pendant l'invocation de la méthode " //$NON-NLS-1$
+            + this.getterName + " sur la classe " + object.getClass()); //$NON-NLS-1$
+        return null;
+      }
+    }
+    if (resultat instanceof Number) {
+      return PropertyName.decimal((Number) resultat);
+    }
+    return resultat;
+  }
+
+  private Object getter(Class<?> classe) {
+    Object getter = this.getters.get(classe);
+    if (getter == null) {
+      getter = this.findGetter(classe);
+      this.getters.put(classe, getter);
+    }
+    return getter;
+  }
+
+  /**
+   * Cherche l'accesseur en remontant les super-classes comme
+   * {@link PropertyName}, en préférant une méthode déclarée dans une classe
+   * publique pour pouvoir l'invoquer.
+   */
+  private Object findGetter(Class<?> classe) {
+    Method found = null;
+    for (Class<?> c = classe; c != null && !c.equals(Object.class); c = c
+        .getSuperclass()) {
+      try {
+        Method getter = c.getMethod(this.getterName, new Class<?>[0]);
+        if (Modifier.isPublic(getter.getDeclaringClass().getModifiers())) {
+          return getter;
+        }
+        if (found == null) {
+          found = getter;
+        }
+      } catch (NoSuchMethodException e) {
+        // on essaie la super-classe
+      } catch (SecurityException e) {
+        PropertyAccessor.logger.error("La méthode " + this.getterName //$NON-NLS-1$
+            + " n'est pas autorisée sur la classe " + c); //$NON-NLS-1$
+      }
+    }
+    if (found == null) {
+      PropertyAccessor.logger.error("La méthode " + this.getterName //$NON-NLS-1$
+          + " n'existe pas dans la classe " + classe); //$NON-NLS-1$
+      return PropertyAccessor.ABSENT;
+    }
+    return found;
+  }
+}
@@ -19,7 +19,11 @@
 
 package fr.ign.cogit.geoxygene.filter;
 
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlTransient;
 
 import org.apache.log4j.Logger;
 
@@ -35,6 +39,9 @@ public class PropertyIsLike extends BinaryComparisonOpsType {
   private String singleChar;
   @XmlAttribute(name = "escape", required = true)
   private String escapeChar;
+  /** Expression régulière compilée et littéral dont elle est issue. */
+  @XmlTransient
+  private volatile Object[] compiledPattern = null;
 
   public String getWildCard() {
     return this.wildCard;
@@ -60,26 +67,58 @@ public class PropertyIsLike extends BinaryComparisonOpsType {
     this.escapeChar = escapeChar;
   }
 
+  /**
+   * Renvoie l'expression régulière du littéral, compilée une seule fois tant
+   * que le littéral ne change pas.
+   * @return l'expression régulière compilée, ou null si le littéral est absent
+   *         ou n'est pas une expression régulière valide
+   */
+  public Pattern getPattern() {
+    if (this.getLiteral() == null || this.getLiteral().getValue() == null) {
+      return null;
+    }
+    String regex = this.getLiteral().getValue();
+    Object[] compiled = this.compiledPattern;
+    if (compiled == null || !regex.equals(compiled[0])) {
+      Pattern pattern = null;
+      try {
+        pattern = Pattern.compile(regex);
+      } catch (PatternSyntaxException e) {
+        PropertyIsLike.logger.error("Expression régulière invalide : " + regex); //$NON-NLS-1$
+      }
+      compiled = new Object[] { regex, pattern };
+      this.compiledPattern = compiled;
+    }
+    return (Pattern) compiled[1];
+  }
+
   @Override
   public boolean evaluate(Object object) {
     Object property = this.getPropertyName().evaluate(object);
     if (property == null) {
       return false;
     }
-    String regex = this.getLiteral().getValue();
-    regex.replace(this.getSingleChar(), "."); //$NON-NLS-1$
-    regex.replace(this.getWildCard(), ".*"); //$NON-NLS-1$
-    regex.replace(this.getEscapeChar(), "\\"); //$NON-NLS-1$
+    // FIXME les caractères wildCard, singleChar et escape ne sont pas
+    // traduits : le littéral est utilisé directement comme expression régulière
     if (property instanceof String) {
       // FIXME voir influence sensibilité à la casse
-      return ((String) property).matches(regex);
+      return this.matches((String) property);
     }
     if (property instanceof Number) {
-      return ((Number) property).toString().matches(regex);
+      return this.matches(((Number) property).toString());
     }
     return false;
   }
 
+  private boolean matches(String value) {
+    Pattern pattern = this.getPattern();
+    if (pattern == null) {
+      // lève l'erreur de syntaxe de l'expression
+      return value.matches(this.getLiteral().getValue());
+    }
+    return pattern.matcher(value).matches();
+  }
+
   @Override
   public String toString() {
     return this.getPropertyName() + " is like " + this.getLiteral().toString(); //$NON-NLS-1$
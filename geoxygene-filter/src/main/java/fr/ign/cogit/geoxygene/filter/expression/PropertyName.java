@@ -81,7 +81,7 @@ public class PropertyName extends Expression {
       IFeature feature = (IFeature) object;
       Object resultat = feature.getAttribute(this.getPropertyName());
       if (resultat instanceof Number) {
-        return new BigDecimal(((Number) resultat).doubleValue());
+        return PropertyName.decimal((Number) resultat);
       }
       // if (resultat instanceof Boolean) return new
       // BigDecimal(((Boolean)resultat).booleanValue()?0:1);
@@ -93,7 +93,7 @@ public class PropertyName extends Expression {
         Method getter = classe.getMethod(getterName, new Class<?>[0]);
         Object resultat = getter.invoke(object, new Object[0]);
         if (resultat instanceof Number) {
-          return new BigDecimal(((Number) resultat).doubleValue());
+          return PropertyName.decimal((Number) resultat);
         }
         return resultat;
       } catch (SecurityException e) {
@@ -123,6 +123,22 @@ public class PropertyName extends Expression {
     return null;
   }
 
+  /**
+   * Valeur d'une propriété numérique telle que la renvoie
+   * {@link #evaluate(Object)} : un {@link BigDecimal}, sauf pour NaN et les
+   * infinis qui n'en ont pas et restent des {@link Double}. NaN ne vérifie
+   * alors aucune comparaison.
+   * @param number valeur numérique de la propriété
+   * @return la valeur à comparer aux littéraux
+   */
+  public static Number decimal(Number number) {
+    double d = number.doubleValue();
+    if (Double.isNaN(d) || Double.isInfinite(d)) {
+      return Double.valueOf(d);
+    }
+    return new BigDecimal(d);
+  }
+
   @Override
   public String toString() {
     return this.getPropertyName();
@@ -0,0 +1,191 @@
+/*
+ * This file is part of the GeOxygene project source files. GeOxygene aims at
+ * providing an open framework which implements OGC/ISO specifications for the
+ * development and deployment of geographic (GIS) applications. It is a open
+ * source contribution of the COGIT laboratory at the Institut Géographique
+ * National (the French National Mapping Agency). See:
+ * http://oxygene-project.sourceforge.net Copyright (C) 2005 Institut
+ * Géographique National This library is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of the License,
+ * or any later version. This library is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser
+ * General Public License for more details. You should have received a copy of
+ * the GNU Lesser General Public License along with this library (see file
+ * LICENSE if present); if not, write to the Free Software Foundation, Inc., 59
+ * Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package fr.ign.cogit.geoxygene.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.filter.expression.Literal;
+import fr.ign.cogit.geoxygene.filter.expression.PropertyName;
+
+/**
+ * Compare l'évaluation des filtres compilés et de l'index d'attributs à celle
+ * des filtres d'origine.
+ */
+public class CompiledFilterTest {
+
+  public static class Bean {
+    private final Object value;
+
+    public Bean(Object value) {
+      this.value = value;
+    }
+
+    public Object getValue() {
+      return this.value;
+    }
+  }
+
+  private static List<Bean> beans() {
+    List<Bean> beans = new ArrayList<Bean>();
+    Object[] values = { Integer.valueOf(3), Double.valueOf(-1.5),
+        Integer.valueOf(10), null, Double.valueOf(3.0), Long.valueOf(7),
+        Integer.valueOf(0), Double.valueOf(-0.0) };
+    for (Object value : values) {
+      beans.add(new Bean(value));
+    }
+    return beans;
+  }
+
+  private static List<Bean> stringBeans() {
+    List<Bean> beans = new ArrayList<Bean>();
+    for (String value : new String[] { "route", "Route", "chemin", null, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        "rue", "route" }) { //$NON-NLS-1$ //$NON-NLS-2$
+      beans.add(new Bean(value));
+    }
+    return beans;
+  }
+
+  private static <T extends BinaryComparisonOpsType> T comparison(T filter,
+      String literal, boolean matchCase) {
+    filter.setPropertyName(new PropertyName("value")); //$NON-NLS-1$
+    filter.setLiteral(new Literal(literal));
+    filter.setMatchCase(matchCase);
+    return filter;
+  }
+
+  private static List<Filter> filters(String literal, boolean matchCase) {
+    List<Filter> filters = new ArrayList<Filter>();
+    filters.add(comparison(new PropertyIsEqualTo(), literal, matchCase));
+    filters.add(comparison(new PropertyIsNotEqualTo(), literal, matchCase));
+    filters.add(comparison(new PropertyIsGreaterThan(), literal, matchCase));
+    filters.add(comparison(new PropertyIsGreaterThanOrEqualTo(), literal,
+        matchCase));
+    filters.add(comparison(new PropertyIsLessThan(), literal, matchCase));
+    filters.add(comparison(new PropertyIsLessThanOrEqualTo(), literal,
+        matchCase));
+    return filters;
+  }
+
+  private static void assertSame(Filter filter, List<Bean> beans,
+      AttributeIndex index) {
+    CompiledFilter compiled = CompiledFilter.compile(filter);
+    Set<Object> selection = index.select(filter);
+    for (Bean bean : beans) {
+      boolean expected = filter.evaluate(bean);
+      String message = filter.getClass().getSimpleName() + " " //$NON-NLS-1$
+          + bean.getValue();
+      Assert.assertEquals(message, expected, compiled.evaluate(bean));
+      if (selection != null) {
+        Assert.assertEquals(message, expected, selection.contains(bean));
+      }
+    }
+  }
+
+  @Test
+  public void testNumericComparisons() {
+    List<Bean> beans = CompiledFilterTest.beans();
+    AttributeIndex index = new AttributeIndex(beans, "value"); //$NON-NLS-1$
+    for (String literal : new String[] { "3", "-1.5", "0", "100", "NaN" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+      for (Filter filter : CompiledFilterTest.filters(literal, true)) {
+        CompiledFilterTest.assertSame(filter, beans, index);
+      }
+    }
+    Filter equal = CompiledFilterTest.filters("3", true).get(0); //$NON-NLS-1$
+    Assert.assertEquals("value", AttributeIndex.indexedProperty(equal)); //$NON-NLS-1$
+    Assert.assertEquals(2, index.select(equal).size());
+  }
+
+  @Test
+  public void testNaN() {
+    List<Bean> beans = CompiledFilterTest.beans();
+    Bean nan = new Bean(Double.valueOf(Double.NaN));
+    beans.add(nan);
+    beans.add(new Bean(Float.valueOf(Float.NaN)));
+    AttributeIndex index = new AttributeIndex(beans, "value"); //$NON-NLS-1$
+    for (String literal : new String[] { "3", "-1.5", "100", "NaN" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+      for (Filter filter : CompiledFilterTest.filters(literal, true)) {
+        CompiledFilterTest.assertSame(filter, beans, index);
+      }
+    }
+    // NaN est rangé après toutes les valeurs mais n'est supérieur à aucune
+    Filter greater = CompiledFilterTest.filters("-100", true).get(2); //$NON-NLS-1$
+    Set<Object> selection = index.select(greater);
+    Assert.assertEquals(7, selection.size());
+    Assert.assertFalse(selection.contains(nan));
+  }
+
+  @Test
+  public void testRange() {
+    List<Bean> beans = CompiledFilterTest.beans();
+    AttributeIndex index = new AttributeIndex(beans, "value"); //$NON-NLS-1$
+    And and = new And();
+    and.getOps().add(
+        comparison(new PropertyIsGreaterThan(), "0", true)); //$NON-NLS-1$
+    and.getOps().add(
+        comparison(new PropertyIsLessThanOrEqualTo(), "7", true)); //$NON-NLS-1$
+    Assert.assertEquals("value", AttributeIndex.indexedProperty(and)); //$NON-NLS-1$
+    Assert.assertEquals(3, index.select(and).size());
+    CompiledFilterTest.assertSame(and, beans, index);
+    Or or = new Or();
+    or.getOps().addAll(and.getOps());
+    Assert.assertNull(AttributeIndex.indexedProperty(or));
+    Assert.assertNull(index.select(or));
+    CompiledFilterTest.assertSame(or, beans, index);
+    Not not = new Not();
+    not.setOp(and);
+    CompiledFilterTest.assertSame(not, beans, index);
+  }
+
+  @Test
+  public void testStrings() {
+    List<Bean> beans = CompiledFilterTest.stringBeans();
+    AttributeIndex index = new AttributeIndex(beans, "value"); //$NON-NLS-1$
+    for (boolean matchCase : new boolean[] { true, false }) {
+      for (Filter filter : CompiledFilterTest.filters("route", matchCase)) { //$NON-NLS-1$
+        CompiledFilterTest.assertSame(filter, beans, index);
+      }
+    }
+    Assert.assertEquals(2, index.select(
+        CompiledFilterTest.filters("route", true).get(0)).size()); //$NON-NLS-1$
+  }
+
+  @Test
+  public void testLikeAndNull() {
+    List<Bean> beans = CompiledFilterTest.stringBeans();
+    beans.addAll(CompiledFilterTest.beans());
+    AttributeIndex index = new AttributeIndex(beans, "value"); //$NON-NLS-1$
+    PropertyIsLike like = new PropertyIsLike();
+    like.setPropertyName(new PropertyName("value")); //$NON-NLS-1$
+    like.setLiteral(new Literal("r.*e")); //$NON-NLS-1$
+    CompiledFilterTest.assertSame(like, beans, index);
+    like.setLiteral(new Literal("3")); //$NON-NLS-1$
+    CompiledFilterTest.assertSame(like, beans, index);
+    PropertyIsNull isNull = new PropertyIsNull();
+    isNull.setPropertyName(new PropertyName("value")); //$NON-NLS-1$
+    CompiledFilterTest.assertSame(isNull, beans, index);
+  }
+}
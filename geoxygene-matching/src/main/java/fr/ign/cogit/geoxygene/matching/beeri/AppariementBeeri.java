@@ -11,15 +11,21 @@
 package fr.ign.cogit.geoxygene.matching.beeri;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.feature.IPopulation;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
 import fr.ign.cogit.geoxygene.contrib.appariement.EnsembleDeLiens;
 import fr.ign.cogit.geoxygene.contrib.appariement.Lien;
 import fr.ign.cogit.geoxygene.feature.Population;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Envelope;
 import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
 import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Point;
 import fr.ign.cogit.geoxygene.util.index.Tiling;
@@ -407,6 +413,10 @@ public class AppariementBeeri {
    * popComp n'est choisie par aucun objet popRef les éléments de la dernière
    * colonne : représentent la probabilité que l'objet popRed n'est choisie par
    * aucun objet popComp 4ème méthode proposée par [Beeri et al 2004]
+   * <p>
+   * Seuls les couples à moins de seuilDistance ayant une probabilité non
+   * nulle, la matrice est stockée sous forme creuse ({@link MatriceCreuse}),
+   * remplie à partir des index spatiaux des deux populations.
    */
 
   public static EnsembleDeLiens remplissageMatriceApp(IPopulation<IFeature> popRef, IPopulation<IFeature> popComp,
@@ -414,22 +424,10 @@ public class AppariementBeeri {
     
     EnsembleDeLiens ensembleLiens = new EnsembleDeLiens();
     List<IFeature> listNonApp = new ArrayList<IFeature>();
-    ApproximateMatcher AM = new ApproximateMatcher();
-    AM.setIgnoreCase(true);
     
     LOGGER.trace("comp: " + popComp.size());
     LOGGER.trace("ref: " + popRef.size());
-
-    Matrice matriceRemplie = new Matrice(popRef, popComp);
-
-    // initialisation matrice
-    for (int i = 0; i < matriceRemplie.nbLignes; i++) {
-      for (int j = 0; j < matriceRemplie.nbColonnes; j++) {
-        matriceRemplie.valeurs[i][j] = 0;
-      }
-    }
-    matriceRemplie.valeurs[matriceRemplie.nbLignes - 1][matriceRemplie.nbColonnes - 1] = 0.0;
-
+    
     // Indexation de la population de comparaison
     if (!popComp.hasSpatialIndex()) {
       LOGGER.info("Indexation de popComp (oronymes)");
@@ -440,75 +438,71 @@ public class AppariementBeeri {
       popRef.initSpatialIndex(Tiling.class, true, 10);
     }
     
+    List<IFeature> elementsRef = popRef.getElements();
+    List<IFeature> elementsComp = popComp.getElements();
+    // rang de chaque objet comp dans la liste de tous les objets comp
+    Map<IFeature, Integer> rangsComp = new IdentityHashMap<IFeature, Integer>();
+    for (int k = 0; k < elementsComp.size(); k++) {
+      rangsComp.put(elementsComp.get(k), k);
+    }
+    
+    // Seuls les couples à moins du seuil sont stockés
+    MatriceCreuse matriceRemplie = new MatriceCreuse(elementsRef.size(), elementsComp.size(), elementsRef.size());
+    // distance totale de chaque objet comp, calculée à la première utilisation
+    double[] distancesTotalesComp = new double[elementsComp.size()];
+    Arrays.fill(distancesTotalesComp, -1);
+    
     // On parcourt les objets ref un par un
-    for (int i = 0; i < popRef.size(); i++) {
+    for (int i = 0; i < elementsRef.size(); i++) {
       double produitRefNonChoisie = 1;
-      IFeature objetRef = (IFeature) popRef.getElements().get(i);
-      
-      IPopulation<IFeature> pop1Ref = new Population<IFeature>("Ref");
-      pop1Ref.setFeatureType(objetRef.getFeatureType());
-      pop1Ref.add(objetRef);
-      IPopulation<IFeature> candidatsApp = popComp.selectionElementsProchesGenerale(pop1Ref, seuilDistance);
-
-      if (candidatsApp.size() == 0) {
+      IFeature objetRef = elementsRef.get(i);
+      List<IFeature> candidatsApp = AppariementBeeri.candidats(objetRef, popComp, seuilDistance);
+      if (candidatsApp.isEmpty()) {
         listNonApp.add(objetRef);
-        matriceRemplie.valeurs[i][matriceRemplie.nbColonnes - 1] = 1;
+        matriceRemplie.termineLigne(1);
         continue;
       }
       double distanceTotaleRefComp = CalculProbabilites.calculDistanceTotale(objetRef,
           candidatsApp, alpha);
-
-      for (int j = 0; j < candidatsApp.size(); j++) {
-        IFeature objetComp = (IFeature) candidatsApp.getElements().get(j);
-        
-        IPopulation<IFeature> pop2Ref = new Population<IFeature>("Ref2");
-        pop2Ref.setFeatureType(objetComp.getFeatureType());
-        pop2Ref.add(objetComp);
-        IPopulation<IFeature> candidatsRef = popComp.selectionElementsProchesGenerale(pop2Ref, seuilDistance);
-        
-        double distanceTotaleCompRef = CalculProbabilites.calculDistanceTotale(objetComp, candidatsRef, alpha);
+      // rangs des candidats dans la liste de tous les objets comp, par ordre croissant
+      int[] rangs = new int[candidatsApp.size()];
+      for (int j = 0; j < rangs.length; j++) {
+        rangs[j] = rangsComp.get(candidatsApp.get(j)).intValue();
+      }
+      Arrays.sort(rangs);
+      for (int k : rangs) {
+        IFeature objetComp = elementsComp.get(k);
+        if (distancesTotalesComp[k] < 0) {
+          List<IFeature> candidatsRef = AppariementBeeri.candidats(objetComp, popRef, seuilDistance);
+          distancesTotalesComp[k] = CalculProbabilites.calculDistanceTotale(objetComp, candidatsRef, alpha);
+        }
+        double distanceTotaleCompRef = distancesTotalesComp[k];
         double distance = ((GM_Point) objetRef.getGeom()).getPosition().distance(((GM_Point) objetComp.getGeom()).getPosition());
         double probabObjRefChoisieObjComp = Math.pow(distance, alpha) / distanceTotaleRefComp;
         double probabObjCompChoisieObjetRef = Math.pow(distance, alpha) / distanceTotaleCompRef;
         double produitProba = probabObjRefChoisieObjComp * probabObjCompChoisieObjetRef;
         produitRefNonChoisie = produitRefNonChoisie * (1 - probabObjRefChoisieObjComp);
-
         // remplissage de la matrice
-        // rang de l'objet comp dans la liste de tous les objets comp
-        int k = popComp.getElements().indexOf(objetComp);
-        matriceRemplie.valeurs[i][k] = produitProba;
+        matriceRemplie.ajouteValeur(k, produitProba);
       }
       // remplissage de la dernière colonne
       if (produitRefNonChoisie == 0) {
         produitRefNonChoisie = Double.MIN_VALUE;
       }
-      matriceRemplie.valeurs[i][matriceRemplie.nbColonnes - 1] = produitRefNonChoisie;
+      matriceRemplie.termineLigne(produitRefNonChoisie);
     }
     
-    
-    for (int i = 0; i < popComp.size(); i++) {
+    for (int i = 0; i < elementsComp.size(); i++) {
       double produitCompNonChoisie = 1;
-      IFeature objetComp = (IFeature) popComp.getElements().get(i);
-      
-      IPopulation<IFeature> pop3Ref = new Population<IFeature>("Ref3");
-      pop3Ref.setFeatureType(objetComp.getFeatureType());
-      pop3Ref.add(objetComp);
-      IPopulation<IFeature> candidatsRef = popRef.selectionElementsProchesGenerale(pop3Ref, seuilDistance);
-      
-      if (candidatsRef.size() == 0) {
-        matriceRemplie.valeurs[matriceRemplie.nbLignes - 1][i] = 1;
+      IFeature objetComp = elementsComp.get(i);
+      List<IFeature> candidatsRef = AppariementBeeri.candidats(objetComp, popRef, seuilDistance);
+      if (candidatsRef.isEmpty()) {
+        matriceRemplie.setDerniereLigne(i, 1);
         continue;
       }
       double distanceTotaleCompRef = CalculProbabilites.calculDistanceTotale(objetComp,
           candidatsRef, alpha);
-      for (int j = 0; j < candidatsRef.size(); j++) {
-        IFeature objetRef = (IFeature) candidatsRef.getElements().get(j);
-        
-        /*IPopulation<IFeature> pop4Ref = new Population<IFeature>("Ref4");
-        pop4Ref.setFeatureType(objetRef.getFeatureType());
-        pop4Ref.add(objetRef);
-        IPopulation<IFeature> candidatsApp = popComp.selectionElementsProchesGenerale(pop4Ref, seuilDistance);*/
-        
+      for (IFeature objetRef : candidatsRef) {
         double distance = ((GM_Point) objetRef.getGeom()).getPosition().distance(((GM_Point) objetComp.getGeom()).getPosition());
         double probabObjCompChoisieObjetRef = Math.pow(distance, alpha) / distanceTotaleCompRef;
         produitCompNonChoisie = produitCompNonChoisie * (1 - probabObjCompChoisieObjetRef);
@@ -516,27 +510,22 @@ public class AppariementBeeri {
       if (produitCompNonChoisie == 0) {
         produitCompNonChoisie = Double.MIN_VALUE;
       }
-      matriceRemplie.valeurs[matriceRemplie.nbLignes - 1][i] = produitCompNonChoisie;
+      matriceRemplie.setDerniereLigne(i, produitCompNonChoisie);
     }
+    LOGGER.debug("couples candidats : " + matriceRemplie.getNbValeurs());
+    
     // matriceRemplie.normalisationMatrice();
     LOGGER.trace("matrice normalisée");
     
-    // matriceRemplie.affichageMatriceAppariement() ;
     for (int i = 0; i < matriceRemplie.nbLignes - 1; i++) {
-      double maxConfianceLigne = 0;
-      int jmax = -1;
-      for (int j = 0; j < matriceRemplie.nbColonnes - 1; j++) {
-        if (matriceRemplie.valeurs[i][j] >= maxConfianceLigne) {
-          maxConfianceLigne = matriceRemplie.valeurs[i][j];
-          jmax = j;
-        }
-      }
+      int jmax = matriceRemplie.colonneMaxLigne(i);
+      double maxConfianceLigne = (jmax < 0) ? 0 : matriceRemplie.get(i, jmax);
       if (maxConfianceLigne == 0) {
         continue;
-      } else if (maxConfianceLigne >= matriceRemplie.valeurs[i][matriceRemplie.nbColonnes - 1]) {
+      } else if (maxConfianceLigne >= matriceRemplie.get(i, matriceRemplie.nbColonnes - 1)) {
         Lien lien = ensembleLiens.nouvelElement();
-        IFeature objetRef = (IFeature) popRef.getElements().get(i);
-        IFeature objetComp = (IFeature) popComp.getElements().get(jmax);
+        IFeature objetRef = elementsRef.get(i);
+        IFeature objetComp = elementsComp.get(jmax);
         lien.addObjetRef(objetRef);
         lien.addObjetComp(objetComp);
         GM_LineString ligne = new GM_LineString();
@@ -546,16 +535,31 @@ public class AppariementBeeri {
         LOGGER.trace("maxConfiance:" + maxConfianceLigne);
         lien.setEvaluation(maxConfianceLigne);
       } else {
-        IFeature objetRef = (IFeature) popRef.getElements().get(i);
+        IFeature objetRef = elementsRef.get(i);
         listNonApp.add(objetRef);
       }
     }
-    
     LOGGER.info("objets appariés :" + ensembleLiens.size());
     LOGGER.info("objets non apparié :" + listNonApp.size() + " sur "
         + popRef.size() + " au total");
-    
     return ensembleLiens;
   }
   
+  /**
+   * Objets de pop à moins de seuilDistance d'un objet ponctuel, recherchés
+   * avec l'index spatial de pop.
+   */
+  private static List<IFeature> candidats(IFeature objet, IPopulation<IFeature> pop, double seuilDistance) {
+    IDirectPosition position = ((GM_Point) objet.getGeom()).getPosition();
+    List<IFeature> candidats = new ArrayList<IFeature>();
+    IEnvelope enveloppe = new GM_Envelope(position.getX() - seuilDistance, position.getX() + seuilDistance,
+        position.getY() - seuilDistance, position.getY() + seuilDistance);
+    for (IFeature candidat : pop.select(enveloppe)) {
+      if (((GM_Point) candidat.getGeom()).getPosition().distance(position) < seuilDistance) {
+        candidats.add(candidat);
+      }
+    }
+    return candidats;
+  }
+  
 }
@@ -11,6 +11,7 @@
 package fr.ign.cogit.geoxygene.matching.beeri;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -165,7 +166,7 @@ public class CalculProbabilites {
    * @param alphfa
    * @return
    */
-  public static double calculDistanceTotale(IFeature ref, IPopulation<IFeature> popComp, double alphfa) {
+  public static double calculDistanceTotale(IFeature ref, Collection<IFeature> popComp, double alphfa) {
       double distanceTotale = 0;
       for (IFeature objetComp : popComp) {
         double distance = ((GM_Point)objetComp.getGeom()).getPosition().distance(((GM_Point)ref.getGeom()).getPosition());
@@ -0,0 +1,257 @@
+/**
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ *
+ */
+package fr.ign.cogit.geoxygene.matching.beeri;
+
+import java.util.Arrays;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Matrice d'appariement creuse, de même forme que la {@link Matrice} construite
+ * pour deux populations : en ligne les objets de popRef, en colonne les objets
+ * de popComp, la dernière ligne (resp. colonne) donnant la probabilité qu'un
+ * objet de popComp (resp. popRef) ne soit choisi par aucun objet.
+ * <p>
+ * Seuls les couples candidats (à moins du seuil de distance) ont une valeur non
+ * nulle : ils sont rangés ligne par ligne (stockage CSR), par colonne
+ * croissante dans chaque ligne. La dernière ligne et la dernière colonne sont
+ * stockées à part, la case en bas à droite vaut toujours 0.
+ * <p>
+ * Les lignes sont remplies dans l'ordre par {@link #ajouteValeur(int, double)}
+ * puis {@link #termineLigne(double)}.
+ */
+public class MatriceCreuse {
+
+  private static final Logger LOGGER = Logger.getLogger(MatriceCreuse.class);
+
+  /** Nombre de lignes, dernière ligne comprise. */
+  public int nbLignes;
+  /** Nombre de colonnes, dernière colonne comprise. */
+  public int nbColonnes;
+
+  // début de chaque ligne dans colonnes et valeurs
+  private int[] debutLignes;
+  private int[] colonnes;
+  private double[] valeurs;
+  private int nbValeurs = 0;
+  private int nbLignesRemplies = 0;
+
+  private double[] derniereColonne;
+  private double[] derniereLigne;
+
+  /**
+   * @param nbRef nombre d'objets de popRef
+   * @param nbComp nombre d'objets de popComp
+   * @param capacite nombre de couples candidats attendus
+   */
+  public MatriceCreuse(int nbRef, int nbComp, int capacite) {
+    this.nbLignes = nbRef + 1;
+    this.nbColonnes = nbComp + 1;
+    this.debutLignes = new int[nbRef + 1];
+    this.colonnes = new int[Math.max(capacite, 16)];
+    this.valeurs = new double[this.colonnes.length];
+    this.derniereColonne = new double[nbRef];
+    this.derniereLigne = new double[nbComp];
+  }
+
+  /**
+   * Ajoute une valeur à la ligne en cours de remplissage. Les colonnes d'une
+   * même ligne doivent être ajoutées par ordre croissant.
+   * @param j colonne, entre 0 et nbColonnes - 2
+   * @param valeur
+   */
+  public void ajouteValeur(int j, double valeur) {
+    if (this.nbValeurs == this.colonnes.length) {
+      this.colonnes = Arrays.copyOf(this.colonnes, 2 * this.nbValeurs);
+      this.valeurs = Arrays.copyOf(this.valeurs, 2 * this.nbValeurs);
+    }
+    this.colonnes[this.nbValeurs] = j;
+    this.valeurs[this.nbValeurs] = valeur;
+    this.nbValeurs++;
+  }
+
+  /**
+   * Termine la ligne en cours de remplissage.
+   * @param valeurNonChoisi valeur de la dernière colonne pour cette ligne
+   */
+  public void termineLigne(double valeurNonChoisi) {
+    this.derniereColonne[this.nbLignesRemplies] = valeurNonChoisi;
+    this.nbLignesRemplies++;
+    this.debutLignes[this.nbLignesRemplies] = this.nbValeurs;
+  }
+
+  /**
+   * @param j colonne, entre 0 et nbColonnes - 2
+   * @param valeurNonChoisi valeur de la dernière ligne pour cette colonne
+   */
+  public void setDerniereLigne(int j, double valeurNonChoisi) {
+    this.derniereLigne[j] = valeurNonChoisi;
+  }
+
+  /**
+   * @return le nombre de valeurs stockées hors dernière ligne et dernière
+   *         colonne
+   */
+  public int getNbValeurs() {
+    return this.nbValeurs;
+  }
+
+  /**
+   * @param i ligne
+   * @param j colonne
+   * @return la valeur de la case (i, j), 0 si elle n'est pas stockée
+   */
+  public double get(int i, int j) {
+    if (i == this.nbLignes - 1) {
+      return (j == this.nbColonnes - 1) ? 0 : this.derniereLigne[j];
+    }
+    if (j == this.nbColonnes - 1) {
+      return this.derniereColonne[i];
+    }
+    int k = Arrays.binarySearch(this.colonnes, this.debutLignes[i],
+        this.debutLignes[i + 1], j);
+    return (k >= 0) ? this.valeurs[k] : 0;
+  }
+
+  /**
+   * Colonne de la plus grande valeur d'une ligne, hors dernière colonne. En
+   * cas d'égalité, la dernière colonne trouvée est retenue, comme dans le
+   * parcours de la matrice pleine.
+   * @param i ligne, entre 0 et nbLignes - 2
+   * @return la colonne, ou -1 si la ligne n'a aucune valeur stockée
+   */
+  public int colonneMaxLigne(int i) {
+    int jmax = -1;
+    double max = 0;
+    for (int k = this.debutLignes[i]; k < this.debutLignes[i + 1]; k++) {
+      if (this.valeurs[k] >= max) {
+        max = this.valeurs[k];
+        jmax = this.colonnes[k];
+      }
+    }
+    return jmax;
+  }
+
+  /**
+   * @param i ligne
+   * @return la somme des éléments de la ligne
+   */
+  public double sommeLigneMatrice(int i) {
+    double somme = 0;
+    if (i == this.nbLignes - 1) {
+      for (double v : this.derniereLigne) {
+        somme += v;
+      }
+      return somme;
+    }
+    for (int k = this.debutLignes[i]; k < this.debutLignes[i + 1]; k++) {
+      somme += this.valeurs[k];
+    }
+    return somme + this.derniereColonne[i];
+  }
+
+  /**
+   * @return la somme des éléments de chaque colonne
+   */
+  public double[] sommeColonnesMatrice() {
+    double[] sommes = new double[this.nbColonnes];
+    for (int k = 0; k < this.nbValeurs; k++) {
+      sommes[this.colonnes[k]] += this.valeurs[k];
+    }
+    for (int j = 0; j < this.nbColonnes - 1; j++) {
+      sommes[j] += this.derniereLigne[j];
+    }
+    for (double v : this.derniereColonne) {
+      sommes[this.nbColonnes - 1] += v;
+    }
+    return sommes;
+  }
+
+  /**
+   * Normalisation de la matrice, comme {@link Matrice#normalisationMatrice()} :
+   * on divise alternativement chaque ligne (sauf la dernière) par sa somme,
+   * puis chaque colonne (sauf la dernière) par sa somme, jusqu'à ce que la
+   * matrice soit normalisée. Seules les valeurs stockées sont parcourues.
+   */
+  public void normalisationMatrice() {
+    int k = 0;
+    while (true) {
+      k++;
+      LOGGER.debug("itération " + k);
+      for (int i = 0; i < this.nbLignes - 1; i++) {
+        double somme = this.sommeLigneMatrice(i);
+        if (somme == 0) {
+          continue;
+        }
+        for (int l = this.debutLignes[i]; l < this.debutLignes[i + 1]; l++) {
+          this.valeurs[l] = this.valeurs[l] / somme;
+        }
+        this.derniereColonne[i] = this.derniereColonne[i] / somme;
+      }
+      double[] sommes = this.sommeColonnesMatrice();
+      for (int l = 0; l < this.nbValeurs; l++) {
+        double somme = sommes[this.colonnes[l]];
+        if (somme != 0) {
+          this.valeurs[l] = this.valeurs[l] / somme;
+        }
+      }
+      for (int j = 0; j < this.nbColonnes - 1; j++) {
+        if (sommes[j] != 0) {
+          this.derniereLigne[j] = this.derniereLigne[j] / sommes[j];
+        }
+      }
+      if (this.testMatriceNormalisee()) {
+        LOGGER.debug("matrice normalisée");
+        break;
+      }
+    }
+  }
+
+  /**
+   * Teste si la somme de toutes les lignes et colonnes, sauf les dernières,
+   * vaut 1 à 0.3 près, ou 0.
+   */
+  public boolean testMatriceNormalisee() {
+    for (int i = 0; i < this.nbLignes - 1; i++) {
+      if (!MatriceCreuse.normalisee(this.sommeLigneMatrice(i))) {
+        return false;
+      }
+    }
+    double[] sommes = this.sommeColonnesMatrice();
+    for (int j = 0; j < this.nbColonnes - 1; j++) {
+      if (!MatriceCreuse.normalisee(sommes[j])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean normalisee(double somme) {
+    double tolerance = 0.3;
+    return (somme >= 1 - tolerance && somme <= 1 + tolerance) || somme == 0;
+  }
+
+  /**
+   * @return la matrice pleine correspondante
+   */
+  public Matrice toMatrice() {
+    double[][] pleine = new double[this.nbLignes][this.nbColonnes];
+    for (int i = 0; i < this.nbLignes - 1; i++) {
+      for (int k = this.debutLignes[i]; k < this.debutLignes[i + 1]; k++) {
+        pleine[i][this.colonnes[k]] = this.valeurs[k];
+      }
+      pleine[i][this.nbColonnes - 1] = this.derniereColonne[i];
+    }
+    System.arraycopy(this.derniereLigne, 0, pleine[this.nbLignes - 1], 0,
+        this.derniereLigne.length);
+    return new Matrice(pleine);
+  }
+}
@@ -28,6 +28,7 @@ import java.util.List;
 import org.apache.log4j.Logger;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
 import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
 import fr.ign.cogit.geoxygene.util.algo.JtsAlgorithms;
 
@@ -42,6 +43,9 @@ public class ComplexGeomHypothesis extends SimpleGeomHypothesis {
   /** Features of the hypothesis. */
   List<IFeature> fromfeatures;
 
+  /** Cache of merged geometries, until the geometry of this hypothesis is computed. */
+  private GeomUnionCache unions = null;
+
   /**
    * @param feature
    *        a single feature
@@ -56,41 +60,105 @@ public class ComplexGeomHypothesis extends SimpleGeomHypothesis {
    */
   public ComplexGeomHypothesis(IFeature... features) {
     super();
+    this.fromfeatures = Arrays.asList(features);
+    if (this.fromfeatures.size() > 1) {
+      if (!this.createMerged()) {
+        return;
+      }
+      // create the merged feature with the union of the geometries of its features
+      List<IGeometry> geoms = new ArrayList<IGeometry>(this.fromfeatures.size());
+      for (IFeature f : this.fromfeatures) {
+        geoms.add(f.getGeom());
+      }
+      this.decoratedFeature.setGeom(JtsAlgorithms.union(geoms));
+    } else {
+      LOGGER.debug("Creating a complex geometry hypothesis with only 1 object");
+      this.decoratedFeature = fromfeatures.get(0);
+      this.fromfeatures.add(fromfeatures.get(0));
+    }
+  }
+
+  /**
+   * Hypothesis whose merged geometry is only computed when it is first needed,
+   * using a cache shared by the hypotheses of a matching.
+   * @param unions
+   *        the cache of merged geometries
+   * @param features
+   *        a list of at least 2 features
+   */
+  ComplexGeomHypothesis(GeomUnionCache unions, IFeature... features) {
+    super();
+    this.fromfeatures = Arrays.asList(features);
+    if (this.createMerged()) {
+      this.unions = unions;
+    }
+  }
+
+  /**
+   * Creates the merged feature, without geometry.
+   * @return false if the features are not of the same type
+   */
+  private boolean createMerged() {
     try {
-      this.fromfeatures = Arrays.asList(features);
-      if (this.fromfeatures.size() > 1) {
-        IFeature feat = this.fromfeatures.get(0);
-        boolean ok = true;
-        // Check class coherence
-        for (int i = 1; i < this.fromfeatures.size(); i++) {
-          if (!feat.getClass().isAssignableFrom(this.fromfeatures.get(i).getClass())) {
-            ok = false;
-            break;
-          }
-        }
-        if (!ok) {
+      IFeature feat = this.fromfeatures.get(0);
+      // Check class coherence
+      for (int i = 1; i < this.fromfeatures.size(); i++) {
+        if (!feat.getClass().isAssignableFrom(this.fromfeatures.get(i).getClass())) {
           LOGGER.error("Complex Geometrical Hypothesis with several Feature types!");
-          return;
-        }
-        // create the merged feature with the union of the geometries of its features
-        IFeature merged = feat.getClass().newInstance();
-        List<IGeometry> geoms = new ArrayList<IGeometry>(this.fromfeatures.size());
-        for (IFeature f : this.fromfeatures) {
-          geoms.add(f.getGeom());
+          return false;
         }
-        merged.setGeom(JtsAlgorithms.union(geoms));
-        merged.setFeatureType(this.fromfeatures.get(0).getFeatureType());
-        this.decoratedFeature = merged;
-      } else {
-        LOGGER.debug("Creating a complex geometry hypothesis with only 1 object");
-        this.decoratedFeature = fromfeatures.get(0);
-        this.fromfeatures.add(fromfeatures.get(0));
       }
+      IFeature merged = feat.getClass().newInstance();
+      merged.setFeatureType(feat.getFeatureType());
+      this.decoratedFeature = merged;
+      return true;
     } catch (InstantiationException e) {
       e.printStackTrace();
     } catch (IllegalAccessException e) {
       e.printStackTrace();
     }
+    return false;
+  }
+
+  /**
+   * Computes the merged geometry if it has not been computed yet.
+   */
+  private void merge() {
+    if (this.unions != null) {
+      this.decoratedFeature.setGeom(this.unions.union(this.fromfeatures));
+      this.unions = null;
+    }
+  }
+
+  @Override
+  public IGeometry getGeom() {
+    this.merge();
+    return super.getGeom();
+  }
+
+  @Override
+  public void setGeom(IGeometry g) {
+    // a geometry set explicitly replaces the pending union
+    this.unions = null;
+    super.setGeom(g);
+  }
+
+  @Override
+  public boolean hasGeom() {
+    this.merge();
+    return super.hasGeom();
+  }
+
+  @Override
+  public IFeature cloneGeom() throws CloneNotSupportedException {
+    this.merge();
+    return super.cloneGeom();
+  }
+
+  @Override
+  public boolean intersecte(IEnvelope env) {
+    this.merge();
+    return super.intersecte(env);
   }
 
   @Override
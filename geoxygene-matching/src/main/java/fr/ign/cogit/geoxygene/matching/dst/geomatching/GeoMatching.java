@@ -30,6 +30,8 @@ import java.util.List;
 import org.apache.log4j.Logger;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
 import fr.ign.cogit.geoxygene.matching.dst.evidence.ChoiceType;
 import fr.ign.cogit.geoxygene.matching.dst.evidence.EvidenceResult;
 import fr.ign.cogit.geoxygene.matching.dst.evidence.MatchingProcess;
@@ -57,11 +59,59 @@ public class GeoMatching {
   // private static GeoMatching singleton;
   // private IFeature reference;
 
+  /** Default maximal number of candidates merged in one hypothesis. */
+  public static final int DEFAULT_MAX_GROUP_SIZE = 4;
+
+  /**
+   * Maximal number of candidates merged in one hypothesis.
+   */
+  private int maxGroupSize = DEFAULT_MAX_GROUP_SIZE;
+
+  /**
+   * Two candidates can be merged in one hypothesis if their geometries are
+   * within this distance.
+   */
+  private double connectionDistance = 0;
+
   public GeoMatching() {
   }
 
+  public int getMaxGroupSize() {
+    return this.maxGroupSize;
+  }
+
   /**
-   * 
+   * @param maxGroupSize
+   *        maximal number of candidates merged in one hypothesis, 1 to only
+   *        build simple hypotheses
+   */
+  public void setMaxGroupSize(int maxGroupSize) {
+    this.maxGroupSize = Math.max(1, maxGroupSize);
+  }
+
+  public double getConnectionDistance() {
+    return this.connectionDistance;
+  }
+
+  /**
+   * @param connectionDistance
+   *        two candidates can be merged in one hypothesis if their geometries
+   *        are within this distance
+   */
+  public void setConnectionDistance(double connectionDistance) {
+    this.connectionDistance = connectionDistance;
+  }
+
+  /**
+   * Matching of a reference feature with one of the groups of candidates.
+   * <p>
+   * Hypotheses are the single candidates and the groups of at most
+   * {@link #getMaxGroupSize()} candidates that are spatially connected, i.e.
+   * that cannot be split in two parts further than
+   * {@link #getConnectionDistance()} from each other. Their number thus grows
+   * with the number of such groups rather than with the number of subsets of
+   * the candidates. The merged geometries are computed when a source first
+   * needs them, from the merged geometries of their sub-groups.
    * @param criteria
    * @param reference
    * @param candidates
@@ -76,10 +126,12 @@ public class GeoMatching {
     
     // Création des hypothèses d'appariement.
     LOGGER.debug(candidates.size() + " candidates");
-    LinkedList<List<IFeature>> combinations = Combinations.enumerate(candidates);
+    LinkedList<List<IFeature>> combinations = Combinations.enumerateConnected(candidates,
+        this.connections(candidates), this.maxGroupSize);
     LOGGER.debug(combinations.size() + " hypotheses");
     
     // 
+    GeomUnionCache unions = new GeomUnionCache();
     List<GeomHypothesis> hypotheses = new ArrayList<GeomHypothesis>();
     for (List<IFeature> l : combinations) {
       if (l.size() == 1) {
@@ -87,7 +139,7 @@ public class GeoMatching {
       } else {
         if (l.size() > 1) {
           IFeature[] featarray = new IFeature[l.size()];
-          hypotheses.add(new ComplexGeomHypothesis(l.toArray(featarray)));
+          hypotheses.add(new ComplexGeomHypothesis(unions, l.toArray(featarray)));
         }
       }
     }
@@ -107,6 +159,36 @@ public class GeoMatching {
     return decisionOp.resolve();
   }
 
+  /**
+   * @param candidates
+   * @return for each pair of candidates, true if their geometries are within
+   *         the connection distance
+   */
+  private boolean[][] connections(List<IFeature> candidates) {
+    int n = candidates.size();
+    IEnvelope[] envelopes = new IEnvelope[n];
+    for (int i = 0; i < n; i++) {
+      IGeometry geom = candidates.get(i).getGeom();
+      envelopes[i] = (geom == null) ? null : geom.envelope();
+      if (envelopes[i] != null) {
+        envelopes[i].expandBy(this.connectionDistance);
+      }
+    }
+    boolean[][] connections = new boolean[n][n];
+    for (int i = 0; i < n; i++) {
+      for (int j = i + 1; j < n; j++) {
+        if (envelopes[i] != null && envelopes[j] != null
+            && envelopes[i].intersects(envelopes[j])
+            && candidates.get(i).getGeom().isWithinDistance(candidates.get(j).getGeom(),
+                this.connectionDistance)) {
+          connections[i][j] = true;
+          connections[j][i] = true;
+        }
+      }
+    }
+    return connections;
+  }
+
   /**
    * 
    * @param criteria
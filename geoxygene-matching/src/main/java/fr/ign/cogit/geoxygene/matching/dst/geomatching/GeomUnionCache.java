@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * This file is part of the GeOxygene project source files.
+ * GeOxygene aims at providing an open framework which implements OGC/ISO
+ * specifications for the development and deployment of geographic (GIS)
+ * applications. It is a open source contribution of the COGIT laboratory at the
+ * Institut Géographique National (the French National Mapping Agency).
+ * See: http://oxygene-project.sourceforge.net
+ * Copyright (C) 2005 Institut Géographique National
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or any later version.
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library (see file LICENSE if present); if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ *******************************************************************************/
+
+package fr.ign.cogit.geoxygene.matching.dst.geomatching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.util.algo.JtsAlgorithms;
+
+/**
+ * Cache of the merged geometries of the candidate groups of a matching. The
+ * union of a group is computed from the (cached) union of the group without
+ * its last feature, so groups sharing a prefix share its union.
+ */
+class GeomUnionCache {
+
+  /** Merged geometries, by group of features. */
+  private Map<List<IFeature>, IGeometry> unions = new HashMap<List<IFeature>, IGeometry>();
+
+  /**
+   * @param features
+   *        a group of features, always given in the same order
+   * @return the union of the geometries of the features
+   */
+  IGeometry union(List<IFeature> features) {
+    if (features.size() == 1) {
+      return features.get(0).getGeom();
+    }
+    IGeometry union = this.unions.get(features);
+    if (union == null) {
+      IGeometry prefix = this.union(features.subList(0, features.size() - 1));
+      IGeometry last = features.get(features.size() - 1).getGeom();
+      union = JtsAlgorithms.union(Arrays.asList(prefix, last));
+      this.unions.put(new ArrayList<IFeature>(features), union);
+    }
+    return union;
+  }
+}
@@ -29,6 +29,9 @@ package fr.ign.cogit.geoxygene.matching.dst.util;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -103,6 +106,118 @@ public final class Combinations {
     return l;
   }
 
+  /**
+   * Calcul des combinaisons d'au plus kmax éléments de s qui forment un groupe
+   * connexe pour la relation de voisinage donnée. Les combinaisons sont
+   * rangées comme celles de {@link #enumerate(List)} : par taille croissante,
+   * puis dans l'ordre des éléments de s. Si tous les éléments sont voisins et
+   * kmax vaut s.size(), le résultat est celui de {@link #enumerate(List)}.
+   * @param s
+   * @param voisins voisins[i][j] vaut vrai si les éléments i et j de s sont
+   *          voisins (relation symétrique)
+   * @param kmax taille maximale des combinaisons
+   * @return
+   */
+  public final static <E> LinkedList<List<E>> enumerateConnected(List<E> s,
+      boolean[][] voisins, int kmax) {
+    LinkedList<List<E>> combinations = new LinkedList<List<E>>();
+    for (int[] idx : Combinations.enumerateConnected(voisins, kmax)) {
+      List<E> combinaison = new ArrayList<E>(idx.length);
+      for (int i = 0; i < idx.length; i++) {
+        combinaison.add(s.get(idx[i]));
+      }
+      combinations.add(combinaison);
+    }
+    return combinations;
+  }
+
+  /**
+   * Calcul des groupes connexes d'au plus kmax sommets du graphe de voisinage
+   * donné (indices à partir de 0, croissants dans chaque groupe). Chaque
+   * groupe est construit une seule fois, en partant de son plus petit sommet
+   * et en n'ajoutant que des voisins exclusifs du groupe courant : le coût
+   * est proportionnel au nombre de groupes connexes, et non au nombre de
+   * parties.
+   * @param voisins
+   * @param kmax
+   * @return
+   */
+  public final static LinkedList<int[]> enumerateConnected(boolean[][] voisins,
+      int kmax) {
+    int n = voisins.length;
+    BitSet[] adjacence = new BitSet[n];
+    for (int i = 0; i < n; i++) {
+      adjacence[i] = new BitSet(n);
+      for (int j = 0; j < n; j++) {
+        if (i != j && voisins[i][j]) {
+          adjacence[i].set(j);
+        }
+      }
+    }
+    List<int[]> groupes = new ArrayList<int[]>();
+    if (kmax >= 1) {
+      for (int v = 0; v < n; v++) {
+        BitSet groupe = new BitSet(n);
+        groupe.set(v);
+        BitSet extension = new BitSet(n);
+        extension.or(adjacence[v]);
+        extension.clear(0, v + 1);
+        BitSet voisinage = (BitSet) adjacence[v].clone();
+        voisinage.set(v);
+        Combinations.etendGroupe(adjacence, groupe, extension, voisinage, v,
+            kmax, groupes);
+      }
+    }
+    Collections.sort(groupes, new Comparator<int[]>() {
+      @Override
+      public int compare(int[] g1, int[] g2) {
+        if (g1.length != g2.length) {
+          return g1.length - g2.length;
+        }
+        for (int i = 0; i < g1.length; i++) {
+          if (g1[i] != g2[i]) {
+            return g1[i] - g2[i];
+          }
+        }
+        return 0;
+      }
+    });
+    return new LinkedList<int[]>(groupes);
+  }
+
+  /**
+   * Ajoute le groupe courant, puis l'étend par chacun des sommets de
+   * l'extension. voisinage contient le groupe et ses voisins.
+   */
+  private final static void etendGroupe(BitSet[] adjacence, BitSet groupe,
+      BitSet extension, BitSet voisinage, int v, int kmax, List<int[]> groupes) {
+    int[] idx = new int[groupe.cardinality()];
+    for (int i = groupe.nextSetBit(0), k = 0; i >= 0; i = groupe
+        .nextSetBit(i + 1)) {
+      idx[k++] = i;
+    }
+    groupes.add(idx);
+    if (idx.length == kmax) {
+      return;
+    }
+    BitSet reste = (BitSet) extension.clone();
+    for (int w = reste.nextSetBit(0); w >= 0; w = reste.nextSetBit(w + 1)) {
+      reste.clear(w);
+      // voisins exclusifs de w, plus grands que v
+      BitSet exclusifs = (BitSet) adjacence[w].clone();
+      exclusifs.andNot(voisinage);
+      exclusifs.clear(0, v + 1);
+      BitSet nouvelleExtension = (BitSet) reste.clone();
+      nouvelleExtension.or(exclusifs);
+      BitSet nouveauGroupe = (BitSet) groupe.clone();
+      nouveauGroupe.set(w);
+      BitSet nouveauVoisinage = (BitSet) voisinage.clone();
+      nouveauVoisinage.or(adjacence[w]);
+      Combinations.etendGroupe(adjacence, nouveauGroupe, nouvelleExtension,
+          nouveauVoisinage, v, kmax, groupes);
+    }
+  }
+
   private final static boolean next_comb(int comb[], int k, int n) {
     int i = k - 1;
     ++comb[i];
@@ -0,0 +1,126 @@
+package fr.ign.cogit.geoxygene.matching.beeri;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IPopulation;
+import fr.ign.cogit.geoxygene.contrib.appariement.EnsembleDeLiens;
+import fr.ign.cogit.geoxygene.contrib.appariement.Lien;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.feature.Population;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Point;
+
+public class AppariementBeeriTest {
+
+  private static final double SEUIL = 40;
+  private static final double ALPHA = -1.4;
+
+  /** Points aléatoires dans un carré de 500 m de côté. */
+  private static IPopulation<IFeature> points(Random random, int nb) {
+    IPopulation<IFeature> pop = new Population<IFeature>("points");
+    for (int i = 0; i < nb; i++) {
+      pop.add(new DefaultFeature(new GM_Point(new DirectPosition(500 * random
+          .nextDouble(), 500 * random.nextDouble()))));
+    }
+    return pop;
+  }
+
+  private static double distance(IFeature a, IFeature b) {
+    return ((GM_Point) a.getGeom()).getPosition().distance(
+        ((GM_Point) b.getGeom()).getPosition());
+  }
+
+  /** Objets de pop à moins du seuil, par parcours de toute la population. */
+  private static List<IFeature> proches(IFeature objet, IPopulation<IFeature> pop) {
+    List<IFeature> proches = new ArrayList<IFeature>();
+    for (IFeature candidat : pop) {
+      if (AppariementBeeriTest.distance(objet, candidat) < SEUIL) {
+        proches.add(candidat);
+      }
+    }
+    return proches;
+  }
+
+  /**
+   * Liens attendus, calculés sur la matrice pleine et par parcours exhaustif,
+   * comme avant le stockage creux : chaque ligne ref est associée à sa plus
+   * grande valeur si elle dépasse la dernière colonne. Chaque lien est décrit
+   * par les rangs des objets ref et comp et par son évaluation.
+   */
+  private static List<double[]> liensAttendus(IPopulation<IFeature> popRef,
+      IPopulation<IFeature> popComp) {
+    List<IFeature> refs = popRef.getElements();
+    List<IFeature> comps = popComp.getElements();
+    double[][] valeurs = new double[refs.size() + 1][comps.size() + 1];
+    for (int i = 0; i < refs.size(); i++) {
+      IFeature ref = refs.get(i);
+      List<IFeature> candidats = AppariementBeeriTest.proches(ref, popComp);
+      if (candidats.isEmpty()) {
+        valeurs[i][comps.size()] = 1;
+        continue;
+      }
+      double totalRef = CalculProbabilites.calculDistanceTotale(ref, candidats,
+          ALPHA);
+      double produitNonChoisi = 1;
+      for (IFeature comp : candidats) {
+        double totalComp = CalculProbabilites.calculDistanceTotale(comp,
+            AppariementBeeriTest.proches(comp, popRef), ALPHA);
+        double d = Math.pow(AppariementBeeriTest.distance(ref, comp), ALPHA);
+        produitNonChoisi *= 1 - d / totalRef;
+        valeurs[i][comps.indexOf(comp)] = (d / totalRef) * (d / totalComp);
+      }
+      valeurs[i][comps.size()] = (produitNonChoisi == 0) ? Double.MIN_VALUE
+          : produitNonChoisi;
+    }
+    List<double[]> liens = new ArrayList<double[]>();
+    for (int i = 0; i < refs.size(); i++) {
+      double max = 0;
+      int jmax = -1;
+      for (int j = 0; j < comps.size(); j++) {
+        if (valeurs[i][j] >= max) {
+          max = valeurs[i][j];
+          jmax = j;
+        }
+      }
+      if (max != 0 && max >= valeurs[i][comps.size()]) {
+        liens.add(new double[] { i, jmax, max });
+      }
+    }
+    return liens;
+  }
+
+  /**
+   * Les liens de remplissageMatriceApp sont ceux de la matrice pleine calculée
+   * par parcours exhaustif.
+   */
+  @Test
+  public void testRemplissageMatriceApp() {
+    int nbLiens = 0;
+    for (long graine = 1; graine <= 5; graine++) {
+      Random random = new Random(graine);
+      IPopulation<IFeature> popRef = AppariementBeeriTest.points(random, 120);
+      IPopulation<IFeature> popComp = AppariementBeeriTest.points(random, 150);
+      List<double[]> attendus = AppariementBeeriTest.liensAttendus(popRef,
+          popComp);
+      EnsembleDeLiens liens = AppariementBeeri.remplissageMatriceApp(popRef,
+          popComp, SEUIL, ALPHA);
+      Assert.assertEquals("graine " + graine, attendus.size(), liens.size());
+      for (int k = 0; k < attendus.size(); k++) {
+        Lien lien = liens.get(k);
+        Assert.assertEquals((int) attendus.get(k)[0], popRef.getElements()
+            .indexOf(lien.getObjetsRef().get(0)));
+        Assert.assertEquals((int) attendus.get(k)[1], popComp.getElements()
+            .indexOf(lien.getObjetsComp().get(0)));
+        Assert.assertEquals(attendus.get(k)[2], lien.getEvaluation(), 1e-12);
+      }
+      nbLiens += liens.size();
+    }
+    Assert.assertTrue(nbLiens > 0);
+  }
+}
@@ -0,0 +1,149 @@
+package fr.ign.cogit.geoxygene.matching.beeri;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MatriceCreuseTest {
+
+  /**
+   * Matrice pleine aléatoire de forme (nbRef + 1) x (nbComp + 1), dont une
+   * partie des cases est nulle, des lignes entières comprises, et la case en
+   * bas à droite nulle.
+   */
+  private static double[][] pleine(Random random, int nbRef, int nbComp) {
+    double[][] valeurs = new double[nbRef + 1][nbComp + 1];
+    for (int i = 0; i < nbRef; i++) {
+      boolean ligneVide = random.nextDouble() < 0.25;
+      for (int j = 0; j < nbComp; j++) {
+        if (!ligneVide && random.nextDouble() < 0.3) {
+          // quelques valeurs égales, pour les égalités de la recherche du max
+          valeurs[i][j] = (random.nextDouble() < 0.2) ? 0.5 : random
+              .nextDouble();
+        }
+      }
+      valeurs[i][nbComp] = random.nextDouble();
+    }
+    for (int j = 0; j < nbComp; j++) {
+      valeurs[nbRef][j] = random.nextDouble();
+    }
+    return valeurs;
+  }
+
+  /** Remplissage ligne par ligne, avec une capacité initiale trop petite. */
+  private static MatriceCreuse creuse(double[][] valeurs) {
+    int nbRef = valeurs.length - 1;
+    int nbComp = valeurs[0].length - 1;
+    MatriceCreuse matrice = new MatriceCreuse(nbRef, nbComp, 1);
+    for (int i = 0; i < nbRef; i++) {
+      for (int j = 0; j < nbComp; j++) {
+        if (valeurs[i][j] != 0) {
+          matrice.ajouteValeur(j, valeurs[i][j]);
+        }
+      }
+      matrice.termineLigne(valeurs[i][nbComp]);
+    }
+    for (int j = 0; j < nbComp; j++) {
+      matrice.setDerniereLigne(j, valeurs[nbRef][j]);
+    }
+    return matrice;
+  }
+
+  private static double[][] copie(double[][] valeurs) {
+    double[][] copie = new double[valeurs.length][];
+    for (int i = 0; i < valeurs.length; i++) {
+      copie[i] = valeurs[i].clone();
+    }
+    return copie;
+  }
+
+  private static void assertMemeMatrice(double[][] attendu,
+      MatriceCreuse matrice) {
+    Assert.assertEquals(attendu.length, matrice.nbLignes);
+    Assert.assertEquals(attendu[0].length, matrice.nbColonnes);
+    for (int i = 0; i < attendu.length; i++) {
+      for (int j = 0; j < attendu[i].length; j++) {
+        Assert.assertEquals("case " + i + ", " + j, attendu[i][j],
+            matrice.get(i, j), 0);
+      }
+    }
+    double[][] pleine = matrice.toMatrice().valeurs;
+    for (int i = 0; i < attendu.length; i++) {
+      Assert.assertArrayEquals(attendu[i], pleine[i], 0);
+    }
+  }
+
+  /**
+   * Construction CSR, accès aux cases, lignes vides, sommes et recherche du
+   * maximum comparés à la matrice pleine.
+   */
+  @Test
+  public void testCommeMatricePleine() {
+    Random random = new Random(7);
+    for (int essai = 0; essai < 30; essai++) {
+      int nbRef = 1 + random.nextInt(12);
+      int nbComp = 1 + random.nextInt(12);
+      double[][] valeurs = MatriceCreuseTest.pleine(random, nbRef, nbComp);
+      MatriceCreuse creuse = MatriceCreuseTest.creuse(valeurs);
+      MatriceCreuseTest.assertMemeMatrice(valeurs, creuse);
+      Matrice matrice = new Matrice(MatriceCreuseTest.copie(valeurs));
+      int nbValeurs = 0;
+      for (int i = 0; i < nbRef + 1; i++) {
+        Assert.assertEquals(matrice.sommeLigneMatrice(i).doubleValue(),
+            creuse.sommeLigneMatrice(i), 0);
+      }
+      List<Double> sommes = matrice.sommeColonneMatriceList();
+      double[] sommesCreuse = creuse.sommeColonnesMatrice();
+      for (int j = 0; j < nbComp + 1; j++) {
+        Assert.assertEquals(sommes.get(j).doubleValue(), sommesCreuse[j], 0);
+      }
+      for (int i = 0; i < nbRef; i++) {
+        double max = 0;
+        int jmax = -1;
+        for (int j = 0; j < nbComp; j++) {
+          if (valeurs[i][j] != 0) {
+            nbValeurs++;
+            if (valeurs[i][j] >= max) {
+              max = valeurs[i][j];
+              jmax = j;
+            }
+          }
+        }
+        Assert.assertEquals(jmax, creuse.colonneMaxLigne(i));
+      }
+      Assert.assertEquals(nbValeurs, creuse.getNbValeurs());
+    }
+  }
+
+  /** Une matrice sans aucune valeur stockée. */
+  @Test
+  public void testLignesVides() {
+    double[][] valeurs = new double[][] { { 0, 0, 0, 1 }, { 0, 0, 0, 1 },
+        { 0.2, 1, 0.3, 0 } };
+    MatriceCreuse creuse = MatriceCreuseTest.creuse(valeurs);
+    MatriceCreuseTest.assertMemeMatrice(valeurs, creuse);
+    Assert.assertEquals(0, creuse.getNbValeurs());
+    Assert.assertEquals(-1, creuse.colonneMaxLigne(0));
+    Assert.assertEquals(-1, creuse.colonneMaxLigne(1));
+    Assert.assertEquals(1, creuse.sommeLigneMatrice(0), 0);
+    Assert.assertEquals(1.5, creuse.sommeLigneMatrice(2), 0);
+  }
+
+  /** La normalisation donne exactement celle de la matrice pleine. */
+  @Test
+  public void testNormalisation() {
+    Random random = new Random(11);
+    for (int essai = 0; essai < 20; essai++) {
+      double[][] valeurs = MatriceCreuseTest.pleine(random,
+          1 + random.nextInt(10), 1 + random.nextInt(10));
+      MatriceCreuse creuse = MatriceCreuseTest.creuse(valeurs);
+      Matrice matrice = new Matrice(MatriceCreuseTest.copie(valeurs));
+      matrice.normalisationMatrice();
+      creuse.normalisationMatrice();
+      Assert.assertTrue(creuse.testMatriceNormalisee());
+      MatriceCreuseTest.assertMemeMatrice(matrice.valeurs, creuse);
+    }
+  }
+}
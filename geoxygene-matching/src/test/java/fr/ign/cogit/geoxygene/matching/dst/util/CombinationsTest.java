@@ -0,0 +1,76 @@
+package fr.ign.cogit.geoxygene.matching.dst.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CombinationsTest {
+
+  /**
+   * Sans contrainte, on retrouve toutes les combinaisons, dans le même ordre.
+   */
+  @Test
+  public void testEnumerateConnectedComplet() {
+    List<String> s = Arrays.asList("a", "b", "c", "d", "e");
+    boolean[][] voisins = new boolean[5][5];
+    for (boolean[] ligne : voisins) {
+      Arrays.fill(ligne, true);
+    }
+    Assert.assertEquals(Combinations.enumerate(s),
+        Combinations.enumerateConnected(s, voisins, 5));
+  }
+
+  /**
+   * Comparaison avec le filtrage de toutes les combinaisons sur des graphes
+   * aléatoires.
+   */
+  @Test
+  public void testEnumerateConnected() {
+    Random random = new Random(42);
+    for (int essai = 0; essai < 50; essai++) {
+      int n = 1 + random.nextInt(9);
+      int kmax = 1 + random.nextInt(n);
+      boolean[][] voisins = new boolean[n][n];
+      for (int i = 0; i < n; i++) {
+        for (int j = i + 1; j < n; j++) {
+          voisins[i][j] = voisins[j][i] = random.nextDouble() < 0.3;
+        }
+      }
+      List<Integer> s = new ArrayList<Integer>();
+      for (int i = 0; i < n; i++) {
+        s.add(i);
+      }
+      List<List<Integer>> attendu = new LinkedList<List<Integer>>();
+      for (List<Integer> c : Combinations.enumerate(s)) {
+        if (c.size() <= kmax && CombinationsTest.connexe(c, voisins)) {
+          attendu.add(c);
+        }
+      }
+      Assert.assertEquals(attendu,
+          Combinations.enumerateConnected(s, voisins, kmax));
+    }
+  }
+
+  private static boolean connexe(List<Integer> c, boolean[][] voisins) {
+    List<Integer> atteints = new ArrayList<Integer>();
+    List<Integer> reste = new LinkedList<Integer>(c);
+    atteints.add(reste.remove(0));
+    for (int k = 0; k < atteints.size(); k++) {
+      Iterator<Integer> it = reste.iterator();
+      while (it.hasNext()) {
+        Integer j = it.next();
+        if (voisins[atteints.get(k)][j]) {
+          atteints.add(j);
+          it.remove();
+        }
+      }
+    }
+    return reste.isEmpty();
+  }
+}
@@ -1,7 +1,12 @@
 package fr.ign.cogit.geoxygene.semio.legend.improvement;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import org.apache.log4j.Logger;
 
@@ -50,8 +55,31 @@ public class LucilContrastAnalysis implements ContrastAnalysis {
   double pireNoteClarte;
   SymbolisedFeatureCollection familleCartoTeinteAChanger;
   SymbolisedFeatureCollection familleCartoClarteAChanger;
+
+  /**
+   * Number of threads used to search the neighbors of the features.
+   */
+  private int nbThreads = Runtime.getRuntime().availableProcessors();
+
+  public int getNbThreads() {
+    return this.nbThreads;
+  }
+
+  public void setNbThreads(int nbThreads) {
+    this.nbThreads = nbThreads;
+  }
+
+  // Bookkeeping of the contrasts between two steps: the colors for which the
+  // contrasts of each collection were computed, and the worst notes of the
+  // collections, in priority queues where outdated notes are skipped
+  private IdentityHashMap<SymbolisedFeatureCollection, String> evaluatedColors = null;
+  private boolean evaluatedWithWeights;
+  private IdentityHashMap<SymbolisedFeatureCollection, Integer> versions;
+  private IdentityHashMap<SymbolisedFeatureCollection, Integer> ranks;
+  private PriorityQueue<Note> hueNotes;
+  private PriorityQueue<Note> lightnessNotes;
+
   @Override
-  
   public void improvementStep() {
     this.amelioreContrastes();
   }
@@ -65,6 +93,7 @@ public class LucilContrastAnalysis implements ContrastAnalysis {
    this.pireNoteClarte = -1;
    this.familleCartoTeinteAChanger = null;
    this.familleCartoClarteAChanger = null;
+   this.evaluatedColors = null;
   }
 
   public boolean isSurfaceWeights() {
@@ -81,7 +110,7 @@ public class LucilContrastAnalysis implements ContrastAnalysis {
   @Override
   public void run(double neighborsDistance){
     logger.trace("LucilContrastAnalysis runing");
-    this.map.searchForNeighbors(neighborsDistance);
+    this.map.searchForNeighbors(neighborsDistance, this.nbThreads);
     this.homogenizeOrderedSymbolisedFeatureCollection2();
     logger.info("Neighbors relations build");
     while (!this.stop.isChecked()) {
@@ -100,18 +129,13 @@ public class LucilContrastAnalysis implements ContrastAnalysis {
   
       // Calcul des contrastes (sur la carte, qui les calcule sur les familles, 
       // qui les calculent sur les objets, qui les calculent sur les relations. 
+      // Seuls les contrastes touchés par les couleurs modifiées depuis l'étape
+      // précédente sont recalculés.
       logger.info("1/ Calcul des contrastes dans la carte");
-      if (this.surfaceWeights) {
-        logger.info("Pondération par les surfaces");
-        this.map.instantiateAllWeightedContrasts();
-      } else {
-        logger.info("Pas de pondération");
-        this.map.instantiateAllContrasts();
-      }
-      
+      this.updateContrasts();
       
       logger.info("2/ Bilan des contrastes");
-      this.sortContrasts();
+      this.worstContrasts();
       
       // Choix de la famille dont il faut changer la couleur est en priorié, et comment la changer:
       // 1/ SI la famille avec la pire note de teinte a une note de teinte supérieure à 2
@@ -522,6 +546,148 @@ public class LucilContrastAnalysis implements ContrastAnalysis {
     }
   }
   
+  /**
+   * Computes the contrasts of the map: all of them at the first step, then only
+   * the ones involving the collections whose color changed since the previous
+   * step.
+   */
+  private void updateContrasts() {
+    List<SymbolisedFeatureCollection> familles = this.map.getSymbolisedFeatureCollections();
+    if (this.evaluatedColors == null || this.evaluatedWithWeights != this.surfaceWeights) {
+      if (this.surfaceWeights) {
+        logger.info("Pondération par les surfaces");
+        this.map.instantiateAllWeightedContrasts();
+      } else {
+        logger.info("Pas de pondération");
+        this.map.instantiateAllContrasts();
+      }
+      this.evaluatedColors = new IdentityHashMap<SymbolisedFeatureCollection, String>();
+      this.evaluatedWithWeights = this.surfaceWeights;
+      this.versions = new IdentityHashMap<SymbolisedFeatureCollection, Integer>();
+      this.ranks = new IdentityHashMap<SymbolisedFeatureCollection, Integer>();
+      this.hueNotes = new PriorityQueue<Note>(Math.max(1, familles.size()), WORST_FIRST);
+      this.lightnessNotes = new PriorityQueue<Note>(Math.max(1, familles.size()), WORST_FIRST);
+      for (int i = 0; i < familles.size(); i++) {
+        this.ranks.put(familles.get(i), i);
+      }
+      for (SymbolisedFeatureCollection famille : familles) {
+        this.evaluatedColors.put(famille, colorKey(famille.getColor()));
+        this.pushNotes(famille);
+      }
+      return;
+    }
+    List<SymbolisedFeatureCollection> changed = new ArrayList<SymbolisedFeatureCollection>();
+    for (SymbolisedFeatureCollection famille : familles) {
+      String key = colorKey(famille.getColor());
+      if (!key.equals(this.evaluatedColors.get(famille))) {
+        this.evaluatedColors.put(famille, key);
+        changed.add(famille);
+      }
+    }
+    if (changed.isEmpty()) {
+      return;
+    }
+    Collection<SymbolisedFeatureCollection> updated = this.map.updateContrasts(changed, this.surfaceWeights);
+    logger.info(changed.size() + " couleur(s) modifiée(s), " + updated.size() + " famille(s) mise(s) à jour");
+    for (SymbolisedFeatureCollection famille : updated) {
+      this.pushNotes(famille);
+    }
+    // on purge les files quand les notes périmées y sont trop nombreuses
+    if (this.hueNotes.size() > 4 * familles.size()) {
+      this.hueNotes = compact(this.hueNotes);
+      this.lightnessNotes = compact(this.lightnessNotes);
+    }
+  }
+
+  /**
+   * Finds the collections with the worst hue and lightness contrast notes.
+   */
+  private void worstContrasts() {
+    Note teinte = this.peekValid(this.hueNotes);
+    Note clarte = this.peekValid(this.lightnessNotes);
+    if (teinte != null) {
+      this.pireNoteTeinte = teinte.value;
+      this.familleCartoTeinteAChanger = teinte.famille;
+    }
+    if (clarte != null) {
+      this.pireNoteClarte = clarte.value;
+      this.familleCartoClarteAChanger = clarte.famille;
+    }
+    logger.info("> Contraste global sur la carte"
+            + " -> teinte: "+this.map.getMeanContrast().getContrasteTeinte() 
+            + ", clarté: "+this.map.getMeanContrast().getContrasteClarte()
+            + ", qualité teinte: "+this.map.getMeanContrast().getQualiteContrasteTeinte()
+            + ", qualité clarté: "+this.map.getMeanContrast().getQualiteContrasteClarte());
+    logger.info("> pireNoteTeinte : " + this.pireNoteTeinte + ", pireNoteClarte : " + this.pireNoteClarte);
+  }
+
+  private void pushNotes(SymbolisedFeatureCollection famille) {
+    Integer version = this.versions.get(famille);
+    int v = (version == null) ? 0 : version.intValue() + 1;
+    this.versions.put(famille, v);
+    Integer rank = this.ranks.get(famille);
+    int r = (rank == null) ? Integer.MAX_VALUE : rank.intValue();
+    this.hueNotes.add(new Note(famille, famille.getMeanContrast().getQualiteContrasteTeinte(), v, r));
+    this.lightnessNotes.add(new Note(famille, famille.getMeanContrast().getQualiteContrasteClarte(), v, r));
+  }
+
+  private Note peekValid(PriorityQueue<Note> notes) {
+    while (!notes.isEmpty()) {
+      Note note = notes.peek();
+      if (this.versions.get(note.famille).intValue() == note.version) {
+        return note;
+      }
+      notes.poll();
+    }
+    return null;
+  }
+
+  private PriorityQueue<Note> compact(PriorityQueue<Note> notes) {
+    PriorityQueue<Note> result = new PriorityQueue<Note>(Math.max(1, this.versions.size()), WORST_FIRST);
+    for (Note note : notes) {
+      if (this.versions.get(note.famille).intValue() == note.version) {
+        result.add(note);
+      }
+    }
+    return result;
+  }
+
+  private static String colorKey(ColorimetricColor color) {
+    if (color == null) {
+      return "";
+    }
+    return color.getHue() + "/" + color.getLightness() + "/" + color.getRedRGB()
+        + "/" + color.getGreenRGB() + "/" + color.getBlueRGB();
+  }
+
+  /**
+   * Contrast note of a collection, valid while its version is the current one.
+   */
+  private static class Note {
+    final SymbolisedFeatureCollection famille;
+    final double value;
+    final int version;
+    final int rank;
+
+    Note(SymbolisedFeatureCollection famille, double value, int version, int rank) {
+      this.famille = famille;
+      this.value = value;
+      this.version = version;
+      this.rank = rank;
+    }
+  }
+
+  /**
+   * Worst (highest) note first, then first collection of the map.
+   */
+  private static final Comparator<Note> WORST_FIRST = new Comparator<Note>() {
+    @Override
+    public int compare(Note n1, Note n2) {
+      int c = Double.compare(n2.value, n1.value);
+      return (c != 0) ? c : Integer.compare(n1.rank, n2.rank);
+    }
+  };
+
   public void sortContrasts(){
     // Recherche des familles qui ont les plus mauvaises notes de contraste et de teinte
     // ATTENTION: cela veut dire note la plus forte (note = 0 -> pas de problème)!!!!
@@ -1,8 +1,17 @@
 package fr.ign.cogit.geoxygene.semio.legend.mapContent;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 
@@ -236,6 +245,57 @@ public class Map {
     }
 
 		
+	/**
+	 * Updates the contrasts of the map after a change of the colors of some
+	 * feature collections. Only the contrasts of the neighborhood relationships
+	 * of their features are computed again, then the averages of the features and
+	 * feature collections concerned by those relationships, and the map average.
+	 * The contrasts must have been computed once with {@link #instantiateAllContrasts()}
+	 * or {@link #instantiateAllWeightedContrasts()}.
+	 * <p>
+	 * <strong>French: </strong>Met à jour les contrastes de la carte après un
+	 * changement de couleur de certaines familles.
+	 * 
+	 * @param changedCollections the feature collections whose color changed
+	 * @param weighted <code>true</code> if the averages of the feature collections
+	 * are weighted by the areas of the features
+	 * @return the feature collections whose mean contrast was computed again
+	 */
+	public Set<SymbolisedFeatureCollection> updateContrasts(
+	    Collection<SymbolisedFeatureCollection> changedCollections, boolean weighted) {
+		// relations touchées par les familles modifiées
+		Set<NeighbohoodRelationship> relations = Collections.newSetFromMap(
+		    new IdentityHashMap<NeighbohoodRelationship, Boolean>());
+		for (SymbolisedFeatureCollection famille : changedCollections) {
+			for (SymbolisedFeature objet : famille) {
+				relations.addAll(objet.getNeighborhoodRelationships());
+			}
+		}
+		// objets aux extrémités de ces relations
+		Set<SymbolisedFeature> objets = Collections.newSetFromMap(
+		    new IdentityHashMap<SymbolisedFeature, Boolean>());
+		for (NeighbohoodRelationship relation : relations) {
+			relation.computeContrast();
+			objets.addAll(relation.getSymbolisedFeatures());
+		}
+		Set<SymbolisedFeatureCollection> familles = Collections.newSetFromMap(
+		    new IdentityHashMap<SymbolisedFeatureCollection, Boolean>());
+		familles.addAll(changedCollections);
+		for (SymbolisedFeature objet : objets) {
+			ContrastOp.computeMeanContrast(objet);
+			familles.add(objet.getSymbolisedFeatureCollection());
+		}
+		for (SymbolisedFeatureCollection famille : familles) {
+			if (weighted) {
+				famille.computesWeightedMeanContrast();
+			} else {
+				famille.computesMeanContrast();
+			}
+		}
+		this.computeMeanContrast();
+		return familles;
+	}
+
 	/**
 	 * Computes the mean contrasts of the <code>SymbolizedFeatureCollectioin</code>s
 	 *  of the <code>Map</code>
@@ -298,9 +358,29 @@ public class Map {
 	 * @param maxDistance Objects are said neighbors only if ditance between them is less than this threshold. 
 	 */
 	public void searchForNeighbors(double maxDistance) {
+		this.searchForNeighbors(maxDistance, 1);
+	}
+
+	/**
+	 * Determines which features are neighbors on the map, searching the neighbors
+	 * of the features of each collection in parallel.
+	 * The relationships are then created in the same order as with one thread,
+	 * so that the result does not depend on the number of threads.
+	 * 
+	 * @param maxDistance Objects are said neighbors only if ditance between them is less than this threshold.
+	 * @param nbThreads number of threads searching the neighbors
+	 * @see #searchForNeighbors(double)
+	 */
+	public void searchForNeighbors(double maxDistance, int nbThreads) {
 	  logger.info("Recherche des relations de voisinages.");
+	  ExecutorService executor = null;
+	  if (nbThreads > 1) {
+	    executor = Executors.newFixedThreadPool(nbThreads);
+	  }
+	  try {
 		for(int i=0; i<this.getSymbolisedFeatureCollections().size(); i++) {
 			SymbolisedFeatureCollection famille1 = this.getSymbolisedFeatureCollections().get(i);
+			List<NRBuilder> builders = new ArrayList<NRBuilder>();
 			for(int j=i+1; j<this.getSymbolisedFeatureCollections().size(); j++) {
 				SymbolisedFeatureCollection famille2 = this.getSymbolisedFeatureCollections().get(j);
 				// on recherche si les deux familles sont en relation
@@ -326,18 +406,61 @@ public class Map {
 						for (SymbolisedFeature objetCarto : famille1) {
 							// Détermine les voisins d'un objet en cours de traitement
 							// La notion de voisinage est déterminée sur des critères topologiques et géométriques
-							NRBuilder.buildNR(objetCarto, famille2, maxDistance, relation.getType(), ordre);
+							NRBuilder builder = new NRBuilder(objetCarto, famille2, maxDistance, relation.getType(), ordre);
+							builder.initSpatialIndex();
+							builders.add(builder);
 						}
 					}
 				}
 			}
+			// recherche des voisins, en parallèle au besoin
+			List<Collection<SymbolisedFeature>> voisins = Map.searchNeighbors(builders, executor);
+			// création des relations dans l'ordre
+			for (int k = 0; k < builders.size(); k++) {
+				builders.get(k).buildNR(voisins.get(k));
+			}
 			int nbVoisins = 0;
 			for (SymbolisedFeature objet : famille1) {
 				nbVoisins = nbVoisins+objet.getNeighborhoodRelationships().size();
 			}
 			logger.info(nbVoisins + " relations de voisinage avec la famille " + famille1.getName());
 		}
-		
+	  } finally {
+	    if (executor != null) {
+	      executor.shutdownNow();
+	    }
+	  }
+	}
+
+	private static List<Collection<SymbolisedFeature>> searchNeighbors(
+	    List<NRBuilder> builders, ExecutorService executor) {
+		List<Collection<SymbolisedFeature>> voisins = new ArrayList<Collection<SymbolisedFeature>>(builders.size());
+		if (executor == null) {
+			for (NRBuilder builder : builders) {
+				voisins.add(builder.searchNeighbors());
+			}
+			return voisins;
+		}
+		List<Future<Collection<SymbolisedFeature>>> futures = new ArrayList<Future<Collection<SymbolisedFeature>>>(builders.size());
+		for (final NRBuilder builder : builders) {
+			futures.add(executor.submit(new Callable<Collection<SymbolisedFeature>>() {
+				@Override
+				public Collection<SymbolisedFeature> call() {
+					return builder.searchNeighbors();
+				}
+			}));
+		}
+		try {
+			for (Future<Collection<SymbolisedFeature>> future : futures) {
+				voisins.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+		return voisins;
 	}
 
 	public List<Float> getAreas(){
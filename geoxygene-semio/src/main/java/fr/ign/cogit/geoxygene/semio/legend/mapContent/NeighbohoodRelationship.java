@@ -242,7 +242,11 @@ public class NeighbohoodRelationship {
 		
 		// NB: ici partie dépendant du cercle chromatique
 		Contrast contrast = ContrastCollection.getCOGITContrast(c1, c2);
-		this.setContrast(contrast);
+		// copie : le contraste de la collection est partagé par toutes les
+		// relations entre ces deux couleurs, alors que sa qualité dépend de
+		// la relation
+		this.setContrast(new Contrast(contrast.getIdC1(), contrast.getIdC2(),
+		    contrast.getContrasteTeinte(), contrast.getContrasteClarte()));
 		
 		// qualité du contraste
 		this.computeContrastQuality();				
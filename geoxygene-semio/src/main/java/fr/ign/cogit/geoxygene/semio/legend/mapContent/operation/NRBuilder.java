@@ -111,22 +111,49 @@ public class NRBuilder {
    * @param symbolisedFeatureCollection
    */
   public void buildNR(){
- // Initialisation de l'indexation spatiale au besoin
+    this.initSpatialIndex();
+    this.buildNR(this.searchNeighbors());
+  }
+
+  /**
+   * Builds the spatial index of the searched collection, if needed.
+   * It must be done before calling {@link #searchNeighbors()} from several threads.
+   */
+  public void initSpatialIndex() {
+    // Initialisation de l'indexation spatiale au besoin
     // NB: il y a un index par famille
     if (!this.symboFC.hasSpatialIndex()) {
       this.symboFC.initSpatialIndex(Tiling.class, true, 10);
     }
-    
-    // initialisation de la superficie de l'objet au besoin
-    if (this.symbolisedFeature.getArea() == -1) {
-      AreaOp.computeArea(this.symbolisedFeature);
-    }
+  }
 
+  /**
+   * Searches the features of the collection close to the feature, without
+   * creating any relationship. Once the spatial index is built, this method
+   * can be called concurrently by several builders.
+   * 
+   * @return the neighbors of the feature
+   */
+  public Collection<SymbolisedFeature> searchNeighbors() {
     // Objets qui intersectent la géométrie de self
     Collection<SymbolisedFeature> voisins =
         this.symboFC.select(this.symbolisedFeature.getGeom(), this.radius);
     voisins.remove(this);
-    
+    return voisins;
+  }
+
+  /**
+   * Creates the neighborhood relationships between the feature and
+   * its neighbors.
+   * 
+   * @param voisins the neighbors found by {@link #searchNeighbors()}
+   */
+  public void buildNR(Collection<SymbolisedFeature> voisins) {
+    // initialisation de la superficie de l'objet au besoin
+    if (this.symbolisedFeature.getArea() == -1) {
+      AreaOp.computeArea(this.symbolisedFeature);
+    }
+
     // creation d'un nouveau lien pour chaque voisin
     for (SymbolisedFeature voisin : voisins) {
         // initialisation de la superficie de l'objet au besoin
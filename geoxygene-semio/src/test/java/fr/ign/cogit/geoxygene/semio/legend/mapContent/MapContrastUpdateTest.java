@@ -0,0 +1,155 @@
+package fr.ign.cogit.geoxygene.semio.legend.mapContent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.semio.legend.legendContent.LegendLeaf;
+import fr.ign.cogit.geoxygene.semio.legend.symbol.GraphicSymbol;
+import fr.ign.cogit.geoxygene.semio.legend.symbol.color.Contrast;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Envelope;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+import fr.ign.cogit.geoxygene.style.colorimetry.ColorReferenceSystem;
+import fr.ign.cogit.geoxygene.style.colorimetry.ColorimetricColor;
+
+/**
+ * Compares the incremental update of the contrasts of a map after a change of
+ * colors with a full computation of all the contrasts.
+ */
+public class MapContrastUpdateTest {
+
+  private static final int NB_FAMILLES = 7;
+  private static final int NB_OBJETS = 6;
+  private static final int NB_RELATIONS = 60;
+  private static final int NB_ETAPES = 25;
+
+  private static final List<ColorimetricColor> COULEURS = ColorReferenceSystem
+      .getCOGITColors();
+
+  /**
+   * Random map: the last collection has no neighborhood relationship, the
+   * others are related by relationships of random types between features of
+   * different collections.
+   */
+  private static Map carte(Random random) {
+    Map carte = new Map();
+    List<SymbolisedFeature> objets = new ArrayList<SymbolisedFeature>();
+    for (int i = 0; i < NB_FAMILLES; i++) {
+      SymbolisedFeatureCollection famille = new SymbolisedFeatureCollection();
+      famille.setName("famille" + i);
+      LegendLeaf legende = new LegendLeaf();
+      legende.setSymbol(new GraphicSymbol());
+      legende.getSymbol().setColor(couleur(random));
+      famille.setLegend(legende);
+      for (int j = 0; j < NB_OBJETS; j++) {
+        double x = 100 * i;
+        double y = 100 * j;
+        double cote = 5 + 50 * random.nextDouble();
+        SymbolisedFeature objet = new SymbolisedFeatureDecorator(
+            new DefaultFeature(new GM_Polygon(new GM_Envelope(x, x + cote, y,
+                y + cote))));
+        objet.setArea(cote * cote);
+        objet.setSymbolisedFeatureCollection(famille);
+        if (i < NB_FAMILLES - 1) {
+          objets.add(objet);
+        }
+      }
+      carte.addSymbolisedFeatureCollection(famille);
+    }
+    for (int k = 0; k < NB_RELATIONS; k++) {
+      SymbolisedFeature o1 = objets.get(random.nextInt(objets.size()));
+      SymbolisedFeature o2 = objets.get(random.nextInt(objets.size()));
+      if (o1.getSymbolisedFeatureCollection() == o2
+          .getSymbolisedFeatureCollection()) {
+        continue;
+      }
+      NeighbohoodRelationship relation = new NeighbohoodRelationship();
+      relation.addSymbolisedFeature(o1);
+      relation.addSymbolisedFeature(o2);
+      relation.setType(1 + random.nextInt(3));
+      relation.setRatioAreas(Math.max(o1.getArea(), o2.getArea())
+          / Math.min(o1.getArea(), o2.getArea()));
+    }
+    return carte;
+  }
+
+  private static ColorimetricColor couleur(Random random) {
+    return COULEURS.get(random.nextInt(COULEURS.size()));
+  }
+
+  /** Contrasts of the map, of its collections and of their features. */
+  private static List<Double> contrastes(Map carte) {
+    List<Double> valeurs = new ArrayList<Double>();
+    ajoute(valeurs, carte.getMeanContrast());
+    for (SymbolisedFeatureCollection famille : carte
+        .getSymbolisedFeatureCollections()) {
+      ajoute(valeurs, famille.getMeanContrast());
+      for (SymbolisedFeature objet : famille) {
+        ajoute(valeurs, objet.getContrast());
+        for (NeighbohoodRelationship relation : objet
+            .getNeighborhoodRelationships()) {
+          ajoute(valeurs, relation.getContrast());
+        }
+      }
+    }
+    return valeurs;
+  }
+
+  private static void ajoute(List<Double> valeurs, Contrast contraste) {
+    valeurs.add(contraste.getContrasteTeinte());
+    valeurs.add(contraste.getContrasteClarte());
+    valeurs.add(contraste.getQualiteContrasteTeinte());
+    valeurs.add(contraste.getQualiteContrasteClarte());
+  }
+
+  private static void calculComplet(Map carte, boolean pondere) {
+    if (pondere) {
+      carte.instantiateAllWeightedContrasts();
+    } else {
+      carte.instantiateAllContrasts();
+    }
+  }
+
+  private static void compare(long graine, boolean pondere) {
+    Random random = new Random(graine);
+    Map carte = carte(random);
+    calculComplet(carte, pondere);
+    List<SymbolisedFeatureCollection> familles = carte
+        .getSymbolisedFeatureCollections();
+    for (int etape = 0; etape < NB_ETAPES; etape++) {
+      List<SymbolisedFeatureCollection> modifiees = new ArrayList<SymbolisedFeatureCollection>();
+      int nbModifiees = 1 + random.nextInt(2);
+      for (int i = 0; i < nbModifiees; i++) {
+        SymbolisedFeatureCollection famille = familles.get(random
+            .nextInt(familles.size()));
+        famille.getLegend().getSymbol().setColor(couleur(random));
+        if (!modifiees.contains(famille)) {
+          modifiees.add(famille);
+        }
+      }
+      carte.updateContrasts(modifiees, pondere);
+      List<Double> incremental = contrastes(carte);
+      calculComplet(carte, pondere);
+      Assert.assertEquals("graine " + graine + ", étape " + etape,
+          contrastes(carte), incremental);
+    }
+  }
+
+  @Test
+  public void testMiseAJourCommeCalculComplet() {
+    for (long graine = 1; graine <= 5; graine++) {
+      compare(graine, false);
+    }
+  }
+
+  @Test
+  public void testMiseAJourPondereeCommeCalculComplet() {
+    for (long graine = 1; graine <= 5; graine++) {
+      compare(graine, true);
+    }
+  }
+}
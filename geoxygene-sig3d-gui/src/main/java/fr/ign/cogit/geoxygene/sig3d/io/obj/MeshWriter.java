@@ -0,0 +1,525 @@
+package fr.ign.cogit.geoxygene.sig3d.io.obj;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Enumeration;
+
+import javax.media.j3d.Appearance;
+import javax.media.j3d.Geometry;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.GeometryStripArray;
+import javax.media.j3d.Group;
+import javax.media.j3d.IndexedGeometryArray;
+import javax.media.j3d.IndexedGeometryStripArray;
+import javax.media.j3d.IndexedQuadArray;
+import javax.media.j3d.IndexedTriangleArray;
+import javax.media.j3d.IndexedTriangleFanArray;
+import javax.media.j3d.IndexedTriangleStripArray;
+import javax.media.j3d.Link;
+import javax.media.j3d.Node;
+import javax.media.j3d.PolygonAttributes;
+import javax.media.j3d.QuadArray;
+import javax.media.j3d.RenderingAttributes;
+import javax.media.j3d.Shape3D;
+import javax.media.j3d.Transform3D;
+import javax.media.j3d.TransformGroup;
+import javax.media.j3d.TriangleArray;
+import javax.media.j3d.TriangleFanArray;
+import javax.media.j3d.TriangleStripArray;
+import javax.vecmath.Point3d;
+
+/**
+ * A streaming writer of the triangles and quadrilaterals of Java 3D nodes, as an
+ * indexed mesh at OBJ, binary PLY or binary STL format.
+ * <p>Unlike {@link OBJWriter}, no geometry is kept per object and no face is
+ * kept at all: vertices and faces are written as soon as they are read. Only
+ * the distinct vertices stay in memory, as a compact coordinate hash used to
+ * share them between faces and as a float array of their coordinates used for
+ * STL normals. With a tolerance, coordinates are snapped to a grid whose cell
+ * size is the tolerance, and vertices snapped to the same grid node are merged:
+ * two vertices closer than the tolerance may still fall in neighbouring cells.<br>
+ * PLY needs the vertex and face counts in its header, so its vertices and faces
+ * are streamed to temporary files that are appended when the writer is closed.
+ * STL has no shared vertices: its triangles are written directly and the count
+ * is updated when the writer is closed. Lines and appearances are not written.
+ */
+public class MeshWriter {
+  /**
+   * The output formats.
+   */
+  public enum Format {
+    OBJ, PLY, STL
+  }
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final File file;
+  private final Format format;
+  private final double tolerance;
+
+  private Writer objWriter;
+  private OutputStream stream;
+  private File vertexFile;
+  private File faceFile;
+  private OutputStream faceStream;
+  private final ByteBuffer buffer = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+
+  // Vertex hash table with open addressing : 3 quantized coordinates per slot
+  private long [] keys = new long [3 * 1024];
+  private int []  slots = new int [1024];
+  private float [] coordinates = new float [3 * 1024];
+  private int vertexCount = 0;
+  private long faceCount = 0;
+
+  /**
+   * Creates a writer for the given file, merging only identical vertices.
+   */
+  public MeshWriter(File file, Format format) throws IOException {
+    this(file, format, 0);
+  }
+
+  /**
+   * Creates a writer for the given file.
+   * @param file      the output file
+   * @param format    the output format
+   * @param tolerance the cell size of the grid on which vertices are snapped
+   *                  before being merged, or 0 to merge only identical vertices
+   */
+  public MeshWriter(File file, Format format, double tolerance) throws IOException {
+    this.file = file;
+    this.format = format;
+    this.tolerance = tolerance;
+    Arrays.fill(this.slots, -1);
+    switch (format) {
+      case OBJ :
+        this.objWriter = new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(file), "US-ASCII"), BUFFER_SIZE);
+        break;
+      case PLY :
+        this.vertexFile = File.createTempFile("vertices", ".ply");
+        try {
+          this.faceFile = File.createTempFile("faces", ".ply");
+          this.stream = new BufferedOutputStream(new FileOutputStream(this.vertexFile), BUFFER_SIZE);
+          this.faceStream = new BufferedOutputStream(new FileOutputStream(this.faceFile), BUFFER_SIZE);
+        } catch (IOException ex) {
+          if (this.stream != null) {
+            this.stream.close();
+          }
+          this.vertexFile.delete();
+          if (this.faceFile != null) {
+            this.faceFile.delete();
+          }
+          throw ex;
+        }
+        break;
+      case STL :
+        this.stream = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+        // 80 bytes header then the triangle count, updated at closing
+        byte [] header = new byte [84];
+        byte [] title = "GeOxygene binary STL".getBytes("US-ASCII");
+        System.arraycopy(title, 0, header, 0, title.length);
+        this.stream.write(header);
+        break;
+    }
+  }
+
+  /**
+   * Returns the count of distinct vertices written so far.
+   */
+  public int getVertexCount() {
+    return this.vertexCount;
+  }
+
+  /**
+   * Returns the count of faces written so far.
+   */
+  public long getFaceCount() {
+    return this.faceCount;
+  }
+
+  /**
+   * Writes all the triangles and quadrilaterals of the 3D shapes children of
+   * <code>node</code>, with the transformations of the groups on their path.
+   * @throws InterruptedIOException if the current thread was interrupted during this operation
+   */
+  public void writeNode(Node node) throws IOException {
+    writeNode(node, new Transform3D());
+  }
+
+  private void writeNode(Node node, Transform3D parentTransformations) throws IOException {
+    if (node instanceof Group) {
+      if (node instanceof TransformGroup) {
+        parentTransformations = new Transform3D(parentTransformations);
+        Transform3D transform = new Transform3D();
+        ((TransformGroup)node).getTransform(transform);
+        parentTransformations.mul(transform);
+      }
+      Enumeration<?> enumeration = ((Group)node).getAllChildren();
+      while (enumeration.hasMoreElements()) {
+        writeNode((Node)enumeration.nextElement(), parentTransformations);
+      }
+    } else if (node instanceof Link) {
+      writeNode(((Link)node).getSharedGroup(), parentTransformations);
+    } else if (node instanceof Shape3D) {
+      Shape3D shape = (Shape3D)node;
+      Appearance appearance = shape.getAppearance();
+      RenderingAttributes renderingAttributes = appearance != null
+          ? appearance.getRenderingAttributes() : null;
+      if (renderingAttributes != null && !renderingAttributes.getVisible()) {
+        return;
+      }
+      boolean reverse = false;
+      if (appearance != null && appearance.getPolygonAttributes() != null) {
+        reverse = appearance.getPolygonAttributes().getCullFace() == PolygonAttributes.CULL_FRONT;
+      }
+      for (int i = 0, n = shape.numGeometries(); i < n; i++) {
+        writeGeometry(shape.getGeometry(i), parentTransformations, reverse);
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedIOException("Current thread interrupted");
+      }
+    }
+  }
+
+  /**
+   * Writes the vertices of a geometry then its faces.
+   */
+  private void writeGeometry(Geometry geometry, Transform3D transformation,
+                             boolean reverse) throws IOException {
+    if (!(geometry instanceof GeometryArray)) {
+      return;
+    }
+    GeometryArray geometryArray = (GeometryArray)geometry;
+    int n = geometryArray.getVertexCount();
+    int [] substitutes = new int [n];
+    Point3d vertex = new Point3d();
+
+    if ((geometryArray.getVertexFormat() & GeometryArray.BY_REFERENCE) != 0) {
+      if ((geometryArray.getVertexFormat() & GeometryArray.INTERLEAVED) != 0) {
+        float [] vertexData = geometryArray.getInterleavedVertices();
+        int vertexSize = vertexData.length / n;
+        for (int index = 0, i = vertexSize - 3; index < n; index++, i += vertexSize) {
+          vertex.set(vertexData [i], vertexData [i + 1], vertexData [i + 2]);
+          substitutes [index] = vertexIndex(transformation, vertex);
+        }
+      } else if (geometryArray.getCoordRefFloat() != null) {
+        float [] vertexCoordinates = geometryArray.getCoordRefFloat();
+        for (int index = 0, i = 0; index < n; index++, i += 3) {
+          vertex.set(vertexCoordinates [i], vertexCoordinates [i + 1], vertexCoordinates [i + 2]);
+          substitutes [index] = vertexIndex(transformation, vertex);
+        }
+      } else if (geometryArray.getCoordRefDouble() != null) {
+        double [] vertexCoordinates = geometryArray.getCoordRefDouble();
+        for (int index = 0, i = 0; index < n; index++, i += 3) {
+          vertex.set(vertexCoordinates [i], vertexCoordinates [i + 1], vertexCoordinates [i + 2]);
+          substitutes [index] = vertexIndex(transformation, vertex);
+        }
+      } else {
+        return;
+      }
+    } else {
+      for (int index = 0; index < n; index++) {
+        geometryArray.getCoordinate(index, vertex);
+        substitutes [index] = vertexIndex(transformation, vertex);
+      }
+    }
+
+    if (geometryArray instanceof IndexedGeometryArray) {
+      IndexedGeometryArray indexedArray = (IndexedGeometryArray)geometryArray;
+      int [] indices = new int [indexedArray.getIndexCount()];
+      indexedArray.getCoordinateIndices(0, indices);
+      for (int i = 0; i < indices.length; i++) {
+        indices [i] = substitutes [indices [i]];
+      }
+      if (geometryArray instanceof IndexedTriangleArray) {
+        writeFaces(indices, 0, indices.length, 3, reverse);
+      } else if (geometryArray instanceof IndexedQuadArray) {
+        writeFaces(indices, 0, indices.length, 4, reverse);
+      } else if (geometryArray instanceof IndexedGeometryStripArray) {
+        IndexedGeometryStripArray stripArray = (IndexedGeometryStripArray)geometryArray;
+        int [] counts = new int [stripArray.getNumStrips()];
+        stripArray.getStripIndexCounts(counts);
+        writeStrips(indices, counts, stripArray instanceof IndexedTriangleStripArray,
+            stripArray instanceof IndexedTriangleFanArray, reverse);
+      }
+    } else if (geometryArray instanceof TriangleArray) {
+      writeFaces(substitutes, 0, n, 3, reverse);
+    } else if (geometryArray instanceof QuadArray) {
+      writeFaces(substitutes, 0, n, 4, reverse);
+    } else if (geometryArray instanceof GeometryStripArray) {
+      GeometryStripArray stripArray = (GeometryStripArray)geometryArray;
+      int [] counts = new int [stripArray.getNumStrips()];
+      stripArray.getStripVertexCounts(counts);
+      writeStrips(substitutes, counts, stripArray instanceof TriangleStripArray,
+          stripArray instanceof TriangleFanArray, reverse);
+    }
+  }
+
+  private void writeFaces(int [] indices, int start, int end, int size,
+                          boolean reverse) throws IOException {
+    int [] face = new int [size];
+    for (int i = start; i + size <= end; i += size) {
+      System.arraycopy(indices, i, face, 0, size);
+      writeFace(face, reverse);
+    }
+  }
+
+  private void writeStrips(int [] indices, int [] counts, boolean triangleStrip,
+                           boolean triangleFan, boolean reverse) throws IOException {
+    int [] face = new int [3];
+    int initialIndex = 0;
+    for (int strip = 0; strip < counts.length; strip++) {
+      for (int i = initialIndex, n = initialIndex + counts [strip] - 2, j = 0; i < n; i++, j++) {
+        if (triangleFan) {
+          face [0] = indices [initialIndex];
+          face [1] = indices [i + 1];
+          face [2] = indices [i + 2];
+        } else if (triangleStrip) {
+          // Vertices of odd triangles are in reverse order
+          face [0] = indices [i];
+          face [1] = indices [j % 2 == 0 ? i + 1 : i + 2];
+          face [2] = indices [j % 2 == 0 ? i + 2 : i + 1];
+        } else {
+          break;
+        }
+        writeFace(face, reverse);
+      }
+      initialIndex += counts [strip];
+    }
+  }
+
+  /**
+   * Returns the index of a vertex once transformed, writing it if it is new.
+   */
+  private int vertexIndex(Transform3D transformation, Point3d vertex) throws IOException {
+    transformation.transform(vertex);
+    long kx = key(vertex.x);
+    long ky = key(vertex.y);
+    long kz = key(vertex.z);
+    int mask = this.slots.length - 1;
+    int slot = hash(kx, ky, kz) & mask;
+    while (this.slots [slot] != -1) {
+      if (this.keys [3 * slot] == kx && this.keys [3 * slot + 1] == ky
+          && this.keys [3 * slot + 2] == kz) {
+        return this.slots [slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    int index = this.vertexCount++;
+    this.slots [slot] = index;
+    this.keys [3 * slot] = kx;
+    this.keys [3 * slot + 1] = ky;
+    this.keys [3 * slot + 2] = kz;
+    if (3 * index + 3 > this.coordinates.length) {
+      this.coordinates = Arrays.copyOf(this.coordinates, 2 * this.coordinates.length);
+    }
+    this.coordinates [3 * index] = (float)vertex.x;
+    this.coordinates [3 * index + 1] = (float)vertex.y;
+    this.coordinates [3 * index + 2] = (float)vertex.z;
+    writeVertex((float)vertex.x, (float)vertex.y, (float)vertex.z);
+    if (2 * this.vertexCount > this.slots.length) {
+      rehash();
+    }
+    return index;
+  }
+
+  private long key(double coordinate) {
+    if (this.tolerance > 0) {
+      return Math.round(coordinate / this.tolerance);
+    }
+    // 0.0 and -0.0 are the same vertex
+    return Double.doubleToLongBits(coordinate + 0.0);
+  }
+
+  private static int hash(long kx, long ky, long kz) {
+    long h = kx * 0x9E3779B97F4A7C15L + ky * 0xC2B2AE3D27D4EB4FL + kz * 0x165667B19E3779F9L;
+    return (int)(h ^ (h >>> 29));
+  }
+
+  private void rehash() {
+    long [] oldKeys = this.keys;
+    int [] oldSlots = this.slots;
+    this.keys = new long [2 * oldKeys.length];
+    this.slots = new int [2 * oldSlots.length];
+    Arrays.fill(this.slots, -1);
+    int mask = this.slots.length - 1;
+    for (int i = 0; i < oldSlots.length; i++) {
+      if (oldSlots [i] != -1) {
+        int slot = hash(oldKeys [3 * i], oldKeys [3 * i + 1], oldKeys [3 * i + 2]) & mask;
+        while (this.slots [slot] != -1) {
+          slot = (slot + 1) & mask;
+        }
+        this.slots [slot] = oldSlots [i];
+        System.arraycopy(oldKeys, 3 * i, this.keys, 3 * slot, 3);
+      }
+    }
+  }
+
+  private void writeVertex(float x, float y, float z) throws IOException {
+    switch (this.format) {
+      case OBJ :
+        this.objWriter.write("v " + x + " " + y + " " + z + "\n");
+        break;
+      case PLY :
+        this.buffer.clear();
+        this.buffer.putFloat(x).putFloat(y).putFloat(z);
+        this.stream.write(this.buffer.array(), 0, this.buffer.position());
+        break;
+      case STL :
+        // Vertices are written with each triangle
+        break;
+    }
+  }
+
+  /**
+   * Writes a face given by vertex indices. Indices repeated once vertices were
+   * merged are written only once, so that a quadrilateral with two merged
+   * vertices becomes a triangle, and faces left with less than 3 distinct
+   * vertices are ignored.
+   */
+  private void writeFace(int [] face, boolean reverse) throws IOException {
+    int n = 0;
+    for (int i = 0; i < face.length; i++) {
+      boolean merged = false;
+      for (int j = 0; j < n && !merged; j++) {
+        merged = face [i] == face [j];
+      }
+      if (!merged) {
+        face [n++] = face [i];
+      }
+    }
+    if (n < 3) {
+      return;
+    }
+    if (reverse) {
+      for (int i = 0, j = n - 1; i < j; i++, j--) {
+        int tmp = face [i];
+        face [i] = face [j];
+        face [j] = tmp;
+      }
+    }
+    switch (this.format) {
+      case OBJ :
+        StringBuilder line = new StringBuilder("f");
+        for (int i = 0; i < n; i++) {
+          line.append(' ').append(face [i] + 1);
+        }
+        this.objWriter.write(line.append('\n').toString());
+        this.faceCount++;
+        break;
+      case PLY :
+        this.buffer.clear();
+        this.buffer.put((byte)n);
+        for (int i = 0; i < n; i++) {
+          this.buffer.putInt(face [i]);
+        }
+        this.faceStream.write(this.buffer.array(), 0, this.buffer.position());
+        this.faceCount++;
+        break;
+      case STL :
+        // Quadrilaterals are split in two triangles
+        for (int i = 1; i + 1 < n; i++) {
+          writeSTLTriangle(face [0], face [i], face [i + 1]);
+        }
+        break;
+    }
+  }
+
+  private void writeSTLTriangle(int i1, int i2, int i3) throws IOException {
+    float [] c = this.coordinates;
+    float ux = c [3 * i2] - c [3 * i1], uy = c [3 * i2 + 1] - c [3 * i1 + 1], uz = c [3 * i2 + 2] - c [3 * i1 + 2];
+    float vx = c [3 * i3] - c [3 * i1], vy = c [3 * i3 + 1] - c [3 * i1 + 1], vz = c [3 * i3 + 2] - c [3 * i1 + 2];
+    float nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+    float norm = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+    if (norm > 0) {
+      nx /= norm;
+      ny /= norm;
+      nz /= norm;
+    }
+    this.buffer.clear();
+    this.buffer.putFloat(nx).putFloat(ny).putFloat(nz);
+    for (int i : new int [] {i1, i2, i3}) {
+      this.buffer.putFloat(c [3 * i]).putFloat(c [3 * i + 1]).putFloat(c [3 * i + 2]);
+    }
+    this.buffer.putShort((short)0);
+    this.stream.write(this.buffer.array(), 0, this.buffer.position());
+    this.faceCount++;
+  }
+
+  /**
+   * Completes the file. The temporary files of PLY format are deleted even if
+   * the file can't be completed.
+   */
+  public void close() throws IOException {
+    switch (this.format) {
+      case OBJ :
+        this.objWriter.close();
+        break;
+      case PLY :
+        try {
+          this.stream.close();
+          this.faceStream.close();
+          OutputStream out = new BufferedOutputStream(new FileOutputStream(this.file), BUFFER_SIZE);
+          try {
+            out.write(("ply\n"
+                + "format binary_little_endian 1.0\n"
+                + "comment GeOxygene\n"
+                + "element vertex " + this.vertexCount + "\n"
+                + "property float x\n"
+                + "property float y\n"
+                + "property float z\n"
+                + "element face " + this.faceCount + "\n"
+                + "property list uchar int vertex_indices\n"
+                + "end_header\n").getBytes("US-ASCII"));
+            append(this.vertexFile, out);
+            append(this.faceFile, out);
+          } finally {
+            out.close();
+          }
+        } finally {
+          this.vertexFile.delete();
+          this.faceFile.delete();
+        }
+        break;
+      case STL :
+        this.stream.close();
+        RandomAccessFile raf = new RandomAccessFile(this.file, "rw");
+        try {
+          raf.seek(80);
+          this.buffer.clear();
+          this.buffer.putInt((int)this.faceCount);
+          raf.write(this.buffer.array(), 0, 4);
+        } finally {
+          raf.close();
+        }
+        break;
+    }
+  }
+
+  private static void append(File file, OutputStream out) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      byte [] bytes = new byte [BUFFER_SIZE];
+      int n;
+      while ((n = in.read(bytes)) != -1) {
+        out.write(bytes, 0, n);
+      }
+    } finally {
+      in.close();
+    }
+  }
+}
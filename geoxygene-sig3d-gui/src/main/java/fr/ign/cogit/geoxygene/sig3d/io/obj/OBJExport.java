@@ -41,4 +41,31 @@ public class OBJExport {
   }
 
 
+  /**
+   * Exporte une carte 3D m dans un fichier f au fil de l'eau, en partageant
+   * les sommets communs (cf. {@link MeshWriter})
+   * @param f
+   * @param m
+   * @param format OBJ, PLY ou STL binaires
+   * @param tolerance taille de la grille sur laquelle les sommets sont
+   *          arrondis avant d'être fusionnés, 0 pour ne fusionner que les
+   *          sommets identiques
+   */
+  public static void export(File f, Map3D m, MeshWriter.Format format,
+      double tolerance) {
+    try {
+      MeshWriter mw = new MeshWriter(f, format, tolerance);
+      try {
+        mw.writeNode(m.getIMap3D().getBgeneral().getParent()
+            .getParent().getParent().getParent());
+      } finally {
+        // ferme le fichier et supprime les fichiers temporaires du PLY
+        mw.close();
+      }
+    } catch (IOException e1) {
+      e1.printStackTrace();
+    }
+  }
+
+
 }
@@ -1,16 +1,29 @@
 package fr.ign.cogit.geoxygene.sig3d.io.xml.citygmlv2;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.bind.JAXBException;
 
 import org.citygml4j.CityGMLContext;
 import org.citygml4j.builder.jaxb.JAXBBuilder;
 import org.citygml4j.model.citygml.CityGML;
+import org.citygml4j.model.citygml.appearance.Appearance;
+import org.citygml4j.model.citygml.appearance.AppearanceMember;
+import org.citygml4j.model.citygml.core.AbstractCityObject;
 import org.citygml4j.model.citygml.core.CityModel;
+import org.citygml4j.model.citygml.core.CityObjectMember;
 import org.citygml4j.xml.io.CityGMLInputFactory;
 import org.citygml4j.xml.io.reader.CityGMLReadException;
 import org.citygml4j.xml.io.reader.CityGMLReader;
+import org.citygml4j.xml.io.reader.FeatureReadMode;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
@@ -19,6 +32,7 @@ import fr.ign.cogit.geoxygene.feature.DefaultFeature;
 import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
 import fr.ign.cogit.geoxygene.sig3d.model.citygml.core.CG_CityModel;
 import fr.ign.cogit.geoxygene.sig3d.model.citygml.core.CG_CityObject;
+import fr.ign.cogit.geoxygene.sig3d.model.citygml.geometry.ConvertCityGMLtoGeometry;
 import fr.ign.cogit.geoxygene.sig3d.representation.citygml.CG_VectorLayer;
 import fr.ign.cogit.geoxygene.sig3d.representation.citygml.core.RP_CityObject;
 import fr.ign.cogit.geoxygene.sig3d.semantic.VectorLayer;
@@ -47,6 +61,11 @@ public class LoaderCityGML {
 
 	public static boolean CLEAN_GEOX_GEOM = false;
 
+	/**
+	 * Nombre d'objets de premier niveau convertis ensemble en lecture en flux
+	 */
+	public static int CHUNK_SIZE = 256;
+
 	public static VectorLayer read(File f, String context, String layerName, boolean generateRepresentation)
 			throws CityGMLReadException, JAXBException {
 
@@ -55,15 +74,20 @@ public class LoaderCityGML {
 		CityGMLReader reader = LoaderCityGML.getCityGMLInputFactory().createCityGMLReader(f);
 		CityGML citygml = reader.nextFeature();
 
-		CG_CityModel cityModel = new CG_CityModel((CityModel) citygml);
+		CG_CityModel cityModel;
+
+		ConvertCityGMLtoGeometry.startLocalBounds();
+		try {
+			cityModel = new CG_CityModel((CityModel) citygml);
+		} finally {
+			ConvertCityGMLtoGeometry.mergeLocalBounds();
+		}
 
 		if (CLEAN_GEOX_GEOM) {
 			return cleanGeomGeox(cityModel);
 		}
 
-		int nbElem = cityModel.size();
-
-		if(generateRepresentation){
+		if (generateRepresentation) {
 			for (CG_CityObject cGO : cityModel.getElements()) {
 
 				if (cGO != null) {
@@ -71,40 +95,244 @@ public class LoaderCityGML {
 				}
 
 			}
-			
-			for (int i = 0; i < nbElem; i++) {
 
-				IFeature feat = cityModel.get(i);
+			LoaderCityGML.keepRepresented(cityModel, cityModel.getElements());
+		}
+
+		return new CG_VectorLayer(cityModel, layerName);
+
+	}
+
+	/**
+	 * Lecture en flux d'un fichier CityGML : les objets de premier niveau sont
+	 * lus un par un et convertis par paquets de {@link #CHUNK_SIZE} objets sur
+	 * un nombre borné de threads. Seuls quelques paquets d'objets CityGML sont
+	 * en mémoire à un instant donné, au lieu du CityModel complet.
+	 * 
+	 * Les représentations sont générées, en parallèle, une fois le fichier lu
+	 * car elles ont besoin de toutes les apparences globales du modèle.
+	 * L'ordre des objets est celui du fichier ; avec plusieurs threads, leurs
+	 * identifiants restent uniques mais dépendent de l'ordre de conversion.
+	 * 
+	 * @param f
+	 *            le fichier CityGML
+	 * @param context
+	 *            le dossier contenant les textures
+	 * @param layerName
+	 *            le nom de la couche
+	 * @param generateRepresentation
+	 *            indique si les représentations sont générées
+	 * @param nbThreads
+	 *            le nombre de threads de conversion
+	 * @return la couche chargée
+	 * @throws CityGMLReadException
+	 * @throws JAXBException
+	 */
+	public static VectorLayer readStreaming(File f, String context, String layerName,
+			boolean generateRepresentation, int nbThreads) throws CityGMLReadException, JAXBException {
+
+		Context.CITY_GML_CONTEXT = context;
+
+		final CG_CityModel cityModel = new CG_CityModel();
+		List<Future<List<CG_CityObject>>> converted = new ArrayList<Future<List<CG_CityObject>>>();
+
+		// la file bornée et l'exécution par l'appelant quand elle est pleine
+		// limitent le nombre de paquets lus mais pas encore convertis
+		int nbWorkers = Math.max(1, nbThreads);
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(nbWorkers, nbWorkers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(nbWorkers), new ThreadPoolExecutor.CallerRunsPolicy());
+
+		try {
+			CityGMLReader reader = LoaderCityGML.getStreamingInputFactory().createCityGMLReader(f);
+
+			try {
+				List<AbstractCityObject> chunk = new ArrayList<AbstractCityObject>(LoaderCityGML.CHUNK_SIZE);
+
+				while (reader.hasNext()) {
+
+					CityGML citygml = reader.nextFeature();
+
+					if (citygml instanceof AbstractCityObject) {
+
+						chunk.add((AbstractCityObject) citygml);
+
+					} else if (citygml instanceof Appearance) {
+
+						cityModel.addAppearance((Appearance) citygml);
+
+					} else if (citygml instanceof CityModel) {
 
-				if (feat.getRepresentation() == null) {
+						// le modèle est rendu sans les membres déjà lus
+						CityModel impl = (CityModel) citygml;
 
-					cityModel.remove(i);
-					i--;
-					nbElem--;
+						if (impl.isSetBoundedBy() && impl.getBoundedBy().isSetEnvelope()) {
+							cityModel.setBoundedBy(impl.getBoundedBy().getEnvelope());
+						}
 
+						for (AppearanceMember member : impl.getAppearanceMember()) {
+							if (member.getFeature() != null) {
+								cityModel.addAppearance(member.getFeature());
+							}
+						}
+
+						for (CityObjectMember member : impl.getCityObjectMember()) {
+							if (member.getObject() != null) {
+								chunk.add(member.getObject());
+							}
+						}
+
+					}
+
+					if (chunk.size() >= LoaderCityGML.CHUNK_SIZE) {
+						converted.add(pool.submit(LoaderCityGML.conversion(chunk)));
+						chunk = new ArrayList<AbstractCityObject>(LoaderCityGML.CHUNK_SIZE);
+					}
+
+				}
+
+				if (!chunk.isEmpty()) {
+					converted.add(pool.submit(LoaderCityGML.conversion(chunk)));
 				}
 
+			} finally {
+				reader.close();
 			}
-		}
-	
 
+			List<CG_CityObject> objects = new ArrayList<CG_CityObject>();
+
+			for (Future<List<CG_CityObject>> future : converted) {
+				objects.addAll(LoaderCityGML.get(future));
+			}
+
+			converted.clear();
+
+			if (LoaderCityGML.CLEAN_GEOX_GEOM) {
+				cityModel.setElements(objects);
+				return LoaderCityGML.cleanGeomGeox(cityModel);
+			}
+
+			if (generateRepresentation) {
+
+				List<Future<List<CG_CityObject>>> represented = new ArrayList<Future<List<CG_CityObject>>>();
+
+				for (int i = 0; i < objects.size(); i += LoaderCityGML.CHUNK_SIZE) {
+
+					final List<CG_CityObject> lObjects = objects.subList(i,
+							Math.min(objects.size(), i + LoaderCityGML.CHUNK_SIZE));
+
+					represented.add(pool.submit(new Callable<List<CG_CityObject>>() {
+						@Override
+						public List<CG_CityObject> call() {
+							for (CG_CityObject cGO : lObjects) {
+								RP_CityObject.generateCityObjectRepresentation(cGO, cityModel.getlCGA());
+							}
+							return lObjects;
+						}
+					}));
+
+				}
+
+				for (Future<List<CG_CityObject>> future : represented) {
+					LoaderCityGML.get(future);
+				}
+
+				LoaderCityGML.keepRepresented(cityModel, objects);
+
+			} else {
 
+				cityModel.setElements(objects);
+
+			}
+
+		} finally {
+			pool.shutdownNow();
+		}
 
 		return new CG_VectorLayer(cityModel, layerName);
 
 	}
 
-	private static VectorLayer cleanGeomGeox(CG_CityModel cityModel) {
-		int nbElem = cityModel.size();
+	/**
+	 * Conversion d'un paquet d'objets CityGML ; la tâche ne garde plus de
+	 * référence au paquet une fois exécutée. L'emprise des coordonnées du
+	 * paquet est calculée par son thread et reportée une seule fois dans
+	 * l'emprise globale, à la fin du paquet
+	 */
+	private static Callable<List<CG_CityObject>> conversion(final List<AbstractCityObject> chunk) {
+
+		return new Callable<List<CG_CityObject>>() {
+			@Override
+			public List<CG_CityObject> call() {
+				List<CG_CityObject> lObjects = new ArrayList<CG_CityObject>(chunk.size());
+				ConvertCityGMLtoGeometry.startLocalBounds();
+				try {
+					for (AbstractCityObject cO : chunk) {
+						CG_CityObject cGO = CG_CityObject.generateCityObject(cO);
+						if (cGO != null) {
+							lObjects.add(cGO);
+						}
+					}
+				} finally {
+					ConvertCityGMLtoGeometry.mergeLocalBounds();
+				}
+				chunk.clear();
+				return lObjects;
+			}
+		};
+
+	}
 
+	private static List<CG_CityObject> get(Future<List<CG_CityObject>> future) throws CityGMLReadException {
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CityGMLReadException("Interrupted while loading CityGML", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new CityGMLReadException("Error while loading CityGML", e.getCause());
+		}
+
+	}
+
+	/**
+	 * Ne garde dans le modèle que les objets qui ont une représentation, en
+	 * une seule passe
+	 */
+	private static void keepRepresented(CG_CityModel cityModel, List<CG_CityObject> objects) {
+
+		List<CG_CityObject> lKept = new ArrayList<CG_CityObject>(objects.size());
+
+		for (CG_CityObject cGO : objects) {
+			if (cGO != null && cGO.getRepresentation() != null) {
+				lKept.add(cGO);
+			}
+		}
+
+		cityModel.setElements(lKept);
+
+	}
+
+	private static VectorLayer cleanGeomGeox(CG_CityModel cityModel) {
 		IFeatureCollection<IFeature> featC = new FT_FeatureCollection<>();
 
 		IPoint p = new GM_Point(cityModel.getCenter());
 
-		for (int i = 0; i < nbElem; i++) {
+		// le modèle est vidé d'un coup, les objets étant libérés au fur et à
+		// mesure du tableau
+		CG_CityObject[] lObjects = cityModel.getElements().toArray(new CG_CityObject[cityModel.size()]);
+		cityModel.setElements(new ArrayList<CG_CityObject>(0));
+
+		for (int i = 0; i < lObjects.length; i++) {
 
-			CG_CityObject cGO = cityModel.get(0);
-			cityModel.remove(0);
+			CG_CityObject cGO = lObjects[i];
+			lObjects[i] = null;
 			if (cGO == null) {
 				continue;
 			}
@@ -125,19 +353,45 @@ public class LoaderCityGML {
 
 	}
 
+	private static JAXBBuilder builder = null;
+
+	private static JAXBBuilder getJAXBBuilder() throws JAXBException {
+
+		if (LoaderCityGML.builder == null) {
+
+			CityGMLContext ctx = new CityGMLContext();
+			LoaderCityGML.builder = ctx.createJAXBBuilder();
+
+		}
+		return LoaderCityGML.builder;
+
+	}
+
 	private static CityGMLInputFactory in = null;
 
 	private static CityGMLInputFactory getCityGMLInputFactory() throws JAXBException, CityGMLReadException {
 
 		if (LoaderCityGML.in == null) {
 
-			CityGMLContext ctx = new CityGMLContext();
-			JAXBBuilder builder = ctx.createJAXBBuilder();
-
-			LoaderCityGML.in = builder.createCityGMLInputFactory();
+			LoaderCityGML.in = LoaderCityGML.getJAXBBuilder().createCityGMLInputFactory();
 
 		}
 		return LoaderCityGML.in;
 
 	}
+
+	private static CityGMLInputFactory inStreaming = null;
+
+	private static CityGMLInputFactory getStreamingInputFactory() throws JAXBException, CityGMLReadException {
+
+		if (LoaderCityGML.inStreaming == null) {
+
+			CityGMLInputFactory factory = LoaderCityGML.getJAXBBuilder().createCityGMLInputFactory();
+			factory.setProperty(CityGMLInputFactory.FEATURE_READ_MODE, FeatureReadMode.SPLIT_PER_COLLECTION_MEMBER);
+			LoaderCityGML.inStreaming = factory;
+
+		}
+		return LoaderCityGML.inStreaming;
+
+	}
 }
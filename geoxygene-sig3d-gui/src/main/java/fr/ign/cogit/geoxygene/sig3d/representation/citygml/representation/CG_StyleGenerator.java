@@ -47,6 +47,22 @@ public class CG_StyleGenerator {
 
 	private boolean isAppearanceSet = false;
 
+	/**
+	 * Apparence déjà générée pour un matériau ; les représentations pouvant
+	 * être générées par plusieurs threads, les deux listes sont lues et
+	 * modifiées sous le verrou de lMaterial
+	 * 
+	 * @param mat
+	 *            le matériau
+	 * @return l'apparence associée ou null
+	 */
+	private static Appearance knownAppearance(CG_X3DMaterial mat) {
+		synchronized (CG_StyleGenerator.lMaterial) {
+			int index = CG_StyleGenerator.lMaterial.indexOf(mat);
+			return (index == -1) ? null : CG_StyleGenerator.lAppearance.get(index);
+		}
+	}
+
 	public CG_StyleGenerator(ITriangulatedSurface poly, List<Object> lStyles) {
 
 	}
@@ -63,10 +79,10 @@ public class CG_StyleGenerator {
 
 				CG_X3DMaterial mat = (CG_X3DMaterial) o;
 
-				int index = CG_StyleGenerator.lMaterial.indexOf(mat);
+				Appearance known = CG_StyleGenerator.knownAppearance(mat);
 
-				if (index != -1) {
-					this.apparenceFinale = CG_StyleGenerator.lAppearance.get(index);
+				if (known != null) {
+					this.apparenceFinale = known;
 					continue;
 				}
 
@@ -359,8 +375,10 @@ public class CG_StyleGenerator {
 			this.apparenceFinale.setTransparencyAttributes(t_attr);
 		}
 
-		CG_StyleGenerator.lMaterial.add(X3Dmaterial);
-		CG_StyleGenerator.lAppearance.add(this.apparenceFinale);
+		synchronized (CG_StyleGenerator.lMaterial) {
+			CG_StyleGenerator.lMaterial.add(X3Dmaterial);
+			CG_StyleGenerator.lAppearance.add(this.apparenceFinale);
+		}
 
 	}
 
@@ -64,7 +64,7 @@ public class TextureManager {
    * @param tex la texture dont on veut récupérer le chemin
    * @return le chemin de la texture ou null si elle n'est pas dans le manager
    */
-  public static String getTexturePath(Texture2D tex) {
+  public static synchronized String getTexturePath(Texture2D tex) {
 
     int nbTextures = TextureManager.lTextures.size();
     for (int i = 0; i < nbTextures; i++) {
@@ -87,7 +87,7 @@ public class TextureManager {
    * @param path le chemin de la texture
    * @return l'objet Texture2D renvoyé.
    */
-  public static Texture2D textureLoading(String path) {
+  public static synchronized Texture2D textureLoading(String path) {
     int nbTextures = TextureManager.lTextures.size();
     for (int i = 0; i < nbTextures; i++) {
      // System.out.println(path);
@@ -125,7 +125,7 @@ public class TextureManager {
    * @param path le chemin de la texture
    * @return l'objet Texture2D renvoyé.
    */
-  public static Texture2D textureNoReapetLoading(String path) {
+  public static synchronized Texture2D textureNoReapetLoading(String path) {
     int nbTextures = TextureManager.lTextures.size();
 
     for (int i = 0; i < nbTextures; i++) {
@@ -0,0 +1,87 @@
+package fr.ign.cogit.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.sig3d.io.xml.citygmlv2.LoaderCityGML;
+import fr.ign.cogit.geoxygene.sig3d.model.citygml.geometry.ConvertCityGMLtoGeometry;
+import fr.ign.cogit.geoxygene.sig3d.semantic.VectorLayer;
+import junit.framework.TestCase;
+
+public class TestLoaderCityGML extends TestCase {
+
+	private static Logger log = Logger.getLogger(TestLoaderCityGML.class);
+
+	private static File fichier() throws Exception {
+		return new File(TestLoaderCityGML.class.getResource("/citygml/batiments.gml").toURI());
+	}
+
+	/**
+	 * Description d'une couche chargée : pour chaque objet, dans l'ordre, ses
+	 * coordonnées, puis les bornes calculées au chargement
+	 */
+	private static List<String> description(VectorLayer couche) {
+		List<String> resultat = new ArrayList<String>();
+		for (IFeature feat : couche) {
+			StringBuilder s = new StringBuilder();
+			if (feat.getGeom() != null) {
+				for (IDirectPosition p : feat.getGeom().coord()) {
+					s.append(p.getX()).append(' ').append(p.getY()).append(' ').append(p.getZ()).append(';');
+				}
+			}
+			resultat.add(s.toString());
+		}
+		resultat.add(ConvertCityGMLtoGeometry.xMin + " " + ConvertCityGMLtoGeometry.yMin + " "
+				+ ConvertCityGMLtoGeometry.zMin + " " + ConvertCityGMLtoGeometry.xMax + " "
+				+ ConvertCityGMLtoGeometry.yMax + " " + ConvertCityGMLtoGeometry.zMax);
+		return resultat;
+	}
+
+	private static void reinitialise() {
+		ConvertCityGMLtoGeometry.coordXIni = 0;
+		ConvertCityGMLtoGeometry.coordYIni = 0;
+		ConvertCityGMLtoGeometry.coordZIni = 0;
+		ConvertCityGMLtoGeometry.xMin = Double.POSITIVE_INFINITY;
+		ConvertCityGMLtoGeometry.yMin = Double.POSITIVE_INFINITY;
+		ConvertCityGMLtoGeometry.zMin = Double.POSITIVE_INFINITY;
+		ConvertCityGMLtoGeometry.xMax = Double.NEGATIVE_INFINITY;
+		ConvertCityGMLtoGeometry.yMax = Double.NEGATIVE_INFINITY;
+		ConvertCityGMLtoGeometry.zMax = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * La lecture en flux donne les mêmes objets, dans le même ordre, et les
+	 * mêmes bornes que la lecture du CityModel complet, avec un ou plusieurs
+	 * threads et des paquets d'un seul objet
+	 */
+	@Test
+	public void testStreamingCommeDOM() throws Exception {
+		File f = TestLoaderCityGML.fichier();
+		String context = f.getParentFile().getAbsolutePath();
+
+		TestLoaderCityGML.reinitialise();
+		List<String> dom = TestLoaderCityGML.description(LoaderCityGML.read(f, context, "dom", false));
+		assertEquals(25, dom.size());
+		log.info("Bornes : " + dom.get(dom.size() - 1));
+
+		int chunkSize = LoaderCityGML.CHUNK_SIZE;
+		try {
+			for (int taille : new int[] { chunkSize, 1 }) {
+				LoaderCityGML.CHUNK_SIZE = taille;
+				for (int nbThreads : new int[] { 1, 4 }) {
+					TestLoaderCityGML.reinitialise();
+					assertEquals(dom, TestLoaderCityGML.description(
+							LoaderCityGML.readStreaming(f, context, "flux", false, nbThreads)));
+				}
+			}
+		} finally {
+			LoaderCityGML.CHUNK_SIZE = chunkSize;
+		}
+	}
+}
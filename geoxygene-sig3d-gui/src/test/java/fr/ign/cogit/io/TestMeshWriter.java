@@ -0,0 +1,175 @@
+package fr.ign.cogit.io;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.media.j3d.BranchGroup;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.QuadArray;
+import javax.media.j3d.Shape3D;
+import javax.vecmath.Point3d;
+
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.sig3d.io.obj.MeshWriter;
+import junit.framework.TestCase;
+
+public class TestMeshWriter extends TestCase {
+
+	// ---------------------------------- ATTRIBUTES ----------------------------------
+
+	private static Logger log = Logger.getLogger(TestMeshWriter.class);
+
+	private static final double TOLERANCE = 0.01;
+
+	// 2 quadrilaterals sharing an edge, a quadrilateral whose last 2 vertices
+	// are merged and a quadrilateral whose 4 vertices are merged
+	private static final int VERTEX_COUNT = 6 + 3 + 1;
+
+	private static final int FACE_COUNT = 2 + 1;
+
+	private static final int TRIANGLE_COUNT = 2 * 2 + 1;
+
+	// ---------------------------------- TOOLS ----------------------------------------
+
+	private static BranchGroup createScene() {
+		QuadArray squares = new QuadArray(8, GeometryArray.COORDINATES);
+		squares.setCoordinates(0, new Point3d[] { new Point3d(0, 0, 0), new Point3d(1, 0, 0), new Point3d(1, 1, 0),
+				new Point3d(0, 1, 0), new Point3d(1, 0, 0), new Point3d(2, 0, 0), new Point3d(2, 1, 0),
+				new Point3d(1, 1, 0) });
+
+		QuadArray degenerated = new QuadArray(8, GeometryArray.COORDINATES);
+		degenerated.setCoordinates(0, new Point3d[] { new Point3d(0, 0, 1), new Point3d(1, 0, 1),
+				new Point3d(1, 1, 1), new Point3d(1.001, 1.001, 1), new Point3d(5, 5, 5), new Point3d(5.001, 5, 5),
+				new Point3d(5, 5.001, 5), new Point3d(5, 5, 5.001) });
+
+		BranchGroup scene = new BranchGroup();
+		scene.addChild(new Shape3D(squares));
+		scene.addChild(new Shape3D(degenerated));
+		return scene;
+	}
+
+	private static File write(MeshWriter.Format format, String extension) throws IOException {
+		File file = File.createTempFile("mesh", extension);
+		file.deleteOnExit();
+		MeshWriter writer = new MeshWriter(file, format, TOLERANCE);
+		try {
+			writer.writeNode(createScene());
+		} finally {
+			writer.close();
+		}
+		assertEquals(VERTEX_COUNT, writer.getVertexCount());
+		assertEquals(format == MeshWriter.Format.STL ? TRIANGLE_COUNT : FACE_COUNT, writer.getFaceCount());
+		return file;
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		StringBuilder line = new StringBuilder();
+		int c;
+		while ((c = in.read()) != '\n' && c != -1) {
+			line.append((char) c);
+		}
+		return line.toString();
+	}
+
+	// ------------------------------------ TESTS -------------------------------------
+
+	@Test
+	public void testOBJ() throws IOException {
+		File file = write(MeshWriter.Format.OBJ, ".obj");
+		int vertices = 0;
+		int quads = 0;
+		int triangles = 0;
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] tokens = line.split(" ");
+				if (tokens[0].equals("v")) {
+					vertices++;
+				} else if (tokens[0].equals("f")) {
+					for (int i = 1; i < tokens.length; i++) {
+						int index = Integer.parseInt(tokens[i]);
+						assertTrue(index >= 1 && index <= VERTEX_COUNT);
+					}
+					if (tokens.length == 5) {
+						quads++;
+					} else if (tokens.length == 4) {
+						triangles++;
+					} else {
+						fail("Unexpected face : " + line);
+					}
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		log.info("OBJ : " + vertices + " vertices, " + quads + " quads, " + triangles + " triangles");
+		assertEquals(VERTEX_COUNT, vertices);
+		assertEquals(2, quads);
+		assertEquals(1, triangles);
+	}
+
+	@Test
+	public void testPLY() throws IOException {
+		File file = write(MeshWriter.Format.PLY, ".ply");
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			assertEquals("ply", readLine(in));
+			int vertices = -1;
+			int faces = -1;
+			String line;
+			while (!(line = readLine(in)).equals("end_header")) {
+				if (line.startsWith("element vertex ")) {
+					vertices = Integer.parseInt(line.substring("element vertex ".length()));
+				} else if (line.startsWith("element face ")) {
+					faces = Integer.parseInt(line.substring("element face ".length()));
+				}
+			}
+			assertEquals(VERTEX_COUNT, vertices);
+			assertEquals(FACE_COUNT, faces);
+
+			byte[] coordinates = new byte[12 * vertices];
+			in.readFully(coordinates);
+			int[] sizes = new int[faces];
+			for (int i = 0; i < faces; i++) {
+				sizes[i] = in.readUnsignedByte();
+				byte[] indices = new byte[4 * sizes[i]];
+				in.readFully(indices);
+				ByteBuffer buffer = ByteBuffer.wrap(indices).order(ByteOrder.LITTLE_ENDIAN);
+				for (int j = 0; j < sizes[i]; j++) {
+					int index = buffer.getInt();
+					assertTrue(index >= 0 && index < VERTEX_COUNT);
+				}
+			}
+			assertEquals(4, sizes[0]);
+			assertEquals(4, sizes[1]);
+			assertEquals(3, sizes[2]);
+			assertEquals(-1, in.read());
+		} finally {
+			in.close();
+		}
+	}
+
+	@Test
+	public void testSTL() throws IOException {
+		File file = write(MeshWriter.Format.STL, ".stl");
+		assertEquals(84 + 50 * TRIANGLE_COUNT, file.length());
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			byte[] header = new byte[84];
+			in.readFully(header);
+			assertEquals(TRIANGLE_COUNT, ByteBuffer.wrap(header, 80, 4).order(ByteOrder.LITTLE_ENDIAN).getInt());
+		} finally {
+			in.close();
+		}
+	}
+}
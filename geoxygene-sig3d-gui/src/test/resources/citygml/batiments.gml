@@ -0,0 +1,460 @@
+<?xml version="1.0" encoding="UTF-8"?>
+<core:CityModel xmlns:core="http://www.opengis.net/citygml/2.0" xmlns:bldg="http://www.opengis.net/citygml/building/2.0" xmlns:gml="http://www.opengis.net/gml">
+  <gml:name>test</gml:name>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_0">
+      <bldg:measuredHeight uom="m">7</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1002 2001 6</gml:pos><gml:pos srsDimension="3">1002 2009 6</gml:pos><gml:pos srsDimension="3">1020 2009 6</gml:pos><gml:pos srsDimension="3">1020 2001 6</gml:pos><gml:pos srsDimension="3">1002 2001 6</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1002 2001 13</gml:pos><gml:pos srsDimension="3">1020 2001 13</gml:pos><gml:pos srsDimension="3">1020 2009 13</gml:pos><gml:pos srsDimension="3">1002 2009 13</gml:pos><gml:pos srsDimension="3">1002 2001 13</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1002 2001 6</gml:pos><gml:pos srsDimension="3">1020 2001 6</gml:pos><gml:pos srsDimension="3">1020 2001 13</gml:pos><gml:pos srsDimension="3">1002 2001 13</gml:pos><gml:pos srsDimension="3">1002 2001 6</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1020 2001 6</gml:pos><gml:pos srsDimension="3">1020 2009 6</gml:pos><gml:pos srsDimension="3">1020 2009 13</gml:pos><gml:pos srsDimension="3">1020 2001 13</gml:pos><gml:pos srsDimension="3">1020 2001 6</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1020 2009 6</gml:pos><gml:pos srsDimension="3">1002 2009 6</gml:pos><gml:pos srsDimension="3">1002 2009 13</gml:pos><gml:pos srsDimension="3">1020 2009 13</gml:pos><gml:pos srsDimension="3">1020 2009 6</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1002 2009 6</gml:pos><gml:pos srsDimension="3">1002 2001 6</gml:pos><gml:pos srsDimension="3">1002 2001 13</gml:pos><gml:pos srsDimension="3">1002 2009 13</gml:pos><gml:pos srsDimension="3">1002 2009 6</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_1">
+      <bldg:measuredHeight uom="m">21</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1034 2000 5 1034 2008 5 1051 2008 5 1051 2000 5 1034 2000 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1034 2000 26 1051 2000 26 1051 2008 26 1034 2008 26 1034 2000 26</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1034 2000 5 1051 2000 5 1051 2000 26 1034 2000 26 1034 2000 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1051 2000 5 1051 2008 5 1051 2008 26 1051 2000 26 1051 2000 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1051 2008 5 1034 2008 5 1034 2008 26 1051 2008 26 1051 2008 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1034 2008 5 1034 2000 5 1034 2000 26 1034 2008 26 1034 2008 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_2">
+      <bldg:measuredHeight uom="m">7</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1061 2000 1</gml:pos><gml:pos srsDimension="3">1061 2014 1</gml:pos><gml:pos srsDimension="3">1075 2014 1</gml:pos><gml:pos srsDimension="3">1075 2000 1</gml:pos><gml:pos srsDimension="3">1061 2000 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1061 2000 8</gml:pos><gml:pos srsDimension="3">1075 2000 8</gml:pos><gml:pos srsDimension="3">1075 2014 8</gml:pos><gml:pos srsDimension="3">1061 2014 8</gml:pos><gml:pos srsDimension="3">1061 2000 8</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1061 2000 1</gml:pos><gml:pos srsDimension="3">1075 2000 1</gml:pos><gml:pos srsDimension="3">1075 2000 8</gml:pos><gml:pos srsDimension="3">1061 2000 8</gml:pos><gml:pos srsDimension="3">1061 2000 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1075 2000 1</gml:pos><gml:pos srsDimension="3">1075 2014 1</gml:pos><gml:pos srsDimension="3">1075 2014 8</gml:pos><gml:pos srsDimension="3">1075 2000 8</gml:pos><gml:pos srsDimension="3">1075 2000 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1075 2014 1</gml:pos><gml:pos srsDimension="3">1061 2014 1</gml:pos><gml:pos srsDimension="3">1061 2014 8</gml:pos><gml:pos srsDimension="3">1075 2014 8</gml:pos><gml:pos srsDimension="3">1075 2014 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1061 2014 1</gml:pos><gml:pos srsDimension="3">1061 2000 1</gml:pos><gml:pos srsDimension="3">1061 2000 8</gml:pos><gml:pos srsDimension="3">1061 2014 8</gml:pos><gml:pos srsDimension="3">1061 2014 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_3">
+      <bldg:measuredHeight uom="m">23</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1091 2000 8 1091 2008 8 1105 2008 8 1105 2000 8 1091 2000 8</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1091 2000 31 1105 2000 31 1105 2008 31 1091 2008 31 1091 2000 31</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1091 2000 8 1105 2000 8 1105 2000 31 1091 2000 31 1091 2000 8</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1105 2000 8 1105 2008 8 1105 2008 31 1105 2000 31 1105 2000 8</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1105 2008 8 1091 2008 8 1091 2008 31 1105 2008 31 1105 2008 8</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1091 2008 8 1091 2000 8 1091 2000 31 1091 2008 31 1091 2008 8</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_4">
+      <bldg:measuredHeight uom="m">6</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1120 2001 10</gml:pos><gml:pos srsDimension="3">1120 2018 10</gml:pos><gml:pos srsDimension="3">1138 2018 10</gml:pos><gml:pos srsDimension="3">1138 2001 10</gml:pos><gml:pos srsDimension="3">1120 2001 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1120 2001 16</gml:pos><gml:pos srsDimension="3">1138 2001 16</gml:pos><gml:pos srsDimension="3">1138 2018 16</gml:pos><gml:pos srsDimension="3">1120 2018 16</gml:pos><gml:pos srsDimension="3">1120 2001 16</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1120 2001 10</gml:pos><gml:pos srsDimension="3">1138 2001 10</gml:pos><gml:pos srsDimension="3">1138 2001 16</gml:pos><gml:pos srsDimension="3">1120 2001 16</gml:pos><gml:pos srsDimension="3">1120 2001 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1138 2001 10</gml:pos><gml:pos srsDimension="3">1138 2018 10</gml:pos><gml:pos srsDimension="3">1138 2018 16</gml:pos><gml:pos srsDimension="3">1138 2001 16</gml:pos><gml:pos srsDimension="3">1138 2001 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1138 2018 10</gml:pos><gml:pos srsDimension="3">1120 2018 10</gml:pos><gml:pos srsDimension="3">1120 2018 16</gml:pos><gml:pos srsDimension="3">1138 2018 16</gml:pos><gml:pos srsDimension="3">1138 2018 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1120 2018 10</gml:pos><gml:pos srsDimension="3">1120 2001 10</gml:pos><gml:pos srsDimension="3">1120 2001 16</gml:pos><gml:pos srsDimension="3">1120 2018 16</gml:pos><gml:pos srsDimension="3">1120 2018 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_5">
+      <bldg:measuredHeight uom="m">6</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1154 2004 6 1154 2015 6 1162 2015 6 1162 2004 6 1154 2004 6</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1154 2004 12 1162 2004 12 1162 2015 12 1154 2015 12 1154 2004 12</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1154 2004 6 1162 2004 6 1162 2004 12 1154 2004 12 1154 2004 6</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1162 2004 6 1162 2015 6 1162 2015 12 1162 2004 12 1162 2004 6</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1162 2015 6 1154 2015 6 1154 2015 12 1162 2015 12 1162 2015 6</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1154 2015 6 1154 2004 6 1154 2004 12 1154 2015 12 1154 2015 6</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_6">
+      <bldg:measuredHeight uom="m">22</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1004 2031 4</gml:pos><gml:pos srsDimension="3">1004 2041 4</gml:pos><gml:pos srsDimension="3">1018 2041 4</gml:pos><gml:pos srsDimension="3">1018 2031 4</gml:pos><gml:pos srsDimension="3">1004 2031 4</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1004 2031 26</gml:pos><gml:pos srsDimension="3">1018 2031 26</gml:pos><gml:pos srsDimension="3">1018 2041 26</gml:pos><gml:pos srsDimension="3">1004 2041 26</gml:pos><gml:pos srsDimension="3">1004 2031 26</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1004 2031 4</gml:pos><gml:pos srsDimension="3">1018 2031 4</gml:pos><gml:pos srsDimension="3">1018 2031 26</gml:pos><gml:pos srsDimension="3">1004 2031 26</gml:pos><gml:pos srsDimension="3">1004 2031 4</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1018 2031 4</gml:pos><gml:pos srsDimension="3">1018 2041 4</gml:pos><gml:pos srsDimension="3">1018 2041 26</gml:pos><gml:pos srsDimension="3">1018 2031 26</gml:pos><gml:pos srsDimension="3">1018 2031 4</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1018 2041 4</gml:pos><gml:pos srsDimension="3">1004 2041 4</gml:pos><gml:pos srsDimension="3">1004 2041 26</gml:pos><gml:pos srsDimension="3">1018 2041 26</gml:pos><gml:pos srsDimension="3">1018 2041 4</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1004 2041 4</gml:pos><gml:pos srsDimension="3">1004 2031 4</gml:pos><gml:pos srsDimension="3">1004 2031 26</gml:pos><gml:pos srsDimension="3">1004 2041 26</gml:pos><gml:pos srsDimension="3">1004 2041 4</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_7">
+      <bldg:measuredHeight uom="m">10</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1030 2034 4 1030 2052 4 1046 2052 4 1046 2034 4 1030 2034 4</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1030 2034 14 1046 2034 14 1046 2052 14 1030 2052 14 1030 2034 14</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1030 2034 4 1046 2034 4 1046 2034 14 1030 2034 14 1030 2034 4</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1046 2034 4 1046 2052 4 1046 2052 14 1046 2034 14 1046 2034 4</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1046 2052 4 1030 2052 4 1030 2052 14 1046 2052 14 1046 2052 4</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1030 2052 4 1030 2034 4 1030 2034 14 1030 2052 14 1030 2052 4</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_8">
+      <bldg:measuredHeight uom="m">16</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1060 2034 9</gml:pos><gml:pos srsDimension="3">1060 2045 9</gml:pos><gml:pos srsDimension="3">1078 2045 9</gml:pos><gml:pos srsDimension="3">1078 2034 9</gml:pos><gml:pos srsDimension="3">1060 2034 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1060 2034 25</gml:pos><gml:pos srsDimension="3">1078 2034 25</gml:pos><gml:pos srsDimension="3">1078 2045 25</gml:pos><gml:pos srsDimension="3">1060 2045 25</gml:pos><gml:pos srsDimension="3">1060 2034 25</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1060 2034 9</gml:pos><gml:pos srsDimension="3">1078 2034 9</gml:pos><gml:pos srsDimension="3">1078 2034 25</gml:pos><gml:pos srsDimension="3">1060 2034 25</gml:pos><gml:pos srsDimension="3">1060 2034 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1078 2034 9</gml:pos><gml:pos srsDimension="3">1078 2045 9</gml:pos><gml:pos srsDimension="3">1078 2045 25</gml:pos><gml:pos srsDimension="3">1078 2034 25</gml:pos><gml:pos srsDimension="3">1078 2034 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1078 2045 9</gml:pos><gml:pos srsDimension="3">1060 2045 9</gml:pos><gml:pos srsDimension="3">1060 2045 25</gml:pos><gml:pos srsDimension="3">1078 2045 25</gml:pos><gml:pos srsDimension="3">1078 2045 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1060 2045 9</gml:pos><gml:pos srsDimension="3">1060 2034 9</gml:pos><gml:pos srsDimension="3">1060 2034 25</gml:pos><gml:pos srsDimension="3">1060 2045 25</gml:pos><gml:pos srsDimension="3">1060 2045 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_9">
+      <bldg:measuredHeight uom="m">24</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1090 2034 1 1090 2042 1 1107 2042 1 1107 2034 1 1090 2034 1</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1090 2034 25 1107 2034 25 1107 2042 25 1090 2042 25 1090 2034 25</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1090 2034 1 1107 2034 1 1107 2034 25 1090 2034 25 1090 2034 1</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1107 2034 1 1107 2042 1 1107 2042 25 1107 2034 25 1107 2034 1</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1107 2042 1 1090 2042 1 1090 2042 25 1107 2042 25 1107 2042 1</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1090 2042 1 1090 2034 1 1090 2034 25 1090 2042 25 1090 2042 1</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_10">
+      <bldg:measuredHeight uom="m">29</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1121 2033 10</gml:pos><gml:pos srsDimension="3">1121 2047 10</gml:pos><gml:pos srsDimension="3">1137 2047 10</gml:pos><gml:pos srsDimension="3">1137 2033 10</gml:pos><gml:pos srsDimension="3">1121 2033 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1121 2033 39</gml:pos><gml:pos srsDimension="3">1137 2033 39</gml:pos><gml:pos srsDimension="3">1137 2047 39</gml:pos><gml:pos srsDimension="3">1121 2047 39</gml:pos><gml:pos srsDimension="3">1121 2033 39</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1121 2033 10</gml:pos><gml:pos srsDimension="3">1137 2033 10</gml:pos><gml:pos srsDimension="3">1137 2033 39</gml:pos><gml:pos srsDimension="3">1121 2033 39</gml:pos><gml:pos srsDimension="3">1121 2033 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1137 2033 10</gml:pos><gml:pos srsDimension="3">1137 2047 10</gml:pos><gml:pos srsDimension="3">1137 2047 39</gml:pos><gml:pos srsDimension="3">1137 2033 39</gml:pos><gml:pos srsDimension="3">1137 2033 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1137 2047 10</gml:pos><gml:pos srsDimension="3">1121 2047 10</gml:pos><gml:pos srsDimension="3">1121 2047 39</gml:pos><gml:pos srsDimension="3">1137 2047 39</gml:pos><gml:pos srsDimension="3">1137 2047 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1121 2047 10</gml:pos><gml:pos srsDimension="3">1121 2033 10</gml:pos><gml:pos srsDimension="3">1121 2033 39</gml:pos><gml:pos srsDimension="3">1121 2047 39</gml:pos><gml:pos srsDimension="3">1121 2047 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_11">
+      <bldg:measuredHeight uom="m">14</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1152 2033 9 1152 2046 9 1167 2046 9 1167 2033 9 1152 2033 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1152 2033 23 1167 2033 23 1167 2046 23 1152 2046 23 1152 2033 23</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1152 2033 9 1167 2033 9 1167 2033 23 1152 2033 23 1152 2033 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1167 2033 9 1167 2046 9 1167 2046 23 1167 2033 23 1167 2033 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1167 2046 9 1152 2046 9 1152 2046 23 1167 2046 23 1167 2046 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1152 2046 9 1152 2033 9 1152 2033 23 1152 2046 23 1152 2046 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_12">
+      <bldg:measuredHeight uom="m">14</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1001 2061 3</gml:pos><gml:pos srsDimension="3">1001 2078 3</gml:pos><gml:pos srsDimension="3">1010 2078 3</gml:pos><gml:pos srsDimension="3">1010 2061 3</gml:pos><gml:pos srsDimension="3">1001 2061 3</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1001 2061 17</gml:pos><gml:pos srsDimension="3">1010 2061 17</gml:pos><gml:pos srsDimension="3">1010 2078 17</gml:pos><gml:pos srsDimension="3">1001 2078 17</gml:pos><gml:pos srsDimension="3">1001 2061 17</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1001 2061 3</gml:pos><gml:pos srsDimension="3">1010 2061 3</gml:pos><gml:pos srsDimension="3">1010 2061 17</gml:pos><gml:pos srsDimension="3">1001 2061 17</gml:pos><gml:pos srsDimension="3">1001 2061 3</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1010 2061 3</gml:pos><gml:pos srsDimension="3">1010 2078 3</gml:pos><gml:pos srsDimension="3">1010 2078 17</gml:pos><gml:pos srsDimension="3">1010 2061 17</gml:pos><gml:pos srsDimension="3">1010 2061 3</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1010 2078 3</gml:pos><gml:pos srsDimension="3">1001 2078 3</gml:pos><gml:pos srsDimension="3">1001 2078 17</gml:pos><gml:pos srsDimension="3">1010 2078 17</gml:pos><gml:pos srsDimension="3">1010 2078 3</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1001 2078 3</gml:pos><gml:pos srsDimension="3">1001 2061 3</gml:pos><gml:pos srsDimension="3">1001 2061 17</gml:pos><gml:pos srsDimension="3">1001 2078 17</gml:pos><gml:pos srsDimension="3">1001 2078 3</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_13">
+      <bldg:measuredHeight uom="m">14</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1034 2063 5 1034 2078 5 1053 2078 5 1053 2063 5 1034 2063 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1034 2063 19 1053 2063 19 1053 2078 19 1034 2078 19 1034 2063 19</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1034 2063 5 1053 2063 5 1053 2063 19 1034 2063 19 1034 2063 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1053 2063 5 1053 2078 5 1053 2078 19 1053 2063 19 1053 2063 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1053 2078 5 1034 2078 5 1034 2078 19 1053 2078 19 1053 2078 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1034 2078 5 1034 2063 5 1034 2063 19 1034 2078 19 1034 2078 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_14">
+      <bldg:measuredHeight uom="m">10</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1064 2060 1</gml:pos><gml:pos srsDimension="3">1064 2074 1</gml:pos><gml:pos srsDimension="3">1080 2074 1</gml:pos><gml:pos srsDimension="3">1080 2060 1</gml:pos><gml:pos srsDimension="3">1064 2060 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1064 2060 11</gml:pos><gml:pos srsDimension="3">1080 2060 11</gml:pos><gml:pos srsDimension="3">1080 2074 11</gml:pos><gml:pos srsDimension="3">1064 2074 11</gml:pos><gml:pos srsDimension="3">1064 2060 11</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1064 2060 1</gml:pos><gml:pos srsDimension="3">1080 2060 1</gml:pos><gml:pos srsDimension="3">1080 2060 11</gml:pos><gml:pos srsDimension="3">1064 2060 11</gml:pos><gml:pos srsDimension="3">1064 2060 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1080 2060 1</gml:pos><gml:pos srsDimension="3">1080 2074 1</gml:pos><gml:pos srsDimension="3">1080 2074 11</gml:pos><gml:pos srsDimension="3">1080 2060 11</gml:pos><gml:pos srsDimension="3">1080 2060 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1080 2074 1</gml:pos><gml:pos srsDimension="3">1064 2074 1</gml:pos><gml:pos srsDimension="3">1064 2074 11</gml:pos><gml:pos srsDimension="3">1080 2074 11</gml:pos><gml:pos srsDimension="3">1080 2074 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1064 2074 1</gml:pos><gml:pos srsDimension="3">1064 2060 1</gml:pos><gml:pos srsDimension="3">1064 2060 11</gml:pos><gml:pos srsDimension="3">1064 2074 11</gml:pos><gml:pos srsDimension="3">1064 2074 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_15">
+      <bldg:measuredHeight uom="m">26</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1092 2061 7 1092 2069 7 1106 2069 7 1106 2061 7 1092 2061 7</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1092 2061 33 1106 2061 33 1106 2069 33 1092 2069 33 1092 2061 33</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1092 2061 7 1106 2061 7 1106 2061 33 1092 2061 33 1092 2061 7</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1106 2061 7 1106 2069 7 1106 2069 33 1106 2061 33 1106 2061 7</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1106 2069 7 1092 2069 7 1092 2069 33 1106 2069 33 1106 2069 7</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1092 2069 7 1092 2061 7 1092 2061 33 1092 2069 33 1092 2069 7</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_16">
+      <bldg:measuredHeight uom="m">15</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1120 2064 9</gml:pos><gml:pos srsDimension="3">1120 2077 9</gml:pos><gml:pos srsDimension="3">1140 2077 9</gml:pos><gml:pos srsDimension="3">1140 2064 9</gml:pos><gml:pos srsDimension="3">1120 2064 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1120 2064 24</gml:pos><gml:pos srsDimension="3">1140 2064 24</gml:pos><gml:pos srsDimension="3">1140 2077 24</gml:pos><gml:pos srsDimension="3">1120 2077 24</gml:pos><gml:pos srsDimension="3">1120 2064 24</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1120 2064 9</gml:pos><gml:pos srsDimension="3">1140 2064 9</gml:pos><gml:pos srsDimension="3">1140 2064 24</gml:pos><gml:pos srsDimension="3">1120 2064 24</gml:pos><gml:pos srsDimension="3">1120 2064 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1140 2064 9</gml:pos><gml:pos srsDimension="3">1140 2077 9</gml:pos><gml:pos srsDimension="3">1140 2077 24</gml:pos><gml:pos srsDimension="3">1140 2064 24</gml:pos><gml:pos srsDimension="3">1140 2064 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1140 2077 9</gml:pos><gml:pos srsDimension="3">1120 2077 9</gml:pos><gml:pos srsDimension="3">1120 2077 24</gml:pos><gml:pos srsDimension="3">1140 2077 24</gml:pos><gml:pos srsDimension="3">1140 2077 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1120 2077 9</gml:pos><gml:pos srsDimension="3">1120 2064 9</gml:pos><gml:pos srsDimension="3">1120 2064 24</gml:pos><gml:pos srsDimension="3">1120 2077 24</gml:pos><gml:pos srsDimension="3">1120 2077 9</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_17">
+      <bldg:measuredHeight uom="m">30</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1155 2062 9 1155 2079 9 1170 2079 9 1170 2062 9 1155 2062 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1155 2062 39 1170 2062 39 1170 2079 39 1155 2079 39 1155 2062 39</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1155 2062 9 1170 2062 9 1170 2062 39 1155 2062 39 1155 2062 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1170 2062 9 1170 2079 9 1170 2079 39 1170 2062 39 1170 2062 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1170 2079 9 1155 2079 9 1155 2079 39 1170 2079 39 1170 2079 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1155 2079 9 1155 2062 9 1155 2062 39 1155 2079 39 1155 2079 9</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_18">
+      <bldg:measuredHeight uom="m">27</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1003 2090 1</gml:pos><gml:pos srsDimension="3">1003 2105 1</gml:pos><gml:pos srsDimension="3">1015 2105 1</gml:pos><gml:pos srsDimension="3">1015 2090 1</gml:pos><gml:pos srsDimension="3">1003 2090 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1003 2090 28</gml:pos><gml:pos srsDimension="3">1015 2090 28</gml:pos><gml:pos srsDimension="3">1015 2105 28</gml:pos><gml:pos srsDimension="3">1003 2105 28</gml:pos><gml:pos srsDimension="3">1003 2090 28</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1003 2090 1</gml:pos><gml:pos srsDimension="3">1015 2090 1</gml:pos><gml:pos srsDimension="3">1015 2090 28</gml:pos><gml:pos srsDimension="3">1003 2090 28</gml:pos><gml:pos srsDimension="3">1003 2090 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1015 2090 1</gml:pos><gml:pos srsDimension="3">1015 2105 1</gml:pos><gml:pos srsDimension="3">1015 2105 28</gml:pos><gml:pos srsDimension="3">1015 2090 28</gml:pos><gml:pos srsDimension="3">1015 2090 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1015 2105 1</gml:pos><gml:pos srsDimension="3">1003 2105 1</gml:pos><gml:pos srsDimension="3">1003 2105 28</gml:pos><gml:pos srsDimension="3">1015 2105 28</gml:pos><gml:pos srsDimension="3">1015 2105 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1003 2105 1</gml:pos><gml:pos srsDimension="3">1003 2090 1</gml:pos><gml:pos srsDimension="3">1003 2090 28</gml:pos><gml:pos srsDimension="3">1003 2105 28</gml:pos><gml:pos srsDimension="3">1003 2105 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_19">
+      <bldg:measuredHeight uom="m">14</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1035 2090 0 1035 2109 0 1054 2109 0 1054 2090 0 1035 2090 0</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1035 2090 14 1054 2090 14 1054 2109 14 1035 2109 14 1035 2090 14</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1035 2090 0 1054 2090 0 1054 2090 14 1035 2090 14 1035 2090 0</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1054 2090 0 1054 2109 0 1054 2109 14 1054 2090 14 1054 2090 0</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1054 2109 0 1035 2109 0 1035 2109 14 1054 2109 14 1054 2109 0</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1035 2109 0 1035 2090 0 1035 2090 14 1035 2109 14 1035 2109 0</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_20">
+      <bldg:measuredHeight uom="m">27</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1065 2094 10</gml:pos><gml:pos srsDimension="3">1065 2106 10</gml:pos><gml:pos srsDimension="3">1080 2106 10</gml:pos><gml:pos srsDimension="3">1080 2094 10</gml:pos><gml:pos srsDimension="3">1065 2094 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1065 2094 37</gml:pos><gml:pos srsDimension="3">1080 2094 37</gml:pos><gml:pos srsDimension="3">1080 2106 37</gml:pos><gml:pos srsDimension="3">1065 2106 37</gml:pos><gml:pos srsDimension="3">1065 2094 37</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1065 2094 10</gml:pos><gml:pos srsDimension="3">1080 2094 10</gml:pos><gml:pos srsDimension="3">1080 2094 37</gml:pos><gml:pos srsDimension="3">1065 2094 37</gml:pos><gml:pos srsDimension="3">1065 2094 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1080 2094 10</gml:pos><gml:pos srsDimension="3">1080 2106 10</gml:pos><gml:pos srsDimension="3">1080 2106 37</gml:pos><gml:pos srsDimension="3">1080 2094 37</gml:pos><gml:pos srsDimension="3">1080 2094 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1080 2106 10</gml:pos><gml:pos srsDimension="3">1065 2106 10</gml:pos><gml:pos srsDimension="3">1065 2106 37</gml:pos><gml:pos srsDimension="3">1080 2106 37</gml:pos><gml:pos srsDimension="3">1080 2106 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1065 2106 10</gml:pos><gml:pos srsDimension="3">1065 2094 10</gml:pos><gml:pos srsDimension="3">1065 2094 37</gml:pos><gml:pos srsDimension="3">1065 2106 37</gml:pos><gml:pos srsDimension="3">1065 2106 10</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_21">
+      <bldg:measuredHeight uom="m">16</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1093 2095 5 1093 2110 5 1101 2110 5 1101 2095 5 1093 2095 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1093 2095 21 1101 2095 21 1101 2110 21 1093 2110 21 1093 2095 21</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1093 2095 5 1101 2095 5 1101 2095 21 1093 2095 21 1093 2095 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1101 2095 5 1101 2110 5 1101 2110 21 1101 2095 21 1101 2095 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1101 2110 5 1093 2110 5 1093 2110 21 1101 2110 21 1101 2110 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1093 2110 5 1093 2095 5 1093 2095 21 1093 2110 21 1093 2110 5</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_22">
+      <bldg:measuredHeight uom="m">11</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1121 2094 1</gml:pos><gml:pos srsDimension="3">1121 2102 1</gml:pos><gml:pos srsDimension="3">1136 2102 1</gml:pos><gml:pos srsDimension="3">1136 2094 1</gml:pos><gml:pos srsDimension="3">1121 2094 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1121 2094 12</gml:pos><gml:pos srsDimension="3">1136 2094 12</gml:pos><gml:pos srsDimension="3">1136 2102 12</gml:pos><gml:pos srsDimension="3">1121 2102 12</gml:pos><gml:pos srsDimension="3">1121 2094 12</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1121 2094 1</gml:pos><gml:pos srsDimension="3">1136 2094 1</gml:pos><gml:pos srsDimension="3">1136 2094 12</gml:pos><gml:pos srsDimension="3">1121 2094 12</gml:pos><gml:pos srsDimension="3">1121 2094 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1136 2094 1</gml:pos><gml:pos srsDimension="3">1136 2102 1</gml:pos><gml:pos srsDimension="3">1136 2102 12</gml:pos><gml:pos srsDimension="3">1136 2094 12</gml:pos><gml:pos srsDimension="3">1136 2094 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1136 2102 1</gml:pos><gml:pos srsDimension="3">1121 2102 1</gml:pos><gml:pos srsDimension="3">1121 2102 12</gml:pos><gml:pos srsDimension="3">1136 2102 12</gml:pos><gml:pos srsDimension="3">1136 2102 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:pos srsDimension="3">1121 2102 1</gml:pos><gml:pos srsDimension="3">1121 2094 1</gml:pos><gml:pos srsDimension="3">1121 2094 12</gml:pos><gml:pos srsDimension="3">1121 2102 12</gml:pos><gml:pos srsDimension="3">1121 2102 1</gml:pos></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+  <core:cityObjectMember>
+    <bldg:Building gml:id="BAT_23">
+      <bldg:measuredHeight uom="m">20</bldg:measuredHeight>
+      <bldg:lod1Solid>
+        <gml:Solid>
+          <gml:exterior>
+            <gml:CompositeSurface>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1152 2091 3 1152 2105 3 1166 2105 3 1166 2091 3 1152 2091 3</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1152 2091 23 1166 2091 23 1166 2105 23 1152 2105 23 1152 2091 23</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1152 2091 3 1166 2091 3 1166 2091 23 1152 2091 23 1152 2091 3</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1166 2091 3 1166 2105 3 1166 2105 23 1166 2091 23 1166 2091 3</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1166 2105 3 1152 2105 3 1152 2105 23 1166 2105 23 1166 2105 3</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+              <gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension="3">1152 2105 3 1152 2091 3 1152 2091 23 1152 2105 23 1152 2105 3</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember>
+            </gml:CompositeSurface>
+          </gml:exterior>
+        </gml:Solid>
+      </bldg:lod1Solid>
+    </bldg:Building>
+  </core:cityObjectMember>
+</core:CityModel>
@@ -0,0 +1,319 @@
+package fr.ign.cogit.geoxygene.sig3d.calculation;
+
+import java.util.List;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableSurface;
+
+/**
+ *
+ *        This software is released under the licence CeCILL
+ *
+ *        see LICENSE.TXT
+ *
+ *        see <http://www.cecill.info/ http://www.cecill.info/
+ *
+ *
+ *
+ * @copyright IGN
+ *
+ * @version 0.1
+ *
+ *
+ * Arbre kd sur une liste de points ou sur les sommets d'une liste de faces.
+ * L'arbre est construit une fois et sert à toutes les requêtes de plus proche
+ * voisin de {@link Proximity}. La distance est celle de
+ * {@link IDirectPosition#distance(IDirectPosition)} : 3D si les deux points ont
+ * un Z, 2D sinon. En cas d'égalité, le point de plus petit rang est renvoyé,
+ * comme dans le parcours exhaustif.
+ *
+ * kd-tree on positions or on the vertices of surfaces, for repeated nearest
+ * neighbour queries
+ *
+ */
+public class PositionKdTree {
+
+	/** Nombre maximal de points dans une feuille */
+	private static final int LEAF_SIZE = 8;
+
+	private final IDirectPosition[] positions;
+	private final IOrientableSurface[] surfaces;
+	private final int[] surfaceIndex;
+
+	// Coordonnées rangées dans l'ordre de l'arbre
+	private final double[] xs, ys, zs;
+	// Rang d'origine de chaque point de l'arbre
+	private final int[] ids;
+	// Axe de coupe de chaque noeud (rangé à la position de la médiane)
+	private final byte[] axis;
+
+	/**
+	 * Index sur une liste de points
+	 *
+	 * @param lP
+	 */
+	public PositionKdTree(IDirectPositionList lP) {
+		int n = lP.size();
+		this.positions = new IDirectPosition[n];
+		for (int i = 0; i < n; i++) {
+			this.positions[i] = lP.get(i);
+		}
+		this.surfaces = null;
+		this.surfaceIndex = null;
+		this.xs = new double[n];
+		this.ys = new double[n];
+		this.zs = new double[n];
+		this.ids = new int[n];
+		this.axis = new byte[n];
+		this.init();
+	}
+
+	/**
+	 * Index sur les sommets d'une liste de faces
+	 *
+	 * @param lF
+	 */
+	public PositionKdTree(List<? extends IOrientableSurface> lF) {
+		int n = 0;
+		IDirectPositionList[] coords = new IDirectPositionList[lF.size()];
+		for (int i = 0; i < coords.length; i++) {
+			coords[i] = lF.get(i).coord();
+			n = n + coords[i].size();
+		}
+		this.positions = new IDirectPosition[n];
+		this.surfaces = new IOrientableSurface[lF.size()];
+		this.surfaceIndex = new int[n];
+		int k = 0;
+		for (int i = 0; i < coords.length; i++) {
+			this.surfaces[i] = lF.get(i);
+			for (int j = 0; j < coords[i].size(); j++) {
+				this.positions[k] = coords[i].get(j);
+				this.surfaceIndex[k] = i;
+				k++;
+			}
+		}
+		this.xs = new double[n];
+		this.ys = new double[n];
+		this.zs = new double[n];
+		this.ids = new int[n];
+		this.axis = new byte[n];
+		this.init();
+	}
+
+	private void init() {
+		boolean allZ = true;
+		for (int i = 0; i < this.positions.length; i++) {
+			IDirectPosition dp = this.positions[i];
+			this.xs[i] = dp.getX();
+			this.ys[i] = dp.getY();
+			this.zs[i] = dp.getZ();
+			this.ids[i] = i;
+			allZ = allZ && hasZ(this.zs[i]);
+		}
+		// La coupe selon Z n'est possible que si tous les points ont un Z
+		this.build(0, this.positions.length, allZ);
+	}
+
+	private static boolean hasZ(double z) {
+		return !Double.isNaN(z) && !Double.isInfinite(z);
+	}
+
+	/**
+	 * @return le nombre de points indexés
+	 */
+	public int size() {
+		return this.positions.length;
+	}
+
+	/**
+	 * @param id
+	 *            rang d'un point
+	 * @return le point
+	 */
+	public IDirectPosition getPosition(int id) {
+		return this.positions[id];
+	}
+
+	/**
+	 * @param id
+	 *            rang d'un point
+	 * @return la face contenant le point, null si l'index porte sur une liste
+	 *         de points
+	 */
+	public IOrientableSurface getSurface(int id) {
+		return (this.surfaces == null) ? null : this.surfaces[this.surfaceIndex[id]];
+	}
+
+	/**
+	 * @param id
+	 *            rang d'un point
+	 * @return le rang de la face contenant le point, -1 si l'index porte sur
+	 *         une liste de points
+	 */
+	public int getSurfaceIndex(int id) {
+		return (this.surfaces == null) ? -1 : this.surfaceIndex[id];
+	}
+
+	private void build(int lo, int hi, boolean allZ) {
+		if (hi - lo <= PositionKdTree.LEAF_SIZE) {
+			return;
+		}
+		// Axe de plus grande étendue
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = minX, maxY = maxX, minZ = minX, maxZ = maxX;
+		for (int i = lo; i < hi; i++) {
+			minX = Math.min(minX, this.xs[i]);
+			maxX = Math.max(maxX, this.xs[i]);
+			minY = Math.min(minY, this.ys[i]);
+			maxY = Math.max(maxY, this.ys[i]);
+			minZ = Math.min(minZ, this.zs[i]);
+			maxZ = Math.max(maxZ, this.zs[i]);
+		}
+		byte a = (maxX - minX >= maxY - minY) ? (byte) 0 : (byte) 1;
+		if (allZ && maxZ - minZ > Math.max(maxX - minX, maxY - minY)) {
+			a = 2;
+		}
+		int mid = (lo + hi) >>> 1;
+		this.select(lo, hi - 1, mid, a);
+		this.axis[mid] = a;
+		this.build(lo, mid, allZ);
+		this.build(mid + 1, hi, allZ);
+	}
+
+	private double coord(int i, byte a) {
+		return (a == 0) ? this.xs[i] : ((a == 1) ? this.ys[i] : this.zs[i]);
+	}
+
+	/** Sélection rapide : place en k l'élément de rang k selon l'axe a */
+	private void select(int lo, int hi, int k, byte a) {
+		while (hi > lo) {
+			double pivot = this.coord((lo + hi) >>> 1, a);
+			int i = lo, j = hi;
+			while (i <= j) {
+				while (this.coord(i, a) < pivot) {
+					i++;
+				}
+				while (this.coord(j, a) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					this.swap(i, j);
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void swap(int i, int j) {
+		double t = this.xs[i];
+		this.xs[i] = this.xs[j];
+		this.xs[j] = t;
+		t = this.ys[i];
+		this.ys[i] = this.ys[j];
+		this.ys[j] = t;
+		t = this.zs[i];
+		this.zs[i] = this.zs[j];
+		this.zs[j] = t;
+		int id = this.ids[i];
+		this.ids[i] = this.ids[j];
+		this.ids[j] = id;
+	}
+
+	/**
+	 * Recherche du point le plus proche
+	 *
+	 * @param dp
+	 *            point de requête
+	 * @return le rang du point le plus proche, -1 si l'index est vide
+	 */
+	public int nearest(IDirectPosition dp) {
+		if (this.positions.length == 0) {
+			return -1;
+		}
+		Search s = new Search(dp);
+		this.search(0, this.positions.length, s);
+		return s.id;
+	}
+
+	/**
+	 * Distance entre un point et un point de l'index, calculée comme
+	 * {@link IDirectPosition#distance(IDirectPosition)}
+	 */
+	public double distance(IDirectPosition dp, int id) {
+		return this.positions[id].distance(dp);
+	}
+
+	private void search(int lo, int hi, Search s) {
+		if (hi - lo <= PositionKdTree.LEAF_SIZE) {
+			for (int i = lo; i < hi; i++) {
+				s.offer(this.xs[i], this.ys[i], this.zs[i], this.ids[i]);
+			}
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		byte a = this.axis[mid];
+		double diff;
+		if (a == 0) {
+			diff = s.x - this.xs[mid];
+		} else if (a == 1) {
+			diff = s.y - this.ys[mid];
+		} else {
+			// Sans Z la distance est 2D : la coupe selon Z n'élimine rien
+			diff = s.hasZ ? s.z - this.zs[mid] : 0;
+		}
+		s.offer(this.xs[mid], this.ys[mid], this.zs[mid], this.ids[mid]);
+		if (diff < 0) {
+			this.search(lo, mid, s);
+			if (-diff <= s.distance) {
+				this.search(mid + 1, hi, s);
+			}
+		} else {
+			this.search(mid + 1, hi, s);
+			if (diff <= s.distance) {
+				this.search(lo, mid, s);
+			}
+		}
+	}
+
+	/**
+	 * État d'une recherche
+	 */
+	private static class Search {
+		final double x, y, z;
+		final boolean hasZ;
+		double distance = Double.POSITIVE_INFINITY;
+		int id = -1;
+
+		Search(IDirectPosition dp) {
+			this.x = dp.getX();
+			this.y = dp.getY();
+			this.z = dp.getZ();
+			this.hasZ = PositionKdTree.hasZ(this.z);
+		}
+
+		void offer(double px, double py, double pz, int pid) {
+			double dx = px - this.x;
+			double dy = py - this.y;
+			double d;
+			if (this.hasZ && PositionKdTree.hasZ(pz)) {
+				double dz = pz - this.z;
+				d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+			} else {
+				d = Math.sqrt(dx * dx + dy * dy);
+			}
+			if (d < this.distance || (d == this.distance && pid < this.id)) {
+				this.distance = d;
+				this.id = pid;
+			}
+		}
+	}
+}
@@ -40,6 +40,12 @@ public class Proximity {
 	public double distance;
 	public IOrientableSurface containingFace;
 
+	/**
+	 * Taille des deux listes à partir de laquelle les calculs entre deux
+	 * listes passent par un {@link PositionKdTree}
+	 */
+	private static final int MIN_SIZE_FOR_INDEX = 32;
+
 	/**
 	 * Initialise le calcul
 	 */
@@ -135,6 +141,11 @@ public class Proximity {
 			return;
 		}
 
+		if (lP1.size() >= Proximity.MIN_SIZE_FOR_INDEX && nb >= Proximity.MIN_SIZE_FOR_INDEX) {
+			this.nearest(lP1, new PositionKdTree(lF));
+			return;
+		}
+
 		IOrientableSurface faceTemp = lF.get(0);
 
 		this.nearest(lP1, faceTemp.coord());
@@ -151,7 +162,7 @@ public class Proximity {
 				pTemp1 = this.nearest;
 				pTemp2 = this.nearest2;
 				dTemp = this.distance;
-				faceTemp = this.containingFace;
+				faceTemp = lF.get(i);
 
 			}
 
@@ -180,6 +191,11 @@ public class Proximity {
 
 		}
 
+		if (nb >= Proximity.MIN_SIZE_FOR_INDEX && nb2 >= Proximity.MIN_SIZE_FOR_INDEX) {
+			this.nearest(lP1, new PositionKdTree(lP2));
+			return;
+		}
+
 		this.distance = Double.POSITIVE_INFINITY;
 
 		for (int i = 0; i < nb; i++) {
@@ -245,4 +261,82 @@ public class Proximity {
 
 	}
 
+	/**
+	 * Renvoie le point de l'index le plus proche d'un point. L'index peut être
+	 * réutilisé pour plusieurs requêtes. Si l'index porte sur des faces, la face
+	 * contenant ce point est renseignée.
+	 * 
+	 * @param dp
+	 * @param index
+	 */
+	public IDirectPosition nearest(IDirectPosition dp, PositionKdTree index) {
+
+		int id = index.nearest(dp);
+
+		if (id == -1) {
+
+			this.nearest = null;
+			this.distance = Double.NaN;
+			this.containingFace = null;
+			return null;
+
+		}
+
+		this.nearest = index.getPosition(id);
+		this.distance = index.distance(dp, id);
+		this.containingFace = index.getSurface(id);
+
+		return this.nearest;
+
+	}
+
+	/**
+	 * Renvoie le point de la liste lP1 le plus proche des points de l'index
+	 * (nearest) et ce point de l'index (nearest2). Si l'index porte sur des
+	 * faces, la face contenant ce point est renseignée. Le résultat est celui
+	 * des calculs exhaustifs, y compris en cas d'égalité.
+	 * 
+	 * @param lP1
+	 * @param index
+	 */
+	public void nearest(IDirectPositionList lP1, PositionKdTree index) {
+
+		int nb = lP1.size();
+
+		if ((nb == 0) || (index.size() == 0)) {
+
+			this.nearest = null;
+			this.nearest2 = null;
+			this.distance = Double.NaN;
+			this.containingFace = null;
+			return;
+
+		}
+
+		int idTemp = -1;
+		IDirectPosition pTemp1 = null;
+		double dTemp = Double.POSITIVE_INFINITY;
+
+		for (int i = 0; i < nb; i++) {
+
+			IDirectPosition dp1 = lP1.get(i);
+			int id = index.nearest(dp1);
+			double d = index.distance(dp1, id);
+
+			// Les calculs exhaustifs sur des faces parcourent d'abord les faces
+			if (idTemp == -1 || d < dTemp || (d == dTemp && index.getSurfaceIndex(id) < index.getSurfaceIndex(idTemp))) {
+				dTemp = d;
+				idTemp = id;
+				pTemp1 = dp1;
+			}
+
+		}
+
+		this.nearest = pTemp1;
+		this.nearest2 = index.getPosition(idTemp);
+		this.distance = dTemp;
+		this.containingFace = index.getSurface(idTemp);
+
+	}
+
 }
@@ -6,6 +6,8 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
 import org.apache.commons.math3.util.Pair;
 import org.geotools.referencing.CRS;
 
@@ -134,6 +136,20 @@ public class FlagParcelDecomposition {
 	}
 
 	private double maximalArea, maximalWidth, roadWidth;
+
+	// Random generator used to move the splitting lines
+	private RandomGenerator rng = new MersenneTwister();
+
+	/**
+	 * Set the random generator used by the decomposition (a seeded generator
+	 * makes the result reproducible)
+	 * 
+	 * @param rng
+	 *            : the random generator
+	 */
+	public void setRandomGenerator(RandomGenerator rng) {
+		this.rng = rng;
+	}
 	IPolygon polygonInit;
 	IFeatureCollection<IFeature> buildings;
 
@@ -228,7 +244,7 @@ public class FlagParcelDecomposition {
 		}
 
 		// Determination of splitting polygon (it is a splitting line in the article)
-		List<IPolygon> splittingPolygon = computeSplittingPolygon(p, true, noise);
+		List<IPolygon> splittingPolygon = computeSplittingPolygon(p, true, noise, this.rng);
 
 		// Split into polygon
 		List<IPolygon> splittedPolygon = split(p, splittingPolygon);
@@ -512,6 +528,22 @@ public class FlagParcelDecomposition {
 	 * @throws Exception
 	 */
 	public static List<IPolygon> computeSplittingPolygon(IGeometry pol, boolean shortDirectionSplit, double noise) throws Exception {
+		return computeSplittingPolygon(pol, shortDirectionSplit, noise, new MersenneTwister());
+	}
+
+	/**
+	 * Computed the splitting polygons composed by two boxes determined from the oriented bounding boxes splited from a line at its middle
+	 * 
+	 * @param pol
+	 *            : the input polygon
+	 * @param shortDirectionSplit
+	 *            : it is splitted by the short edges or by the long edge.
+	 * @param rng
+	 *            : the random generator used to move the splitting line
+	 * @return
+	 * @throws Exception
+	 */
+	public static List<IPolygon> computeSplittingPolygon(IGeometry pol, boolean shortDirectionSplit, double noise, RandomGenerator rng) throws Exception {
 
 		// Determination of the bounding box
 		OrientedBoundingBox oBB = new OrientedBoundingBox(pol);
@@ -526,8 +558,8 @@ public class FlagParcelDecomposition {
 		double noiseTemp = Math.min(oBB.getWidth() / 3, noise);
 
 		// X and Y move of the centroid
-		double alphaX = (0.5 - Math.random()) * noiseTemp;
-		double alphaY = (0.5 - Math.random()) * noiseTemp;
+		double alphaX = (0.5 - rng.nextDouble()) * noiseTemp;
+		double alphaY = (0.5 - rng.nextDouble()) * noiseTemp;
 		IDirectPosition translateCentroid = new DirectPosition(centroid.getX() + alphaX, centroid.getY() + alphaY);
 
 		// Determine the points that intersect the line and the OBB according to
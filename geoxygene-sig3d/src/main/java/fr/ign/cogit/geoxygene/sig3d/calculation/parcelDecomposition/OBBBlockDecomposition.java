@@ -3,6 +3,8 @@ package fr.ign.cogit.geoxygene.sig3d.calculation.parcelDecomposition;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
@@ -221,6 +223,20 @@ public class OBBBlockDecomposition {
 
 	private boolean forceRoadAccess;
 
+	// Random generator used for noise and for the perpendicular cuts
+	private RandomGenerator rng = new MersenneTwister();
+
+	/**
+	 * Set the random generator used by the decomposition (a seeded generator
+	 * makes the result reproducible)
+	 * 
+	 * @param rng
+	 *            : the random generator
+	 */
+	public void setRandomGenerator(RandomGenerator rng) {
+		this.rng = rng;
+	}
+
 	/**
 	 * The decomposition method
 	 * 
@@ -297,7 +313,7 @@ public class OBBBlockDecomposition {
 		// Probability to make a perpendicular split if no road access or a little
 		// probabibility epsilon
 
-		if ((forceRoadAccess && ((!hasRoadAccess(splittedPolygon.get(0)) || !hasRoadAccess(splittedPolygon.get(1))))) || (Math.random() < epsilon)) {
+		if ((forceRoadAccess && ((!hasRoadAccess(splittedPolygon.get(0)) || !hasRoadAccess(splittedPolygon.get(1))))) || (this.rng.nextDouble() < epsilon)) {
 
 			// Same steps but with different splitting geometries
 			splittingPolygon = this.computeSplittingPolygon(p, false, noise, decompositionLevel, decompositionLevelWithRoad, this.roadWidth);
@@ -364,7 +380,7 @@ public class OBBBlockDecomposition {
 		// Probability to make a perpendicular split if no road access or a little
 		// probabibility epsilon
 
-		if ((forceRoadAccess && ((!hasRoadAccess(splittedPolygon.get(0)) || !hasRoadAccess(splittedPolygon.get(1))))) || (Math.random() < epsilon)) {
+		if ((forceRoadAccess && ((!hasRoadAccess(splittedPolygon.get(0)) || !hasRoadAccess(splittedPolygon.get(1))))) || (this.rng.nextDouble() < epsilon)) {
 
 			// Same steps but with different splitting geometries
 			splittingPolygon = computeSplittingPolygon(p, false, noise, decompositionLevel, decompositionLevelWithRoad, this.roadWidth);
@@ -455,8 +471,8 @@ public class OBBBlockDecomposition {
 		double noiseTemp = Math.min(oBB.getWidth() / 3, noise);
 
 		// X and Y move of the centroid
-		double alphaX = (0.5 - Math.random()) * noiseTemp;
-		double alphaY = (0.5 - Math.random()) * noiseTemp;
+		double alphaX = (0.5 - this.rng.nextDouble()) * noiseTemp;
+		double alphaY = (0.5 - this.rng.nextDouble()) * noiseTemp;
 		IDirectPosition translateCentroid = new DirectPosition(centroid.getX() + alphaX, centroid.getY() + alphaY);
 
 		// Determine the points that intersect the line and the OBB according to
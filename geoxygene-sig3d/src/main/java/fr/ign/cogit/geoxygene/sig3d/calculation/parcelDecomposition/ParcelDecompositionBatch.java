@@ -0,0 +1,303 @@
+package fr.ign.cogit.geoxygene.sig3d.calculation.parcelDecomposition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.log4j.Logger;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiCurve;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableCurve;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableSurface;
+import fr.ign.cogit.geoxygene.convert.FromGeomToLineString;
+import fr.ign.cogit.geoxygene.convert.FromGeomToSurface;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_MultiCurve;
+import fr.ign.cogit.geoxygene.util.index.Tiling;
+import fr.ign.cogit.geoxygene.util.math.SeedUtil;
+
+/**
+ * Decomposition of a whole set of parcels (or urban blocks) with one of the
+ * decomposition methods of this package.
+ *
+ * The parcels are independent, so they are decomposed concurrently. The
+ * collections used during the decomposition (buildings, roads, urban blocks)
+ * are indexed once before the run and shared by all the parcels. Each parcel
+ * gets its own random generator, seeded from the batch seed and the parcel
+ * rank : the result only depends on the seed, not on the number of threads.
+ *
+ * @author GeOxygene
+ *
+ */
+public class ParcelDecompositionBatch {
+
+	private static Logger logger = Logger.getLogger(ParcelDecompositionBatch.class);
+
+	/**
+	 * The decomposition applied to each parcel
+	 */
+	public static interface Decomposition {
+
+		/**
+		 * @param parcel
+		 *            : the polygon to decompose
+		 * @param rng
+		 *            : the random generator dedicated to this parcel
+		 * @return the decomposed parcels
+		 * @throws Exception
+		 */
+		public IFeatureCollection<IFeature> decompose(IPolygon parcel, RandomGenerator rng) throws Exception;
+	}
+
+	private Decomposition decomposition;
+	private long seed;
+	private int nbThreads;
+
+	/**
+	 * @param decomposition
+	 *            : the decomposition applied to each parcel
+	 * @param seed
+	 *            : the seed from which the random generator of each parcel is
+	 *            derived
+	 * @param nbThreads
+	 *            : number of threads (the number of available processors if
+	 *            lower than 1)
+	 */
+	public ParcelDecompositionBatch(Decomposition decomposition, long seed, int nbThreads) {
+		this.decomposition = decomposition;
+		this.seed = seed;
+		this.nbThreads = (nbThreads < 1) ? Runtime.getRuntime().availableProcessors() : nbThreads;
+	}
+
+	/**
+	 * Decompose all the parcels. The result contains the decompositions in the
+	 * order of the input parcels. A parcel that is not a simple polygon or whose
+	 * decomposition fails is kept as it is.
+	 *
+	 * @param parcels
+	 *            : the parcels to decompose
+	 * @return the decomposed parcels
+	 * @throws InterruptedException
+	 */
+	public IFeatureCollection<IFeature> decompose(IFeatureCollection<IFeature> parcels) throws InterruptedException {
+
+		IFeatureCollection<IFeature> featCollOut = new FT_FeatureCollection<>();
+		int count = parcels.size();
+		if (count == 0) {
+			return featCollOut;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.nbThreads, count));
+		try {
+			List<Future<List<IFeature>>> futures = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				final IFeature feat = parcels.get(i);
+				final RandomGenerator rng = randomGenerator(this.seed, i);
+				futures.add(executor.submit(new Callable<List<IFeature>>() {
+					@Override
+					public List<IFeature> call() {
+						return decompose(feat, rng);
+					}
+				}));
+			}
+
+			for (Future<List<IFeature>> future : futures) {
+				try {
+					featCollOut.addAll(future.get());
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return featCollOut;
+	}
+
+	private List<IFeature> decompose(IFeature feat, RandomGenerator rng) {
+
+		List<IFeature> result = new ArrayList<>();
+		List<IOrientableSurface> surfaces = FromGeomToSurface.convertGeom(feat.getGeom());
+
+		if (surfaces.size() != 1) {
+			logger.warn("Not simple geometry : " + feat.toString());
+			result.add(feat);
+			return result;
+		}
+
+		try {
+			result.addAll(this.decomposition.decompose((IPolygon) surfaces.get(0), rng).getElements());
+		} catch (Exception e) {
+			logger.error("Decomposition failed for " + feat.toString() + " : " + e.getMessage());
+			result.clear();
+			result.add(feat);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Random generator of the parcel of a given rank
+	 *
+	 * @param seed
+	 *            : the batch seed
+	 * @param rank
+	 *            : the rank of the parcel
+	 * @return a generator that only depends on the seed and the rank
+	 */
+	public static RandomGenerator randomGenerator(long seed, int rank) {
+		return new MersenneTwister(SeedUtil.derive(seed, rank));
+	}
+
+	/**
+	 * Build the shared spatial index of a collection before a concurrent run
+	 * (the decomposition methods would otherwise build it lazily from several
+	 * threads)
+	 *
+	 * @param features
+	 *            : the collection, may be null
+	 */
+	public static void prepareIndex(IFeatureCollection<IFeature> features) {
+		if (features != null && !features.hasSpatialIndex()) {
+			features.initSpatialIndex(Tiling.class, false);
+		}
+	}
+
+	/**
+	 * Exterior of the urban blocks around a parcel, selected with the shared
+	 * index. A new curve is built for each parcel as the decompositions may add
+	 * the created roads to it.
+	 *
+	 * @param blocks
+	 *            : the urban blocks, may be null
+	 * @param parcel
+	 *            : the parcel
+	 * @return the exterior, or null if there is no block
+	 */
+	public static IMultiCurve<IOrientableCurve> blockExterior(IFeatureCollection<IFeature> blocks, IPolygon parcel) {
+		if (blocks == null) {
+			return null;
+		}
+		IMultiCurve<IOrientableCurve> ext = new GM_MultiCurve<>();
+		for (IFeature block : blocks.select(parcel.envelope())) {
+			ext.addAll(FromGeomToLineString.convert(block.getGeom()));
+		}
+		if (ext.isEmpty()) {
+			return null;
+		}
+		return ext;
+	}
+
+	/**
+	 * Decomposition with {@link OBBBlockDecomposition}
+	 *
+	 * @param blocks
+	 *            : urban blocks used to assess road access, may be null (the
+	 *            exterior of each parcel is then used)
+	 * @param maximalArea
+	 *            : maximal area of splitted parcel
+	 * @param maximalWidth
+	 *            : maximal road access of splitter parcel
+	 * @param epsilon
+	 *            : the likeness to garuantee road access to parcels
+	 * @param noise
+	 *            : noise applied to the splitting lines
+	 * @param decompositionLevelWithRoad
+	 *            : roads are created until this rank
+	 * @param roadWidth
+	 *            : the road width when created
+	 * @param forceRoadAccess
+	 *            : if splits without road access are forbidden
+	 * @return the decomposition
+	 */
+	public static Decomposition obb(final IFeatureCollection<IFeature> blocks, final double maximalArea, final double maximalWidth,
+			final double epsilon, final double noise, final int decompositionLevelWithRoad, final double roadWidth,
+			final boolean forceRoadAccess) {
+		prepareIndex(blocks);
+		return new Decomposition() {
+			@Override
+			public IFeatureCollection<IFeature> decompose(IPolygon parcel, RandomGenerator rng) throws Exception {
+				OBBBlockDecomposition obb = new OBBBlockDecomposition(parcel, maximalArea, maximalWidth, epsilon,
+						blockExterior(blocks, parcel), decompositionLevelWithRoad, roadWidth, forceRoadAccess);
+				obb.setRandomGenerator(rng);
+				return obb.decompParcel(noise);
+			}
+		};
+	}
+
+	/**
+	 * Decomposition with {@link FlagParcelDecomposition}
+	 *
+	 * @param buildings
+	 *            : the buildings that constraint the creation of roads
+	 * @param blocks
+	 *            : urban blocks used to assess road access, may be null (the
+	 *            exterior of each parcel is then used)
+	 * @param maximalArea
+	 *            : the maximalArea for a parcel
+	 * @param maximalWidth
+	 *            : the maximal width
+	 * @param roadWidth
+	 *            : the road width
+	 * @param noise
+	 *            : noise applied to the splitting lines
+	 * @return the decomposition
+	 */
+	public static Decomposition flag(final IFeatureCollection<IFeature> buildings, final IFeatureCollection<IFeature> blocks,
+			final double maximalArea, final double maximalWidth, final double roadWidth, final double noise) {
+		prepareIndex(buildings);
+		prepareIndex(blocks);
+		return new Decomposition() {
+			@Override
+			public IFeatureCollection<IFeature> decompose(IPolygon parcel, RandomGenerator rng) throws Exception {
+				FlagParcelDecomposition fpd = new FlagParcelDecomposition(parcel, buildings, maximalArea, maximalWidth, roadWidth,
+						blockExterior(blocks, parcel));
+				fpd.setRandomGenerator(rng);
+				return fpd.decompParcel(noise);
+			}
+		};
+	}
+
+	/**
+	 * Decomposition with {@link StraightSkeletonParcelDecomposition}
+	 *
+	 * @param roads
+	 *            : roads around the blocks, may be empty
+	 * @param maxDepth
+	 *            : maximal depth of a parcel
+	 * @param maxDistanceForNearestRoad
+	 *            : how far a road is considered from block exterior
+	 * @param minimalArea
+	 *            : minimal area of a parcel
+	 * @param minWidth
+	 *            : minimum width of a parcel
+	 * @param maxWidth
+	 *            : maximal width of a parcel
+	 * @param noiseParameter
+	 *            : standard deviation of width distribution
+	 * @return the decomposition
+	 */
+	public static Decomposition straightSkeleton(final IFeatureCollection<IFeature> roads, final double maxDepth,
+			final double maxDistanceForNearestRoad, final double minimalArea, final double minWidth, final double maxWidth,
+			final double noiseParameter) {
+		prepareIndex(roads);
+		return new Decomposition() {
+			@Override
+			public IFeatureCollection<IFeature> decompose(IPolygon parcel, RandomGenerator rng) throws Exception {
+				return StraightSkeletonParcelDecomposition.runStraightSkeleton(parcel, roads, maxDepth, maxDistanceForNearestRoad,
+						minimalArea, minWidth, maxWidth, noiseParameter, rng);
+			}
+		};
+	}
+}
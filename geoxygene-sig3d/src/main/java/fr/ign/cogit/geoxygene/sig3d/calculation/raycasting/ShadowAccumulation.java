@@ -0,0 +1,465 @@
+package fr.ign.cogit.geoxygene.sig3d.calculation.raycasting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.apache.log4j.Logger;
+
+import com.vividsolutions.jts.algorithm.locate.IndexedPointInAreaLocator;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Location;
+import com.vividsolutions.jts.geom.Polygonal;
+import com.vividsolutions.jts.operation.union.CascadedPolygonUnion;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IEnvelope;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.contrib.geometrie.Vecteur;
+import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Envelope;
+import fr.ign.cogit.geoxygene.util.conversion.JtsGeOxygene;
+import fr.ign.cogit.geoxygene.util.index.Tiling;
+
+/**
+ *
+ * This software is released under the licence CeCILL
+ *
+ * see LICENSE.TXT
+ *
+ * see <http://www.cecill.info/ http://www.cecill.info/
+ *
+ *
+ *
+ * @copyright IGN
+ *
+ * @version 1.7
+ *
+ *
+ *
+ *          Cumul des ombres portées sur une série de positions du soleil (par
+ *          exemple toutes les heures sur une année). Les ombres sont calculées
+ *          avec {@link ProjectedShadow#process} pour chaque direction. Avant ce
+ *          calcul, seuls les bâtiments dont l'ombre peut atteindre la zone
+ *          étudiée sont sélectionnés dans un index spatial. Les directions
+ *          proches (voir {@link #setAngularTolerance(double)}) partagent le
+ *          même calcul d'ombre, pondéré par la somme de leurs durées.
+ *
+ *          Les résultats sont cumulés en une passe, soit par objet support
+ *          (surface ombrée × durée), soit par cellule d'une grille (durée
+ *          d'ombre).
+ *
+ *          Accumulation of cast shadows over a time series of sun positions
+ *
+ */
+public class ShadowAccumulation {
+
+	private final static Logger logger = Logger.getLogger(ShadowAccumulation.class);
+
+	private final IFeatureCollection<? extends IFeature> lBatiments;
+	private final IFeatureCollection<? extends IFeature> collectionSupport;
+	private final IPolygon emprise;
+	private final double frontClip;
+	private final double backClip;
+
+	// Dénivelé entre le plus haut sommet des bâtiments et le plus bas de
+	// l'emprise : les rayons projetés sur l'emprise ne sont pas limités par
+	// backClip
+	private final double empriseDrop;
+
+	// Tolérance angulaire (radians) en dessous de laquelle deux directions
+	// partagent le même calcul
+	private double angularTolerance = 0;
+
+	// Directions représentatives et durées cumulées
+	private final List<Vecteur> directions = new ArrayList<Vecteur>();
+	private final List<Double> weights = new ArrayList<Double>();
+	private final Map<Long, Integer> directionBins = new HashMap<Long, Integer>();
+	private double totalWeight = 0;
+
+	/**
+	 *
+	 * @param lBatiments
+	 *            les bâtiments qui projettent les ombres
+	 * @param collectionSupport
+	 *            les objets sur lesquels on projette les ombres
+	 * @param emprise
+	 *            si non null, surface de projection quand aucun objet support
+	 *            n'est intersecté
+	 * @param frontClip
+	 *            voir {@link ProjectedShadow#process}
+	 * @param backClip
+	 *            longueur maximale d'une ombre sur les objets support (les
+	 *            ombres projetées sur l'emprise ne sont pas limitées)
+	 */
+	public ShadowAccumulation(IFeatureCollection<? extends IFeature> lBatiments,
+			IFeatureCollection<? extends IFeature> collectionSupport, IPolygon emprise, double frontClip,
+			double backClip) {
+		this.lBatiments = lBatiments;
+		this.collectionSupport = collectionSupport;
+		this.emprise = emprise;
+		this.frontClip = frontClip;
+		this.backClip = backClip;
+
+		double drop = 0;
+		if (emprise != null) {
+			double zMax = Double.NEGATIVE_INFINITY;
+			for (IFeature b : lBatiments) {
+				for (IDirectPosition dp : b.getGeom().coord()) {
+					zMax = Math.max(zMax, dp.getZ());
+				}
+			}
+			double zMin = Double.POSITIVE_INFINITY;
+			for (IDirectPosition dp : emprise.coord()) {
+				zMin = Math.min(zMin, dp.getZ());
+			}
+			drop = zMax - zMin;
+		}
+		this.empriseDrop = drop;
+
+		if (!lBatiments.hasSpatialIndex()) {
+			lBatiments.initSpatialIndex(Tiling.class, false);
+		}
+		if (!collectionSupport.hasSpatialIndex()) {
+			collectionSupport.initSpatialIndex(Tiling.class, false);
+		}
+	}
+
+	/**
+	 * Les directions dont l'azimut et la hauteur diffèrent de moins de cette
+	 * tolérance partagent le même calcul d'ombre. À régler avant l'ajout des
+	 * directions.
+	 *
+	 * @param angularTolerance
+	 *            en radians, 0 pour calculer chaque direction
+	 */
+	public void setAngularTolerance(double angularTolerance) {
+		this.angularTolerance = angularTolerance;
+	}
+
+	/**
+	 * Ajoute une direction de projection des ombres
+	 *
+	 * @param v
+	 *            direction du soleil vers le sol (composante Z négative)
+	 * @param weight
+	 *            durée associée à cette direction (par exemple en heures)
+	 */
+	public void addDirection(Vecteur v, double weight) {
+		Vecteur vN = v.getNormalised();
+		this.totalWeight = this.totalWeight + weight;
+
+		if (this.angularTolerance > 0) {
+			double azimuth = Math.atan2(vN.getY(), vN.getX());
+			double elevation = Math.asin(Math.max(-1, Math.min(1, vN.getZ())));
+			long key = (Math.round(azimuth / this.angularTolerance) << 32)
+					^ (Math.round(elevation / this.angularTolerance) & 0xFFFFFFFFL);
+			Integer index = this.directionBins.get(key);
+			if (index != null) {
+				this.weights.set(index, this.weights.get(index) + weight);
+				return;
+			}
+			this.directionBins.put(key, this.directions.size());
+		}
+
+		this.directions.add(vN);
+		this.weights.add(weight);
+	}
+
+	/**
+	 * Ajoute les positions du soleil entre deux dates, avec un pas de temps
+	 * constant. Les positions sous l'horizon sont ignorées ; chaque position
+	 * compte pour la durée du pas, en heures.
+	 *
+	 * @param latitude
+	 *            en degrés
+	 * @param longitude
+	 *            en degrés, positive à l'est
+	 * @param start
+	 * @param end
+	 * @param stepMinutes
+	 * @return le nombre de positions ajoutées
+	 */
+	public int addSunPositions(double latitude, double longitude, Date start, Date end, int stepMinutes) {
+		int nb = 0;
+		long step = stepMinutes * 60000L;
+		for (long t = start.getTime(); t <= end.getTime(); t = t + step) {
+			Vecteur v = sunDirection(latitude, longitude, new Date(t));
+			if (v != null) {
+				this.addDirection(v, stepMinutes / 60.0);
+				nb++;
+			}
+		}
+		return nb;
+	}
+
+	/**
+	 * Direction de projection des ombres à une date donnée, dans un repère
+	 * local où X pointe vers l'est et Y vers le nord (approximation de la NOAA,
+	 * précise à quelques minutes d'arc)
+	 *
+	 * @param latitude
+	 *            en degrés
+	 * @param longitude
+	 *            en degrés, positive à l'est
+	 * @param date
+	 * @return le vecteur unitaire du soleil vers le sol, null si le soleil est
+	 *         sous l'horizon
+	 */
+	public static Vecteur sunDirection(double latitude, double longitude, Date date) {
+		Calendar c = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		c.setTime(date);
+		double hour = c.get(Calendar.HOUR_OF_DAY) + c.get(Calendar.MINUTE) / 60.0 + c.get(Calendar.SECOND) / 3600.0;
+		int nbDays = c.getActualMaximum(Calendar.DAY_OF_YEAR);
+		double gamma = 2 * Math.PI / nbDays * (c.get(Calendar.DAY_OF_YEAR) - 1 + (hour - 12) / 24);
+
+		double eqTime = 229.18 * (0.000075 + 0.001868 * Math.cos(gamma) - 0.032077 * Math.sin(gamma)
+				- 0.014615 * Math.cos(2 * gamma) - 0.040849 * Math.sin(2 * gamma));
+		double decl = 0.006918 - 0.399912 * Math.cos(gamma) + 0.070257 * Math.sin(gamma)
+				- 0.006758 * Math.cos(2 * gamma) + 0.000907 * Math.sin(2 * gamma) - 0.002697 * Math.cos(3 * gamma)
+				+ 0.00148 * Math.sin(3 * gamma);
+
+		// Temps solaire vrai en minutes puis angle horaire
+		double trueSolarTime = hour * 60 + eqTime + 4 * longitude;
+		double hourAngle = Math.toRadians(trueSolarTime / 4 - 180);
+		double lat = Math.toRadians(latitude);
+
+		// Vecteur du sol vers le soleil (est, nord, haut)
+		double east = -Math.cos(decl) * Math.sin(hourAngle);
+		double north = Math.cos(lat) * Math.sin(decl) - Math.sin(lat) * Math.cos(decl) * Math.cos(hourAngle);
+		double up = Math.sin(lat) * Math.sin(decl) + Math.cos(lat) * Math.cos(decl) * Math.cos(hourAngle);
+
+		if (up <= 0) {
+			return null;
+		}
+
+		return new Vecteur(-east, -north, -up);
+	}
+
+	/**
+	 * @return la somme des durées de toutes les directions ajoutées
+	 */
+	public double getTotalWeight() {
+		return this.totalWeight;
+	}
+
+	/**
+	 * @return le nombre de calculs d'ombre effectivement nécessaires
+	 */
+	public int getNbDirections() {
+		return this.directions.size();
+	}
+
+	/**
+	 * Surface ombrée cumulée de chaque objet : somme sur les directions de la
+	 * surface (2D) ombrée multipliée par la durée. L'ensoleillement d'un objet
+	 * est son aire multipliée par {@link #getTotalWeight()} moins cette valeur.
+	 *
+	 * @param receivers
+	 *            les objets sur lesquels on cumule
+	 * @return les cumuls, dans l'ordre des objets
+	 */
+	public double[] accumulateOnFeatures(IFeatureCollection<? extends IFeature> receivers) {
+
+		int nb = receivers.size();
+		double[] result = new double[nb];
+		if (nb == 0) {
+			return result;
+		}
+
+		if (!receivers.hasSpatialIndex()) {
+			receivers.initSpatialIndex(Tiling.class, false);
+		}
+
+		// Géométries JTS calculées une seule fois
+		Map<IFeature, Integer> ranks = new IdentityHashMap<IFeature, Integer>();
+		Geometry[] geoms = new Geometry[nb];
+		for (int i = 0; i < nb; i++) {
+			IFeature feat = receivers.get(i);
+			ranks.put(feat, i);
+			geoms[i] = toJts(feat.getGeom());
+		}
+
+		List<List<Geometry>> shadowsByReceiver = new ArrayList<List<Geometry>>(nb);
+		for (int i = 0; i < nb; i++) {
+			shadowsByReceiver.add(null);
+		}
+
+		for (int d = 0; d < this.directions.size(); d++) {
+
+			List<Geometry> shadows = this.shadows(this.directions.get(d), receivers.envelope());
+			if (shadows.isEmpty()) {
+				continue;
+			}
+
+			// Répartition des ombres sur les objets par l'index spatial
+			List<Integer> touched = new ArrayList<Integer>();
+			for (Geometry shadow : shadows) {
+				Envelope e = shadow.getEnvelopeInternal();
+				IEnvelope env = new GM_Envelope(e.getMinX(), e.getMaxX(), e.getMinY(), e.getMaxY());
+				for (IFeature feat : receivers.select(env)) {
+					Integer i = ranks.get(feat);
+					if (i == null || geoms[i] == null) {
+						continue;
+					}
+					if (shadowsByReceiver.get(i) == null) {
+						shadowsByReceiver.set(i, new ArrayList<Geometry>());
+						touched.add(i);
+					}
+					shadowsByReceiver.get(i).add(shadow);
+				}
+			}
+
+			double weight = this.weights.get(d);
+			for (Integer i : touched) {
+				List<Geometry> lShadows = shadowsByReceiver.get(i);
+				shadowsByReceiver.set(i, null);
+				try {
+					Geometry union = CascadedPolygonUnion.union(lShadows);
+					result[i] = result[i] + weight * union.intersection(geoms[i]).getArea();
+				} catch (RuntimeException e) {
+					logger.warn("Shadow accumulation failed on " + receivers.get(i) + " : " + e.getMessage());
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Durée d'ombre cumulée de chaque cellule d'une grille, testée au centre de
+	 * la cellule
+	 *
+	 * @param env
+	 *            l'emprise de la grille
+	 * @param cellSize
+	 *            la taille des cellules
+	 * @return les cumuls, [ligne][colonne], la ligne 0 étant au Y minimal
+	 */
+	public double[][] accumulateOnGrid(IEnvelope env, double cellSize) {
+
+		int nbCol = Math.max(1, (int) Math.ceil(env.width() / cellSize));
+		int nbRow = Math.max(1, (int) Math.ceil(env.length() / cellSize));
+		double xMin = env.minX();
+		double yMin = env.minY();
+
+		double[][] result = new double[nbRow][nbCol];
+		boolean[] shadowed = new boolean[nbRow * nbCol];
+
+		for (int d = 0; d < this.directions.size(); d++) {
+
+			List<Geometry> shadows = this.shadows(this.directions.get(d), env);
+			if (shadows.isEmpty()) {
+				continue;
+			}
+
+			Arrays.fill(shadowed, false);
+			Coordinate c = new Coordinate();
+
+			for (Geometry shadow : shadows) {
+				IndexedPointInAreaLocator locator = new IndexedPointInAreaLocator(shadow);
+				Envelope e = shadow.getEnvelopeInternal();
+
+				int colMin = Math.max(0, (int) Math.floor((e.getMinX() - xMin) / cellSize - 0.5));
+				int colMax = Math.min(nbCol - 1, (int) Math.ceil((e.getMaxX() - xMin) / cellSize - 0.5));
+				int rowMin = Math.max(0, (int) Math.floor((e.getMinY() - yMin) / cellSize - 0.5));
+				int rowMax = Math.min(nbRow - 1, (int) Math.ceil((e.getMaxY() - yMin) / cellSize - 0.5));
+
+				for (int row = rowMin; row <= rowMax; row++) {
+					c.y = yMin + (row + 0.5) * cellSize;
+					for (int col = colMin; col <= colMax; col++) {
+						int k = row * nbCol + col;
+						if (shadowed[k]) {
+							continue;
+						}
+						c.x = xMin + (col + 0.5) * cellSize;
+						if (locator.locate(c) != Location.EXTERIOR) {
+							shadowed[k] = true;
+						}
+					}
+				}
+			}
+
+			double weight = this.weights.get(d);
+			for (int k = 0; k < shadowed.length; k++) {
+				if (shadowed[k]) {
+					result[k / nbCol][k % nbCol] += weight;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Ombres (polygones 2D valides) projetées dans une direction par les
+	 * bâtiments dont l'ombre peut atteindre l'emprise
+	 */
+	private List<Geometry> shadows(Vecteur v, IEnvelope target) {
+
+		List<Geometry> lShadows = new ArrayList<Geometry>();
+
+		// Un sommet p ne peut ombrer la zone que si p + t.v y arrive pour
+		// t <= backClip, ou, sur l'emprise, pour t <= empriseDrop / -vz : on
+		// sélectionne sur la zone étendue vers le soleil
+		double length = this.backClip;
+		if (this.emprise != null) {
+			length = Math.max(length, this.empriseDrop / -v.getZ());
+		}
+
+		FT_FeatureCollection<IFeature> occluders = new FT_FeatureCollection<IFeature>();
+		if (length >= 0 && length < Double.POSITIVE_INFINITY) {
+			IEnvelope swept = new GM_Envelope(target.minX(), target.maxX(), target.minY(), target.maxY());
+			double dx = -v.getX() * length;
+			double dy = -v.getY() * length;
+			swept.expand(target.minX() + dx, target.minY() + dy);
+			swept.expand(target.maxX() + dx, target.maxY() + dy);
+			occluders.addAll(this.lBatiments.select(swept));
+		} else {
+			// Hauteurs inconnues (coordonnées 2D) ou soleil rasant : pas de tri
+			occluders.addAll(this.lBatiments);
+		}
+		if (occluders.isEmpty()) {
+			return lShadows;
+		}
+
+		List<IGeometry> lGeom = ProjectedShadow.process(occluders, this.collectionSupport, this.emprise, v,
+				this.frontClip, this.backClip, ProjectedShadow.POSSIBLE_RESULT.PROJECTED_POLYGON, true);
+
+		for (IGeometry geom : lGeom) {
+			Geometry g = toJts(geom);
+			if (g == null || !(g instanceof Polygonal)) {
+				continue;
+			}
+			if (!g.isValid()) {
+				g = g.buffer(0);
+			}
+			if (g.getArea() > 0) {
+				lShadows.add(g);
+			}
+		}
+
+		return lShadows;
+	}
+
+	private static Geometry toJts(IGeometry geom) {
+		try {
+			return JtsGeOxygene.makeJtsGeom(geom);
+		} catch (Exception e) {
+			logger.warn("Geometry conversion failed : " + e.getMessage());
+			return null;
+		}
+	}
+}
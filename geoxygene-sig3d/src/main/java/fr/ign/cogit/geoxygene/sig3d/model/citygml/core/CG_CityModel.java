@@ -56,25 +56,7 @@ public class CG_CityModel extends FT_FeatureCollection<CG_CityObject> {
 
 		if (impl.isSetBoundedBy()) {
 
-			Envelope bS = impl.getBoundedBy().getEnvelope();
-
-			if (bS.getLowerCorner() != null) {
-
-				this.dpLL = new DirectPosition(bS.getLowerCorner().getValue().get(0),
-						bS.getLowerCorner().getValue().get(1), bS.getLowerCorner().getValue().get(2));
-
-				this.dpUR = new DirectPosition(bS.getUpperCorner().getValue().get(0),
-						bS.getUpperCorner().getValue().get(1), bS.getUpperCorner().getValue().get(2));
-			} else {
-
-				List<org.citygml4j.model.gml.geometry.primitives.DirectPosition> lPos = bS.getPos();
-
-				this.dpLL = new DirectPosition(lPos.get(0).getValue().get(0), lPos.get(0).getValue().get(1),
-						lPos.get(0).getValue().get(2));
-
-				this.dpUR = new DirectPosition(lPos.get(1).getValue().get(0), lPos.get(1).getValue().get(1),
-						lPos.get(1).getValue().get(2));
-			}
+			this.setBoundedBy(impl.getBoundedBy().getEnvelope());
 
 		}
 
@@ -84,20 +66,7 @@ public class CG_CityModel extends FT_FeatureCollection<CG_CityObject> {
 
 			for (int i = 0; i < nbApp; i++) {
 
-				Appearance ap = impl.getAppearanceMember().get(i).getFeature();
-				if (ap.isSetSurfaceDataMember()) {
-
-					int nbDataMember = ap.getSurfaceDataMember().size();
-
-					for (int j = 0; j < nbDataMember; j++) {
-
-						AbstractSurfaceData abs = ap.getSurfaceDataMember().get(j).getSurfaceData();
-
-						this.getlCGA().add(CG_AbstractSurfaceData.generateAbstractSurfaceData(abs));
-
-					}
-
-				}
+				this.addAppearance(impl.getAppearanceMember().get(i).getFeature());
 
 			}
 		}
@@ -117,6 +86,58 @@ public class CG_CityModel extends FT_FeatureCollection<CG_CityObject> {
 
 	}
 
+	/**
+	 * Affecte l'emprise du modèle à partir de celle d'un fichier CityGML
+	 * 
+	 * @param bS
+	 *            l'emprise CityGML
+	 */
+	public void setBoundedBy(Envelope bS) {
+
+		if (bS.getLowerCorner() != null) {
+
+			this.dpLL = new DirectPosition(bS.getLowerCorner().getValue().get(0),
+					bS.getLowerCorner().getValue().get(1), bS.getLowerCorner().getValue().get(2));
+
+			this.dpUR = new DirectPosition(bS.getUpperCorner().getValue().get(0),
+					bS.getUpperCorner().getValue().get(1), bS.getUpperCorner().getValue().get(2));
+		} else {
+
+			List<org.citygml4j.model.gml.geometry.primitives.DirectPosition> lPos = bS.getPos();
+
+			this.dpLL = new DirectPosition(lPos.get(0).getValue().get(0), lPos.get(0).getValue().get(1),
+					lPos.get(0).getValue().get(2));
+
+			this.dpUR = new DirectPosition(lPos.get(1).getValue().get(0), lPos.get(1).getValue().get(1),
+					lPos.get(1).getValue().get(2));
+		}
+
+	}
+
+	/**
+	 * Ajoute les textures et matériaux d'une apparence globale du modèle
+	 * 
+	 * @param ap
+	 *            l'apparence CityGML
+	 */
+	public void addAppearance(Appearance ap) {
+
+		if (ap.isSetSurfaceDataMember()) {
+
+			int nbDataMember = ap.getSurfaceDataMember().size();
+
+			for (int j = 0; j < nbDataMember; j++) {
+
+				AbstractSurfaceData abs = ap.getSurfaceDataMember().get(j).getSurfaceData();
+
+				this.getlCGA().add(CG_AbstractSurfaceData.generateAbstractSurfaceData(abs));
+
+			}
+
+		}
+
+	}
+
 	public IDirectPosition getDpLL() {
 		return this.dpLL;
 	}
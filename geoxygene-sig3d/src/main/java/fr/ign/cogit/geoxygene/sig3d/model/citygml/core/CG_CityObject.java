@@ -69,7 +69,15 @@ public abstract class CG_CityObject extends DefaultFeature {
 
 	public CG_CityObject() {
 		super();
-		id = ID_COUNT++;
+		id = CG_CityObject.nextId();
+	}
+
+	/**
+	 * Identifiant suivant, les objets pouvant être créés par plusieurs threads
+	 * lors du chargement
+	 */
+	private static synchronized int nextId() {
+		return ID_COUNT++;
 	}
 
 	public List<CG_AppearanceProperty> getAppearanceProperty() {
@@ -281,6 +281,67 @@ public class ConvertCityGMLtoGeometry {
 		return tin;
 	}
 
+	/**
+	 * Emprise des coordonnées lues par le thread courant pendant la conversion
+	 * d'un paquet d'objets, null en dehors d'un paquet
+	 */
+	private static final ThreadLocal<CoordinateBounds> LOCAL_BOUNDS = new ThreadLocal<CoordinateBounds>();
+
+	/**
+	 * Les coordonnées converties ensuite par le thread courant étendent une
+	 * emprise propre à ce thread, reportée dans l'emprise globale par
+	 * {@link #mergeLocalBounds()} : des threads qui convertissent des paquets
+	 * différents ne partagent pas de verrou par coordonnée
+	 */
+	public static void startLocalBounds() {
+		ConvertCityGMLtoGeometry.LOCAL_BOUNDS.set(new CoordinateBounds());
+	}
+
+	/**
+	 * Reporte dans l'emprise globale l'emprise des coordonnées converties par le
+	 * thread courant depuis {@link #startLocalBounds()}
+	 */
+	public static void mergeLocalBounds() {
+		CoordinateBounds bounds = ConvertCityGMLtoGeometry.LOCAL_BOUNDS.get();
+		ConvertCityGMLtoGeometry.LOCAL_BOUNDS.remove();
+		if (bounds != null && !bounds.isEmpty()) {
+			ConvertCityGMLtoGeometry.mergeBounds(bounds.getXMin(), bounds.getYMin(), bounds.getZMin(),
+					bounds.getXMax(), bounds.getYMax(), bounds.getZMax());
+		}
+	}
+
+	/**
+	 * Etend l'emprise globale ; synchronisé car plusieurs threads peuvent y
+	 * reporter leur emprise : les bornes ne sont lues et écrites que sous ce
+	 * verrou
+	 */
+	private static synchronized void mergeBounds(double xMin, double yMin, double zMin, double xMax, double yMax,
+			double zMax) {
+
+		ConvertCityGMLtoGeometry.xMin = Math.min(ConvertCityGMLtoGeometry.xMin, xMin);
+		ConvertCityGMLtoGeometry.yMin = Math.min(ConvertCityGMLtoGeometry.yMin, yMin);
+		ConvertCityGMLtoGeometry.zMin = Math.min(ConvertCityGMLtoGeometry.zMin, zMin);
+
+		ConvertCityGMLtoGeometry.xMax = Math.max(ConvertCityGMLtoGeometry.xMax, xMax);
+		ConvertCityGMLtoGeometry.yMax = Math.max(ConvertCityGMLtoGeometry.yMax, yMax);
+		ConvertCityGMLtoGeometry.zMax = Math.max(ConvertCityGMLtoGeometry.zMax, zMax);
+	}
+
+	/**
+	 * Etend l'emprise des coordonnées lues : celle du thread courant s'il
+	 * convertit un paquet, l'emprise globale sinon
+	 */
+	private static void updateBounds(double x, double y, double z) {
+
+		CoordinateBounds bounds = ConvertCityGMLtoGeometry.LOCAL_BOUNDS.get();
+
+		if (bounds != null) {
+			bounds.add(x, y, z);
+		} else {
+			ConvertCityGMLtoGeometry.mergeBounds(x, y, z, x, y, z);
+		}
+	}
+
 	/**
 	 * Convertit un DirectPosition GML en DirectPosition GeOxygene
 	 * 
@@ -293,13 +354,11 @@ public class ConvertCityGMLtoGeometry {
 
 		List<Double> lD = dp.getValue();
 
-		ConvertCityGMLtoGeometry.xMin = Math.min(ConvertCityGMLtoGeometry.xMin, lD.get(0));
-		ConvertCityGMLtoGeometry.yMin = Math.min(ConvertCityGMLtoGeometry.yMin, lD.get(1));
-		ConvertCityGMLtoGeometry.zMin = Math.min(ConvertCityGMLtoGeometry.zMin, lD.get(2));
+		double x = lD.get(0);
+		double y = lD.get(1);
+		double z = lD.get(2);
 
-		ConvertCityGMLtoGeometry.xMax = Math.max(ConvertCityGMLtoGeometry.xMax, lD.get(0));
-		ConvertCityGMLtoGeometry.yMax = Math.max(ConvertCityGMLtoGeometry.yMax, lD.get(1));
-		ConvertCityGMLtoGeometry.zMax = Math.max(ConvertCityGMLtoGeometry.zMax, lD.get(2));
+		ConvertCityGMLtoGeometry.updateBounds(x, y, z);
 
 		return new DirectPosition(lD.get(0) - ConvertCityGMLtoGeometry.coordXIni,
 				lD.get(1) - ConvertCityGMLtoGeometry.coordYIni, lD.get(2) - ConvertCityGMLtoGeometry.coordZIni);
@@ -327,13 +386,7 @@ public class ConvertCityGMLtoGeometry {
 					lD.get(3 * i + 1) - ConvertCityGMLtoGeometry.coordYIni,
 					lD.get(3 * i + 2) - ConvertCityGMLtoGeometry.coordZIni));
 
-			ConvertCityGMLtoGeometry.xMin = Math.min(ConvertCityGMLtoGeometry.xMin, lD.get(3 * i));
-			ConvertCityGMLtoGeometry.yMin = Math.min(ConvertCityGMLtoGeometry.yMin, lD.get(3 * i + 1));
-			ConvertCityGMLtoGeometry.zMin = Math.min(ConvertCityGMLtoGeometry.zMin, lD.get(3 * i + 2));
-
-			ConvertCityGMLtoGeometry.xMax = Math.max(ConvertCityGMLtoGeometry.xMax, lD.get(3 * i));
-			ConvertCityGMLtoGeometry.yMax = Math.max(ConvertCityGMLtoGeometry.yMax, lD.get(3 * i + 1));
-			ConvertCityGMLtoGeometry.zMax = Math.max(ConvertCityGMLtoGeometry.zMax, lD.get(3 * i + 2));
+			ConvertCityGMLtoGeometry.updateBounds(lD.get(3 * i), lD.get(3 * i + 1), lD.get(3 * i + 2));
 
 		}
 
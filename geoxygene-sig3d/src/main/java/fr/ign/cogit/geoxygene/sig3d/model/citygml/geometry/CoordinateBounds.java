@@ -0,0 +1,85 @@
+package fr.ign.cogit.geoxygene.sig3d.model.citygml.geometry;
+
+/**
+ * Emprise 3D des coordonnées lues par un seul thread, sans synchronisation :
+ * chaque paquet d'objets convertis a la sienne, reportée ensuite dans
+ * l'emprise globale de {@link ConvertCityGMLtoGeometry}
+ * 
+ * @author GeOxygene
+ */
+public final class CoordinateBounds {
+
+	private double xMin = Double.POSITIVE_INFINITY;
+	private double yMin = Double.POSITIVE_INFINITY;
+	private double zMin = Double.POSITIVE_INFINITY;
+
+	private double xMax = Double.NEGATIVE_INFINITY;
+	private double yMax = Double.NEGATIVE_INFINITY;
+	private double zMax = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Etend l'emprise à un point
+	 */
+	public void add(double x, double y, double z) {
+		if (x < this.xMin) {
+			this.xMin = x;
+		}
+		if (x > this.xMax) {
+			this.xMax = x;
+		}
+		if (y < this.yMin) {
+			this.yMin = y;
+		}
+		if (y > this.yMax) {
+			this.yMax = y;
+		}
+		if (z < this.zMin) {
+			this.zMin = z;
+		}
+		if (z > this.zMax) {
+			this.zMax = z;
+		}
+	}
+
+	/**
+	 * Etend l'emprise à une autre emprise
+	 */
+	public void add(CoordinateBounds bounds) {
+		if (bounds.isEmpty()) {
+			return;
+		}
+		this.add(bounds.xMin, bounds.yMin, bounds.zMin);
+		this.add(bounds.xMax, bounds.yMax, bounds.zMax);
+	}
+
+	/**
+	 * @return vrai si aucun point n'a été ajouté
+	 */
+	public boolean isEmpty() {
+		return this.xMin > this.xMax;
+	}
+
+	public double getXMin() {
+		return this.xMin;
+	}
+
+	public double getYMin() {
+		return this.yMin;
+	}
+
+	public double getZMin() {
+		return this.zMin;
+	}
+
+	public double getXMax() {
+		return this.xMax;
+	}
+
+	public double getYMax() {
+		return this.yMax;
+	}
+
+	public double getZMax() {
+		return this.zMax;
+	}
+}
@@ -0,0 +1,204 @@
+package fr.ign.cogit.calculation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableSurface;
+import fr.ign.cogit.geoxygene.sig3d.calculation.PositionKdTree;
+import fr.ign.cogit.geoxygene.sig3d.calculation.Proximity;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+import junit.framework.TestCase;
+
+public class TestPositionKdTree extends TestCase {
+
+	// ---------------------------------- ATTRIBUTES ----------------------------------
+
+	private static Logger log = Logger.getLogger(TestPositionKdTree.class);
+
+	// Small integer coordinates, so that many distances are equal
+	private static final int GRID = 5;
+
+	// ---------------------------------- TOOLS ----------------------------------------
+
+	private static IDirectPosition randomPosition(Random random, boolean is3D) {
+		if (is3D) {
+			return new DirectPosition(random.nextInt(GRID), random.nextInt(GRID), random.nextInt(GRID));
+		}
+		return new DirectPosition(random.nextInt(GRID), random.nextInt(GRID));
+	}
+
+	private static IDirectPositionList randomPositions(Random random, int nb, boolean is3D) {
+		DirectPositionList lP = new DirectPositionList();
+		for (int i = 0; i < nb; i++) {
+			lP.add(randomPosition(random, is3D));
+		}
+		return lP;
+	}
+
+	private static List<IOrientableSurface> randomSurfaces(Random random, int nb, boolean is3D) {
+		List<IOrientableSurface> lF = new ArrayList<IOrientableSurface>();
+		for (int i = 0; i < nb; i++) {
+			IDirectPositionList ring = randomPositions(random, 3, is3D);
+			ring.add(ring.get(0));
+			lF.add(new GM_Polygon(new GM_LineString(ring)));
+		}
+		return lF;
+	}
+
+	// Exhaustive scan : smallest distance, then smallest rank
+	private static int exhaustiveNearest(IDirectPosition dp, IDirectPositionList lP) {
+		int id = -1;
+		double d = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < lP.size(); i++) {
+			double dTemp = lP.get(i).distance(dp);
+			if (dTemp < d) {
+				d = dTemp;
+				id = i;
+			}
+		}
+		return id;
+	}
+
+	// ------------------------------------ TESTS -------------------------------------
+
+	@Test
+	// --------------------------------------------------------------------------------
+	// Test of the nearest point against the exhaustive scan, in 2D, 3D and mixed
+	// --------------------------------------------------------------------------------
+	public void testNearest() {
+
+		log.info("Test of the kd-tree nearest point against the exhaustive scan");
+
+		Random random = new Random(34);
+
+		for (int mode = 0; mode < 4; mode++) {
+			for (int nb : new int[] { 0, 1, 7, 60, 500 }) {
+
+				// mode 0 : 2D, 1 : 3D, 2 : 3D index and 2D queries, 3 : mixed
+				IDirectPositionList lP = new DirectPositionList();
+				for (int i = 0; i < nb; i++) {
+					lP.add(randomPosition(random, mode == 1 || mode == 2 || (mode == 3 && random.nextBoolean())));
+				}
+				PositionKdTree index = new PositionKdTree(lP);
+				assertEquals(nb, index.size());
+
+				for (int q = 0; q < 200; q++) {
+					IDirectPosition dp = randomPosition(random, mode == 1 || (mode == 3 && random.nextBoolean()));
+					int expected = exhaustiveNearest(dp, lP);
+					int id = index.nearest(dp);
+					assertEquals("mode " + mode + " size " + nb, expected, id);
+					if (id != -1) {
+						assertEquals(lP.get(expected).distance(dp), index.distance(dp, id), 0);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	// --------------------------------------------------------------------------------
+	// Test of the indexed distance between two lists against the exhaustive scan
+	// --------------------------------------------------------------------------------
+	public void testNearestLists() {
+
+		log.info("Test of the indexed distance between two lists of points");
+
+		Random random = new Random(35);
+
+		for (int mode = 0; mode < 2; mode++) {
+			for (int nb : new int[] { 10, 40, 200 }) {
+
+				IDirectPositionList lP1 = randomPositions(random, nb, mode == 1);
+				IDirectPositionList lP2 = randomPositions(random, nb + 3, mode == 1);
+
+				// Exhaustive scan : first pair in the order of lP1 then lP2
+				IDirectPosition expected1 = null;
+				IDirectPosition expected2 = null;
+				double d = Double.POSITIVE_INFINITY;
+				for (int i = 0; i < lP1.size(); i++) {
+					for (int j = 0; j < lP2.size(); j++) {
+						double dTemp = lP1.get(i).distance(lP2.get(j));
+						if (dTemp < d) {
+							d = dTemp;
+							expected1 = lP1.get(i);
+							expected2 = lP2.get(j);
+						}
+					}
+				}
+
+				Proximity prox = new Proximity();
+				prox.nearest(lP1, lP2);
+				assertSame(expected1, prox.nearest);
+				assertSame(expected2, prox.nearest2);
+				assertEquals(d, prox.distance, 0);
+			}
+		}
+	}
+
+	@Test
+	// --------------------------------------------------------------------------------
+	// Test of the indexed distance between points and faces against the exhaustive scan
+	// --------------------------------------------------------------------------------
+	public void testNearestSurfaces() {
+
+		log.info("Test of the indexed distance between a list of points and faces");
+
+		Random random = new Random(36);
+
+		for (int mode = 0; mode < 2; mode++) {
+			for (int nb : new int[] { 10, 40, 200 }) {
+
+				IDirectPositionList lP1 = randomPositions(random, nb, mode == 1);
+				List<IOrientableSurface> lF = randomSurfaces(random, nb, mode == 1);
+
+				// Exhaustive scan : faces first, then the points, then the
+				// vertices of the face
+				IDirectPosition expected1 = null;
+				IDirectPosition expected2 = null;
+				IOrientableSurface expectedFace = null;
+				double d = Double.POSITIVE_INFINITY;
+				for (IOrientableSurface face : lF) {
+					IDirectPositionList vertices = face.coord();
+					for (int i = 0; i < lP1.size(); i++) {
+						for (int j = 0; j < vertices.size(); j++) {
+							double dTemp = lP1.get(i).distance(vertices.get(j));
+							if (dTemp < d) {
+								d = dTemp;
+								expected1 = lP1.get(i);
+								expected2 = vertices.get(j);
+								expectedFace = face;
+							}
+						}
+					}
+				}
+
+				Proximity prox = new Proximity();
+				prox.nearest(lP1, new ArrayList<IOrientableSurface>(lF));
+				assertSame(expected1, prox.nearest);
+				assertEquals(expected2, prox.nearest2);
+				assertSame(expectedFace, prox.containingFace);
+				assertEquals(d, prox.distance, 0);
+
+				// The same index answers the single point queries
+				PositionKdTree index = new PositionKdTree(lF);
+				for (int i = 0; i < lP1.size(); i++) {
+					IDirectPosition dp = lP1.get(i);
+					Proximity single = new Proximity();
+					single.nearest(dp, lF);
+					prox.nearest(dp, index);
+					assertEquals(single.distance, prox.distance, 0);
+					assertSame(single.containingFace, prox.containingFace);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package fr.ign.cogit.calculation.parcelDecomposition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
+import fr.ign.cogit.geoxygene.sig3d.calculation.parcelDecomposition.OBBBlockDecomposition;
+import fr.ign.cogit.geoxygene.sig3d.calculation.parcelDecomposition.ParcelDecompositionBatch;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+
+public class TestParcelDecompositionBatch {
+
+	private static final long SEED = 42;
+
+	private static final double MAXIMAL_AREA = 300;
+	private static final double MAXIMAL_WIDTH = 15;
+	private static final double EPSILON = 0.3;
+	private static final double NOISE = 2;
+
+	/**
+	 * Irregular quadrilaterals, the same for a given seed
+	 */
+	private static IFeatureCollection<IFeature> parcels(long seed) {
+		Random random = new Random(seed);
+		IFeatureCollection<IFeature> parcels = new FT_FeatureCollection<>();
+		for (int i = 0; i < 8; i++) {
+			double x = (i % 4) * 100;
+			double y = (i / 4) * 100;
+			DirectPositionList points = new DirectPositionList();
+			points.add(new DirectPosition(x + random.nextDouble() * 10, y + random.nextDouble() * 10));
+			points.add(new DirectPosition(x + 60 + random.nextDouble() * 20, y + random.nextDouble() * 10));
+			points.add(new DirectPosition(x + 60 + random.nextDouble() * 20, y + 50 + random.nextDouble() * 20));
+			points.add(new DirectPosition(x + random.nextDouble() * 10, y + 50 + random.nextDouble() * 20));
+			points.add(points.get(0));
+			parcels.add(new DefaultFeature(new GM_Polygon(new GM_LineString(points))));
+		}
+		return parcels;
+	}
+
+	private static List<String> description(IFeatureCollection<IFeature> features) {
+		List<String> result = new ArrayList<>();
+		for (IFeature feat : features) {
+			StringBuilder s = new StringBuilder();
+			for (IDirectPosition p : feat.getGeom().coord()) {
+				s.append(p.getX()).append(' ').append(p.getY()).append(';');
+			}
+			result.add(s.toString());
+		}
+		return result;
+	}
+
+	/**
+	 * The batch gives, in the same order, the decompositions of the parcels
+	 * decomposed one by one with the generator of their rank, whatever the
+	 * number of threads
+	 */
+	@Test
+	public void testSameAsPerParcel() throws Exception {
+		IFeatureCollection<IFeature> parcels = parcels(SEED);
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < parcels.size(); i++) {
+			OBBBlockDecomposition obb = new OBBBlockDecomposition((IPolygon) parcels.get(i).getGeom(), MAXIMAL_AREA,
+					MAXIMAL_WIDTH, EPSILON, null, 2, 5.0, false);
+			obb.setRandomGenerator(ParcelDecompositionBatch.randomGenerator(SEED, i));
+			expected.addAll(description(obb.decompParcel(NOISE)));
+		}
+		assertFalse(expected.isEmpty());
+
+		for (int nbThreads : new int[] { 1, 4 }) {
+			ParcelDecompositionBatch batch = new ParcelDecompositionBatch(
+					ParcelDecompositionBatch.obb(null, MAXIMAL_AREA, MAXIMAL_WIDTH, EPSILON, NOISE, 2, 5.0, false), SEED,
+					nbThreads);
+			assertEquals(expected, description(batch.decompose(parcels)));
+		}
+	}
+}
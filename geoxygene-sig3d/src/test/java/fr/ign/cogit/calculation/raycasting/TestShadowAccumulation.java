@@ -0,0 +1,147 @@
+package fr.ign.cogit.calculation.raycasting;
+
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableSurface;
+import fr.ign.cogit.geoxygene.feature.DefaultFeature;
+import fr.ign.cogit.geoxygene.feature.FT_FeatureCollection;
+import fr.ign.cogit.geoxygene.contrib.geometrie.Vecteur;
+import fr.ign.cogit.geoxygene.sig3d.calculation.raycasting.ShadowAccumulation;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Envelope;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_MultiSurface;
+import fr.ign.cogit.tools.Utils;
+import junit.framework.TestCase;
+
+public class TestShadowAccumulation extends TestCase {
+
+	// ---------------------------------- ATTRIBUTES ----------------------------------
+
+	private static Logger log = Logger.getLogger(TestShadowAccumulation.class);
+
+	// Side of the studied area and of its cells
+	private static final double SIDE = 80;
+	private static final double CELL = 10;
+
+	// ------------------------------------ TOOLS -------------------------------------
+
+	private static IFeatureCollection<IFeature> ground() {
+		IFeatureCollection<IFeature> ground = new FT_FeatureCollection<IFeature>();
+		for (double x = 0; x < SIDE; x = x + CELL) {
+			for (double y = 0; y < SIDE; y = y + CELL) {
+				ground.add(new DefaultFeature(Utils.createSquarePolygon(CELL, x, y)));
+			}
+		}
+		return ground;
+	}
+
+	// Cube standing on the ground, as the multi-surface of its faces
+	private static IFeature building(double x, double y, double c) {
+		return new DefaultFeature(new GM_MultiSurface<IOrientableSurface>(Utils.createCube(x, y, 0, c).getFacesList()));
+	}
+
+	private static ShadowAccumulation accumulation(double angularTolerance) {
+		IFeatureCollection<IFeature> buildings = new FT_FeatureCollection<IFeature>();
+		buildings.add(building(20, 20, 12));
+		buildings.add(building(45, 30, 8));
+		buildings.add(building(30, 50, 15));
+
+		ShadowAccumulation accumulation = new ShadowAccumulation(buildings, ground(), null, 0.01, 200);
+		accumulation.setAngularTolerance(angularTolerance);
+
+		// One summer day in Paris, every 10 minutes
+		GregorianCalendar start = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		start.clear();
+		start.set(2015, 5, 21, 0, 0);
+		Date end = new Date(start.getTimeInMillis() + 24 * 3600 * 1000L);
+		accumulation.addSunPositions(48.85, 2.35, start.getTime(), end, 10);
+		return accumulation;
+	}
+
+	// ------------------------------------ TESTS -------------------------------------
+
+	@Test
+	// --------------------------------------------------------------------------------
+	// Test of the binned directions against one computation per direction
+	// --------------------------------------------------------------------------------
+	public void testBinnedAsUnbinned() {
+
+		log.info("Test of the binned shadow accumulation against the unbinned one");
+
+		ShadowAccumulation unbinned = accumulation(0);
+		ShadowAccumulation binned = accumulation(Math.toRadians(2));
+
+		assertEquals(unbinned.getTotalWeight(), binned.getTotalWeight(), 1e-9);
+		assertTrue(binned.getNbDirections() < unbinned.getNbDirections());
+
+		// Per support feature : shadowed area times duration
+		double[] expected = unbinned.accumulateOnFeatures(ground());
+		double[] actual = binned.accumulateOnFeatures(ground());
+		double sumExpected = 0;
+		double sumActual = 0;
+		for (int i = 0; i < expected.length; i++) {
+			sumExpected = sumExpected + expected[i];
+			sumActual = sumActual + actual[i];
+			assertEquals(expected[i], actual[i], 0.05 * CELL * CELL * unbinned.getTotalWeight());
+		}
+		log.info("Total : " + sumExpected + " binned : " + sumActual);
+		assertTrue(sumExpected > 0);
+		assertEquals(sumExpected, sumActual, 0.02 * sumExpected);
+
+		// Per grid cell : shadow duration
+		GM_Envelope env = new GM_Envelope(0, SIDE, 0, SIDE);
+		double[][] gridExpected = unbinned.accumulateOnGrid(env, CELL / 4);
+		double[][] gridActual = binned.accumulateOnGrid(env, CELL / 4);
+		sumExpected = 0;
+		sumActual = 0;
+		for (int row = 0; row < gridExpected.length; row++) {
+			for (int col = 0; col < gridExpected[row].length; col++) {
+				sumExpected = sumExpected + gridExpected[row][col];
+				sumActual = sumActual + gridActual[row][col];
+			}
+		}
+		log.info("Grid total : " + sumExpected + " binned : " + sumActual);
+		assertTrue(sumExpected > 0);
+		assertEquals(sumExpected, sumActual, 0.02 * sumExpected);
+	}
+
+	@Test
+	// --------------------------------------------------------------------------------
+	// Test of a shadow cast on the emprise further than backClip
+	// --------------------------------------------------------------------------------
+	public void testShadowOnEmpriseBeyondBackClip() {
+
+		log.info("Test of a shadow cast on the emprise further than backClip");
+
+		IFeatureCollection<IFeature> buildings = new FT_FeatureCollection<IFeature>();
+		buildings.add(building(0, 0, CELL));
+
+		// No support feature under the shadow : it is cast on the emprise
+		IFeatureCollection<IFeature> supports = new FT_FeatureCollection<IFeature>();
+		supports.add(new DefaultFeature(Utils.createSquarePolygon(CELL, 1000, 1000)));
+
+		double backClip = CELL;
+		ShadowAccumulation accumulation = new ShadowAccumulation(buildings, supports,
+				Utils.createSquarePolygon(4 * SIDE, -SIDE, -SIDE), 0.01, backClip);
+
+		// Sun 15° above the horizon, shadows towards +X : the shadow of the
+		// building is CELL / tan(15°) long, about 3.7 CELL
+		double elevation = Math.toRadians(15);
+		accumulation.addDirection(new Vecteur(Math.cos(elevation), 0, -Math.sin(elevation)), 1);
+
+		// Grid between 2.5 and 3.5 CELL from the building, beyond backClip
+		GM_Envelope env = new GM_Envelope(3.5 * CELL, 4.5 * CELL, 0.25 * CELL, 0.75 * CELL);
+		double[][] grid = accumulation.accumulateOnGrid(env, CELL / 4);
+		for (int row = 0; row < grid.length; row++) {
+			for (int col = 0; col < grid[row].length; col++) {
+				assertEquals(1.0, grid[row][col], 1e-9);
+			}
+		}
+	}
+}
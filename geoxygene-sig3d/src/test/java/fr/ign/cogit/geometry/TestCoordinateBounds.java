@@ -0,0 +1,96 @@
+package fr.ign.cogit.geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.sig3d.model.citygml.geometry.CoordinateBounds;
+import junit.framework.TestCase;
+
+public class TestCoordinateBounds extends TestCase {
+
+	// ---------------------------------- ATTRIBUTES ----------------------------------
+
+	private static Logger log = Logger.getLogger(TestCoordinateBounds.class);
+
+	private static final int NB_POINTS = 10000;
+
+	private static final int CHUNK_SIZE = 300;
+
+	// ------------------------------------ TESTS -------------------------------------
+
+	@Test
+	public void testEmpty() {
+		CoordinateBounds bounds = new CoordinateBounds();
+		assertTrue(bounds.isEmpty());
+
+		// An empty chunk does not change the bounds it is merged into
+		CoordinateBounds other = new CoordinateBounds();
+		other.add(1, -2, 3);
+		other.add(new CoordinateBounds());
+		assertFalse(other.isEmpty());
+		assertEquals(1.0, other.getXMin());
+		assertEquals(1.0, other.getXMax());
+		assertEquals(-2.0, other.getYMin());
+		assertEquals(3.0, other.getZMax());
+	}
+
+	@Test
+	public void testChunksMatchSequential() throws Exception {
+		Random random = new Random(42);
+		final double[][] points = new double[NB_POINTS][3];
+		for (double[] p : points) {
+			p[0] = 1000 * random.nextGaussian();
+			p[1] = -500 + 1000 * random.nextDouble();
+			p[2] = 50 * random.nextGaussian();
+		}
+
+		CoordinateBounds sequential = new CoordinateBounds();
+		for (double[] p : points) {
+			sequential.add(p[0], p[1], p[2]);
+		}
+
+		// Each chunk is accumulated by its own task, as during the streaming
+		// conversion, then merged once
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		CoordinateBounds merged = new CoordinateBounds();
+		try {
+			List<Future<CoordinateBounds>> futures = new ArrayList<Future<CoordinateBounds>>();
+			for (int start = 0; start < NB_POINTS; start += CHUNK_SIZE) {
+				final int from = start;
+				final int to = Math.min(start + CHUNK_SIZE, NB_POINTS);
+				futures.add(executor.submit(new Callable<CoordinateBounds>() {
+					@Override
+					public CoordinateBounds call() {
+						CoordinateBounds chunk = new CoordinateBounds();
+						for (int i = from; i < to; i++) {
+							chunk.add(points[i][0], points[i][1], points[i][2]);
+						}
+						return chunk;
+					}
+				}));
+			}
+			for (Future<CoordinateBounds> future : futures) {
+				merged.add(future.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		log.info("Bounds : " + merged.getXMin() + " " + merged.getXMax());
+
+		assertEquals(sequential.getXMin(), merged.getXMin());
+		assertEquals(sequential.getYMin(), merged.getYMin());
+		assertEquals(sequential.getZMin(), merged.getZMin());
+		assertEquals(sequential.getXMax(), merged.getXMax());
+		assertEquals(sequential.getYMax(), merged.getYMax());
+		assertEquals(sequential.getZMax(), merged.getZMax());
+	}
+}
@@ -170,18 +170,65 @@ public abstract class Distances {
    * Approximation de la première composante de Hausdorff d'une ligne vers une
    * autre. Elle est calculee comme le maximum des distances des points
    * intermédiaires de la première ligne L1 à l'autre ligne L2.
+   * <p>
+   * Pour des lignes planes, le calcul se fait sur un {@link SegmentIndex} de
+   * L2 : la recherche du segment le plus proche de chaque point est élaguée
+   * par la hiérarchie de rectangles englobants et par le maximum courant.
    */
   public static double premiereComposanteHausdorff(ILineString l1,
       ILineString l2) {
+    return Distances.premiereComposanteHausdorff(l1, l2,
+        Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Première composante de Hausdorff d'une ligne vers une autre, avec abandon
+   * du calcul dès que le résultat dépasse {@code dmax}. Utile pour comparer à
+   * un seuil d'appariement.
+   * @return la première composante de Hausdorff de l1 vers l2 si elle est
+   *         inférieure ou égale à dmax, une valeur strictement supérieure à
+   *         dmax sinon
+   */
+  public static double premiereComposanteHausdorff(ILineString l1,
+      ILineString l2, double dmax) {
+    if (Distances.isPlanar(l1.coord(), l2.coord())) {
+      return new SegmentIndex(l2).premiereComposanteHausdorff(
+          new SegmentIndex(l1), dmax);
+    }
     double result = 0;
     for (IDirectPosition p : l1.coord()) {
       double dist = Distances.distance(p, l2);
       // double dist = l2.distance(p.toGM_Point());
       result = Math.max(dist, result);
+      if (result > dmax) {
+        return result;
+      }
     }
     return result;
   }
 
+  /**
+   * Vrai si tous les points des deux listes ont le même Z (ou tous un Z NaN) :
+   * les distances 3D sont alors égales aux distances 2D et les calculs peuvent
+   * se faire en 2D sur des tableaux de coordonnées.
+   */
+  private static boolean isPlanar(IDirectPositionList l1,
+      IDirectPositionList l2) {
+    if (l1.isEmpty() || l2.isEmpty()) {
+      return false;
+    }
+    double z = l1.get(0).getZ();
+    for (IDirectPositionList list : new IDirectPositionList[] { l1, l2 }) {
+      for (IDirectPosition p : list) {
+        double zp = p.getZ();
+        if (Double.isNaN(z) ? !Double.isNaN(zp) : zp != z) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   /**
    * Approximation (très proche) de la distance de Hausdorff entre deux lignes.
    * Elle est calculee comme le maximum des distances d'un point intermediaire
@@ -192,10 +239,49 @@ public abstract class Distances {
    * simplicité et précision.
    */
   public static double hausdorff(ILineString L1, ILineString L2) {
+    if (Distances.isPlanar(L1.coord(), L2.coord())) {
+      return Distances.hausdorff(new SegmentIndex(L1), new SegmentIndex(L2));
+    }
     return Math.max(Distances.premiereComposanteHausdorff(L1, L2),
         Distances.premiereComposanteHausdorff(L2, L1));
   }
 
+  /**
+   * Distance de Hausdorff (au sens de {@link #hausdorff(ILineString, ILineString)})
+   * entre deux lignes déjà indexées, en 2D.
+   */
+  public static double hausdorff(SegmentIndex l1, SegmentIndex l2) {
+    double d = l2.premiereComposanteHausdorff(l1);
+    // la seconde composante ne sert que si elle dépasse la première
+    return l1.premiereComposanteHausdorff(l2, d, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Distances de Hausdorff d'une ligne à chacune des lignes d'une liste. La
+   * ligne L n'est indexée qu'une fois pour toute la liste.
+   * @param l une ligne
+   * @param lines des lignes
+   * @return le tableau des distances de Hausdorff de l à chaque ligne de lines,
+   *         dans l'ordre de la liste
+   */
+  public static double[] hausdorff(ILineString l,
+      List<? extends ILineString> lines) {
+    double[] result = new double[lines.size()];
+    SegmentIndex index = null;
+    for (int i = 0; i < result.length; i++) {
+      ILineString other = lines.get(i);
+      if (Distances.isPlanar(l.coord(), other.coord())) {
+        if (index == null) {
+          index = new SegmentIndex(l);
+        }
+        result[i] = Distances.hausdorff(index, new SegmentIndex(other));
+      } else {
+        result[i] = Distances.hausdorff(l, other);
+      }
+    }
+    return result;
+  }
+
   /**
    * Distance de Hausdorff entre un point P et une ligne L. C'est-à-dire
    * distance au point P du point intermédiaire de la ligne L le plus éloigné du
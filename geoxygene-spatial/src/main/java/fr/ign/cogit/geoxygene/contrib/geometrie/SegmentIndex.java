@@ -0,0 +1,304 @@
+/*
+ * This file is part of the GeOxygene project source files. GeOxygene aims at
+ * providing an open framework which implements OGC/ISO specifications for the
+ * development and deployment of geographic (GIS) applications. It is a open
+ * source contribution of the COGIT laboratory at the Institut Géographique
+ * National (the French National Mapping Agency). See:
+ * http://oxygene-project.sourceforge.net Copyright (C) 2005 Institut
+ * Géographique National This library is free software; you can redistribute it
+ * and/or modify it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of the License,
+ * or any later version. This library is distributed in the hope that it will be
+ * useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser
+ * General Public License for more details. You should have received a copy of
+ * the GNU Lesser General Public License along with this library (see file
+ * LICENSE if present); if not, write to the Free Software Foundation, Inc., 59
+ * Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package fr.ign.cogit.geoxygene.contrib.geometrie;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
+
+/**
+ * Index des segments d'une polyligne, en 2D, pour les calculs répétés de
+ * distance d'un point à la polyligne. Les coordonnées sont recopiées dans des
+ * tableaux de doubles et les segments sont regroupés en une hiérarchie de
+ * rectangles englobants : des segments consécutifs d'une polyligne étant
+ * proches, chaque noeud de la hiérarchie couvre un intervalle d'indices de
+ * segments. La recherche du segment le plus proche élague alors les noeuds dont
+ * le rectangle est trop loin.
+ * <p>
+ * English: 2D segment index of a polyline on packed coordinate arrays, used to
+ * accelerate repeated point to polyline distances (Hausdorff).
+ * @author GeOxygene
+ */
+public class SegmentIndex {
+
+  /** Nombre maximal de segments dans une feuille de la hiérarchie. */
+  private static final int LEAF_SIZE = 8;
+
+  /** Abscisses des sommets. */
+  private final double[] xs;
+  /** Ordonnées des sommets. */
+  private final double[] ys;
+  /** Nombre de sommets. */
+  private final int size;
+
+  /*
+   * Noeuds de la hiérarchie, stockés à plat : rectangle englobant, intervalle
+   * [start, end[ de segments couverts et fils (-1 pour une feuille).
+   */
+  private double[] minX;
+  private double[] maxX;
+  private double[] minY;
+  private double[] maxY;
+  private int[] start;
+  private int[] end;
+  private int[] left;
+  private int[] right;
+  private int nbNodes = 0;
+
+  /**
+   * Index des segments de la ligne.
+   * @param line une ligne
+   */
+  public SegmentIndex(ILineString line) {
+    this(line.coord());
+  }
+
+  /**
+   * Index des segments de la liste de points.
+   * @param points une liste de points, non vide
+   */
+  public SegmentIndex(IDirectPositionList points) {
+    this.size = points.size();
+    this.xs = new double[this.size];
+    this.ys = new double[this.size];
+    for (int i = 0; i < this.size; i++) {
+      IDirectPosition p = points.get(i);
+      this.xs[i] = p.getX();
+      this.ys[i] = p.getY();
+    }
+    this.build();
+  }
+
+  /**
+   * Index des segments de la polyligne dont les coordonnées sont données.
+   * Les tableaux ne sont pas recopiés.
+   * @param xs abscisses des sommets
+   * @param ys ordonnées des sommets
+   * @param size nombre de sommets, au moins 1
+   */
+  public SegmentIndex(double[] xs, double[] ys, int size) {
+    this.xs = xs;
+    this.ys = ys;
+    this.size = size;
+    this.build();
+  }
+
+  /** @return le nombre de sommets de la polyligne indexée */
+  public int size() {
+    return this.size;
+  }
+
+  /** @return l'abscisse du sommet i */
+  public double getX(int i) {
+    return this.xs[i];
+  }
+
+  /** @return l'ordonnée du sommet i */
+  public double getY(int i) {
+    return this.ys[i];
+  }
+
+  private void build() {
+    // une polyligne réduite à un point est traitée comme un segment dégénéré
+    int nbSegments = Math.max(1, this.size - 1);
+    // les feuilles contiennent au moins LEAF_SIZE / 2 segments
+    int capacity = 2 * (nbSegments / (SegmentIndex.LEAF_SIZE / 2) + 1);
+    this.minX = new double[capacity];
+    this.maxX = new double[capacity];
+    this.minY = new double[capacity];
+    this.maxY = new double[capacity];
+    this.start = new int[capacity];
+    this.end = new int[capacity];
+    this.left = new int[capacity];
+    this.right = new int[capacity];
+    this.buildNode(0, nbSegments);
+  }
+
+  private int buildNode(int from, int to) {
+    int node = this.nbNodes++;
+    this.start[node] = from;
+    this.end[node] = to;
+    if (to - from <= SegmentIndex.LEAF_SIZE) {
+      this.left[node] = -1;
+      this.right[node] = -1;
+      double x0 = Double.POSITIVE_INFINITY, x1 = Double.NEGATIVE_INFINITY;
+      double y0 = Double.POSITIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+      int last = Math.min(to, this.size - 1);
+      for (int i = from; i <= last; i++) {
+        x0 = Math.min(x0, this.xs[i]);
+        x1 = Math.max(x1, this.xs[i]);
+        y0 = Math.min(y0, this.ys[i]);
+        y1 = Math.max(y1, this.ys[i]);
+      }
+      this.minX[node] = x0;
+      this.maxX[node] = x1;
+      this.minY[node] = y0;
+      this.maxY[node] = y1;
+      return node;
+    }
+    int middle = (from + to) >>> 1;
+    int l = this.buildNode(from, middle);
+    int r = this.buildNode(middle, to);
+    this.left[node] = l;
+    this.right[node] = r;
+    this.minX[node] = Math.min(this.minX[l], this.minX[r]);
+    this.maxX[node] = Math.max(this.maxX[l], this.maxX[r]);
+    this.minY[node] = Math.min(this.minY[l], this.minY[r]);
+    this.maxY[node] = Math.max(this.maxY[l], this.maxY[r]);
+    return node;
+  }
+
+  /** Carré de la distance du point (px, py) au rectangle du noeud. */
+  private double boxDistance2(int node, double px, double py) {
+    double dx = Math.max(0, Math.max(this.minX[node] - px, px - this.maxX[node]));
+    double dy = Math.max(0, Math.max(this.minY[node] - py, py - this.maxY[node]));
+    return dx * dx + dy * dy;
+  }
+
+  /** Carré de la distance du point (px, py) au segment [i, i+1]. */
+  private double segmentDistance2(int i, double px, double py) {
+    double ax = this.xs[i], ay = this.ys[i];
+    if (i + 1 >= this.size) {
+      return (px - ax) * (px - ax) + (py - ay) * (py - ay);
+    }
+    double bx = this.xs[i + 1], by = this.ys[i + 1];
+    double abx = bx - ax, aby = by - ay;
+    double apx = px - ax, apy = py - ay;
+    double norm2 = abx * abx + aby * aby;
+    double t = norm2 == 0 ? 0 : (apx * abx + apy * aby) / norm2;
+    if (t <= 0) {
+      return apx * apx + apy * apy;
+    }
+    if (t >= 1) {
+      return (px - bx) * (px - bx) + (py - by) * (py - by);
+    }
+    double dx = apx - t * abx, dy = apy - t * aby;
+    return dx * dx + dy * dy;
+  }
+
+  /**
+   * Distance euclidienne 2D du point (px, py) à la polyligne indexée.
+   * @return distance du point à la polyligne
+   */
+  public double distance(double px, double py) {
+    return Math.sqrt(this.distance2(px, py, -1));
+  }
+
+  /**
+   * Distance euclidienne 2D du point à la polyligne indexée.
+   * @return distance du point à la polyligne
+   */
+  public double distance(IDirectPosition point) {
+    return this.distance(point.getX(), point.getY());
+  }
+
+  /**
+   * Carré de la distance du point à la polyligne. La recherche s'arrête dès
+   * qu'un segment à moins de {@code sqrt(stop2)} est trouvé : la valeur
+   * renvoyée est alors seulement garantie inférieure ou égale à {@code stop2}.
+   * Un seuil négatif donne la distance exacte.
+   */
+  private double distance2(double px, double py, double stop2) {
+    double best = Double.POSITIVE_INFINITY;
+    int[] stack = new int[64];
+    int top = 0;
+    stack[top++] = 0;
+    while (top > 0) {
+      int node = stack[--top];
+      if (this.boxDistance2(node, px, py) >= best) {
+        continue;
+      }
+      if (this.left[node] < 0) {
+        for (int i = this.start[node]; i < this.end[node]; i++) {
+          double d = this.segmentDistance2(i, px, py);
+          if (d < best) {
+            best = d;
+            if (best <= stop2) {
+              return best;
+            }
+          }
+        }
+        continue;
+      }
+      int l = this.left[node];
+      int r = this.right[node];
+      if (top + 2 > stack.length) {
+        int[] newStack = new int[stack.length * 2];
+        System.arraycopy(stack, 0, newStack, 0, top);
+        stack = newStack;
+      }
+      // le fils le plus proche est empilé en dernier pour être visité d'abord
+      if (this.boxDistance2(l, px, py) <= this.boxDistance2(r, px, py)) {
+        stack[top++] = r;
+        stack[top++] = l;
+      } else {
+        stack[top++] = l;
+        stack[top++] = r;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Première composante de Hausdorff des sommets de {@code other} vers la
+   * polyligne indexée : maximum des distances des sommets de other à this.
+   * Pour chaque sommet, la recherche s'arrête dès que sa distance ne peut plus
+   * augmenter le maximum courant.
+   * @param other polyligne dont on parcourt les sommets
+   * @return la première composante de Hausdorff de other vers this
+   */
+  public double premiereComposanteHausdorff(SegmentIndex other) {
+    return this.premiereComposanteHausdorff(other, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Première composante de Hausdorff de {@code other} vers la polyligne
+   * indexée, avec abandon dès que le résultat dépasse {@code dmax}.
+   * @param other polyligne dont on parcourt les sommets
+   * @param dmax distance au-delà de laquelle le calcul est abandonné
+   * @return la première composante de Hausdorff si elle est inférieure ou égale
+   *         à dmax, une valeur strictement supérieure à dmax sinon
+   */
+  public double premiereComposanteHausdorff(SegmentIndex other, double dmax) {
+    return this.premiereComposanteHausdorff(other, 0, dmax);
+  }
+
+  /**
+   * Maximum entre {@code lowerBound} et la première composante de Hausdorff de
+   * other vers this. Les sommets à moins de lowerBound de this ne sont pas
+   * localisés précisément.
+   */
+  double premiereComposanteHausdorff(SegmentIndex other, double lowerBound,
+      double dmax) {
+    double dmax2 = dmax * dmax;
+    double result2 = lowerBound * lowerBound;
+    for (int i = 0; i < other.size; i++) {
+      double d2 = this.distance2(other.xs[i], other.ys[i], result2);
+      if (d2 > result2) {
+        result2 = d2;
+        if (result2 > dmax2) {
+          return Math.sqrt(result2);
+        }
+      }
+    }
+    return Math.sqrt(result2);
+  }
+
+}
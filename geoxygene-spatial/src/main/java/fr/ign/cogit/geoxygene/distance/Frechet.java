@@ -19,48 +19,53 @@ import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
  */
 public class Frechet {
   /**
-   * Internal method for computing the discrete Fréchet distance using a dynamic
-   * programming approach.
-   * @param p linestring
-   * @param q linestring
-   * @param i index on p
-   * @param j index on q
-   * @param ca matrix containing the computed distances between the points from
-   *          p and q. Its size is p*q.
-   * @return the coupling measure between points i of p and j of q
-   * @see #discreteFrechet(ILineString, ILineString)
+   * Coordinates of the vertices of a linestring packed in arrays, so that the
+   * distance computations of the dynamic programming loops do not go through
+   * {@link IDirectPosition} objects.
    */
-  private static double discreteFrechetCouplingMeasure(ILineString p,
-      ILineString q, int i, int j, double[][] ca) {
-    if (ca[i][j] > -1) {
-      return ca[i][j];
-    }
-    double d = p.getControlPoint(i).distance(q.getControlPoint(j));
-    if (i == 0 && j == 0) {
-      return ca[i][j] = d;
-    }
-    if (i > 0 && j == 0) {
-      return ca[i][j] = Math.max(
-          discreteFrechetCouplingMeasure(p, q, i - 1, j, ca), d);
-    }
-    if (i == 0 && j > 0) {
-      return ca[i][j] = Math.max(
-          discreteFrechetCouplingMeasure(p, q, i, j - 1, ca), d);
-    }
-    if (i > 0 && j > 0) {
-      return ca[i][j] = Math.max(Math.min(
-          discreteFrechetCouplingMeasure(p, q, i - 1, j, ca), Math.min(
-              discreteFrechetCouplingMeasure(p, q, i - 1, j - 1, ca),
-              discreteFrechetCouplingMeasure(p, q, i, j - 1, ca))), d);
+  private static final class PackedLine {
+    final double[] x;
+    final double[] y;
+    final double[] z;
+    final int size;
+
+    PackedLine(ILineString line) {
+      IDirectPositionList points = line.coord();
+      this.size = points.size();
+      this.x = new double[this.size];
+      this.y = new double[this.size];
+      this.z = new double[this.size];
+      for (int i = 0; i < this.size; i++) {
+        IDirectPosition point = points.get(i);
+        this.x[i] = point.getX();
+        this.y[i] = point.getY();
+        this.z[i] = point.getZ();
+      }
     }
 
-    return ca[i][j] = Double.POSITIVE_INFINITY;
+    /**
+     * Distance between vertex i of this and vertex j of other, in 3D when both
+     * vertices have a z, as {@link IDirectPosition#distance(IDirectPosition)}.
+     */
+    double distance(int i, PackedLine other, int j) {
+      double dx = this.x[i] - other.x[j];
+      double dy = this.y[i] - other.y[j];
+      double z1 = this.z[i];
+      double z2 = other.z[j];
+      if (Double.isNaN(z1) || Double.isNaN(z2) || Double.isInfinite(z1)
+          || Double.isInfinite(z2)) {
+        return Math.sqrt(dx * dx + dy * dy);
+      }
+      double dz = z1 - z2;
+      return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
   }
 
   /**
    * Discrete Fréchet distance.
    * <p>
-   * Complexity O(pq).
+   * Complexity O(pq) in time, O(min(p, q)) in memory: the coupling measures
+   * are computed iteratively, row by row, keeping only the previous row.
    * <p>
    * Eiter, Thomas; Mannila, Heikki (1994), Computing discrete Fréchet distance,
    * Tech. Report CD-TR 94/64, Christian Doppler Laboratory for Expert Systems,
@@ -70,19 +75,88 @@ public class Frechet {
    * @return the discrete Fréchet distance between the 2 input polygonal curves
    */
   public static double discreteFrechet(ILineString p, ILineString q) {
-    // System.out.println("FRECHET P = " + p);
-    // System.out.println("FRECHET Q = " + q);
-    int sizeP = p.sizeControlPoint();
-    int sizeQ = q.sizeControlPoint();
-    double[][] ca = new double[sizeP][sizeQ];
-    for (int i = 0; i < sizeP; i++) {
-      for (int j = 0; j < sizeQ; j++) {
-        ca[i][j] = -1.0;
+    PackedLine rows = new PackedLine(p);
+    PackedLine columns = new PackedLine(q);
+    // the distance is symmetric: the rows run along the longer curve, so that
+    // the arrays of the dynamic programming are sized on the shorter one
+    if (rows.size < columns.size) {
+      PackedLine tmp = rows;
+      rows = columns;
+      columns = tmp;
+    }
+    int sizeQ = columns.size;
+    double[] previous = new double[sizeQ];
+    double[] current = new double[sizeQ];
+    current[0] = rows.distance(0, columns, 0);
+    for (int j = 1; j < sizeQ; j++) {
+      current[j] = Math.max(current[j - 1], rows.distance(0, columns, j));
+    }
+    for (int i = 1; i < rows.size; i++) {
+      double[] tmp = previous;
+      previous = current;
+      current = tmp;
+      current[0] = Math.max(previous[0], rows.distance(i, columns, 0));
+      for (int j = 1; j < sizeQ; j++) {
+        double coupling = Math.min(previous[j],
+            Math.min(previous[j - 1], current[j - 1]));
+        current[j] = Math.max(coupling, rows.distance(i, columns, j));
       }
     }
-    double d = discreteFrechetCouplingMeasure(p, q, sizeP - 1, sizeQ - 1, ca);
+    return current[sizeQ - 1];
+  }
 
-    return d;
+  /**
+   * Decision version of the discrete Fréchet distance: is the discrete Fréchet
+   * distance between p and q lower or equal to epsilon? The computation stops
+   * as soon as no coupling within epsilon can be extended, which makes it much
+   * cheaper than {@link #discreteFrechet(ILineString, ILineString)} when used
+   * against a matching threshold.
+   * <p>
+   * Complexity O(pq) in time in the worst case, O(min(p, q)) in memory.
+   * @param p linestring
+   * @param q linestring
+   * @param epsilon distance threshold
+   * @return true if the discrete Fréchet distance between p and q is lower or
+   *         equal to epsilon
+   */
+  public static boolean isDiscreteFrechetWithin(ILineString p, ILineString q,
+      double epsilon) {
+    PackedLine rows = new PackedLine(p);
+    PackedLine columns = new PackedLine(q);
+    if (rows.size < columns.size) {
+      PackedLine tmp = rows;
+      rows = columns;
+      columns = tmp;
+    }
+    int sizeQ = columns.size;
+    // the coupling has to start and end on the extremities
+    if (rows.distance(0, columns, 0) > epsilon
+        || rows.distance(rows.size - 1, columns, sizeQ - 1) > epsilon) {
+      return false;
+    }
+    boolean[] previous = new boolean[sizeQ];
+    boolean[] current = new boolean[sizeQ];
+    current[0] = true;
+    for (int j = 1; j < sizeQ; j++) {
+      current[j] = current[j - 1] && rows.distance(0, columns, j) <= epsilon;
+    }
+    for (int i = 1; i < rows.size; i++) {
+      boolean[] tmp = previous;
+      previous = current;
+      current = tmp;
+      boolean reachable = false;
+      for (int j = 0; j < sizeQ; j++) {
+        boolean coupling = previous[j] || (j > 0
+            && (previous[j - 1] || current[j - 1]));
+        current[j] = coupling && rows.distance(i, columns, j) <= epsilon;
+        reachable |= current[j];
+      }
+      // early abandon: no coupling within epsilon reaches this row
+      if (!reachable) {
+        return false;
+      }
+    }
+    return current[sizeQ - 1];
   }
 
   /**
@@ -20,6 +20,8 @@
 package fr.ign.cogit.geoxygene.generalisation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -183,47 +185,20 @@ public class Filtering {
   public static List<IDirectPosition> DouglasPeuckerList(
       List<IDirectPosition> PtList, double seuil) {
 
-    List<IDirectPosition> douglasVector = new ArrayList<IDirectPosition>();
+    List<IDirectPosition> filtreVector = new ArrayList<IDirectPosition>();
     if (PtList.isEmpty()) {
-      return douglasVector;
+      return filtreVector;
     }
-    List<IDirectPosition> filtreVector = new ArrayList<IDirectPosition>();
-
-    int i = 0;
-    int k = 0;
-    double dist = 0.0;
-    double max = 0.0;
-    IDirectPosition Pt;
-
     int nbpts = PtList.size();
-    IDirectPosition PtIni = PtList.get(0);
-    IDirectPosition PtFin = PtList.get(nbpts - 1);
-    if (nbpts > 2) {
-      for (k = 1; k < nbpts - 1; k++) {
-        Pt = PtList.get(k);
-        dist = Filtering.distLigne(Pt, PtIni, PtFin);
-        if ((dist >= seuil) && (dist > max)) {
-          i = k;
-          max = dist;
-        }
-      }
-    }
+    boolean[] gardes = new boolean[nbpts];
+    Filtering.marqueDouglasPeucker(PtList, 0, nbpts - 1, seuil, gardes);
 
-    if (i != 0) {
-      douglasVector.addAll(Filtering.DouglasPeuckerList(new DirectPositionList(
-          PtList.subList(0, i + 1)), seuil));
-      douglasVector.addAll(Filtering.DouglasPeuckerList(new DirectPositionList(
-          PtList.subList(i, nbpts)), seuil));
-    } else {
-      douglasVector.add(PtIni);
-      douglasVector.add(PtFin);
-    }
     /* elimination des doublons */
-    IDirectPosition ptmul = douglasVector.get(0);
+    IDirectPosition ptmul = PtList.get(0);
     filtreVector.add(ptmul);
-    for (k = 0; k < douglasVector.size(); k++) {
-      Pt = douglasVector.get(k);
-      if (!Pt.equals2D(ptmul, 0.)) {
+    for (int k = 1; k < nbpts; k++) {
+      IDirectPosition Pt = PtList.get(k);
+      if (gardes[k] && !Pt.equals2D(ptmul, 0.)) {
         filtreVector.add(Pt);
         ptmul = Pt;
       }
@@ -231,8 +206,104 @@ public class Filtering {
     return filtreVector;
   }
 
+  /**
+   * Douglas-Peucker entre deux points d'une liste, sans copie : les points
+   * conservés sont marqués dans un tableau. Les deux extrémités sont toujours
+   * conservées ; entre deux points conservés, on garde le premier point le
+   * plus éloigné de leur segment, s'il en est à au moins le seuil.
+   * @param PtList liste de points
+   * @param debut rang du premier point
+   * @param fin rang du dernier point
+   * @param seuil seuil utilisé
+   * @param gardes marque des points conservés, rempli entre debut et fin
+   */
+  static void marqueDouglasPeucker(List<IDirectPosition> PtList, int debut,
+      int fin, double seuil, boolean[] gardes) {
+    gardes[debut] = true;
+    gardes[fin] = true;
+    // pile des intervalles restant à traiter, à la place de la récursivité
+    int[] pile = new int[16];
+    int taille = 0;
+    pile[taille++] = debut;
+    pile[taille++] = fin;
+    while (taille > 0) {
+      int j = pile[--taille];
+      int i = pile[--taille];
+      int k = Filtering.pointLePlusEloigne(PtList, i, j, seuil);
+      if (k < 0) {
+        continue;
+      }
+      gardes[k] = true;
+      if (taille + 4 > pile.length) {
+        pile = Arrays.copyOf(pile, 2 * pile.length);
+      }
+      pile[taille++] = k;
+      pile[taille++] = j;
+      pile[taille++] = i;
+      pile[taille++] = k;
+    }
+  }
+
+  /**
+   * Premier point le plus éloigné du segment joignant deux points d'une liste,
+   * parmi ceux qui les séparent.
+   * @param PtList liste de points
+   * @param i rang du premier point
+   * @param j rang du dernier point
+   * @param seuil distance minimale du point au segment
+   * @return le rang du point, ou -1 si aucun n'est à au moins le seuil
+   */
+  static int pointLePlusEloigne(List<IDirectPosition> PtList, int i, int j,
+      double seuil) {
+    int rang = -1;
+    double max = 0.0;
+    IDirectPosition PtIni = PtList.get(i);
+    IDirectPosition PtFin = PtList.get(j);
+    for (int k = i + 1; k < j; k++) {
+      double dist = Filtering.distLigne(PtList.get(k), PtIni, PtFin);
+      if ((dist >= seuil) && (dist > max)) {
+        rang = k;
+        max = dist;
+      }
+    }
+    return rang;
+  }
+
+  /**
+   * Filtrage de Douglas-Peucker sur tout un ensemble de géométries, en
+   * préservant la topologie entre elles : les lignes et contours de polygones
+   * sont découpés en arcs aux points où ils se rejoignent, chaque arc commun à
+   * plusieurs géométries n'est filtré qu'une fois, et des points sont remis
+   * là où le filtrage créerait une intersection ou un anneau dégénéré. Les
+   * arcs sont filtrés en parallèle.
+   * <p>
+   * Les géométries adjacentes doivent partager exactement les sommets de
+   * leurs limites communes.
+   * @param geometries géométries à filtrer (polylignes, polygones et leurs
+   *          agrégats ; les autres géométries sont conservées telles quelles)
+   * @param seuil seuil utilisé
+   * @param nbThreads nombre de threads de calcul
+   * @return les géométries filtrées, dans l'ordre des géométries en entrée
+   */
+  public static List<IGeometry> DouglasPeuckerTopologique(
+      Collection<? extends IGeometry> geometries, double seuil, int nbThreads) {
+    return new FiltrageTopologique(seuil, nbThreads).filtre(geometries);
+  }
+
+  /**
+   * Filtrage de Douglas-Peucker sur tout un ensemble de géométries, en
+   * préservant la topologie entre elles, avec autant de threads que de
+   * processeurs. Voir
+   * {@link #DouglasPeuckerTopologique(Collection, double, int)}.
+   */
+  public static List<IGeometry> DouglasPeuckerTopologique(
+      Collection<? extends IGeometry> geometries, double seuil) {
+    return Filtering.DouglasPeuckerTopologique(geometries, seuil, Runtime
+        .getRuntime().availableProcessors());
+  }
+
   /** distance du point P a la droite [AB] */
-  private static double distLigne(IDirectPosition P, IDirectPosition A,
+  static double distLigne(IDirectPosition P, IDirectPosition A,
       IDirectPosition B) {
     // equation de (AB): y = m1x + p1
     // on appelle H le projete de P sur [AB]
@@ -0,0 +1,673 @@
+/*
+ * This file is part of the GeOxygene project source files.
+ *
+ * GeOxygene aims at providing an open framework which implements OGC/ISO
+ * specifications for the development and deployment of geographic (GIS)
+ * applications. It is a open source contribution of the COGIT laboratory at the
+ * Institut Géographique National (the French National Mapping Agency).
+ *
+ * See: http://oxygene-project.sourceforge.net
+ *
+ * Copyright (C) 2005 Institut Géographique National
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library (see file LICENSE if present); if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+
+package fr.ign.cogit.geoxygene.generalisation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import com.vividsolutions.jts.algorithm.LineIntersector;
+import com.vividsolutions.jts.algorithm.RayCrossingCounter;
+import com.vividsolutions.jts.algorithm.RobustLineIntersector;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Location;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IAggregate;
+import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiCurve;
+import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiSurface;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.ICurve;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableCurve;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableSurface;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_Aggregate;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_MultiCurve;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_MultiSurface;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Ring;
+
+/**
+ * Filtrage de Douglas-Peucker d'un ensemble de géométries préservant leur
+ * topologie, voir
+ * {@link Filtering#DouglasPeuckerTopologique(Collection, double, int)}.
+ * <p>
+ * Les lignes et les contours des polygones forment des chaînes de points. Est
+ * un noeud tout point extrémité d'une ligne, ou relié dans l'ensemble des
+ * chaînes à un nombre d'autres points différent de deux. Les chaînes sont
+ * découpées aux noeuds en arcs, identifiés par leur suite de points quel que
+ * soit leur sens : un arc commun à plusieurs chaînes n'est donc filtré qu'une
+ * fois. Les arcs sont filtrés en parallèle, puis des points sont remis tant
+ * qu'un segment filtré en coupe un autre, qu'il passe par-dessus le sommet
+ * d'une autre chaîne (qui changerait alors de côté) ou qu'un anneau a moins de
+ * quatre points.
+ * @author GeOxygene
+ */
+final class FiltrageTopologique {
+
+  private static final Logger LOGGER = Logger
+      .getLogger(FiltrageTopologique.class.getName());
+
+  /** Nombre d'arcs traités par tâche. */
+  private static final int ARCS_PAR_TACHE = 256;
+
+  private final double seuil;
+  private final int nbThreads;
+
+  /** Arcs distincts, et leur rang selon leur suite de points. */
+  private final List<Arc> arcs = new ArrayList<Arc>();
+  private final Map<List<Coordinate>, Integer> rangsArcs = new HashMap<List<Coordinate>, Integer>();
+  /** Chaînes, dans l'ordre de parcours des géométries. */
+  private final List<Chaine> chaines = new ArrayList<Chaine>();
+
+  /** Suite de points entre deux noeuds, et marque des points conservés. */
+  private static class Arc {
+    final List<IDirectPosition> points;
+    final boolean[] gardes;
+    final boolean ferme;
+
+    Arc(List<IDirectPosition> points) {
+      this.points = points;
+      this.gardes = new boolean[points.size()];
+      this.ferme = points.get(0).equals2D(points.get(points.size() - 1), 0.);
+    }
+
+    int nbGardes() {
+      int nb = 0;
+      for (boolean garde : this.gardes) {
+        if (garde) {
+          nb++;
+        }
+      }
+      return nb;
+    }
+  }
+
+  /** Ligne ou anneau, parcourant des arcs. */
+  private static class Chaine {
+    final IDirectPositionList origine;
+    final boolean anneau;
+    // points sans doublons consécutifs, sans le point de fermeture des anneaux
+    List<IDirectPosition> points;
+    // rang de chaque arc parcouru fois 2, plus 1 s'il est parcouru à l'envers ;
+    // null si la chaîne est trop courte pour être filtrée
+    int[] codesArcs;
+
+    Chaine(IDirectPositionList origine, boolean anneau) {
+      this.origine = origine;
+      this.anneau = anneau;
+    }
+  }
+
+  /** Autres points reliés à un point, au plus deux, dans toutes les chaînes. */
+  private static class Voisinage {
+    Coordinate voisin1, voisin2;
+    boolean noeud = false;
+
+    void ajoute(Coordinate c) {
+      if (this.noeud || (this.voisin1 != null && c.equals2D(this.voisin1))
+          || (this.voisin2 != null && c.equals2D(this.voisin2))) {
+        return;
+      }
+      if (this.voisin1 == null) {
+        this.voisin1 = c;
+      } else if (this.voisin2 == null) {
+        this.voisin2 = c;
+      } else {
+        this.noeud = true;
+      }
+    }
+
+    boolean estNoeud() {
+      return this.noeud || this.voisin2 == null;
+    }
+  }
+
+  /** Traitement d'un intervalle de rangs d'arcs. */
+  private abstract static class Tache {
+    abstract void traite(int debut, int fin);
+  }
+
+  FiltrageTopologique(double seuil, int nbThreads) {
+    this.seuil = seuil;
+    this.nbThreads = Math.max(1, nbThreads);
+  }
+
+  List<IGeometry> filtre(Collection<? extends IGeometry> geometries) {
+    for (IGeometry geom : geometries) {
+      this.decompose(geom);
+    }
+    this.decoupe();
+    if (FiltrageTopologique.LOGGER.isDebugEnabled()) {
+      FiltrageTopologique.LOGGER.debug(this.chaines.size() + " chaînes, "
+          + this.arcs.size() + " arcs distincts");
+    }
+    this.execute(new Tache() {
+      @Override
+      void traite(int debut, int fin) {
+        for (int i = debut; i < fin; i++) {
+          Arc arc = FiltrageTopologique.this.arcs.get(i);
+          Filtering.marqueDouglasPeucker(arc.points, 0, arc.points.size() - 1,
+              FiltrageTopologique.this.seuil, arc.gardes);
+        }
+      }
+    }, this.arcs.size());
+    this.corrige();
+    List<IGeometry> resultat = new ArrayList<IGeometry>(geometries.size());
+    Iterator<Chaine> itChaines = this.chaines.iterator();
+    for (IGeometry geom : geometries) {
+      resultat.add(this.recompose(geom, itChaines));
+    }
+    return resultat;
+  }
+
+  // ///////////////////////////////////////////////////////////////////
+  // Découpage en arcs
+  // ///////////////////////////////////////////////////////////////////
+
+  private void decompose(IGeometry geom) {
+    if (geom instanceof IPolygon) {
+      IPolygon polygone = (IPolygon) geom;
+      this.chaines.add(new Chaine(polygone.getExterior().coord(), true));
+      for (int i = 0; i < polygone.sizeInterior(); i++) {
+        this.chaines.add(new Chaine(polygone.getInterior(i).coord(), true));
+      }
+    } else if (geom instanceof ICurve) {
+      ILineString ligne = ((ICurve) geom).asLineString(0.0, 0.0, 0.0);
+      this.chaines.add(new Chaine(ligne == null ? null : ligne.coord(), false));
+    } else if (geom instanceof IAggregate<?>) {
+      IAggregate<?> aggr = (IAggregate<?>) geom;
+      for (int i = 0; i < aggr.size(); i++) {
+        this.decompose(aggr.get(i));
+      }
+    }
+  }
+
+  private void decoupe() {
+    Map<Coordinate, Voisinage> voisinages = new HashMap<Coordinate, Voisinage>();
+    List<Coordinate[]> coordonnees = new ArrayList<Coordinate[]>(
+        this.chaines.size());
+    for (Chaine chaine : this.chaines) {
+      Coordinate[] coords = null;
+      if (chaine.origine != null) {
+        chaine.points = new ArrayList<IDirectPosition>(chaine.origine.size());
+        for (IDirectPosition p : chaine.origine) {
+          if (chaine.points.isEmpty()
+              || !p.equals2D(chaine.points.get(chaine.points.size() - 1), 0.)) {
+            chaine.points.add(p);
+          }
+        }
+        int m = chaine.points.size();
+        if (chaine.anneau && m > 1
+            && chaine.points.get(0).equals2D(chaine.points.get(m - 1), 0.)) {
+          chaine.points.remove(--m);
+        }
+        if (m >= (chaine.anneau ? 3 : 2)) {
+          coords = new Coordinate[m];
+          for (int i = 0; i < m; i++) {
+            IDirectPosition p = chaine.points.get(i);
+            coords[i] = new Coordinate(p.getX(), p.getY());
+          }
+          for (int i = 0; i < m; i++) {
+            Voisinage voisinage = voisinages.get(coords[i]);
+            if (voisinage == null) {
+              voisinage = new Voisinage();
+              voisinages.put(coords[i], voisinage);
+            }
+            if (chaine.anneau) {
+              voisinage.ajoute(coords[(i + m - 1) % m]);
+              voisinage.ajoute(coords[(i + 1) % m]);
+            } else if (i == 0 || i == m - 1) {
+              voisinage.noeud = true;
+            } else {
+              voisinage.ajoute(coords[i - 1]);
+              voisinage.ajoute(coords[i + 1]);
+            }
+          }
+        }
+      }
+      coordonnees.add(coords);
+    }
+
+    for (int c = 0; c < this.chaines.size(); c++) {
+      Chaine chaine = this.chaines.get(c);
+      Coordinate[] coords = coordonnees.get(c);
+      if (coords == null) {
+        continue;
+      }
+      int m = coords.length;
+      boolean[] noeuds = new boolean[m];
+      int debut = -1;
+      for (int i = 0; i < m; i++) {
+        noeuds[i] = voisinages.get(coords[i]).estNoeud();
+        if (noeuds[i] && debut < 0) {
+          debut = i;
+        }
+      }
+      // suite de points à découper, fermée pour les anneaux ; un anneau sans
+      // noeud commence à son plus petit point, comme tout anneau identique
+      List<IDirectPosition> suite = chaine.points;
+      if (chaine.anneau) {
+        if (debut < 0) {
+          debut = 0;
+          for (int i = 1; i < m; i++) {
+            if (coords[i].compareTo(coords[debut]) < 0) {
+              debut = i;
+            }
+          }
+        }
+        suite = new ArrayList<IDirectPosition>(m + 1);
+        boolean[] noeudsSuite = new boolean[m + 1];
+        for (int i = 0; i <= m; i++) {
+          suite.add(chaine.points.get((debut + i) % m));
+          noeudsSuite[i] = noeuds[(debut + i) % m];
+        }
+        noeudsSuite[0] = true;
+        noeudsSuite[m] = true;
+        noeuds = noeudsSuite;
+      }
+      List<Integer> codes = new ArrayList<Integer>();
+      int premier = 0;
+      for (int i = 1; i < suite.size(); i++) {
+        if (noeuds[i]) {
+          codes.add(Integer.valueOf(this.ajouteArc(suite.subList(premier, i + 1))));
+          premier = i;
+        }
+      }
+      chaine.codesArcs = new int[codes.size()];
+      for (int i = 0; i < chaine.codesArcs.length; i++) {
+        chaine.codesArcs[i] = codes.get(i).intValue();
+      }
+    }
+  }
+
+  /**
+   * @return le rang de l'arc fois 2, plus 1 si la suite de points est dans le
+   *         sens inverse de celui de l'arc
+   */
+  private int ajouteArc(List<IDirectPosition> points) {
+    int n = points.size();
+    Coordinate[] coords = new Coordinate[n];
+    for (int i = 0; i < n; i++) {
+      coords[i] = new Coordinate(points.get(i).getX(), points.get(i).getY());
+    }
+    // sens de l'arc : celui dont la suite de points est la plus petite
+    boolean inverse = false;
+    for (int i = 0; i < n; i++) {
+      int comparaison = coords[i].compareTo(coords[n - 1 - i]);
+      if (comparaison != 0) {
+        inverse = comparaison > 0;
+        break;
+      }
+    }
+    List<IDirectPosition> pointsArc = new ArrayList<IDirectPosition>(points);
+    if (inverse) {
+      for (int i = 0; i < n / 2; i++) {
+        Coordinate c = coords[i];
+        coords[i] = coords[n - 1 - i];
+        coords[n - 1 - i] = c;
+      }
+      Collections.reverse(pointsArc);
+    }
+    List<Coordinate> cle = Arrays.asList(coords);
+    Integer rang = this.rangsArcs.get(cle);
+    if (rang == null) {
+      rang = Integer.valueOf(this.arcs.size());
+      this.arcs.add(new Arc(pointsArc));
+      this.rangsArcs.put(cle, rang);
+    }
+    return 2 * rang.intValue() + (inverse ? 1 : 0);
+  }
+
+  // ///////////////////////////////////////////////////////////////////
+  // Correction de la topologie
+  // ///////////////////////////////////////////////////////////////////
+
+  /**
+   * Remet des points tant que deux segments filtrés se coupent ailleurs qu'en
+   * une extrémité commune, qu'un segment filtré passe par-dessus un sommet
+   * filtré, qu'un arc fermé a moins de quatre points ou qu'un anneau a moins
+   * de quatre points.
+   */
+  private void corrige() {
+    int nbIterations = 0;
+    while (true) {
+      nbIterations++;
+      final STRtree index = new STRtree();
+      for (int e = 0; e < this.arcs.size(); e++) {
+        Arc arc = this.arcs.get(e);
+        int a = 0;
+        for (int b = 1; b < arc.gardes.length; b++) {
+          if (arc.gardes[b]) {
+            index.insert(this.enveloppe(arc, a, b), new int[] { e, a, b });
+            a = b;
+          }
+        }
+      }
+      // construction explicite : l'arbre est ensuite lu simultanément
+      index.build();
+
+      // segments filtrés coupés par un autre, pour chaque arc
+      final List<List<int[]>> aRaffiner = new ArrayList<List<int[]>>(
+          this.arcs.size());
+      for (int e = 0; e < this.arcs.size(); e++) {
+        aRaffiner.add(null);
+      }
+      this.execute(new Tache() {
+        @Override
+        void traite(int debut, int fin) {
+          LineIntersector intersecteur = new RobustLineIntersector();
+          for (int e = debut; e < fin; e++) {
+            Arc arc = FiltrageTopologique.this.arcs.get(e);
+            List<int[]> segments = new ArrayList<int[]>();
+            int a = 0;
+            for (int b = 1; b < arc.gardes.length; b++) {
+              if (!arc.gardes[b]) {
+                continue;
+              }
+              if (b > a + 1
+                  && FiltrageTopologique.this.estCoupe(intersecteur, index, e,
+                      a, b)) {
+                segments.add(new int[] { a, b });
+              }
+              a = b;
+            }
+            aRaffiner.set(e, segments);
+          }
+        }
+      }, this.arcs.size());
+
+      // arcs fermés et anneaux trop courts
+      for (int e = 0; e < this.arcs.size(); e++) {
+        Arc arc = this.arcs.get(e);
+        if (arc.ferme && arc.nbGardes() < 4) {
+          this.ajoutePlusLongSegment(new int[] { 2 * e }, aRaffiner);
+        }
+      }
+      for (Chaine chaine : this.chaines) {
+        if (chaine.anneau && chaine.codesArcs != null) {
+          int nbPoints = 0;
+          for (int code : chaine.codesArcs) {
+            nbPoints += this.arcs.get(code >> 1).nbGardes() - 1;
+          }
+          if (nbPoints < 3) {
+            this.ajoutePlusLongSegment(chaine.codesArcs, aRaffiner);
+          }
+        }
+      }
+
+      boolean modifie = false;
+      for (int e = 0; e < this.arcs.size(); e++) {
+        Arc arc = this.arcs.get(e);
+        for (int[] segment : aRaffiner.get(e)) {
+          int k = Filtering.pointLePlusEloigne(arc.points, segment[0],
+              segment[1], 0.0);
+          if (k < 0) {
+            k = (segment[0] + segment[1]) / 2;
+          }
+          if (!arc.gardes[k]) {
+            arc.gardes[k] = true;
+            modifie = true;
+          }
+        }
+      }
+      if (!modifie) {
+        break;
+      }
+    }
+    if (FiltrageTopologique.LOGGER.isDebugEnabled()) {
+      FiltrageTopologique.LOGGER.debug(nbIterations
+          + " itérations de correction de la topologie");
+    }
+  }
+
+  private Envelope enveloppe(Arc arc, int a, int b) {
+    IDirectPosition p1 = arc.points.get(a);
+    IDirectPosition p2 = arc.points.get(b);
+    return new Envelope(p1.getX(), p2.getX(), p1.getY(), p2.getY());
+  }
+
+  /**
+   * @return vrai si le segment filtré [a, b] de l'arc e coupe un autre segment
+   *         filtré ailleurs qu'en une extrémité commune, ou si un sommet filtré
+   *         est à l'intérieur de la surface comprise entre le segment et les
+   *         points d'origine qu'il remplace
+   */
+  private boolean estCoupe(LineIntersector intersecteur, STRtree index, int e,
+      int a, int b) {
+    Arc arc = this.arcs.get(e);
+    Coordinate p1 = FiltrageTopologique.coordonnee(arc.points.get(a));
+    Coordinate p2 = FiltrageTopologique.coordonnee(arc.points.get(b));
+    for (Object o : index.query(this.enveloppe(arc, a, b))) {
+      int[] autre = (int[]) o;
+      if (autre[0] == e && autre[1] == a) {
+        continue;
+      }
+      Arc arcAutre = this.arcs.get(autre[0]);
+      Coordinate q1 = FiltrageTopologique.coordonnee(arcAutre.points
+          .get(autre[1]));
+      Coordinate q2 = FiltrageTopologique.coordonnee(arcAutre.points
+          .get(autre[2]));
+      intersecteur.computeIntersection(p1, p2, q1, q2);
+      if (!intersecteur.hasIntersection()) {
+        continue;
+      }
+      if (intersecteur.isProper() || intersecteur.getIntersectionNum() == 2) {
+        return true;
+      }
+      Coordinate intersection = intersecteur.getIntersection(0);
+      if (!(intersection.equals2D(p1) || intersection.equals2D(p2))
+          || !(intersection.equals2D(q1) || intersection.equals2D(q2))) {
+        return true;
+      }
+    }
+
+    // surface balayée par le segment
+    Coordinate[] balayage = new Coordinate[b - a + 2];
+    Envelope enveloppe = new Envelope();
+    for (int k = a; k <= b; k++) {
+      balayage[k - a] = FiltrageTopologique.coordonnee(arc.points.get(k));
+      enveloppe.expandToInclude(balayage[k - a]);
+    }
+    balayage[b - a + 1] = balayage[0];
+    for (Object o : index.query(enveloppe)) {
+      int[] autre = (int[]) o;
+      Arc arcAutre = this.arcs.get(autre[0]);
+      for (int k = 1; k <= 2; k++) {
+        Coordinate q = FiltrageTopologique.coordonnee(arcAutre.points
+            .get(autre[k]));
+        if (enveloppe.contains(q) && !q.equals2D(p1) && !q.equals2D(p2)
+            && RayCrossingCounter.locatePointInRing(q, balayage) == Location.INTERIOR) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Ajoute aux segments à raffiner le segment filtré qui remplace le plus de
+   * points parmi ceux d'une liste d'arcs.
+   */
+  private void ajoutePlusLongSegment(int[] codesArcs, List<List<int[]>> aRaffiner) {
+    int eMax = -1, aMax = 0, bMax = 0;
+    for (int code : codesArcs) {
+      Arc arc = this.arcs.get(code >> 1);
+      int a = 0;
+      for (int b = 1; b < arc.gardes.length; b++) {
+        if (arc.gardes[b]) {
+          if (b - a > bMax - aMax) {
+            eMax = code >> 1;
+            aMax = a;
+            bMax = b;
+          }
+          a = b;
+        }
+      }
+    }
+    if (bMax - aMax > 1) {
+      aRaffiner.get(eMax).add(new int[] { aMax, bMax });
+    }
+  }
+
+  private static Coordinate coordonnee(IDirectPosition p) {
+    return new Coordinate(p.getX(), p.getY());
+  }
+
+  // ///////////////////////////////////////////////////////////////////
+  // Reconstruction des géométries
+  // ///////////////////////////////////////////////////////////////////
+
+  @SuppressWarnings("unchecked")
+  private IGeometry recompose(IGeometry geom, Iterator<Chaine> itChaines) {
+    if (geom instanceof IPolygon) {
+      IPolygon polygone = (IPolygon) geom;
+      IPolygon poly = new GM_Polygon(new GM_LineString(
+          this.points(itChaines.next())));
+      for (int i = 0; i < polygone.sizeInterior(); i++) {
+        poly.addInterior(new GM_Ring(new GM_LineString(this.points(itChaines
+            .next()))));
+      }
+      return poly;
+    }
+    if (geom instanceof ICurve) {
+      IDirectPositionList points = this.points(itChaines.next());
+      return (points == null) ? geom : new GM_LineString(points);
+    }
+    if (geom instanceof IMultiCurve<?>) {
+      IMultiCurve<IOrientableCurve> aggr = (IMultiCurve<IOrientableCurve>) geom;
+      IMultiCurve<IOrientableCurve> result = new GM_MultiCurve<IOrientableCurve>();
+      for (int i = 0; i < aggr.size(); i++) {
+        result.add((IOrientableCurve) this.recompose(aggr.get(i), itChaines));
+      }
+      return result;
+    }
+    if (geom instanceof IMultiSurface<?>) {
+      IMultiSurface<IOrientableSurface> aggr = (IMultiSurface<IOrientableSurface>) geom;
+      IMultiSurface<IOrientableSurface> result = new GM_MultiSurface<IOrientableSurface>();
+      for (int i = 0; i < aggr.size(); i++) {
+        result.add((IOrientableSurface) this.recompose(aggr.get(i), itChaines));
+      }
+      return result;
+    }
+    if (geom instanceof IAggregate<?>) {
+      IAggregate<IGeometry> aggr = (IAggregate<IGeometry>) geom;
+      IAggregate<IGeometry> result = new GM_Aggregate<IGeometry>();
+      for (int i = 0; i < aggr.size(); i++) {
+        result.add(this.recompose(aggr.get(i), itChaines));
+      }
+      return result;
+    }
+    return geom;
+  }
+
+  /**
+   * @return les points filtrés d'une chaîne, copiés ; ceux d'origine si elle
+   *         n'a pas été filtrée
+   */
+  private IDirectPositionList points(Chaine chaine) {
+    if (chaine.origine == null) {
+      return null;
+    }
+    IDirectPositionList liste = new DirectPositionList();
+    if (chaine.codesArcs == null) {
+      for (IDirectPosition p : chaine.origine) {
+        liste.add((IDirectPosition) p.clone());
+      }
+      return liste;
+    }
+    for (int code : chaine.codesArcs) {
+      Arc arc = this.arcs.get(code >> 1);
+      boolean inverse = (code & 1) == 1;
+      int n = arc.points.size();
+      // le premier point de l'arc est le dernier de l'arc précédent
+      boolean premier = liste.isEmpty();
+      for (int i = 0; i < n; i++) {
+        int k = inverse ? n - 1 - i : i;
+        if (!arc.gardes[k]) {
+          continue;
+        }
+        if (i > 0 || premier) {
+          liste.add((IDirectPosition) arc.points.get(k).clone());
+        }
+      }
+    }
+    return liste;
+  }
+
+  private void execute(final Tache tache, int n) {
+    if (this.nbThreads == 1 || n <= FiltrageTopologique.ARCS_PAR_TACHE) {
+      tache.traite(0, n);
+      return;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(this.nbThreads);
+    List<Future<Void>> resultats = new ArrayList<Future<Void>>();
+    try {
+      for (int debut = 0; debut < n; debut += FiltrageTopologique.ARCS_PAR_TACHE) {
+        final int premier = debut;
+        final int dernier = Math.min(debut + FiltrageTopologique.ARCS_PAR_TACHE,
+            n);
+        resultats.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            tache.traite(premier, dernier);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> resultat : resultats) {
+        resultat.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
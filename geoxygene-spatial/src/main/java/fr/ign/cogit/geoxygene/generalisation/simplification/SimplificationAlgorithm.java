@@ -30,12 +30,44 @@ public class SimplificationAlgorithm {
 
   /**
    * simplifie un polygone en supprimant les cotes trop courts
+   * <p>
+   * Les anneaux sont gardes sous forme de listes chainees et les cotes trop
+   * courts dans une file de priorite par longueur : chaque suppression ne met
+   * a jour que les cotes voisins, et sa validite est testee localement (voir
+   * {@link SimplificationCotes}). Si le resultat n'est pas valide, on revient
+   * a la simplification cote par cote sur le polygone entier.
    * 
    * @param poly le polygone
    * @param seuil la longueur seuil
    * @return le polygone simplifie
    */
   public static IGeometry simplification(IPolygon poly, double seuil) {
+    IPolygon poly_ = new SimplificationCotes(poly, seuil).simplifie();
+    if (poly_ == null) {
+      if (SimplificationAlgorithm.logger.isDebugEnabled()) {
+        SimplificationAlgorithm.logger
+            .debug("resultat non valide, simplification sur le polygone entier");
+      }
+      poly_ = SimplificationAlgorithm.simplificationGlobale(poly, seuil);
+    }
+
+    // sometimes the algorithm bugs and produces very large polygon. This
+    // verification prevents such problems
+    if (poly_.area() > 2 * poly.area())
+      return poly;
+
+    return poly_;
+  }
+
+  /**
+   * simplifie un polygone en supprimant les cotes trop courts, en
+   * reconstruisant et testant le polygone entier apres chaque suppression
+   * 
+   * @param poly le polygone
+   * @param seuil la longueur seuil
+   * @return le polygone simplifie
+   */
+  private static IPolygon simplificationGlobale(IPolygon poly, double seuil) {
     IPolygon poly_ = (IPolygon) poly.clone();
 
     if (SimplificationAlgorithm.logger.isDebugEnabled()) {
@@ -74,12 +106,6 @@ public class SimplificationAlgorithm {
       poly_ = res.poly;
       cps = PolygonSegment.getSmallest(poly_, seuil);
     }
-
-    // sometimes the algorithm bugs and produces very large polygon. This
-    // verification prevents such problems
-    if (poly_.area() > 2 * poly.area())
-      return poly;
-
     return poly_;
   }
 
@@ -222,29 +248,14 @@ public class SimplificationAlgorithm {
     Coordinate b_ = ppcls.index + 2 == coord.length ? coord[1]
         : coord[ppcls.index + 2];
 
-    // calcul de l'angle entre (a, a_) et (b, b_) dans l'intervalle ]-pi, pi]
-    double angle = Math.atan2(b_.y - b.y, b_.x - b.x)
-        - Math.atan2(a_.y - a.y, a_.x - a.x);
-    if (angle <= -Math.PI) {
-      angle += 2 * Math.PI;
-    } else if (angle > Math.PI) {
-      angle -= 2 * Math.PI;
+    Coordinate[] nouveaux = SimplificationAlgorithm.nouveauxPoints(a_, a, b,
+        b_);
+    if (nouveaux == null) {
+      return new resultatSuppressionCoteLigne(null, false);
     }
 
-    if (Math.abs(angle) <= Math.PI / 2
-        + SimplificationAlgorithm.SEUIL_COTES_ORTHOGONAUX
-        && Math.abs(angle) >= Math.PI / 2
-            - SimplificationAlgorithm.SEUIL_COTES_ORTHOGONAUX) {
-      // cotes presque orthogonaux: les prolonger
-      if (SimplificationAlgorithm.logger.isDebugEnabled()) {
-        SimplificationAlgorithm.logger.debug("cotes presque orthogonaux");
-      }
-
-      // calcul de l'intersection
-      double xa = a_.x - a.x, ya = a_.y - a.y;
-      double xb = b_.x - b.x, yb = b_.y - b.y;
-      double t = (xb * (a.y - b.y) - yb * (a.x - b.x)) / (xa * yb - ya * xb);
-      Coordinate c_ = new Coordinate(a.x + t * xa, a.y + t * ya);
+    if (nouveaux.length == 1) {
+      Coordinate c_ = nouveaux[0];
 
       // construit la nouvelle sequence de coordonnees en supprimant les deux
       // coordonnees du segment supprime
@@ -281,6 +292,80 @@ public class SimplificationAlgorithm {
       }
     }
 
+    // cotes presque paralleles : les coordonnees a_, a, b et b_ sont
+    // remplacees par c1 et c2
+    Coordinate c1 = nouveaux[0], c2 = nouveaux[1];
+
+    // construit la nouvelle sequence de coordonnees en supprimant les
+    // coordonnees a_, a, b et b_
+    // et en les remplacant par c1 et c2
+    Coordinate[] coord_ = new Coordinate[coord.length - 2];
+    coord_[0] = c1;
+    coord_[1] = c2;
+    if (ppcls.index == 0) {
+      for (int i = 2; i < coord.length - 3; i++) {
+        coord_[i] = coord[i + 1];
+      }
+      coord_[coord.length - 3] = c1;
+    } else {
+      for (int i = ppcls.index + 3; i < coord.length; i++) {
+        coord_[i - ppcls.index - 1] = coord[i];
+      }
+      for (int i = 1; i < ppcls.index - 1; i++) {
+        coord_[coord.length - ppcls.index - 2 + i] = coord[i];
+      }
+      coord_[coord.length - 3] = c1;
+    }
+
+    if (coord_.length <= 3) {
+      return new resultatSuppressionCoteLigne(null, false);
+    } else if (coord_[0].x != coord_[coord_.length - 1].x
+        || coord_[0].y != coord_[coord_.length - 1].y) {
+      return new resultatSuppressionCoteLigne(null, false);
+    } else {
+      return new resultatSuppressionCoteLigne(
+          new GeometryFactory().createLinearRing(coord_), true);
+    }
+  }
+
+  /**
+   * calcule les points remplacant le cote [a, b] d'un anneau, dont les cotes
+   * voisins sont [a_, a] et [b, b_]
+   * @return un point remplacant a et b si les cotes voisins sont presque
+   *         orthogonaux (ils sont prolonges), deux points remplacant a_, a, b
+   *         et b_ s'ils sont presque paralleles (petit depassement ou petit
+   *         decrochement), null si le cote ne peut pas etre supprime
+   */
+  static Coordinate[] nouveauxPoints(Coordinate a_, Coordinate a,
+      Coordinate b, Coordinate b_) {
+
+    // calcul de l'angle entre (a, a_) et (b, b_) dans l'intervalle ]-pi, pi]
+    double angle = Math.atan2(b_.y - b.y, b_.x - b.x)
+        - Math.atan2(a_.y - a.y, a_.x - a.x);
+    if (angle <= -Math.PI) {
+      angle += 2 * Math.PI;
+    } else if (angle > Math.PI) {
+      angle -= 2 * Math.PI;
+    }
+
+    if (Math.abs(angle) <= Math.PI / 2
+        + SimplificationAlgorithm.SEUIL_COTES_ORTHOGONAUX
+        && Math.abs(angle) >= Math.PI / 2
+            - SimplificationAlgorithm.SEUIL_COTES_ORTHOGONAUX) {
+      // cotes presque orthogonaux: les prolonger
+      if (SimplificationAlgorithm.logger.isDebugEnabled()) {
+        SimplificationAlgorithm.logger.debug("cotes presque orthogonaux");
+      }
+
+      // calcul de l'intersection
+      double xa = a_.x - a.x, ya = a_.y - a.y;
+      double xb = b_.x - b.x, yb = b_.y - b.y;
+      double t = (xb * (a.y - b.y) - yb * (a.x - b.x)) / (xa * yb - ya * xb);
+      Coordinate c_ = new Coordinate(a.x + t * xa, a.y + t * ya);
+
+      return new Coordinate[] { c_ };
+    }
+
     else if (Math
         .abs(angle) <= SimplificationAlgorithm.SEUIL_COTES_PARRALLELES) {
       // cotes presque paralleles
@@ -292,7 +377,7 @@ public class SimplificationAlgorithm {
       }
 
       if (a_ == b_) {
-        return new resultatSuppressionCoteLigne(null, false);
+        return null;
       }
 
       // calcul du projete de a_ sur (b,b_)
@@ -319,7 +404,7 @@ public class SimplificationAlgorithm {
       if (!app_a && !app_b) {
         // aucun des deux projetes n'appartient au segment
         // cas tres peu probable
-        return new resultatSuppressionCoteLigne(null, false);
+        return null;
       } else if (app_a && !app_b) {
         c1 = ca;
         c2 = b_;
@@ -337,37 +422,7 @@ public class SimplificationAlgorithm {
         }
       }
 
-      // construit la nouvelle sequence de coordonnees en supprimant les
-      // coordonnees a_, a, b et b_
-      // et en les remplacant par c1 et c2
-      Coordinate[] coord_ = new Coordinate[coord.length - 2];
-      coord_[0] = c1;
-      coord_[1] = c2;
-      if (ppcls.index == 0) {
-        for (int i = 2; i < coord.length - 3; i++) {
-          coord_[i] = coord[i + 1];
-        }
-        coord_[coord.length - 3] = c1;
-      } else {
-        for (int i = ppcls.index + 3; i < coord.length; i++) {
-          coord_[i - ppcls.index - 1] = coord[i];
-        }
-        for (int i = 1; i < ppcls.index - 1; i++) {
-          coord_[coord.length - ppcls.index - 2 + i] = coord[i];
-        }
-        coord_[coord.length - 3] = c1;
-      }
-
-      if (coord_.length <= 3) {
-        return new resultatSuppressionCoteLigne(null, false);
-      } else if (coord_[0].x != coord_[coord_.length - 1].x
-          || coord_[0].y != coord_[coord_.length - 1].y) {
-        return new resultatSuppressionCoteLigne(null, false);
-      } else {
-        return new resultatSuppressionCoteLigne(
-            new GeometryFactory().createLinearRing(coord_), true);
-      }
-
+      return new Coordinate[] { c1, c2 };
     }
 
     else if (Math.abs(angle) >= Math.PI
@@ -398,37 +453,7 @@ public class SimplificationAlgorithm {
       double aux2 = (b_.x - xm) * dx + (b_.y - ym) * dy;
       Coordinate cb = new Coordinate(xm + aux2 * dx, ym + aux2 * dy);
 
-      // construit la nouvelle sequence de coordonnees en supprimant les deux
-      // coordonnees du segment supprime
-      // et en remplacant les coordonnees de a_ et b_ par ca et cb
-      Coordinate[] coord_ = new Coordinate[coord.length - 2];
-      coord_[0] = ca;
-      coord_[1] = cb;
-      if (ppcls.index == 0) {
-        for (int i = 2; i < coord.length - 3; i++) {
-          coord_[i] = coord[i + 1];
-        }
-        coord_[coord.length - 3] = ca;
-      } else {
-        for (int i = ppcls.index + 3; i < coord.length; i++) {
-          coord_[i - ppcls.index - 1] = coord[i];
-        }
-        for (int i = 1; i < ppcls.index - 1; i++) {
-          coord_[coord.length - ppcls.index - 2 + i] = coord[i];
-        }
-        coord_[coord.length - 3] = ca;
-      }
-
-      if (coord_.length <= 3) {
-        return new resultatSuppressionCoteLigne(null, false);
-      } else if (coord_[0].x != coord_[coord_.length - 1].x
-          || coord_[0].y != coord_[coord_.length - 1].y) {
-        return new resultatSuppressionCoteLigne(null, false);
-      } else {
-        return new resultatSuppressionCoteLigne(
-            new GeometryFactory().createLinearRing(coord_), true);
-      }
-
+      return new Coordinate[] { ca, cb };
     }
 
     else {
@@ -436,7 +461,7 @@ public class SimplificationAlgorithm {
       if (SimplificationAlgorithm.logger.isDebugEnabled()) {
         SimplificationAlgorithm.logger.debug("pas de simplification");
       }
-      return new resultatSuppressionCoteLigne(null, false);
+      return null;
     }
   }
 
@@ -0,0 +1,397 @@
+package fr.ign.cogit.geoxygene.generalisation.simplification;
+
+import java.util.PriorityQueue;
+
+import com.vividsolutions.jts.algorithm.LineIntersector;
+import com.vividsolutions.jts.algorithm.RayCrossingCounter;
+import com.vividsolutions.jts.algorithm.RobustLineIntersector;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Location;
+import com.vividsolutions.jts.index.quadtree.Quadtree;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IRing;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Ring;
+
+/**
+ * Suppression incrementale des cotes trop courts d'un polygone, utilisee par
+ * {@link SimplificationAlgorithm#simplification(IPolygon, double)}.
+ * <p>
+ * Les sommets de tous les anneaux sont ranges dans des tableaux, chaque anneau
+ * etant une liste chainee circulaire ; un cote est designe par son sommet
+ * initial. Les cotes trop courts sont dans une file de priorite par longueur,
+ * avec un numero de version par cote pour ignorer les entrees perimees. Une
+ * suppression reussie ne modifie que quelques sommets voisins : seuls les
+ * cotes qui en dependent sont remis dans la file (un cote dont la suppression
+ * a echoue n'est donc retente que si son voisinage change).
+ * <p>
+ * La validite d'une suppression est testee localement : l'anneau garde au
+ * moins trois sommets et le signe de son aire, les nouveaux cotes ne coupent
+ * aucun autre cote du polygone (index quadtree des cotes), et aucun sommet
+ * n'est dans la surface balayee par la modification. Le polygone obtenu est
+ * teste une seule fois a la fin.
+ */
+final class SimplificationCotes {
+
+  private final IPolygon poly;
+  private final double seuil;
+
+  // sommets : coordonnees, voisins dans leur anneau, anneau (0 pour
+  // l'exterieur, i + 1 pour le trou i)
+  private final double[] x, y;
+  private final int[] suivant, precedent, anneau, version;
+  private final boolean[] vivant;
+  private final Envelope[] enveloppes;
+
+  // anneaux : nombre de sommets, double de l'aire signee, un sommet vivant
+  private final int[] nbSommets;
+  private final double[] aire;
+  private final int[] premier;
+  private final boolean[] modifie;
+
+  private final PriorityQueue<Candidat> file = new PriorityQueue<Candidat>();
+  private final Quadtree index = new Quadtree();
+  private final LineIntersector intersecteur = new RobustLineIntersector();
+
+  /** Cote trop court, tel qu'il etait lors de son ajout dans la file. */
+  private static class Candidat implements Comparable<Candidat> {
+    final double longueur;
+    final int sommet;
+    final int version;
+
+    Candidat(double longueur, int sommet, int version) {
+      this.longueur = longueur;
+      this.sommet = sommet;
+      this.version = version;
+    }
+
+    @Override
+    public int compareTo(Candidat c) {
+      if (this.longueur != c.longueur) {
+        return this.longueur < c.longueur ? -1 : 1;
+      }
+      return this.sommet - c.sommet;
+    }
+  }
+
+  SimplificationCotes(IPolygon poly, double seuil) {
+    this.poly = poly;
+    this.seuil = seuil;
+    int nbAnneaux = poly.sizeInterior() + 1;
+    IDirectPositionList[] coords = new IDirectPositionList[nbAnneaux];
+    int n = 0;
+    for (int r = 0; r < nbAnneaux; r++) {
+      IRing ring = (r == 0) ? poly.getExterior() : poly.getInterior(r - 1);
+      coords[r] = ring.coord();
+      n += SimplificationCotes.nbPoints(coords[r]);
+    }
+    this.x = new double[n];
+    this.y = new double[n];
+    this.suivant = new int[n];
+    this.precedent = new int[n];
+    this.anneau = new int[n];
+    this.version = new int[n];
+    this.vivant = new boolean[n];
+    this.enveloppes = new Envelope[n];
+    this.nbSommets = new int[nbAnneaux];
+    this.aire = new double[nbAnneaux];
+    this.premier = new int[nbAnneaux];
+    this.modifie = new boolean[nbAnneaux];
+    int v = 0;
+    for (int r = 0; r < nbAnneaux; r++) {
+      int m = SimplificationCotes.nbPoints(coords[r]);
+      this.nbSommets[r] = m;
+      this.premier[r] = v;
+      for (int i = 0; i < m; i++) {
+        this.x[v + i] = coords[r].get(i).getX();
+        this.y[v + i] = coords[r].get(i).getY();
+        this.suivant[v + i] = v + (i + 1) % m;
+        this.precedent[v + i] = v + (i + m - 1) % m;
+        this.anneau[v + i] = r;
+        this.vivant[v + i] = true;
+      }
+      for (int i = 0; i < m; i++) {
+        int w = this.suivant[v + i];
+        this.aire[r] += this.x[v + i] * this.y[w] - this.x[w] * this.y[v + i];
+      }
+      v += m;
+    }
+  }
+
+  /** nombre de points d'un anneau, sans le point de fermeture */
+  private static int nbPoints(IDirectPositionList coord) {
+    int m = coord.size();
+    if (m > 1 && coord.get(0).equals2D(coord.get(m - 1), 0.)) {
+      m--;
+    }
+    return m;
+  }
+
+  /**
+   * @return le polygone simplifie, ou null s'il n'est pas valide
+   */
+  IPolygon simplifie() {
+    for (int v = 0; v < this.x.length; v++) {
+      this.ajouteIndex(v);
+      this.ajouteCandidat(v);
+    }
+    while (!this.file.isEmpty()) {
+      Candidat candidat = this.file.poll();
+      if (this.vivant[candidat.sommet]
+          && this.version[candidat.sommet] == candidat.version) {
+        this.tenteSuppression(candidat.sommet);
+      }
+    }
+    return this.construit();
+  }
+
+  private double longueur(int v) {
+    int w = this.suivant[v];
+    return Math.sqrt((this.x[w] - this.x[v]) * (this.x[w] - this.x[v])
+        + (this.y[w] - this.y[v]) * (this.y[w] - this.y[v]));
+  }
+
+  private Coordinate coordonnee(int v) {
+    return new Coordinate(this.x[v], this.y[v]);
+  }
+
+  private void ajouteCandidat(int v) {
+    this.version[v]++;
+    double longueur = this.longueur(v);
+    if (longueur < this.seuil) {
+      this.file.add(new Candidat(longueur, v, this.version[v]));
+    }
+  }
+
+  private void ajouteIndex(int v) {
+    int w = this.suivant[v];
+    this.enveloppes[v] = new Envelope(this.x[v], this.x[w], this.y[v],
+        this.y[w]);
+    this.index.insert(this.enveloppes[v], Integer.valueOf(v));
+  }
+
+  private void retireIndex(int v) {
+    this.index.remove(this.enveloppes[v], Integer.valueOf(v));
+  }
+
+  /**
+   * tente de supprimer le cote [a, b]
+   */
+  private void tenteSuppression(int a) {
+    int r = this.anneau[a];
+    int m = this.nbSommets[r];
+    // s'il y a moins de 3 points, sortir
+    if (m <= 3) {
+      return;
+    }
+    int b = this.suivant[a], a_ = this.precedent[a], b_ = this.suivant[b];
+    Coordinate[] nouveaux = SimplificationAlgorithm.nouveauxPoints(
+        this.coordonnee(a_), this.coordonnee(a), this.coordonnee(b),
+        this.coordonnee(b_));
+    if (nouveaux == null) {
+      return;
+    }
+
+    // sommets remplaces, et nouvelle chaine entre les memes extremites
+    int[] avant;
+    Coordinate[] apres;
+    if (nouveaux.length == 1) {
+      avant = new int[] { a_, a, b, b_ };
+      apres = new Coordinate[] { this.coordonnee(a_), nouveaux[0],
+          this.coordonnee(b_) };
+    } else {
+      if (m - 2 < 3) {
+        return;
+      }
+      int p = this.precedent[a_], n = this.suivant[b_];
+      avant = new int[] { p, a_, a, b, b_, n };
+      apres = new Coordinate[] { this.coordonnee(p), nouveaux[0], nouveaux[1],
+          this.coordonnee(n) };
+    }
+    double nouvelleAire = this.aire[r] + this.aireChaine(apres)
+        - this.aireChaine(avant);
+    if (nouvelleAire == 0 || (nouvelleAire > 0) != (this.aire[r] > 0)) {
+      return;
+    }
+    if (this.coupe(avant, apres) || this.balaye(avant, apres)) {
+      return;
+    }
+
+    // suppression
+    this.aire[r] = nouvelleAire;
+    this.modifie[r] = true;
+    for (int i = 0; i < avant.length - 1; i++) {
+      this.retireIndex(avant[i]);
+    }
+    if (nouveaux.length == 1) {
+      this.x[a] = nouveaux[0].x;
+      this.y[a] = nouveaux[0].y;
+      this.suivant[a] = b_;
+      this.precedent[b_] = a;
+      this.vivant[b] = false;
+      this.nbSommets[r] -= 1;
+    } else {
+      this.x[a_] = nouveaux[0].x;
+      this.y[a_] = nouveaux[0].y;
+      this.x[b_] = nouveaux[1].x;
+      this.y[b_] = nouveaux[1].y;
+      this.suivant[a_] = b_;
+      this.precedent[b_] = a_;
+      this.vivant[a] = false;
+      this.vivant[b] = false;
+      this.nbSommets[r] -= 2;
+    }
+    if (!this.vivant[this.premier[r]]) {
+      this.premier[r] = a_;
+    }
+    for (int i = 0; i < avant.length - 1; i++) {
+      if (this.vivant[avant[i]]) {
+        this.ajouteIndex(avant[i]);
+      }
+    }
+    // cotes dont la suppression depend des sommets modifies : de trois cotes
+    // avant a_ a deux cotes apres b_
+    int v = a_;
+    for (int i = 0; i < 3; i++) {
+      v = this.precedent[v];
+    }
+    int nbCotes = Math.min(this.nbSommets[r], 8);
+    for (int i = 0; i < nbCotes; i++) {
+      this.ajouteCandidat(v);
+      v = this.suivant[v];
+    }
+  }
+
+  /** double de l'aire signee sous une chaine ouverte */
+  private double aireChaine(int[] sommets) {
+    double somme = 0;
+    for (int i = 0; i < sommets.length - 1; i++) {
+      int v = sommets[i], w = sommets[i + 1];
+      somme += this.x[v] * this.y[w] - this.x[w] * this.y[v];
+    }
+    return somme;
+  }
+
+  private double aireChaine(Coordinate[] points) {
+    double somme = 0;
+    for (int i = 0; i < points.length - 1; i++) {
+      somme += points[i].x * points[i + 1].y - points[i + 1].x * points[i].y;
+    }
+    return somme;
+  }
+
+  /**
+   * @return vrai si un cote de la nouvelle chaine coupe un autre cote du
+   *         polygone, ou un cote non voisin de la nouvelle chaine, ailleurs
+   *         qu'en une extremite commune
+   */
+  private boolean coupe(int[] avant, Coordinate[] apres) {
+    for (int i = 0; i < apres.length - 1; i++) {
+      Coordinate p1 = apres[i], p2 = apres[i + 1];
+      for (int j = i + 2; j < apres.length - 1; j++) {
+        if (this.seCoupent(p1, p2, apres[j], apres[j + 1])) {
+          return true;
+        }
+      }
+      for (Object o : this.index.query(new Envelope(p1, p2))) {
+        int v = ((Integer) o).intValue();
+        if (!this.vivant[v] || SimplificationCotes.contient(avant, v, 1)) {
+          continue;
+        }
+        if (this.seCoupent(p1, p2, this.coordonnee(v),
+            this.coordonnee(this.suivant[v]))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean seCoupent(Coordinate p1, Coordinate p2, Coordinate q1,
+      Coordinate q2) {
+    this.intersecteur.computeIntersection(p1, p2, q1, q2);
+    if (!this.intersecteur.hasIntersection()) {
+      return false;
+    }
+    if (this.intersecteur.isProper()
+        || this.intersecteur.getIntersectionNum() == 2) {
+      return true;
+    }
+    Coordinate c = this.intersecteur.getIntersection(0);
+    return !(c.equals2D(p1) || c.equals2D(p2))
+        || !(c.equals2D(q1) || c.equals2D(q2));
+  }
+
+  /**
+   * @return vrai si un sommet du polygone est a l'interieur de la surface
+   *         comprise entre l'ancienne et la nouvelle chaine
+   */
+  private boolean balaye(int[] avant, Coordinate[] apres) {
+    Coordinate[] surface = new Coordinate[avant.length + apres.length - 1];
+    Envelope enveloppe = new Envelope();
+    for (int i = 0; i < avant.length; i++) {
+      surface[i] = this.coordonnee(avant[i]);
+      enveloppe.expandToInclude(surface[i]);
+    }
+    for (int i = apres.length - 2; i >= 0; i--) {
+      surface[avant.length + apres.length - 2 - i] = apres[i];
+    }
+    for (Object o : this.index.query(enveloppe)) {
+      int v = ((Integer) o).intValue();
+      if (!this.vivant[v] || SimplificationCotes.contient(avant, v, 0)) {
+        continue;
+      }
+      Coordinate c = this.coordonnee(v);
+      if (enveloppe.contains(c)
+          && RayCrossingCounter.locatePointInRing(c, surface) == Location.INTERIOR) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** vrai si v est parmi les sommets, sans compter les derniers */
+  private static boolean contient(int[] sommets, int v, int sansLesDerniers) {
+    for (int i = 0; i < sommets.length - sansLesDerniers; i++) {
+      if (sommets[i] == v) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return le polygone dont les anneaux modifies sont remplaces, ou null s'il
+   *         n'est pas valide
+   */
+  private IPolygon construit() {
+    IPolygon poly_ = (IPolygon) this.poly.clone();
+    for (int r = 0; r < this.nbSommets.length; r++) {
+      if (!this.modifie[r]) {
+        continue;
+      }
+      IDirectPositionList liste = new DirectPositionList();
+      int v = this.premier[r];
+      for (int i = 0; i < this.nbSommets[r]; i++) {
+        liste.add(new DirectPosition(this.x[v], this.y[v]));
+        v = this.suivant[v];
+      }
+      liste.add(new DirectPosition(this.x[v], this.y[v]));
+      IRing ring = new GM_Ring(new GM_LineString(liste));
+      if (r == 0) {
+        poly_.setExterior(ring);
+      } else {
+        poly_.setInterior(r - 1, ring);
+      }
+    }
+    if (!poly_.isValid() || poly_.isEmpty()) {
+      return null;
+    }
+    return poly_;
+  }
+}
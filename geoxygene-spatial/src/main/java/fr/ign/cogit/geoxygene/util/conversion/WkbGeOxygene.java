@@ -0,0 +1,530 @@
+/*
+ * This file is part of the GeOxygene project source files.
+ *
+ * GeOxygene aims at providing an open framework which implements OGC/ISO
+ * specifications for the development and deployment of geographic (GIS)
+ * applications. It is a open source contribution of the COGIT laboratory at the
+ * Institut Géographique National (the French National Mapping Agency).
+ *
+ * See: http://oxygene-project.sourceforge.net
+ *
+ * Copyright (C) 2005 Institut Géographique National
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library (see file LICENSE if present); if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ */
+
+package fr.ign.cogit.geoxygene.util.conversion;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IAggregate;
+import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiCurve;
+import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiPoint;
+import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiSurface;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.ICurve;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableCurve;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IOrientableSurface;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IPoint;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_Aggregate;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_MultiCurve;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_MultiPoint;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_MultiSurface;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Point;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Ring;
+
+/**
+ * Conversion binaire des géométries GeOxygene au format WKB (Well Known
+ * Binary) de l'OGC et à sa variante EWKB de PostGIS (avec SRID), dans les deux
+ * sens, sans passer par le texte WKT. Les géométries lues sont du même type que
+ * celles renvoyées par {@link WktGeOxygene#makeGeOxygene(String)}.
+ * <p>
+ * Les types lus sont les types simples de l'OGC (point, ligne, polygone, leurs
+ * agrégats et les collections), en 2D ou en 3D, dans les deux ordres d'octets,
+ * avec les codes de type EWKB et ISO. La mesure M est lue puis ignorée.
+ * L'écriture se fait en petit-boutien (NDR), en 3D si le premier point de la
+ * géométrie a un Z.
+ * <p>
+ * English: direct WKB / EWKB reader and writer for GeOxygene geometries.
+ *
+ * @author GeOxygene
+ */
+public final class WkbGeOxygene {
+
+  /** Codes des types de géométrie WKB. */
+  public static final int WKB_POINT = 1;
+  public static final int WKB_LINESTRING = 2;
+  public static final int WKB_POLYGON = 3;
+  public static final int WKB_MULTIPOINT = 4;
+  public static final int WKB_MULTILINESTRING = 5;
+  public static final int WKB_MULTIPOLYGON = 6;
+  public static final int WKB_GEOMETRYCOLLECTION = 7;
+
+  /** Drapeaux EWKB de PostGIS. */
+  private static final int EWKB_Z = 0x80000000;
+  private static final int EWKB_M = 0x40000000;
+  private static final int EWKB_SRID = 0x20000000;
+
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+  private WkbGeOxygene() {
+  }
+
+  /*-----------------------------------------------------*/
+  /*- Lecture -------------------------------------------*/
+  /*-----------------------------------------------------*/
+
+  /**
+   * Géométrie GeOxygene codée en WKB ou EWKB. Si le SRID est présent, il est
+   * affecté à la géométrie renvoyée (voir {@link IGeometry#setCRS(int)}).
+   * @param wkb géométrie codée en WKB ou EWKB
+   * @return la géométrie GeOxygene correspondante
+   * @throws ParseException si le tableau ne contient pas une géométrie valide
+   */
+  public static IGeometry makeGeOxygene(byte[] wkb) throws ParseException {
+    return WkbGeOxygene.makeGeOxygene(ByteBuffer.wrap(wkb));
+  }
+
+  /**
+   * Géométrie GeOxygene codée en WKB ou EWKB, lue à partir de la position
+   * courante du buffer. La position du buffer est avancée à la fin de la
+   * géométrie, son ordre d'octets est modifié.
+   * @param buffer buffer contenant une géométrie WKB ou EWKB
+   * @return la géométrie GeOxygene correspondante
+   * @throws ParseException si le buffer ne contient pas une géométrie valide
+   */
+  public static IGeometry makeGeOxygene(ByteBuffer buffer)
+      throws ParseException {
+    try {
+      return WkbGeOxygene.readGeometry(buffer, true);
+    } catch (BufferUnderflowException e) {
+      throw new ParseException("Truncated WKB geometry"); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Géométrie GeOxygene codée en WKB ou EWKB hexadécimal, comme renvoyé par
+   * PostGIS pour une colonne de type geometry.
+   * @param hex géométrie codée en WKB ou EWKB hexadécimal
+   * @return la géométrie GeOxygene correspondante
+   * @throws ParseException si la chaîne ne contient pas une géométrie valide
+   */
+  public static IGeometry makeGeOxygeneFromHex(String hex)
+      throws ParseException {
+    return WkbGeOxygene.makeGeOxygene(WkbGeOxygene.fromHex(hex));
+  }
+
+  private static IGeometry readGeometry(ByteBuffer buffer, boolean topLevel)
+      throws ParseException {
+    byte order = buffer.get();
+    if (order == 0) {
+      buffer.order(ByteOrder.BIG_ENDIAN);
+    } else if (order == 1) {
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+    } else {
+      throw new ParseException("Invalid WKB byte order " + order); //$NON-NLS-1$
+    }
+    int typeCode = buffer.getInt();
+    boolean hasZ = (typeCode & WkbGeOxygene.EWKB_Z) != 0;
+    boolean hasM = (typeCode & WkbGeOxygene.EWKB_M) != 0;
+    int srid = -1;
+    if ((typeCode & WkbGeOxygene.EWKB_SRID) != 0) {
+      srid = buffer.getInt();
+    }
+    typeCode &= 0x0FFFFFFF;
+    // codes ISO : 1000 pour Z, 2000 pour M, 3000 pour ZM
+    int iso = typeCode / 1000;
+    if (iso == 1 || iso == 3) {
+      hasZ = true;
+    }
+    if (iso == 2 || iso == 3) {
+      hasM = true;
+    }
+    int type = typeCode % 1000;
+    IGeometry geometry;
+    switch (type) {
+      case WKB_POINT:
+        geometry = new GM_Point(WkbGeOxygene.readPosition(buffer, hasZ, hasM));
+        break;
+      case WKB_LINESTRING:
+        geometry = new GM_LineString(WkbGeOxygene.readPositions(buffer, hasZ,
+            hasM));
+        break;
+      case WKB_POLYGON:
+        geometry = WkbGeOxygene.readPolygon(buffer, hasZ, hasM);
+        break;
+      case WKB_MULTIPOINT: {
+        int n = buffer.getInt();
+        GM_MultiPoint multiPoint = new GM_MultiPoint();
+        for (int i = 0; i < n; i++) {
+          multiPoint.add((IPoint) WkbGeOxygene.readGeometry(buffer,
+              WkbGeOxygene.WKB_POINT));
+        }
+        geometry = multiPoint;
+        break;
+      }
+      case WKB_MULTILINESTRING: {
+        int n = buffer.getInt();
+        GM_MultiCurve<IOrientableCurve> multiCurve = new GM_MultiCurve<IOrientableCurve>();
+        for (int i = 0; i < n; i++) {
+          multiCurve.add((ILineString) WkbGeOxygene.readGeometry(buffer,
+              WkbGeOxygene.WKB_LINESTRING));
+        }
+        geometry = multiCurve;
+        break;
+      }
+      case WKB_MULTIPOLYGON: {
+        int n = buffer.getInt();
+        GM_MultiSurface<IOrientableSurface> multiSurface = new GM_MultiSurface<IOrientableSurface>();
+        for (int i = 0; i < n; i++) {
+          multiSurface.add((IPolygon) WkbGeOxygene.readGeometry(buffer,
+              WkbGeOxygene.WKB_POLYGON));
+        }
+        geometry = multiSurface;
+        break;
+      }
+      case WKB_GEOMETRYCOLLECTION: {
+        int n = buffer.getInt();
+        GM_Aggregate<IGeometry> aggregate = new GM_Aggregate<IGeometry>();
+        for (int i = 0; i < n; i++) {
+          aggregate.add(WkbGeOxygene.readGeometry(buffer, false));
+        }
+        geometry = aggregate;
+        break;
+      }
+      default:
+        throw new ParseException("Unsupported WKB geometry type " + typeCode); //$NON-NLS-1$
+    }
+    if (topLevel && srid != -1) {
+      geometry.setCRS(srid);
+    }
+    return geometry;
+  }
+
+  /** Lit un composant d'agrégat après avoir vérifié son type. */
+  private static IGeometry readGeometry(ByteBuffer buffer, int expectedType)
+      throws ParseException {
+    int position = buffer.position();
+    buffer.order(buffer.get(position) == 0 ? ByteOrder.BIG_ENDIAN
+        : ByteOrder.LITTLE_ENDIAN);
+    int type = (buffer.getInt(position + 1) & 0x0FFFFFFF) % 1000;
+    if (type != expectedType) {
+      throw new ParseException("Unexpected WKB geometry type " + type //$NON-NLS-1$
+          + " in aggregate of type " + expectedType); //$NON-NLS-1$
+    }
+    return WkbGeOxygene.readGeometry(buffer, false);
+  }
+
+  private static IDirectPosition readPosition(ByteBuffer buffer, boolean hasZ,
+      boolean hasM) {
+    double x = buffer.getDouble();
+    double y = buffer.getDouble();
+    IDirectPosition position;
+    if (hasZ) {
+      position = new DirectPosition(x, y, buffer.getDouble());
+    } else {
+      position = new DirectPosition(x, y);
+    }
+    if (hasM) {
+      buffer.getDouble();
+    }
+    return position;
+  }
+
+  private static IDirectPositionList readPositions(ByteBuffer buffer,
+      boolean hasZ, boolean hasM) {
+    int n = buffer.getInt();
+    IDirectPositionList points = new DirectPositionList();
+    for (int i = 0; i < n; i++) {
+      points.add(WkbGeOxygene.readPosition(buffer, hasZ, hasM));
+    }
+    return points;
+  }
+
+  private static IPolygon readPolygon(ByteBuffer buffer, boolean hasZ,
+      boolean hasM) {
+    int nbRings = buffer.getInt();
+    if (nbRings == 0) {
+      return new GM_Polygon();
+    }
+    IPolygon polygon = new GM_Polygon(new GM_LineString(
+        WkbGeOxygene.readPositions(buffer, hasZ, hasM)));
+    for (int i = 1; i < nbRings; i++) {
+      polygon.addInterior(new GM_Ring(new GM_LineString(WkbGeOxygene
+          .readPositions(buffer, hasZ, hasM))));
+    }
+    return polygon;
+  }
+
+  /*-----------------------------------------------------*/
+  /*- Ecriture ------------------------------------------*/
+  /*-----------------------------------------------------*/
+
+  /**
+   * Codage WKB d'une géométrie GeOxygene, sans SRID.
+   * @param geometry une géométrie
+   * @return la géométrie codée en WKB
+   * @throws IllegalArgumentException si la géométrie n'a pas d'équivalent WKB
+   *           (anneau, courbe composite, surface qui n'est pas un polygone,
+   *           solide)
+   */
+  public static byte[] makeWkb(IGeometry geometry) {
+    return WkbGeOxygene.makeEwkb(geometry, -1);
+  }
+
+  /**
+   * Codage EWKB d'une géométrie GeOxygene. Le SRID n'est écrit que s'il est
+   * strictement positif : sinon le résultat est du WKB de l'OGC.
+   * @param geometry une géométrie
+   * @param srid identifiant du système de coordonnées
+   * @return la géométrie codée en EWKB
+   * @throws IllegalArgumentException si la géométrie n'a pas d'équivalent WKB
+   */
+  public static byte[] makeEwkb(IGeometry geometry, int srid) {
+    boolean hasZ = WkbGeOxygene.hasZ(geometry);
+    int size = WkbGeOxygene.size(geometry, hasZ) + (srid > 0 ? 4 : 0);
+    ByteBuffer buffer = ByteBuffer.allocate(size).order(
+        ByteOrder.LITTLE_ENDIAN);
+    WkbGeOxygene.write(geometry, hasZ, srid, buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Ecrit une géométrie GeOxygene en EWKB dans un buffer, à partir de sa
+   * position courante. L'ordre d'octets du buffer est modifié.
+   * @param geometry une géométrie
+   * @param srid identifiant du système de coordonnées, ignoré s'il n'est pas
+   *          strictement positif
+   * @param buffer buffer de taille suffisante (voir
+   *          {@link #ewkbSize(IGeometry, int)})
+   */
+  public static void writeEwkb(IGeometry geometry, int srid, ByteBuffer buffer) {
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    WkbGeOxygene.write(geometry, WkbGeOxygene.hasZ(geometry), srid, buffer);
+  }
+
+  /**
+   * @return le nombre d'octets de la géométrie codée en EWKB avec ce SRID
+   */
+  public static int ewkbSize(IGeometry geometry, int srid) {
+    return WkbGeOxygene.size(geometry, WkbGeOxygene.hasZ(geometry))
+        + (srid > 0 ? 4 : 0);
+  }
+
+  /** Même critère que {@link IGeometry#coordinateDimension()}. */
+  private static boolean hasZ(IGeometry geometry) {
+    IDirectPosition first = WkbGeOxygene.firstPosition(geometry);
+    return first != null && !Double.isNaN(first.getZ());
+  }
+
+  private static IDirectPosition firstPosition(IGeometry geometry) {
+    if (geometry instanceof IPoint) {
+      return ((IPoint) geometry).getPosition();
+    }
+    if (geometry instanceof ILineString) {
+      ILineString line = (ILineString) geometry;
+      return line.sizeControlPoint() == 0 ? null : line.getControlPoint(0);
+    }
+    if (geometry instanceof IAggregate<?>) {
+      for (IGeometry element : ((IAggregate<?>) geometry).getList()) {
+        IDirectPosition first = WkbGeOxygene.firstPosition(element);
+        if (first != null) {
+          return first;
+        }
+      }
+      return null;
+    }
+    IDirectPositionList coord = geometry.coord();
+    return (coord == null || coord.isEmpty()) ? null : coord.get(0);
+  }
+
+  /** Taille en octets de la géométrie en WKB, sans SRID. */
+  private static int size(IGeometry geometry, boolean hasZ) {
+    int pointSize = hasZ ? 24 : 16;
+    if (geometry instanceof IPoint) {
+      return 5 + pointSize;
+    }
+    if (geometry instanceof IPolygon) {
+      IPolygon polygon = (IPolygon) geometry;
+      if (polygon.getExterior() == null) {
+        return 9;
+      }
+      int size = 9 + 4 + pointSize
+          * polygon.exteriorLineString().sizeControlPoint();
+      for (int i = 0; i < polygon.sizeInterior(); i++) {
+        size += 4 + pointSize * polygon.interiorLineString(i).sizeControlPoint();
+      }
+      return size;
+    }
+    if (geometry instanceof IAggregate<?>) {
+      int size = 9;
+      for (IGeometry element : ((IAggregate<?>) geometry).getList()) {
+        size += WkbGeOxygene.size(element, hasZ);
+      }
+      return size;
+    }
+    if (!(geometry instanceof ICurve)) {
+      throw WkbGeOxygene.unsupported(geometry);
+    }
+    // lignes et autres courbes : suite de points
+    return 9 + pointSize * WkbGeOxygene.positions(geometry).size();
+  }
+
+  /**
+   * Anneaux, courbes composites, surfaces qui ne sont pas des polygones et
+   * solides n'ont pas d'équivalent WKB.
+   */
+  private static IllegalArgumentException unsupported(IGeometry geometry) {
+    return new IllegalArgumentException("Unsupported geometry type for WKB: " //$NON-NLS-1$
+        + geometry.getClass().getSimpleName());
+  }
+
+  private static IDirectPositionList positions(IGeometry geometry) {
+    if (geometry instanceof ILineString) {
+      return ((ILineString) geometry).getControlPoint();
+    }
+    return geometry.coord();
+  }
+
+  private static void write(IGeometry geometry, boolean hasZ, int srid,
+      ByteBuffer buffer) {
+    int type;
+    if (geometry instanceof IPoint) {
+      type = WkbGeOxygene.WKB_POINT;
+    } else if (geometry instanceof IPolygon) {
+      type = WkbGeOxygene.WKB_POLYGON;
+    } else if (geometry instanceof IMultiPoint) {
+      type = WkbGeOxygene.WKB_MULTIPOINT;
+    } else if (geometry instanceof IMultiCurve<?>) {
+      type = WkbGeOxygene.WKB_MULTILINESTRING;
+    } else if (geometry instanceof IMultiSurface<?>) {
+      type = WkbGeOxygene.WKB_MULTIPOLYGON;
+    } else if (geometry instanceof IAggregate<?>) {
+      type = WkbGeOxygene.WKB_GEOMETRYCOLLECTION;
+    } else if (geometry instanceof ICurve) {
+      type = WkbGeOxygene.WKB_LINESTRING;
+    } else {
+      throw WkbGeOxygene.unsupported(geometry);
+    }
+    buffer.put((byte) 1);
+    int typeCode = type;
+    if (hasZ) {
+      typeCode |= WkbGeOxygene.EWKB_Z;
+    }
+    if (srid > 0) {
+      buffer.putInt(typeCode | WkbGeOxygene.EWKB_SRID);
+      buffer.putInt(srid);
+    } else {
+      buffer.putInt(typeCode);
+    }
+    switch (type) {
+      case WKB_POINT:
+        WkbGeOxygene.writePosition(((IPoint) geometry).getPosition(), hasZ,
+            buffer);
+        break;
+      case WKB_POLYGON: {
+        IPolygon polygon = (IPolygon) geometry;
+        if (polygon.getExterior() == null) {
+          buffer.putInt(0);
+          break;
+        }
+        buffer.putInt(1 + polygon.sizeInterior());
+        WkbGeOxygene.writePositions(polygon.exteriorLineString()
+            .getControlPoint(), hasZ, buffer);
+        for (int i = 0; i < polygon.sizeInterior(); i++) {
+          WkbGeOxygene.writePositions(polygon.interiorLineString(i)
+              .getControlPoint(), hasZ, buffer);
+        }
+        break;
+      }
+      case WKB_LINESTRING:
+        WkbGeOxygene.writePositions(WkbGeOxygene.positions(geometry), hasZ,
+            buffer);
+        break;
+      default: {
+        IAggregate<?> aggregate = (IAggregate<?>) geometry;
+        buffer.putInt(aggregate.size());
+        for (IGeometry element : aggregate.getList()) {
+          WkbGeOxygene.write(element, hasZ, -1, buffer);
+        }
+      }
+    }
+  }
+
+  private static void writePositions(IDirectPositionList points, boolean hasZ,
+      ByteBuffer buffer) {
+    buffer.putInt(points.size());
+    for (int i = 0; i < points.size(); i++) {
+      WkbGeOxygene.writePosition(points.get(i), hasZ, buffer);
+    }
+  }
+
+  private static void writePosition(IDirectPosition position, boolean hasZ,
+      ByteBuffer buffer) {
+    buffer.putDouble(position.getX());
+    buffer.putDouble(position.getY());
+    if (hasZ) {
+      buffer.putDouble(position.getZ());
+    }
+  }
+
+  /*-----------------------------------------------------*/
+  /*- Hexadécimal ---------------------------------------*/
+  /*-----------------------------------------------------*/
+
+  /**
+   * @return les octets en hexadécimal (majuscules), tel qu'attendu par PostGIS
+   */
+  public static String toHex(byte[] bytes) {
+    char[] chars = new char[2 * bytes.length];
+    for (int i = 0; i < bytes.length; i++) {
+      chars[2 * i] = WkbGeOxygene.HEX[(bytes[i] >> 4) & 0xF];
+      chars[2 * i + 1] = WkbGeOxygene.HEX[bytes[i] & 0xF];
+    }
+    return new String(chars);
+  }
+
+  /**
+   * @return les octets codés par la chaîne hexadécimale
+   * @throws ParseException si la chaîne n'est pas un nombre pair de chiffres
+   *           hexadécimaux
+   */
+  public static byte[] fromHex(String hex) throws ParseException {
+    if (hex.length() % 2 != 0) {
+      throw new ParseException("Odd length hexadecimal string"); //$NON-NLS-1$
+    }
+    byte[] bytes = new byte[hex.length() / 2];
+    for (int i = 0; i < bytes.length; i++) {
+      int high = Character.digit(hex.charAt(2 * i), 16);
+      int low = Character.digit(hex.charAt(2 * i + 1), 16);
+      if (high < 0 || low < 0) {
+        throw new ParseException("Invalid hexadecimal character at " + 2 * i); //$NON-NLS-1$
+      }
+      bytes[i] = (byte) ((high << 4) | low);
+    }
+    return bytes;
+  }
+
+}
@@ -3,12 +3,18 @@
  */
 package fr.ign.cogit.geoxygene.contrib.geometrie;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
 import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
 import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
 import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
 
 /**
@@ -41,4 +47,60 @@ public class DistancesTest {
     ecart = Distances.ecartSurface(l5, l4);
     Assert.assertEquals(25, ecart, 0.001);
   }
+
+  private static ILineString randomLine(Random random, int size) {
+    IDirectPositionList points = new DirectPositionList();
+    double x = 0, y = 0;
+    for (int i = 0; i < size; i++) {
+      points.add(new DirectPosition(x, y));
+      x += random.nextDouble() * 10;
+      y += (random.nextDouble() - 0.5) * 10;
+    }
+    return new GM_LineString(points);
+  }
+
+  /** Première composante de Hausdorff par parcours exhaustif des segments. */
+  private static double bruteForce(ILineString l1, ILineString l2) {
+    double result = 0;
+    for (IDirectPosition p : l1.coord()) {
+      result = Math.max(result, Distances.distance(p, l2.coord()));
+    }
+    return result;
+  }
+
+  /**
+   * Test method for {@link fr.ign.cogit.geoxygene.contrib.geometrie.Distances#hausdorff(ILineString, ILineString)}.
+   */
+  @Test
+  public void testHausdorff() {
+    ILineString l1 = new GM_LineString(new DirectPosition(0,0), new DirectPosition(10,0));
+    ILineString l2 = new GM_LineString(new DirectPosition(0,1), new DirectPosition(5,3), new DirectPosition(10,1));
+    Assert.assertEquals(3, Distances.hausdorff(l1, l2), 0.001);
+    Assert.assertEquals(1, Distances.premiereComposanteHausdorff(l1, l2), 0.001);
+    Assert.assertEquals(3, Distances.premiereComposanteHausdorff(l2, l1), 0.001);
+    // la projection de Operateurs arrondit légèrement les coordonnées
+    double tolerance = 1e-5;
+    Random random = new Random(42);
+    for (int i = 0; i < 20; i++) {
+      ILineString p = randomLine(random, 1 + random.nextInt(200));
+      ILineString q = randomLine(random, 1 + random.nextInt(200));
+      double expected = Math.max(bruteForce(p, q), bruteForce(q, p));
+      Assert.assertEquals(expected, Distances.hausdorff(p, q), tolerance);
+      Assert.assertEquals(bruteForce(p, q), Distances.premiereComposanteHausdorff(p, q), tolerance);
+      double[] batch = Distances.hausdorff(p, Arrays.asList(q, p));
+      Assert.assertEquals(expected, batch[0], tolerance);
+      Assert.assertEquals(0, batch[1], tolerance);
+    }
+  }
+
+  /**
+   * Test method for {@link fr.ign.cogit.geoxygene.contrib.geometrie.Distances#premiereComposanteHausdorff(ILineString, ILineString, double)}.
+   */
+  @Test
+  public void testPremiereComposanteHausdorffBornee() {
+    ILineString l1 = new GM_LineString(new DirectPosition(0,0), new DirectPosition(10,0));
+    ILineString l2 = new GM_LineString(new DirectPosition(0,1), new DirectPosition(5,3), new DirectPosition(10,1));
+    Assert.assertEquals(3, Distances.premiereComposanteHausdorff(l2, l1, 5), 0.001);
+    Assert.assertTrue(Distances.premiereComposanteHausdorff(l2, l1, 2) > 2);
+  }
 }
@@ -3,11 +3,16 @@
  */
 package fr.ign.cogit.geoxygene.distance;
 
+import java.util.Random;
+
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
 import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
 import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
 import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
 
 /**
@@ -61,4 +66,58 @@ public class FrechetTest {
 
   }
 
+  private static ILineString randomLine(Random random, int size) {
+    IDirectPositionList points = new DirectPositionList();
+    for (int i = 0; i < size; i++) {
+      points.add(new DirectPosition(i + random.nextDouble(), random.nextDouble() * 10));
+    }
+    return new GM_LineString(points);
+  }
+
+  /** Discrete Fréchet distance computed with the full p*q table. */
+  private static double fullTable(ILineString p, ILineString q) {
+    int n = p.sizeControlPoint(), m = q.sizeControlPoint();
+    double[][] ca = new double[n][m];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < m; j++) {
+        double d = p.getControlPoint(i).distance(q.getControlPoint(j));
+        if (i == 0 && j == 0) {
+          ca[i][j] = d;
+        } else if (i == 0) {
+          ca[i][j] = Math.max(ca[i][j - 1], d);
+        } else if (j == 0) {
+          ca[i][j] = Math.max(ca[i - 1][j], d);
+        } else {
+          ca[i][j] = Math.max(Math.min(ca[i - 1][j], Math.min(ca[i - 1][j - 1], ca[i][j - 1])), d);
+        }
+      }
+    }
+    return ca[n - 1][m - 1];
+  }
+
+  /**
+   * Test method for {@link fr.ign.cogit.geoxygene.distance.Frechet#discreteFrechet(ILineString, ILineString)}
+   * and {@link fr.ign.cogit.geoxygene.distance.Frechet#isDiscreteFrechetWithin(ILineString, ILineString, double)}.
+   */
+  @Test
+  public void testDiscreteFrechetIterative() {
+    Random random = new Random(42);
+    for (int k = 0; k < 20; k++) {
+      ILineString p = randomLine(random, 1 + random.nextInt(50));
+      ILineString q = randomLine(random, 1 + random.nextInt(50));
+      double expected = fullTable(p, q);
+      double d = Frechet.discreteFrechet(p, q);
+      Assert.assertEquals(expected, d, 1e-9);
+      Assert.assertEquals(expected, Frechet.discreteFrechet(q, p), 1e-9);
+      Assert.assertTrue(Frechet.isDiscreteFrechetWithin(p, q, d));
+      Assert.assertTrue(Frechet.isDiscreteFrechetWithin(p, q, d + 1));
+      Assert.assertFalse(Frechet.isDiscreteFrechetWithin(p, q, d - 1e-6));
+    }
+    // long lines used to overflow the stack with the recursive version
+    ILineString p = randomLine(random, 20000);
+    ILineString q = randomLine(random, 5000);
+    double d = Frechet.discreteFrechet(p, q);
+    Assert.assertTrue(Frechet.isDiscreteFrechetWithin(p, q, d));
+  }
+
 }
@@ -0,0 +1,123 @@
+package fr.ign.cogit.geoxygene.generalisation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPosition;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.ILineString;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Ring;
+
+public class FilteringTest {
+
+  @Test
+  public void testDouglasPeuckerList() {
+    IDirectPositionList points = new DirectPositionList();
+    points.add(new DirectPosition(0, 0));
+    points.add(new DirectPosition(1, 0.1));
+    points.add(new DirectPosition(2, -0.1));
+    points.add(new DirectPosition(3, 5));
+    points.add(new DirectPosition(3, 5));
+    points.add(new DirectPosition(4, 6));
+    points.add(new DirectPosition(5, 0));
+    IDirectPositionList result = Filtering.DouglasPeuckerList(points, 1.0);
+    Assert.assertEquals(4, result.size());
+    Assert.assertSame(points.get(0), result.get(0));
+    Assert.assertSame(points.get(2), result.get(1));
+    Assert.assertSame(points.get(5), result.get(2));
+    Assert.assertSame(points.get(6), result.get(3));
+  }
+
+  /**
+   * Deux polygones de part et d'autre d'une limite sinueuse : la limite
+   * filtrée doit rester commune.
+   */
+  @Test
+  public void testLimiteCommune() {
+    Random random = new Random(42);
+    List<IDirectPosition> limite = new ArrayList<IDirectPosition>();
+    for (int i = 0; i <= 100; i++) {
+      limite.add(new DirectPosition(5 + random.nextDouble() - 0.5, i / 10.0));
+    }
+    IDirectPositionList gauche = new DirectPositionList();
+    gauche.add(new DirectPosition(0, 0));
+    for (IDirectPosition p : limite) {
+      gauche.add(new DirectPosition(p.getX(), p.getY()));
+    }
+    gauche.add(new DirectPosition(0, 10));
+    gauche.add(new DirectPosition(0, 0));
+    IDirectPositionList droite = new DirectPositionList();
+    droite.add(new DirectPosition(10, 0));
+    droite.add(new DirectPosition(10, 10));
+    for (int i = limite.size() - 1; i >= 0; i--) {
+      droite.add(new DirectPosition(limite.get(i).getX(), limite.get(i).getY()));
+    }
+    droite.add(new DirectPosition(10, 0));
+    IPolygon polyGauche = new GM_Polygon(new GM_LineString(gauche));
+    IPolygon polyDroite = new GM_Polygon(new GM_LineString(droite));
+
+    List<IGeometry> result = Filtering.DouglasPeuckerTopologique(
+        Arrays.asList(polyGauche, polyDroite), 0.8, 2);
+    IPolygon filtreGauche = (IPolygon) result.get(0);
+    IPolygon filtreDroite = (IPolygon) result.get(1);
+    Assert.assertTrue(filtreGauche.coord().size() < gauche.size());
+    Assert.assertTrue(filtreGauche.isValid());
+    Assert.assertTrue(filtreDroite.isValid());
+    // ni trou ni recouvrement entre les deux polygones
+    Assert.assertEquals(100.0, filtreGauche.area() + filtreDroite.area(), 1e-9);
+    Assert.assertEquals(0.0, filtreGauche.intersection(filtreDroite).area(),
+        1e-9);
+  }
+
+  /**
+   * Un trou proche d'un contour sinueux ne doit pas se retrouver hors du
+   * polygone, ni une ligne proche le traverser.
+   */
+  @Test
+  public void testIntersections() {
+    IDirectPositionList exterieur = new DirectPositionList();
+    exterieur.add(new DirectPosition(0, 0));
+    exterieur.add(new DirectPosition(10, 0));
+    exterieur.add(new DirectPosition(10, 10));
+    exterieur.add(new DirectPosition(7, 10));
+    exterieur.add(new DirectPosition(5, 10.5));
+    exterieur.add(new DirectPosition(3, 10));
+    exterieur.add(new DirectPosition(0, 10));
+    exterieur.add(new DirectPosition(0, 0));
+    IDirectPositionList trou = new DirectPositionList();
+    trou.add(new DirectPosition(4.5, 10.1));
+    trou.add(new DirectPosition(5.5, 10.1));
+    trou.add(new DirectPosition(5, 10.3));
+    trou.add(new DirectPosition(4.5, 10.1));
+    IPolygon polygone = new GM_Polygon(new GM_LineString(exterieur));
+    polygone.addInterior(new GM_Ring(new GM_LineString(trou)));
+    ILineString ligne = new GM_LineString(new DirectPosition(-1, 8.5),
+        new DirectPosition(-0.3, 10.3), new DirectPosition(1.5, 11));
+    Assert.assertTrue(polygone.isValid());
+    Assert.assertFalse(ligne.intersects(polygone));
+
+    // filtrées une à une, le trou disparaît et la ligne coupe le polygone
+    Assert.assertEquals(0,
+        ((IPolygon) Filtering.DouglasPeucker(polygone, 1.0)).sizeInterior());
+    Assert.assertTrue(Filtering.DouglasPeucker(ligne, 1.0).intersects(
+        polygone));
+
+    List<IGeometry> result = Filtering.DouglasPeuckerTopologique(
+        Arrays.asList(polygone, ligne), 1.0, 1);
+    IPolygon filtre = (IPolygon) result.get(0);
+    Assert.assertEquals(1, filtre.sizeInterior());
+    Assert.assertTrue(filtre.isValid());
+    Assert.assertFalse(result.get(1).intersects(filtre));
+  }
+}
@@ -0,0 +1,110 @@
+package fr.ign.cogit.geoxygene.generalisation.simplification;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IDirectPositionList;
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Ring;
+
+public class SimplificationAlgorithmTest {
+
+  private static GM_Ring anneau(double... xy) {
+    IDirectPositionList points = new DirectPositionList();
+    for (int i = 0; i < xy.length; i += 2) {
+      points.add(new DirectPosition(xy[i], xy[i + 1]));
+    }
+    points.add(new DirectPosition(xy[0], xy[1]));
+    return new GM_Ring(new GM_LineString(points));
+  }
+
+  /**
+   * Un decrochement de 0.5 sur le bord d'un rectangle disparait.
+   */
+  @Test
+  public void testDecrochement() {
+    IPolygon poly = new GM_Polygon(SimplificationAlgorithmTest.anneau(0, 0, 5,
+        0, 5, 0.5, 10, 0.5, 10, 10, 0, 10));
+    IPolygon result = (IPolygon) SimplificationAlgorithm.simplification(poly,
+        1.0);
+    Assert.assertTrue(result.isValid());
+    Assert.assertEquals(5, result.coord().size());
+    Assert.assertEquals(poly.area(), result.area(), 2.5);
+  }
+
+  /**
+   * Les cotes courts du trou sont supprimes, ceux de l'exterieur sont gardes.
+   */
+  @Test
+  public void testTrou() {
+    IPolygon poly = new GM_Polygon(SimplificationAlgorithmTest.anneau(0, 0, 20,
+        0, 20, 20, 0, 20));
+    poly.addInterior(SimplificationAlgorithmTest.anneau(5, 5, 5, 15, 10, 15,
+        10, 14.6, 15, 14.6, 15, 5));
+    IPolygon result = (IPolygon) SimplificationAlgorithm.simplification(poly,
+        1.0);
+    Assert.assertTrue(result.isValid());
+    Assert.assertEquals(5, result.exteriorCoord().size());
+    Assert.assertEquals(1, result.sizeInterior());
+    Assert.assertEquals(5, result.interiorCoord(0).size());
+    Assert.assertEquals(poly.area(), result.area(), 2.5);
+  }
+
+  /**
+   * Decrochement d'un cote et petit debordement en coin : l'ancienne
+   * simplification, qui retentait tous les cotes apres chaque suppression,
+   * laissait un cote oblique et gardait 10 sommets.
+   */
+  @Test
+  public void testDebordementEnCoin() {
+    IPolygon poly = new GM_Polygon(SimplificationAlgorithmTest.anneau(0, 0, 4,
+        0, 4, 1.5, 6, 1.5, 6, 0, 11, 0, 11, 10, 0, 10, 0, 6, -1.5, 6, -1.5,
+        1.25, 0, 1.25));
+    IPolygon result = (IPolygon) SimplificationAlgorithm.simplification(poly,
+        1.5);
+    Assert.assertTrue(result.isValid());
+    Assert.assertEquals(7, result.coord().size());
+    Assert.assertEquals(112.359375, result.area(), 0);
+    SimplificationAlgorithmTest.assertCotesOrthogonaux(result);
+  }
+
+  /**
+   * Trois petits decrochements sur un meme cote : l'ancienne simplification
+   * reduisait le polygone a un triangle d'aire 27.9 ; il reste ici un
+   * rectangle.
+   */
+  @Test
+  public void testDecrochementsSuccessifs() {
+    IPolygon poly = new GM_Polygon(SimplificationAlgorithmTest.anneau(0, 0,
+        4.5, 0, 4.5, 0.25, 6.25, 0.25, 6.25, 0, 11.5, 0, 11.5, 0.75, 11.75,
+        0.75, 11.75, 0, 11.75, -0.75, 13.75, -0.75, 13.75, 0, 15, 0, 15, 16, 0,
+        16));
+    IPolygon result = (IPolygon) SimplificationAlgorithm.simplification(poly,
+        1.5);
+    Assert.assertTrue(result.isValid());
+    Assert.assertEquals(5, result.coord().size());
+    Assert.assertEquals(242.34375, result.area(), 0);
+    SimplificationAlgorithmTest.assertCotesOrthogonaux(result);
+  }
+
+  private static void assertCotesOrthogonaux(IPolygon poly) {
+    IDirectPositionList points = poly.exteriorCoord();
+    for (int i = 0; i + 1 < points.size(); i++) {
+      Assert.assertTrue(points.get(i).getX() == points.get(i + 1).getX()
+          || points.get(i).getY() == points.get(i + 1).getY());
+    }
+  }
+
+  @Test
+  public void testSeuilNul() {
+    IPolygon poly = new GM_Polygon(SimplificationAlgorithmTest.anneau(0, 0, 5,
+        0, 5, 0.5, 10, 0.5, 10, 10, 0, 10));
+    IPolygon result = (IPolygon) SimplificationAlgorithm.simplification(poly,
+        0);
+    Assert.assertEquals(7, result.coord().size());
+  }
+}
@@ -0,0 +1,133 @@
+package fr.ign.cogit.geoxygene.util.conversion;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import fr.ign.cogit.geoxygene.api.spatial.coordgeom.IPolygon;
+import fr.ign.cogit.geoxygene.api.spatial.geomaggr.IMultiCurve;
+import fr.ign.cogit.geoxygene.api.spatial.geomprim.IPoint;
+import fr.ign.cogit.geoxygene.api.spatial.geomroot.IGeometry;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPosition;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.DirectPositionList;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_LineString;
+import fr.ign.cogit.geoxygene.spatial.coordgeom.GM_Polygon;
+import fr.ign.cogit.geoxygene.spatial.geomaggr.GM_Aggregate;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Point;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Ring;
+import fr.ign.cogit.geoxygene.spatial.geomprim.GM_Surface;
+
+public class WkbGeOxygeneTest {
+
+  private static final String[] WKT = {
+      "POINT (1.5 -2.25)", //$NON-NLS-1$
+      "POINT (1.0 2.0 3.0)", //$NON-NLS-1$
+      "LINESTRING (0.0 0.0, 10.0 0.0, 10.0 5.5)", //$NON-NLS-1$
+      "POLYGON ((0.0 0.0, 10.0 0.0, 10.0 10.0, 0.0 10.0, 0.0 0.0), (2.0 2.0, 2.0 4.0, 4.0 4.0, 2.0 2.0))", //$NON-NLS-1$
+      "MULTIPOINT (1.0 1.0, 2.0 2.0)", //$NON-NLS-1$
+      "MULTILINESTRING ((0.0 0.0 1.0, 1.0 1.0 2.0), (2.0 2.0 3.0, 3.0 3.0 4.0))", //$NON-NLS-1$
+      "MULTIPOLYGON (((0.0 0.0, 1.0 0.0, 1.0 1.0, 0.0 0.0)), ((5.0 5.0, 6.0 5.0, 6.0 6.0, 5.0 5.0)))", //$NON-NLS-1$
+      "GEOMETRYCOLLECTION (POINT (1.0 1.0), LINESTRING (0.0 0.0, 1.0 1.0))" }; //$NON-NLS-1$
+
+  @Test
+  public void testRoundTrip() throws ParseException {
+    for (String wkt : WkbGeOxygeneTest.WKT) {
+      IGeometry expected = WktGeOxygene.makeGeOxygene(wkt);
+      IGeometry actual = WkbGeOxygene.makeGeOxygene(WkbGeOxygene
+          .makeWkb(expected));
+      Assert.assertEquals(expected.getClass(), actual.getClass());
+      Assert.assertEquals(WktGeOxygene.makeWkt(expected),
+          WktGeOxygene.makeWkt(actual));
+    }
+  }
+
+  @Test
+  public void testEwkbSrid() throws ParseException {
+    IGeometry line = WktGeOxygene.makeGeOxygene(WkbGeOxygeneTest.WKT[2]);
+    byte[] ewkb = WkbGeOxygene.makeEwkb(line, 2154);
+    Assert.assertEquals(WkbGeOxygene.ewkbSize(line, 2154), ewkb.length);
+    Assert.assertEquals(WkbGeOxygene.makeWkb(line).length + 4, ewkb.length);
+    IGeometry actual = WkbGeOxygene.makeGeOxygeneFromHex(WkbGeOxygene
+        .toHex(ewkb));
+    Assert.assertEquals(2154, actual.getCRS());
+    Assert.assertEquals(WktGeOxygene.makeWkt(line), WktGeOxygene
+        .makeWkt(actual));
+  }
+
+  @Test
+  public void testBigEndianAndIso() throws ParseException {
+    // POINT(1 2) en XDR
+    IGeometry point = WkbGeOxygene
+        .makeGeOxygeneFromHex("00000000013FF00000000000004000000000000000"); //$NON-NLS-1$
+    Assert.assertEquals(1.0, ((IPoint) point).getPosition().getX(), 0);
+    Assert.assertEquals(2.0, ((IPoint) point).getPosition().getY(), 0);
+    // POINT ZM (1 2 3 4) avec le code ISO 3001
+    point = WkbGeOxygene
+        .makeGeOxygeneFromHex("01B90B0000000000000000F03F000000000000004000000000000008400000000000001040"); //$NON-NLS-1$
+    Assert.assertEquals(3.0, ((IPoint) point).getPosition().getZ(), 0);
+  }
+
+  @Test
+  public void testPolygonWithHole() throws ParseException {
+    IGeometry polygon = WkbGeOxygene.makeGeOxygene(WkbGeOxygene
+        .makeWkb(WktGeOxygene.makeGeOxygene(WkbGeOxygeneTest.WKT[3])));
+    Assert.assertEquals(1, ((IPolygon) polygon).sizeInterior());
+    Assert.assertEquals(98.0, polygon.area(), 1e-9);
+  }
+
+  @Test
+  public void testInvalid() {
+    try {
+      WkbGeOxygene.makeGeOxygeneFromHex("0101000000000000"); //$NON-NLS-1$
+      Assert.fail();
+    } catch (ParseException e) {
+      // géométrie tronquée
+    }
+    try {
+      WkbGeOxygene.makeGeOxygeneFromHex("0109000000"); //$NON-NLS-1$
+      Assert.fail();
+    } catch (ParseException e) {
+      // type inconnu
+    }
+  }
+
+  @Test
+  public void testUnsupported() {
+    DirectPositionList points = new DirectPositionList();
+    points.add(new DirectPosition(0, 0));
+    points.add(new DirectPosition(10, 0));
+    points.add(new DirectPosition(10, 10));
+    points.add(new DirectPosition(0, 0));
+    GM_Ring ring = new GM_Ring(new GM_LineString(points));
+    try {
+      WkbGeOxygene.makeWkb(ring);
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      // anneau
+    }
+    try {
+      WkbGeOxygene.makeWkb(new GM_Surface(new GM_Polygon(ring)));
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      // surface qui n'est pas un polygone
+    }
+    GM_Aggregate<IGeometry> aggregate = new GM_Aggregate<IGeometry>();
+    aggregate.add(new GM_Point(new DirectPosition(0, 0)));
+    aggregate.add(ring);
+    try {
+      WkbGeOxygene.makeEwkb(aggregate, 2154);
+      Assert.fail();
+    } catch (IllegalArgumentException e) {
+      // élément d'une collection
+    }
+  }
+
+  @Test
+  public void testMultiCurve3D() throws ParseException {
+    IGeometry expected = WktGeOxygene.makeGeOxygene(WkbGeOxygeneTest.WKT[5]);
+    IMultiCurve<?> actual = (IMultiCurve<?>) WkbGeOxygene
+        .makeGeOxygene(WkbGeOxygene.makeWkb(expected));
+    Assert.assertEquals(2, actual.size());
+    Assert.assertEquals(4.0, actual.get(1).coord().get(1).getZ(), 0);
+  }
+}
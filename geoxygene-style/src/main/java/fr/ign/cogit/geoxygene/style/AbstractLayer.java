@@ -20,9 +20,12 @@
 package fr.ign.cogit.geoxygene.style;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.swing.ImageIcon;
@@ -35,6 +38,12 @@ import javax.xml.bind.annotation.XmlTransient;
 import org.geotools.referencing.CRS;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
+import fr.ign.cogit.geoxygene.api.feature.IFeature;
+import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
+import fr.ign.cogit.geoxygene.api.feature.event.FeatureCollectionEvent;
+import fr.ign.cogit.geoxygene.api.feature.event.FeatureCollectionListener;
+import fr.ign.cogit.geoxygene.filter.AttributeIndex;
+
 import fr.ign.cogit.geoxygene.style.filter.LayerFilter;
 import fr.ign.cogit.geoxygene.style.filter.LayerFilterContrast;
 import fr.ign.cogit.geoxygene.style.filter.LayerFilterIdentity;
@@ -258,4 +267,65 @@ public abstract class AbstractLayer implements Layer {
     public LayerFilter getFilter(){
         return this.filter;
     }
+
+    /** Index des attributs, valables pour la collection indexedCollection. */
+    @XmlTransient
+    private final Map<String, AttributeIndex> attributeIndexes = new HashMap<String, AttributeIndex>(
+            0);
+
+    @XmlTransient
+    private IFeatureCollection<? extends IFeature> indexedCollection = null;
+
+    @XmlTransient
+    private int indexedSize = -1;
+
+    /** Vide les index quand indexedCollection change. */
+    @XmlTransient
+    private final FeatureCollectionListener indexListener = new FeatureCollectionListener() {
+        @Override
+        public void changed(FeatureCollectionEvent event) {
+            AbstractLayer.this.clearAttributeIndexes();
+        }
+    };
+
+    @Override
+    public AttributeIndex getAttributeIndex(String propertyName) {
+        IFeatureCollection<? extends IFeature> collection = this
+                .getFeatureCollection();
+        if (collection == null) {
+            return null;
+        }
+        synchronized (this.attributeIndexes) {
+            if (collection != this.indexedCollection) {
+                this.attributeIndexes.clear();
+                if (this.indexedCollection != null) {
+                    this.indexedCollection
+                            .removeFeatureCollectionListener(this.indexListener);
+                }
+                this.indexedCollection = collection;
+                collection.addFeatureCollectionListener(this.indexListener);
+            } else if (collection.size() != this.indexedSize) {
+                this.attributeIndexes.clear();
+            }
+            AttributeIndex index = this.attributeIndexes.get(propertyName);
+            if (index == null) {
+                IFeature[] features;
+                synchronized (collection) {
+                    features = collection.toArray(new IFeature[0]);
+                }
+                index = new AttributeIndex(Arrays.asList(features),
+                        propertyName);
+                this.attributeIndexes.put(propertyName, index);
+                this.indexedSize = features.length;
+            }
+            return index;
+        }
+    }
+
+    @Override
+    public void clearAttributeIndexes() {
+        synchronized (this.attributeIndexes) {
+            this.attributeIndexes.clear();
+        }
+    }
 }
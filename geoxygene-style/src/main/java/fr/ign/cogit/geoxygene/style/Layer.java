@@ -29,6 +29,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
 import fr.ign.cogit.geoxygene.api.feature.IFeature;
 import fr.ign.cogit.geoxygene.api.feature.IFeatureCollection;
+import fr.ign.cogit.geoxygene.filter.AttributeIndex;
 
 /**
  * The Layer class.
@@ -78,6 +79,22 @@ public interface Layer {
    */
   public IFeatureCollection<? extends IFeature> getFeatureCollection();
 
+  /**
+   * Renvoie l'index des valeurs d'un attribut sur les features de la couche,
+   * construit à la première demande et reconstruit quand la collection
+   * change.
+   * 
+   * @param propertyName nom de l'attribut
+   * @return l'index, ou null si la couche n'a pas de features
+   */
+  public AttributeIndex getAttributeIndex(String propertyName);
+
+  /**
+   * Supprime les index d'attributs de la couche, à appeler après une
+   * modification des valeurs d'attributs de ses features.
+   */
+  public void clearAttributeIndexes();
+
   /**
    * @return <code>true</code> if the layer is visible in the LayerViewPanel by
    *         the user; <code>false</code> otherwise.
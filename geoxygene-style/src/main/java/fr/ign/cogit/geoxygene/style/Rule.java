@@ -28,9 +28,11 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlElements;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
 
 import fr.ign.cogit.geoxygene.filter.And;
+import fr.ign.cogit.geoxygene.filter.CompiledFilter;
 import fr.ign.cogit.geoxygene.filter.ElseFilter;
 import fr.ign.cogit.geoxygene.filter.ElseFilterImpl;
 import fr.ign.cogit.geoxygene.filter.Filter;
@@ -140,6 +142,27 @@ public class Rule {
         return (this.filter == null) ? null : this.filter[0];
     }
 
+    @XmlTransient
+    private CompiledFilter compiledFilter = null;
+
+    /**
+     * Renvoie le filtre de la règle compilé une seule fois pour être évalué
+     * sur toutes les features d'une couche. Le filtre est recompilé lorsqu'il
+     * est remplacé ; s'il est modifié sur place, il faut le réaffecter par
+     * {@link #setFilter(Filter)}.
+     * 
+     * @return le filtre compilé, ou null si la règle n'a pas de filtre
+     */
+    public CompiledFilter getCompiledFilter() {
+        Filter source = this.getFilter();
+        CompiledFilter compiled = this.compiledFilter;
+        if (compiled == null || compiled.getSource() != source) {
+            compiled = CompiledFilter.compile(source);
+            this.compiledFilter = compiled;
+        }
+        return compiled;
+    }
+
     /**
      * Affecte la valeur de l'attribut filter.
      * 
@@ -151,6 +174,7 @@ public class Rule {
             this.filter = new Filter[1];
         }
         this.filter[0] = filter;
+        this.compiledFilter = null;
     }
 
     @XmlElement(name = "ElseFilter", type = ElseFilterImpl.class)
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * This file is part of the GeOxygene project source files.
+ * 
+ * GeOxygene aims at providing an open framework which implements OGC/ISO
+ * specifications for the development and deployment of geographic (GIS)
+ * applications. It is a open source contribution of the COGIT laboratory at the
+ * Institut Géographique National (the French National Mapping Agency).
+ * 
+ * See: http://oxygene-project.sourceforge.net
+ * 
+ * Copyright (C) 2005 Institut Géographique National
+ * 
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library (see file LICENSE if present); if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ *******************************************************************************/
+
+package fr.ign.cogit.geoxygene.util.math;
+
+/**
+ * Utility class deriving the seeds of independent random generators, such as
+ * one generator per task of a concurrent run, from a single seed. A derived
+ * seed only depends on the single seed and on the rank of the task, so that
+ * results do not depend on the number of threads nor on their scheduling.
+ * 
+ * @author GeOxygene
+ */
+public final class SeedUtil {
+
+    /**
+     * Golden ratio increment : close ranks give distant seeds
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * private constructor for utility class
+     */
+    private SeedUtil() {
+        // utility class
+    }
+
+    /**
+     * @param seed the seed of the whole run
+     * @param rank the rank of the task
+     * @return the seed of the generator of the task
+     */
+    public static long derive(long seed, int rank) {
+        return seed + GOLDEN_GAMMA * (rank + 1);
+    }
+}
@@ -154,30 +154,96 @@ final public class ApproximateMatcher {
     if (s2Length == 0) {
       return s1Length;
     }
-    int d[][] = new int[s1Length + 1][s2Length + 1];
-    // Step 2: initialize first row and column
-    for (int indexS1 = 0; indexS1 <= s1Length; indexS1++) {
-      d[indexS1][0] = indexS1;
-    }
+    // Step 2: only the previous row of the matrix is needed
+    int previous[] = new int[s2Length + 1];
+    int current[] = new int[s2Length + 1];
     for (int indexS2 = 0; indexS2 <= s2Length; indexS2++) {
-      d[0][indexS2] = indexS2;
+      previous[indexS2] = indexS2;
     }
     // Step 3: examine characters from s1
     for (int indexS1 = 1; indexS1 <= s1Length; indexS1++) {
       char charS1 = s1.charAt(indexS1 - 1);
+      current[0] = indexS1;
       // Step 4: examine characters from s2
       for (int indexS2 = 1; indexS2 <= s2Length; indexS2++) {
         char charS2 = s2.charAt(indexS2 - 1);
         // Step 5: cost is 0 is characters are the same, 1 otherwise
         int cost = ApproximateMatcher.diff(charS1, charS2); // cost
         // Step 6: set the cell cost to the min of its neighbours
-        d[indexS1][indexS2] = ApproximateMatcher.min(
-            d[indexS1 - 1][indexS2] + 1, d[indexS1][indexS2 - 1] + 1,
-            d[indexS1 - 1][indexS2 - 1] + cost);
+        current[indexS2] = ApproximateMatcher.min(previous[indexS2] + 1,
+            current[indexS2 - 1] + 1, previous[indexS2 - 1] + cost);
       }
+      int[] swap = previous;
+      previous = current;
+      current = swap;
     }
     // Step 7
-    return d[s1Length][s2Length];
+    return previous[s2Length];
+  }
+
+  /**
+   * Compute the Levenshtein Distance between s1 and s2 if it is not greater
+   * than maxDistance. Only the band of the matrix at most maxDistance cells
+   * away from the diagonal is computed, and the computation stops as soon as
+   * a whole row of the band exceeds maxDistance.
+   * <p>
+   * Distance de Levenshtein bornée : calculée dans une bande autour de la
+   * diagonale, avec arrêt dès que le seuil est dépassé.
+   * @param s1 first string
+   * @param s2 second string
+   * @param maxDistance the greatest distance of interest
+   * @return the Levenshtein Distance between s1 and s2 if it is not greater
+   *         than maxDistance, maxDistance + 1 otherwise
+   */
+  public static int boundedDistance(String s1, String s2, int maxDistance) {
+    if (maxDistance < 0) {
+      return 0;
+    }
+    // s1 is the shortest string
+    if (s1.length() > s2.length()) {
+      String swap = s1;
+      s1 = s2;
+      s2 = swap;
+    }
+    int s1Length = s1.length();
+    int s2Length = s2.length();
+    if (s2Length - s1Length > maxDistance) {
+      return maxDistance + 1;
+    }
+    if (s1Length == 0) {
+      return s2Length;
+    }
+    final int outside = maxDistance + 1;
+    int previous[] = new int[s2Length + 1];
+    int current[] = new int[s2Length + 1];
+    for (int indexS2 = 0; indexS2 <= s2Length; indexS2++) {
+      previous[indexS2] = (indexS2 <= maxDistance) ? indexS2 : outside;
+    }
+    for (int indexS1 = 1; indexS1 <= s1Length; indexS1++) {
+      char charS1 = s1.charAt(indexS1 - 1);
+      int from = Math.max(1, indexS1 - maxDistance);
+      int to = Math.min(s2Length, indexS1 + maxDistance);
+      current[from - 1] = (from == 1 && indexS1 <= maxDistance) ? indexS1 : outside;
+      int minRow = current[from - 1];
+      for (int indexS2 = from; indexS2 <= to; indexS2++) {
+        int cost = ApproximateMatcher.diff(charS1, s2.charAt(indexS2 - 1));
+        int value = ApproximateMatcher.min(previous[indexS2] + 1,
+            current[indexS2 - 1] + 1, previous[indexS2 - 1] + cost);
+        value = Math.min(value, outside);
+        current[indexS2] = value;
+        minRow = Math.min(minRow, value);
+      }
+      if (to < s2Length) {
+        current[to + 1] = outside;
+      }
+      if (minRow > maxDistance) {
+        return outside;
+      }
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[s2Length];
   }
 
   /**
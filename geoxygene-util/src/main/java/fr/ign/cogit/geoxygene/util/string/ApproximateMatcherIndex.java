@@ -0,0 +1,234 @@
+/**
+ * This software is released under the licence CeCILL
+ *
+ * see Licence_CeCILL-C_fr.html see Licence_CeCILL-C_en.html
+ *
+ * see <a href="http://www.cecill.info/">http://www.cecill.info/a>
+ *
+ * @copyright IGN
+ *
+ */
+package fr.ign.cogit.geoxygene.util.string;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of a list of names for approximate matching with the Levenshtein
+ * distance, as a BK-tree.
+ * <p>
+ * Index d'une liste de noms pour l'appariement approché de toponymes. Les noms
+ * sont normalisés par {@link ApproximateMatcher#process(String)} puis rangés
+ * dans un BK-tree : chaque noeud range ses fils selon leur distance à lui, et
+ * l'inégalité triangulaire permet de n'examiner que les fils dont la distance
+ * est à moins du seuil de celle de la requête. Les distances sont calculées
+ * par {@link ApproximateMatcher#boundedDistance(String, String, int)}, qui
+ * s'arrête dès que plus aucun fils ne peut convenir.
+ */
+public class ApproximateMatcherIndex {
+
+  private final ApproximateMatcher matcher;
+  private final int size;
+
+  // Noeuds du BK-tree : nom normalisé, rangs des noms d'origine
+  private final List<String> keys = new ArrayList<String>();
+  private final List<int[]> ids = new ArrayList<int[]>();
+  // Fils de chaque noeud, par distance au noeud
+  private final List<Map<Integer, Integer>> children = new ArrayList<Map<Integer, Integer>>();
+  // Plus grande distance d'un fils au noeud
+  private final List<Integer> maxChildDistance = new ArrayList<Integer>();
+
+  /**
+   * Index a list of names.
+   * @param names the names to index
+   * @param matcher the normalisation of the names
+   */
+  public ApproximateMatcherIndex(List<String> names, ApproximateMatcher matcher) {
+    this.matcher = matcher;
+    this.size = names.size();
+    // noms identiques une fois normalisés : un seul noeud
+    Map<String, List<Integer>> groups = new HashMap<String, List<Integer>>();
+    List<String> order = new ArrayList<String>();
+    for (int i = 0; i < names.size(); i++) {
+      String key = matcher.process(names.get(i));
+      List<Integer> group = groups.get(key);
+      if (group == null) {
+        group = new ArrayList<Integer>(1);
+        groups.put(key, group);
+        order.add(key);
+      }
+      group.add(i);
+    }
+    for (String key : order) {
+      List<Integer> group = groups.get(key);
+      int[] groupIds = new int[group.size()];
+      for (int i = 0; i < groupIds.length; i++) {
+        groupIds[i] = group.get(i);
+      }
+      this.insert(key, groupIds);
+    }
+  }
+
+  /**
+   * Index a list of names, without normalisation.
+   * @param names the names to index
+   */
+  public ApproximateMatcherIndex(List<String> names) {
+    this(names, new ApproximateMatcher());
+  }
+
+  /**
+   * @return the number of indexed names
+   */
+  public int size() {
+    return this.size;
+  }
+
+  private void insert(String key, int[] groupIds) {
+    int node = this.keys.size();
+    this.keys.add(key);
+    this.ids.add(groupIds);
+    this.children.add(null);
+    this.maxChildDistance.add(-1);
+    if (node == 0) {
+      return;
+    }
+    int parent = 0;
+    while (true) {
+      String parentKey = this.keys.get(parent);
+      int d = ApproximateMatcher.boundedDistance(key, parentKey,
+          Math.max(key.length(), parentKey.length()));
+      Map<Integer, Integer> parentChildren = this.children.get(parent);
+      if (parentChildren == null) {
+        parentChildren = new HashMap<Integer, Integer>(4);
+        this.children.set(parent, parentChildren);
+      }
+      Integer child = parentChildren.get(d);
+      if (child == null) {
+        parentChildren.put(d, node);
+        if (d > this.maxChildDistance.get(parent)) {
+          this.maxChildDistance.set(parent, d);
+        }
+        return;
+      }
+      parent = child.intValue();
+    }
+  }
+
+  /**
+   * A name of the index close to a searched name.
+   */
+  public static class Match {
+    private final int id;
+    private final int distance;
+
+    public Match(int id, int distance) {
+      this.id = id;
+      this.distance = distance;
+    }
+
+    /**
+     * @return the rank of the name in the indexed list
+     */
+    public int getId() {
+      return this.id;
+    }
+
+    /**
+     * @return the Levenshtein distance between the normalised names
+     */
+    public int getDistance() {
+      return this.distance;
+    }
+
+    @Override
+    public String toString() {
+      return this.id + " (" + this.distance + ")";
+    }
+  }
+
+  private static final Comparator<Match> BY_DISTANCE = new Comparator<Match>() {
+    @Override
+    public int compare(Match m1, Match m2) {
+      if (m1.distance != m2.distance) {
+        return (m1.distance < m2.distance) ? -1 : 1;
+      }
+      return (m1.id < m2.id) ? -1 : ((m1.id == m2.id) ? 0 : 1);
+    }
+  };
+
+  /**
+   * Search the names of the index close to a name.
+   * @param name the searched name
+   * @param maxDistance the greatest accepted distance
+   * @return the matches, by increasing distance then by rank in the indexed
+   *         list
+   */
+  public List<Match> search(String name, int maxDistance) {
+    List<Match> result = new ArrayList<Match>();
+    if (this.keys.isEmpty() || maxDistance < 0) {
+      return result;
+    }
+    String query = this.matcher.process(name);
+    List<Integer> stack = new ArrayList<Integer>();
+    stack.add(0);
+    while (!stack.isEmpty()) {
+      int node = stack.remove(stack.size() - 1).intValue();
+      String key = this.keys.get(node);
+      // au-delà de cette borne, ni le noeud ni ses fils ne conviennent
+      int bound = Math.max(maxDistance, this.maxChildDistance.get(node) + maxDistance);
+      int d = ApproximateMatcher.boundedDistance(query, key, bound);
+      if (d > bound) {
+        continue;
+      }
+      if (d <= maxDistance) {
+        for (int id : this.ids.get(node)) {
+          result.add(new Match(id, d));
+        }
+      }
+      Map<Integer, Integer> nodeChildren = this.children.get(node);
+      if (nodeChildren != null) {
+        for (Map.Entry<Integer, Integer> entry : nodeChildren.entrySet()) {
+          int childDistance = entry.getKey().intValue();
+          if (childDistance >= d - maxDistance && childDistance <= d + maxDistance) {
+            stack.add(entry.getValue());
+          }
+        }
+      }
+    }
+    Collections.sort(result, BY_DISTANCE);
+    return result;
+  }
+
+  /**
+   * Search the closest name of the index.
+   * @param name the searched name
+   * @param maxDistance the greatest accepted distance
+   * @return the closest match (the first indexed one in case of ties), or null
+   *         if no name is close enough
+   */
+  public Match nearest(String name, int maxDistance) {
+    List<Match> matches = this.search(name, maxDistance);
+    return matches.isEmpty() ? null : matches.get(0);
+  }
+
+  /**
+   * Search the closest name of the index for each name of a list.
+   * @param names the searched names
+   * @param maxDistance the greatest accepted distance
+   * @return for each searched name, the rank of its closest indexed name, or
+   *         -1 if no name is close enough
+   */
+  public int[] nearest(List<String> names, int maxDistance) {
+    int[] result = new int[names.size()];
+    for (int i = 0; i < result.length; i++) {
+      Match match = this.nearest(names.get(i), maxDistance);
+      result[i] = (match == null) ? -1 : match.getId();
+    }
+    return result;
+  }
+}
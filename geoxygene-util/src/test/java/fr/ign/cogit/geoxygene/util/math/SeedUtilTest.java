@@ -0,0 +1,22 @@
+package fr.ign.cogit.geoxygene.util.math;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import junit.framework.Assert;
+
+public class SeedUtilTest {
+
+  @Test
+  public void testDerive() {
+    Assert.assertEquals(SeedUtil.derive(42, 3), SeedUtil.derive(42, 3));
+    Set<Long> seeds = new HashSet<Long>();
+    seeds.add(42L);
+    for (int rank = 0; rank < 1000; rank++) {
+      Assert.assertTrue(seeds.add(SeedUtil.derive(42, rank)));
+    }
+    Assert.assertTrue(SeedUtil.derive(42, 0) != SeedUtil.derive(43, 0));
+  }
+}
@@ -0,0 +1,89 @@
+package fr.ign.cogit.geoxygene.util.string;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+public class ApproximateMatcherIndexTest {
+
+  private static String randomName(Random random) {
+    int length = random.nextInt(9);
+    StringBuilder name = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      name.append("abcde".charAt(random.nextInt(5)));
+    }
+    return name.toString();
+  }
+
+  @Test
+  public void testBoundedDistance() {
+    ApproximateMatcher matcher = new ApproximateMatcher();
+    Random random = new Random(42);
+    for (int i = 0; i < 2000; i++) {
+      String s1 = randomName(random);
+      String s2 = randomName(random);
+      int d = matcher.distance(s1, s2);
+      for (int k = 0; k < 10; k++) {
+        int expected = (d <= k) ? d : k + 1;
+        Assert.assertEquals(s1 + " / " + s2 + " / " + k, expected,
+            ApproximateMatcher.boundedDistance(s1, s2, k));
+      }
+    }
+    Assert.assertEquals(3, matcher.distance("kitten", "sitting"));
+    Assert.assertEquals(3, ApproximateMatcher.boundedDistance("kitten", "sitting", 3));
+    Assert.assertEquals(3, ApproximateMatcher.boundedDistance("kitten", "sitting", 2));
+  }
+
+  @Test
+  public void testSearch() {
+    ApproximateMatcher matcher = new ApproximateMatcher(true, true, true, true);
+    Random random = new Random(7);
+    List<String> names = new ArrayList<String>();
+    for (int i = 0; i < 500; i++) {
+      names.add(randomName(random));
+    }
+    ApproximateMatcherIndex index = new ApproximateMatcherIndex(names, matcher);
+    Assert.assertEquals(500, index.size());
+    for (int i = 0; i < 200; i++) {
+      String query = randomName(random);
+      for (int k = 0; k <= 3; k++) {
+        List<ApproximateMatcherIndex.Match> matches = index.search(query, k);
+        int n = 0;
+        for (int id = 0; id < names.size(); id++) {
+          int d = matcher.distance(matcher.process(query), matcher.process(names.get(id)));
+          if (d <= k) {
+            n++;
+            boolean found = false;
+            for (ApproximateMatcherIndex.Match match : matches) {
+              if (match.getId() == id) {
+                Assert.assertEquals(d, match.getDistance());
+                found = true;
+              }
+            }
+            Assert.assertTrue(query + " / " + names.get(id), found);
+          }
+        }
+        Assert.assertEquals(n, matches.size());
+      }
+    }
+  }
+
+  @Test
+  public void testNearest() {
+    List<String> names = Arrays.asList("Saint-Roch", "Maison Rouge", "La Borde",
+        "la borde", "Pont de Colonne");
+    ApproximateMatcherIndex index = new ApproximateMatcherIndex(names,
+        new ApproximateMatcher(true, true, true, true));
+    int[] nearest = index.nearest(Arrays.asList("maison-rouge", "LABORDE",
+        "pont de colomne", "Saint-Étienne"), 2);
+    Assert.assertEquals(1, nearest[0]);
+    Assert.assertEquals(2, nearest[1]);
+    Assert.assertEquals(4, nearest[2]);
+    Assert.assertEquals(-1, nearest[3]);
+  }
+}